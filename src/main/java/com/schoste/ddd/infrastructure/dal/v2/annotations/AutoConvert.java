@@ -0,0 +1,25 @@
+package com.schoste.ddd.infrastructure.dal.v2.annotations;
+
+import static java.lang.annotation.ElementType.TYPE;
+import static java.lang.annotation.RetentionPolicy.CLASS;
+
+import java.lang.annotation.Retention;
+import java.lang.annotation.Target;
+
+/**
+ * Marks a model whose setter methods are annotated with {@link AutoSet} to be converted from the given source models.
+ * For every source model the annotation processor {@link com.schoste.ddd.infrastructure.dal.v2.annotations.processing.AutoSetProcessor}
+ * generates a converter class named &lt;Model&gt;From&lt;SourceModel&gt;Converter in the package of the annotated model.
+ * The processor only runs if it is enabled in the compiler setup, see {@link com.schoste.ddd.infrastructure.dal.v2.annotations.processing}.
+ */
+@Retention(CLASS)
+@Target(TYPE)
+public @interface AutoConvert
+{
+	/**
+	 * Gets or sets the classes of the models which can be converted into the annotated model
+	 * 
+	 * @return one or more classes
+	 */
+	Class<?>[] value();
+}
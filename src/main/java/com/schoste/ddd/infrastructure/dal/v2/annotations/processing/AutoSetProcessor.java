@@ -0,0 +1,382 @@
+package com.schoste.ddd.infrastructure.dal.v2.annotations.processing;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.RoundEnvironment;
+import javax.annotation.processing.SupportedAnnotationTypes;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.AnnotationMirror;
+import javax.lang.model.element.AnnotationValue;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ExecutableElement;
+import javax.lang.model.element.Modifier;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.type.DeclaredType;
+import javax.lang.model.type.TypeKind;
+import javax.lang.model.type.TypeMirror;
+import javax.lang.model.util.ElementFilter;
+import javax.lang.model.util.Elements;
+import javax.lang.model.util.Types;
+import javax.tools.Diagnostic;
+
+import com.schoste.ddd.infrastructure.dal.v2.annotations.AutoConvert;
+import com.schoste.ddd.infrastructure.dal.v2.annotations.AutoSet;
+
+/**
+ * Annotation processor which generates a converter class for every source model listed by an {@link AutoConvert} annotation.
+ * The generated converters invoke the setters annotated with {@link AutoSet} and the referred getters directly,
+ * so no reflection is needed at runtime. The getters are resolved with the same rules as
+ * {@link com.schoste.ddd.infrastructure.dal.v2.converters.ModelConverter} does at runtime.
+ * References which cannot be resolved are reported as compile errors.
+ * The processor has to be enabled in the compiler setup of the project, see the package documentation.
+ */
+@SupportedAnnotationTypes("com.schoste.ddd.infrastructure.dal.v2.annotations.AutoConvert")
+public class AutoSetProcessor extends AbstractProcessor
+{
+	/**
+	 * Suffix of the names of the generated converter classes
+	 */
+	public static final String CONVERTER_SUFFIX = "Converter";
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public SourceVersion getSupportedSourceVersion()
+	{
+		return SourceVersion.latestSupported();
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment roundEnv)
+	{
+		for (TypeElement targetElement : ElementFilter.typesIn(roundEnv.getElementsAnnotatedWith(AutoConvert.class)))
+		{
+			AnnotationMirror autoConvert = this.getAnnotationMirror(targetElement, AutoConvert.class);
+
+			for (AnnotationValue sourceValue : this.getClassValues(autoConvert, "value"))
+			{
+				TypeMirror sourceType = (TypeMirror) sourceValue.getValue();
+
+				if (sourceType.getKind() != TypeKind.DECLARED)
+				{
+					this.error(String.format("%s is not a class", sourceType), targetElement, autoConvert, sourceValue);
+
+					continue;
+				}
+
+				this.generateConverter(targetElement, (TypeElement) ((DeclaredType) sourceType).asElement());
+			}
+		}
+
+		return false;
+	}
+
+	/**
+	 * Generates the converter of a pair of source and target model unless an {@link AutoSet} annotation cannot be resolved
+	 *
+	 * @param targetElement the model annotated with {@link AutoConvert}
+	 * @param sourceElement a model listed by the {@link AutoConvert} annotation
+	 */
+	protected void generateConverter(TypeElement targetElement, TypeElement sourceElement)
+	{
+		Elements elements = this.processingEnv.getElementUtils();
+		List<String> statements = new ArrayList<>();
+		boolean resolved = true;
+
+		for (ExecutableElement setter : ElementFilter.methodsIn(elements.getAllMembers(targetElement)))
+		{
+			AnnotationMirror autoSet = this.getAnnotationMirror(setter, AutoSet.class);
+
+			if (autoSet == null) continue;
+
+			String getterExpression = this.resolveGetterExpression(sourceElement, setter, autoSet);
+
+			if (getterExpression == null) resolved = false;
+			else statements.add(String.format("target.%s(%s);", setter.getSimpleName(), getterExpression));
+		}
+
+		if (!resolved) return;
+
+		String packageName = elements.getPackageOf(targetElement).getQualifiedName().toString();
+		String converterName = getFlatName(targetElement) + "From" + getFlatName(sourceElement) + CONVERTER_SUFFIX;
+		String converterQualifiedName = packageName.isEmpty() ? converterName : packageName + "." + converterName;
+
+		try (Writer writer = this.processingEnv.getFiler().createSourceFile(converterQualifiedName, targetElement).openWriter())
+		{
+			writer.write(this.generateSource(packageName, converterName, targetElement, sourceElement, statements));
+		}
+		catch (IOException e)
+		{
+			this.processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR, String.format("cannot write %s: %s", converterQualifiedName, e), targetElement);
+		}
+	}
+
+	/**
+	 * Finds the getter referred by an {@link AutoSet} annotation and creates the expression which invokes it
+	 *
+	 * @param sourceElement the source model
+	 * @param setter the annotated setter of the target model
+	 * @param autoSet the annotation of the setter
+	 * @return the expression which gets the value from the variable source or null if the getter cannot be resolved
+	 */
+	protected String resolveGetterExpression(TypeElement sourceElement, ExecutableElement setter, AnnotationMirror autoSet)
+	{
+		Elements elements = this.processingEnv.getElementUtils();
+		Types types = this.processingEnv.getTypeUtils();
+		Map<? extends ExecutableElement, ? extends AnnotationValue> values = elements.getElementValuesWithDefaults(autoSet);
+
+		if ((setter.getParameters().size() != 1) || setter.getModifiers().contains(Modifier.STATIC) || !setter.getModifiers().contains(Modifier.PUBLIC))
+		{
+			this.error(String.format("%s must be a public instance method accepting exactly one parameter", setter), setter, autoSet, null);
+
+			return null;
+		}
+
+		AnnotationValue clazzValue = getValue(values, "clazz");
+		AnnotationValue classNameValue = getValue(values, "className");
+		AnnotationValue methodNameValue = getValue(values, "methodName");
+		TypeElement getterElement = null;
+
+		if (!types.isSameType((TypeMirror) clazzValue.getValue(), elements.getTypeElement(Object.class.getName()).asType()))
+		{
+			getterElement = (TypeElement) types.asElement((TypeMirror) clazzValue.getValue());
+		}
+		else if (!classNameValue.getValue().toString().isEmpty())
+		{
+			getterElement = elements.getTypeElement(classNameValue.getValue().toString());
+
+			if (getterElement == null)
+			{
+				this.error(String.format("cannot find class %s referred by %s", classNameValue.getValue(), setter), setter, autoSet, classNameValue);
+
+				return null;
+			}
+		}
+
+		String methodName = methodNameValue.getValue().toString();
+		List<String> getterNames = new ArrayList<>();
+
+		if (!methodName.isEmpty())
+		{
+			getterNames.add(methodName);
+		}
+		else
+		{
+			String setterName = setter.getSimpleName().toString();
+
+			if (!setterName.startsWith("set") || (setterName.length() < 4))
+			{
+				this.error(String.format("cannot derive the getter of %s", setter), setter, autoSet, null);
+
+				return null;
+			}
+
+			getterNames.add("get" + setterName.substring(3));
+			getterNames.add("is" + setterName.substring(3));
+		}
+
+		TypeMirror sourceType = types.erasure(sourceElement.asType());
+		TypeMirror valueType = setter.getParameters().get(0).asType();
+		ExecutableElement getter = null;
+		String getterExpression = null;
+
+		if (getterElement != null)
+		{
+			for (ExecutableElement method : ElementFilter.methodsIn(elements.getAllMembers(getterElement)))
+			{
+				if (!method.getModifiers().contains(Modifier.STATIC) || !method.getModifiers().contains(Modifier.PUBLIC)) continue;
+				if (!getterNames.contains(method.getSimpleName().toString()) || (method.getParameters().size() != 1)) continue;
+				if (!types.isAssignable(sourceType, method.getParameters().get(0).asType())) continue;
+
+				getter = method;
+				getterExpression = String.format("%s.%s(source)", getterElement.getQualifiedName(), method.getSimpleName());
+
+				break;
+			}
+
+			if ((getter == null) && !types.isSubtype(sourceType, types.erasure(getterElement.asType())))
+			{
+				this.error(String.format("%s refers to no static method of %s accepting %s", setter, getterElement.getQualifiedName(), sourceElement.getQualifiedName()), setter, autoSet, methodNameValue);
+
+				return null;
+			}
+		}
+		else
+		{
+			getterElement = sourceElement;
+		}
+
+		if (getter == null)
+		{
+			for (ExecutableElement method : ElementFilter.methodsIn(elements.getAllMembers(getterElement)))
+			{
+				if (method.getModifiers().contains(Modifier.STATIC) || !method.getModifiers().contains(Modifier.PUBLIC)) continue;
+				if (!getterNames.contains(method.getSimpleName().toString()) || !method.getParameters().isEmpty()) continue;
+				if (method.getReturnType().getKind() == TypeKind.VOID) continue;
+
+				getter = method;
+				getterExpression = String.format("source.%s()", method.getSimpleName());
+
+				break;
+			}
+		}
+
+		if (getter == null)
+		{
+			this.error(String.format("%s refers to no getter of %s", setter, getterElement.getQualifiedName()), setter, autoSet, methodNameValue);
+
+			return null;
+		}
+
+		if (!types.isAssignable(getter.getReturnType(), valueType))
+		{
+			this.error(String.format("%s returns a value which cannot be passed to %s", getter, setter), setter, autoSet, null);
+
+			return null;
+		}
+
+		return getterExpression;
+	}
+
+	/**
+	 * Creates the source code of a converter class
+	 */
+	protected String generateSource(String packageName, String converterName, TypeElement targetElement, TypeElement sourceElement, List<String> statements)
+	{
+		String targetName = targetElement.getQualifiedName().toString();
+		String sourceName = sourceElement.getQualifiedName().toString();
+		boolean instantiable = !targetElement.getModifiers().contains(Modifier.ABSTRACT) && ElementFilter.constructorsIn(targetElement.getEnclosedElements()).stream()
+			.anyMatch(constructor -> constructor.getParameters().isEmpty() && constructor.getModifiers().contains(Modifier.PUBLIC));
+		StringBuilder source = new StringBuilder();
+
+		if (!packageName.isEmpty()) source.append("package ").append(packageName).append(";\n\n");
+
+		source.append("/**\n");
+		source.append(" * Converts {@link ").append(sourceName).append("} models into {@link ").append(targetName).append("} models.\n");
+		source.append(" * Generated by {@link ").append(this.getClass().getName()).append("} from the annotations of the target model.\n");
+		source.append(" */\n");
+		source.append("@javax.annotation.processing.Generated(\"").append(this.getClass().getName()).append("\")\n");
+		source.append("public final class ").append(converterName).append("\n{\n");
+		source.append("\tprivate ").append(converterName).append("() { }\n\n");
+
+		source.append("\t/**\n");
+		source.append("\t * Sets the values of the source model to the target model\n");
+		source.append("\t *\n");
+		source.append("\t * @param source the model to get the values from\n");
+		source.append("\t * @param target the model to set the values to\n");
+		source.append("\t * @return the target model\n");
+		source.append("\t * @throws IllegalArgumentException thrown if source or target is null\n");
+		source.append("\t * @throws com.schoste.ddd.infrastructure.dal.v2.exceptions.DALException thrown if a getter or setter failed\n");
+		source.append("\t */\n");
+		source.append("\tpublic static ").append(targetName).append(" convert(").append(sourceName).append(" source, ").append(targetName).append(" target) throws IllegalArgumentException, com.schoste.ddd.infrastructure.dal.v2.exceptions.DALException\n");
+		source.append("\t{\n");
+		source.append("\t\tif (source == null) throw new IllegalArgumentException(\"source\");\n");
+		source.append("\t\tif (target == null) throw new IllegalArgumentException(\"target\");\n\n");
+		source.append("\t\ttry\n\t\t{\n");
+
+		for (String statement : statements) source.append("\t\t\t").append(statement).append("\n");
+
+		source.append("\t\t}\n");
+		source.append("\t\tcatch (Exception e)\n\t\t{\n");
+		source.append("\t\t\tthrow new com.schoste.ddd.infrastructure.dal.v2.exceptions.DALException(e);\n");
+		source.append("\t\t}\n\n");
+		source.append("\t\treturn target;\n");
+		source.append("\t}\n");
+
+		if (instantiable)
+		{
+			source.append("\n\t/**\n");
+			source.append("\t * Creates a new target model and sets the values of the source model\n");
+			source.append("\t *\n");
+			source.append("\t * @param source the model to get the values from or null\n");
+			source.append("\t * @return the new target model or null if source is null\n");
+			source.append("\t * @throws com.schoste.ddd.infrastructure.dal.v2.exceptions.DALException thrown if a getter or setter failed\n");
+			source.append("\t */\n");
+			source.append("\tpublic static ").append(targetName).append(" convert(").append(sourceName).append(" source) throws com.schoste.ddd.infrastructure.dal.v2.exceptions.DALException\n");
+			source.append("\t{\n");
+			source.append("\t\tif (source == null) return null;\n\n");
+			source.append("\t\treturn convert(source, new ").append(targetName).append("());\n");
+			source.append("\t}\n");
+
+			source.append("\n\t/**\n");
+			source.append("\t * Converts every model of a collection into a new target model. Null elements are converted to null.\n");
+			source.append("\t *\n");
+			source.append("\t * @param sources the models to get the values from\n");
+			source.append("\t * @return a list of new target models in the order of the source models\n");
+			source.append("\t * @throws IllegalArgumentException thrown if sources is null\n");
+			source.append("\t * @throws com.schoste.ddd.infrastructure.dal.v2.exceptions.DALException thrown if a getter or setter failed\n");
+			source.append("\t */\n");
+			source.append("\tpublic static java.util.List<").append(targetName).append("> convertAll(java.util.Collection<? extends ").append(sourceName).append("> sources) throws IllegalArgumentException, com.schoste.ddd.infrastructure.dal.v2.exceptions.DALException\n");
+			source.append("\t{\n");
+			source.append("\t\tif (sources == null) throw new IllegalArgumentException(\"sources\");\n\n");
+			source.append("\t\tjava.util.List<").append(targetName).append("> targets = new java.util.ArrayList<>(sources.size());\n\n");
+			source.append("\t\tfor (").append(sourceName).append(" source : sources) targets.add(convert(source));\n\n");
+			source.append("\t\treturn targets;\n");
+			source.append("\t}\n");
+		}
+
+		source.append("}\n");
+
+		return source.toString();
+	}
+
+	/**
+	 * Gets the simple names of a class and its enclosing classes joined by underscores
+	 */
+	protected static String getFlatName(TypeElement typeElement)
+	{
+		String name = typeElement.getSimpleName().toString();
+		Element enclosingElement = typeElement.getEnclosingElement();
+
+		while (enclosingElement instanceof TypeElement)
+		{
+			name = enclosingElement.getSimpleName() + "_" + name;
+			enclosingElement = enclosingElement.getEnclosingElement();
+		}
+
+		return name;
+	}
+
+	protected static AnnotationValue getValue(Map<? extends ExecutableElement, ? extends AnnotationValue> values, String name)
+	{
+		for (Map.Entry<? extends ExecutableElement, ? extends AnnotationValue> value : values.entrySet())
+		{
+			if (value.getKey().getSimpleName().contentEquals(name)) return value.getValue();
+		}
+
+		return null;
+	}
+
+	@SuppressWarnings("unchecked")
+	protected List<? extends AnnotationValue> getClassValues(AnnotationMirror annotationMirror, String name)
+	{
+		AnnotationValue value = getValue(this.processingEnv.getElementUtils().getElementValuesWithDefaults(annotationMirror), name);
+
+		return (value == null) ? List.of() : (List<? extends AnnotationValue>) value.getValue();
+	}
+
+	protected AnnotationMirror getAnnotationMirror(Element element, Class<?> annotationClass)
+	{
+		for (AnnotationMirror annotationMirror : element.getAnnotationMirrors())
+		{
+			if (((TypeElement) annotationMirror.getAnnotationType().asElement()).getQualifiedName().contentEquals(annotationClass.getName())) return annotationMirror;
+		}
+
+		return null;
+	}
+
+	protected void error(String message, Element element, AnnotationMirror annotationMirror, AnnotationValue annotationValue)
+	{
+		this.processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR, message, element, annotationMirror, annotationValue);
+	}
+}
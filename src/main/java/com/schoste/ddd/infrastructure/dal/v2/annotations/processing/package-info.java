@@ -0,0 +1,27 @@
+/**
+ * Package for the annotation processors which evaluate the annotations of the data abstraction layer at compile time.
+ * The processors are registered in META-INF/services/javax.annotation.processing.Processor, so javac discovers them
+ * on the class path. Relying on that discovery is deprecated: Java 21 prints a note about it and since Java 23 javac
+ * only runs discovered processors if -proc:full is passed.
+ * Projects using {@link com.schoste.ddd.infrastructure.dal.v2.annotations.AutoConvert} should therefore name the
+ * processor path explicitly, for instance with Maven:
+ * <pre>{@code
+ * <plugin>
+ *     <groupId>org.apache.maven.plugins</groupId>
+ *     <artifactId>maven-compiler-plugin</artifactId>
+ *     <configuration>
+ *         <annotationProcessorPaths>
+ *             <path>
+ *                 <groupId>com.schoste.ddd.infrastructure</groupId>
+ *                 <artifactId>dao</artifactId>
+ *                 <version>${dao.version}</version>
+ *             </path>
+ *         </annotationProcessorPaths>
+ *     </configuration>
+ * </plugin>
+ * }</pre>
+ * With plain javac, pass the artifact via --processor-path or pass -proc:full
+ * (or -processor com.schoste.ddd.infrastructure.dal.v2.annotations.processing.AutoSetProcessor).
+ * Without one of these settings no converter is generated and no compile error is reported.
+ */
+package com.schoste.ddd.infrastructure.dal.v2.annotations.processing;
\ No newline at end of file
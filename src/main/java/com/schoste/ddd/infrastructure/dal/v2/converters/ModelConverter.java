@@ -0,0 +1,470 @@
+package com.schoste.ddd.infrastructure.dal.v2.converters;
+
+import java.lang.invoke.CallSite;
+import java.lang.invoke.LambdaMetafactory;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+import com.schoste.ddd.infrastructure.dal.v2.annotations.AutoSet;
+import com.schoste.ddd.infrastructure.dal.v2.exceptions.DALException;
+
+/**
+ * Converts models (for instance domain models into data objects and vice versa) by invoking the setter methods of the
+ * target model which are annotated with {@link AutoSet} with the values of the referred getter methods.
+ *
+ * The annotations of a pair of source and target class are read only once. For every annotated setter the converter
+ * binds the getter and the setter to functional interfaces via {@link LambdaMetafactory} (or to {@link MethodHandle}s if
+ * that is not possible) and caches the result, so converting a model costs about as much as hand-written code.
+ * Instances of this class are thread safe and should be shared.
+ */
+public class ModelConverter
+{
+	/**
+	 * Copies one value from the source model to the target model
+	 */
+	protected static final class PropertyMapping
+	{
+		protected final Function<Object, Object> getter;
+		protected final BiConsumer<Object, Object> setter;
+
+		protected PropertyMapping(Function<Object, Object> getter, BiConsumer<Object, Object> setter)
+		{
+			this.getter = getter;
+			this.setter = setter;
+		}
+	}
+
+	/**
+	 * All property mappings of a pair of source and target class
+	 */
+	protected static final class ConversionPlan
+	{
+		protected final PropertyMapping[] propertyMappings;
+		protected volatile Supplier<Object> targetFactory;
+
+		protected ConversionPlan(PropertyMapping[] propertyMappings)
+		{
+			this.propertyMappings = propertyMappings;
+		}
+
+		protected void apply(Object source, Object target)
+		{
+			for (PropertyMapping propertyMapping : this.propertyMappings)
+			{
+				propertyMapping.setter.accept(target, propertyMapping.getter.apply(source));
+			}
+		}
+	}
+
+	/**
+	 * Conversion plans by target class and source class. {@link ClassValue} keeps the cache from preventing the target classes from being unloaded.
+	 */
+	protected final ClassValue<ConcurrentHashMap<Class<?>, ConversionPlan>> conversionPlans = new ClassValue<ConcurrentHashMap<Class<?>, ConversionPlan>>()
+	{
+		@Override
+		protected ConcurrentHashMap<Class<?>, ConversionPlan> computeValue(Class<?> targetClass)
+		{
+			return new ConcurrentHashMap<>();
+		}
+	};
+
+	/**
+	 * Sets the values of the source model to the target model by invoking every setter of the target model which is annotated with {@link AutoSet}
+	 *
+	 * @param <D> the type of the target model
+	 * @param source the model to get the values from
+	 * @param target the model to set the values to
+	 * @return the target model
+	 * @throws IllegalArgumentException thrown if source or target is null
+	 * @throws DALException thrown if the annotations cannot be resolved or if a getter or setter failed
+	 */
+	public <D> D convert(Object source, D target) throws IllegalArgumentException, DALException
+	{
+		if (source == null) throw new IllegalArgumentException("source");
+		if (target == null) throw new IllegalArgumentException("target");
+
+		ConversionPlan conversionPlan = this.getConversionPlan(source.getClass(), target.getClass());
+
+		try
+		{
+			conversionPlan.apply(source, target);
+		}
+		catch (RuntimeException e)
+		{
+			throw new DALException(e);
+		}
+
+		return target;
+	}
+
+	/**
+	 * Creates a new instance of the target class via its constructor without parameters and sets the values of the source model
+	 *
+	 * @param <D> the type of the target model
+	 * @param source the model to get the values from or null
+	 * @param targetClass the class of the target model
+	 * @return the new target model or null if source is null
+	 * @throws IllegalArgumentException thrown if targetClass is null
+	 * @throws DALException thrown if the annotations cannot be resolved, the target class cannot be instantiated or if a getter or setter failed
+	 */
+	public <D> D convert(Object source, Class<D> targetClass) throws IllegalArgumentException, DALException
+	{
+		if (targetClass == null) throw new IllegalArgumentException("targetClass");
+		if (source == null) return null;
+
+		return this.convert(source, targetClass, this.getConversionPlan(source.getClass(), targetClass));
+	}
+
+	/**
+	 * Converts every model of a collection into a new instance of the target class.
+	 * Null elements are converted to null.
+	 *
+	 * @param <D> the type of the target models
+	 * @param sources the models to get the values from
+	 * @param targetClass the class of the target models
+	 * @return a list of new target models in the order of the source models
+	 * @throws IllegalArgumentException thrown if sources or targetClass is null
+	 * @throws DALException thrown if the annotations cannot be resolved, the target class cannot be instantiated or if a getter or setter failed
+	 */
+	public <D> List<D> convertAll(Collection<?> sources, Class<D> targetClass) throws IllegalArgumentException, DALException
+	{
+		if (sources == null) throw new IllegalArgumentException("sources");
+		if (targetClass == null) throw new IllegalArgumentException("targetClass");
+
+		List<D> targets = new ArrayList<>(sources.size());
+		Class<?> sourceClass = null;
+		ConversionPlan conversionPlan = null;
+
+		for (Object source : sources)
+		{
+			if (source == null)
+			{
+				targets.add(null);
+
+				continue;
+			}
+
+			if (source.getClass() != sourceClass)
+			{
+				sourceClass = source.getClass();
+				conversionPlan = this.getConversionPlan(sourceClass, targetClass);
+			}
+
+			targets.add(this.convert(source, targetClass, conversionPlan));
+		}
+
+		return targets;
+	}
+
+	protected <D> D convert(Object source, Class<D> targetClass, ConversionPlan conversionPlan) throws DALException
+	{
+		try
+		{
+			if (conversionPlan.targetFactory == null) conversionPlan.targetFactory = this.createFactory(targetClass);
+
+			D target = targetClass.cast(conversionPlan.targetFactory.get());
+
+			conversionPlan.apply(source, target);
+
+			return target;
+		}
+		catch (DALException e)
+		{
+			throw e;
+		}
+		catch (Exception e)
+		{
+			throw new DALException(e);
+		}
+	}
+
+	/**
+	 * Gets the cached conversion plan of a pair of source and target class or creates it
+	 *
+	 * @param sourceClass the class of the source model
+	 * @param targetClass the class of the target model
+	 * @return the conversion plan
+	 * @throws DALException thrown if the annotations of the target class cannot be resolved
+	 */
+	protected ConversionPlan getConversionPlan(Class<?> sourceClass, Class<?> targetClass) throws DALException
+	{
+		ConcurrentHashMap<Class<?>, ConversionPlan> conversionPlansOfTarget = this.conversionPlans.get(targetClass);
+		ConversionPlan conversionPlan = conversionPlansOfTarget.get(sourceClass);
+
+		if (conversionPlan != null) return conversionPlan;
+
+		try
+		{
+			conversionPlan = this.createConversionPlan(sourceClass, targetClass);
+		}
+		catch (Exception e)
+		{
+			throw new DALException(e);
+		}
+
+		ConversionPlan existingConversionPlan = conversionPlansOfTarget.putIfAbsent(sourceClass, conversionPlan);
+
+		return (existingConversionPlan != null) ? existingConversionPlan : conversionPlan;
+	}
+
+	/**
+	 * Reads the {@link AutoSet} annotations of the public setters of the target class and binds the referred getters
+	 *
+	 * @param sourceClass the class of the source model
+	 * @param targetClass the class of the target model
+	 * @return a new conversion plan
+	 * @throws Exception thrown if an annotation cannot be resolved
+	 */
+	protected ConversionPlan createConversionPlan(Class<?> sourceClass, Class<?> targetClass) throws Exception
+	{
+		List<PropertyMapping> propertyMappings = new ArrayList<>();
+
+		for (Method setter : targetClass.getMethods())
+		{
+			AutoSet autoSet = setter.getAnnotation(AutoSet.class);
+
+			if (autoSet == null) continue;
+			if (setter.getParameterCount() != 1) throw new IllegalStateException(String.format("%s must accept exactly one parameter", setter));
+
+			Method getter = this.resolveGetter(sourceClass, setter, autoSet);
+			Class<?> valueClass = wrap(setter.getParameterTypes()[0]);
+
+			if (!valueClass.isAssignableFrom(wrap(getter.getReturnType())))
+			{
+				throw new IllegalStateException(String.format("%s returns a value which cannot be passed to %s", getter, setter));
+			}
+
+			propertyMappings.add(new PropertyMapping(this.bindGetter(getter), this.bindSetter(setter)));
+		}
+
+		return new ConversionPlan(propertyMappings.toArray(new PropertyMapping[propertyMappings.size()]));
+	}
+
+	/**
+	 * Finds the getter referred by an {@link AutoSet} annotation.
+	 * If the annotation defines a class (via {@link AutoSet#clazz()} or {@link AutoSet#className()}), the getter is either a static method of
+	 * this class which accepts the source model, or an instance method without parameters if the source model is an instance of this class.
+	 * Otherwise the getter is an instance method without parameters of the source model.
+	 * If no method name is defined, the name is derived from the setter (setX becomes getX or isX).
+	 *
+	 * @param sourceClass the class of the source model
+	 * @param setter the annotated setter
+	 * @param autoSet the annotation of the setter
+	 * @return the getter
+	 * @throws Exception thrown if the getter cannot be found
+	 */
+	protected Method resolveGetter(Class<?> sourceClass, Method setter, AutoSet autoSet) throws Exception
+	{
+		Class<?> getterClass = null;
+
+		if (autoSet.clazz() != Object.class) getterClass = autoSet.clazz();
+		else if (!autoSet.className().isEmpty()) getterClass = Class.forName(autoSet.className(), false, setter.getDeclaringClass().getClassLoader());
+
+		String[] getterNames = autoSet.methodName().isEmpty() ? guessGetterNames(setter) : new String[] { autoSet.methodName() };
+
+		if (getterClass != null)
+		{
+			for (Method method : getterClass.getMethods())
+			{
+				if (!Modifier.isStatic(method.getModifiers()) || !isNamed(method, getterNames)) continue;
+				if ((method.getParameterCount() == 1) && method.getParameterTypes()[0].isAssignableFrom(sourceClass)) return method;
+			}
+
+			if (!getterClass.isAssignableFrom(sourceClass))
+			{
+				throw new NoSuchMethodException(String.format("%s refers to no static method of %s accepting %s", setter, getterClass.getName(), sourceClass.getName()));
+			}
+		}
+		else
+		{
+			getterClass = sourceClass;
+		}
+
+		for (Method method : getterClass.getMethods())
+		{
+			if (Modifier.isStatic(method.getModifiers()) || !isNamed(method, getterNames)) continue;
+			if ((method.getParameterCount() == 0) && (method.getReturnType() != void.class)) return method;
+		}
+
+		throw new NoSuchMethodException(String.format("%s refers to no getter of %s", setter, getterClass.getName()));
+	}
+
+	protected static String[] guessGetterNames(Method setter) throws NoSuchMethodException
+	{
+		String setterName = setter.getName();
+
+		if (!setterName.startsWith("set") || (setterName.length() < 4)) throw new NoSuchMethodException(String.format("cannot derive the getter of %s", setter));
+
+		String propertyName = setterName.substring(3);
+
+		return new String[] { "get" + propertyName, "is" + propertyName };
+	}
+
+	protected static boolean isNamed(Method method, String[] names)
+	{
+		for (String name : names) if (method.getName().equals(name)) return true;
+
+		return false;
+	}
+
+	protected static Class<?> wrap(Class<?> type)
+	{
+		return MethodType.methodType(type).wrap().returnType();
+	}
+
+	/**
+	 * Gets a lookup with full access to the class which declares a method, so the class of the bound lambda
+	 * can be defined next to it (and resolves the same classes)
+	 */
+	protected static MethodHandles.Lookup lookupIn(Class<?> declaringClass) throws IllegalAccessException
+	{
+		return MethodHandles.privateLookupIn(declaringClass, MethodHandles.lookup());
+	}
+
+	/**
+	 * Binds a getter (instance method without parameters or static method with one parameter) to a {@link Function}
+	 *
+	 * @param getter the getter to bind
+	 * @return a function which invokes the getter
+	 * @throws Exception thrown if the getter cannot be accessed
+	 */
+	@SuppressWarnings("unchecked")
+	protected Function<Object, Object> bindGetter(Method getter) throws Exception
+	{
+		MethodHandles.Lookup lookup = lookupIn(getter.getDeclaringClass());
+		MethodHandle getterHandle = lookup.unreflect(getter);
+
+		try
+		{
+			CallSite callSite = LambdaMetafactory.metafactory(lookup, "apply",
+				MethodType.methodType(Function.class),
+				MethodType.methodType(Object.class, Object.class),
+				getterHandle,
+				getterHandle.type().wrap());
+
+			return (Function<Object, Object>) callSite.getTarget().invoke();
+		}
+		catch (Throwable t)
+		{
+			MethodHandle genericGetterHandle = getterHandle.asType(MethodType.methodType(Object.class, Object.class));
+
+			return source ->
+			{
+				try
+				{
+					return genericGetterHandle.invokeExact(source);
+				}
+				catch (RuntimeException | Error e)
+				{
+					throw e;
+				}
+				catch (Throwable e)
+				{
+					throw new IllegalStateException(e);
+				}
+			};
+		}
+	}
+
+	/**
+	 * Binds a setter (instance method with one parameter) to a {@link BiConsumer}
+	 *
+	 * @param setter the setter to bind
+	 * @return a consumer which invokes the setter with the target model and the value
+	 * @throws Exception thrown if the setter cannot be accessed
+	 */
+	@SuppressWarnings("unchecked")
+	protected BiConsumer<Object, Object> bindSetter(Method setter) throws Exception
+	{
+		MethodHandles.Lookup lookup = lookupIn(setter.getDeclaringClass());
+		MethodHandle setterHandle = lookup.unreflect(setter);
+
+		try
+		{
+			CallSite callSite = LambdaMetafactory.metafactory(lookup, "accept",
+				MethodType.methodType(BiConsumer.class),
+				MethodType.methodType(void.class, Object.class, Object.class),
+				setterHandle,
+				MethodType.methodType(void.class, setter.getDeclaringClass(), wrap(setter.getParameterTypes()[0])));
+
+			return (BiConsumer<Object, Object>) callSite.getTarget().invoke();
+		}
+		catch (Throwable t)
+		{
+			MethodHandle genericSetterHandle = setterHandle.asType(MethodType.methodType(void.class, Object.class, Object.class));
+
+			return (target, value) ->
+			{
+				try
+				{
+					genericSetterHandle.invokeExact(target, value);
+				}
+				catch (RuntimeException | Error e)
+				{
+					throw e;
+				}
+				catch (Throwable e)
+				{
+					throw new IllegalStateException(e);
+				}
+			};
+		}
+	}
+
+	/**
+	 * Binds the constructor without parameters of the target class to a {@link Supplier}
+	 *
+	 * @param targetClass the class to instantiate
+	 * @return a supplier which creates new instances of the target class
+	 * @throws Exception thrown if the class has no accessible constructor without parameters
+	 */
+	@SuppressWarnings("unchecked")
+	protected Supplier<Object> createFactory(Class<?> targetClass) throws Exception
+	{
+		Constructor<?> constructor = targetClass.getDeclaredConstructor();
+		MethodHandles.Lookup lookup = lookupIn(targetClass);
+		MethodHandle constructorHandle = lookup.unreflectConstructor(constructor);
+
+		try
+		{
+			CallSite callSite = LambdaMetafactory.metafactory(lookup, "get",
+				MethodType.methodType(Supplier.class),
+				MethodType.methodType(Object.class),
+				constructorHandle,
+				constructorHandle.type());
+
+			return (Supplier<Object>) callSite.getTarget().invoke();
+		}
+		catch (Throwable t)
+		{
+			MethodHandle genericConstructorHandle = constructorHandle.asType(MethodType.methodType(Object.class));
+
+			return () ->
+			{
+				try
+				{
+					return genericConstructorHandle.invokeExact();
+				}
+				catch (RuntimeException | Error e)
+				{
+					throw e;
+				}
+				catch (Throwable e)
+				{
+					throw new IllegalStateException(e);
+				}
+			};
+		}
+	}
+}
@@ -0,0 +1,4 @@
+/**
+ * Package for the model converters provided in this version of the DAL implementation
+ */
+package com.schoste.ddd.infrastructure.dal.v2.converters;
\ No newline at end of file
@@ -1,5 +1,12 @@
 package com.schoste.ddd.infrastructure.dal.v2.exceptions;
 
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
 import com.schoste.ddd.infrastructure.dal.v2.services.DALExceptionHandler;
 
 /**
@@ -17,13 +24,90 @@ public class DALException extends Exception
 	 * If not null {@ DALExceptionHandler#onExceptionCreated(DALException)} will be
 	 * called whenever a {@see DALException} is created.
 	 */
-	public static DALExceptionHandler handler = null;
+	public static volatile DALExceptionHandler handler = null;
+
+	/**
+	 * If false, no {@see DALException} fills in its stack trace, which makes creating it considerably cheaper.
+	 * The stack trace of the cause is not affected.
+	 */
+	public static volatile boolean stackTraceEnabled = true;
+
+	/**
+	 * If not null, the {@see DALException#handler} is called via this executor instead of the thread creating the exception.
+	 * Note that the exception is handed to the executor from within its constructor (see {@link #invokeHandler(DALException)}).
+	 * Invocations rejected by the executor are dropped and counted by {@link #getSuppressedHandlerInvocations()}.
+	 */
+	public static volatile Executor handlerExecutor = null;
+
+	/**
+	 * The {@see DALException#handler} is called for every n-th created exception only. 1 calls it for every exception.
+	 */
+	public static volatile int handlerSamplingRate = 1;
 
+	/**
+	 * The maximum number of calls of the {@see DALException#handler} per second, or 0 for no limit.
+	 */
+	public static volatile int handlerRateLimit = 0;
+
+	// keyed by class name, so the counters do not keep the classes (and their class loaders) of causes alive
+	private static final ConcurrentHashMap<String, LongAdder> causeCounts = new ConcurrentHashMap<>();
+	private static final AtomicLong createdCount = new AtomicLong();
+	private static final LongAdder suppressedHandlerInvocations = new LongAdder();
+	private static final Object rateLimitLock = new Object();
+	private static long rateLimitWindow = Long.MIN_VALUE;
+	private static int rateLimitWindowInvocations = 0;
+
+	/**
+	 * Counts a created exception by its cause and passes it to the {@see DALException#handler}, unless the invocation
+	 * is skipped due to sampling or the rate limit.
+	 * This method is called by the constructors, so the handler receives the exception before the constructor of a deriving
+	 * class completed, and with a {@see DALException#handlerExecutor} the exception is handed to another thread
+	 * while it is still being constructed. The message, cause and stack trace are set by then and are visible to that thread,
+	 * since handing a task to an executor happens-before its execution; fields of deriving classes may not be initialized yet.
+	 *
+	 * @param exception the created exception
+	 */
 	protected static void invokeHandler(DALException exception)
+	{
+		Throwable cause = exception.getCause();
+
+		causeCounts.computeIfAbsent(((cause == null) ? DALException.class : cause.getClass()).getName(), causeClassName -> new LongAdder()).increment();
+
+		DALExceptionHandler currentHandler = handler;
+
+		if (currentHandler == null) return;
+
+		if (!isHandlerInvocationPermitted())
+		{
+			suppressedHandlerInvocations.increment();
+
+			return;
+		}
+
+		Executor executor = handlerExecutor;
+
+		if (executor == null)
+		{
+			callHandler(currentHandler, exception);
+
+			return;
+		}
+
+		try
+		{
+			executor.execute(() -> callHandler(currentHandler, exception));
+		}
+		catch (RuntimeException e)
+		{
+			suppressedHandlerInvocations.increment();
+		}
+	}
+
+	private static void callHandler(DALExceptionHandler currentHandler, DALException exception)
 	{
 		try
 		{
-			if (handler != null) handler.onExceptionCreated(exception);
+			currentHandler.onExceptionCreated(exception);
 		}
 		catch (Exception e)
 		{
@@ -31,6 +115,89 @@ public class DALException extends Exception
 		}
 	}
 
+	private static boolean isHandlerInvocationPermitted()
+	{
+		int samplingRate = handlerSamplingRate;
+
+		if ((samplingRate > 1) && ((createdCount.incrementAndGet() % samplingRate) != 0)) return false;
+
+		int rateLimit = handlerRateLimit;
+
+		if (rateLimit < 1) return true;
+
+		long window = System.nanoTime() / 1_000_000_000L;
+
+		synchronized (rateLimitLock)
+		{
+			if (window != rateLimitWindow)
+			{
+				rateLimitWindow = window;
+				rateLimitWindowInvocations = 0;
+			}
+
+			return (++rateLimitWindowInvocations <= rateLimit);
+		}
+	}
+
+	/**
+	 * Gets the number of created {@see DALException}s by the name of the class of their cause.
+	 * Exceptions without cause are counted for the class {@see DALException}.
+	 *
+	 * @return a snapshot of the counters
+	 */
+	public static Map<String, Long> getCauseCounts()
+	{
+		Map<String, Long> counts = new HashMap<>();
+
+		causeCounts.forEach((causeClassName, count) -> counts.put(causeClassName, count.sum()));
+
+		return counts;
+	}
+
+	/**
+	 * Resets the counters of {@link #getCauseCounts()} and {@link #getSuppressedHandlerInvocations()}
+	 */
+	public static void resetCauseCounts()
+	{
+		causeCounts.clear();
+		suppressedHandlerInvocations.reset();
+	}
+
+	/**
+	 * Gets the number of calls of the {@see DALException#handler} which were skipped due to sampling,
+	 * the rate limit or a rejecting {@see DALException#handlerExecutor}
+	 *
+	 * @return the number of skipped calls
+	 */
+	public static long getSuppressedHandlerInvocations()
+	{
+		return suppressedHandlerInvocations.sum();
+	}
+
+	/**
+	 * Creates a new instance of the class for an expected failure (for instance an unavailable backend), which never fills in its stack trace
+	 *
+	 * @param cause the actual cause of the exception
+	 * @return a new instance of the class
+	 */
+	public static DALException expected(Throwable cause)
+	{
+		return new DALException(cause, false);
+	}
+
+	/**
+	 * Reports a failure which cannot be thrown to the caller, for instance in a background thread or a fallback path,
+	 * by wrapping it in a new instance of the class and passing it to the {@see DALException#handler}
+	 * (subject to {@see DALException#handlerSamplingRate}, {@see DALException#handlerRateLimit} and {@see DALException#handlerExecutor}).
+	 *
+	 * @param failure the failure to report
+	 * @return the instance which was passed to the handler
+	 */
+	public static DALException report(Throwable failure)
+	{
+		return new DALException(failure);
+	}
+
 	/**
 	 * Creates a new instance of the class
 	 */
@@ -52,4 +219,28 @@ public class DALException extends Exception
 
 		invokeHandler(this);
 	}
+
+	/**
+	 * Creates a new instance of the class for a given cause
+	 *
+	 * @param cause the actual cause of the exception
+	 * @param writableStackTrace false if the exception should not fill in its stack trace
+	 */
+	protected DALException(Throwable cause, boolean writableStackTrace)
+	{
+		super((cause == null) ? null : cause.toString(), cause, true, writableStackTrace);
+
+		invokeHandler(this);
+	}
+
+	/**
+	 * Fills in the stack trace unless {@see DALException#stackTraceEnabled} is false
+	 *
+	 * @return this exception
+	 */
+	@Override
+	public synchronized Throwable fillInStackTrace()
+	{
+		return stackTraceEnabled ? super.fillInStackTrace() : this;
+	}
 }
@@ -1,6 +1,13 @@
 package com.schoste.ddd.infrastructure.dal.v2.models;
 
+import java.io.ObjectOutputStream;
+import java.io.OutputStream;
 import java.io.Serializable;
+import java.security.DigestOutputStream;
+import java.security.MessageDigest;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
 
 /**
  * Functionality of the basic data object from which other data object classes should derive.
@@ -19,6 +26,10 @@ public abstract class GenericDataObject implements Serializable
 	private long modifiedTimeStamp=0;
 	
 	private boolean isDeleted=false;
+
+	private transient byte[] cleanDigest=null;
+
+	private transient Set<String> changedProperties=null;
 	
 	/**
 	 * Gets the numeric id of the object in the database.
@@ -41,6 +52,7 @@ public abstract class GenericDataObject implements Serializable
 	public void setId(int id) 
 	{
 		this.id = id;
+		this.propertyChanged("id");
 	}
 
 	/**
@@ -61,6 +73,7 @@ public abstract class GenericDataObject implements Serializable
 	public void setCreatedTimeStamp(long createdTimeStamp) 
 	{
 		this.createdTimeStamp = createdTimeStamp;
+		this.propertyChanged("createdTimeStamp");
 	}
 
 	/**
@@ -82,6 +95,7 @@ public abstract class GenericDataObject implements Serializable
 	public void setModifiedTimeStamp(long modifiedTimeStamp) 
 	{
 		this.modifiedTimeStamp = modifiedTimeStamp;
+		this.propertyChanged("modifiedTimeStamp");
 	}
 	
 	/**
@@ -92,6 +106,7 @@ public abstract class GenericDataObject implements Serializable
 	public void setIsDeleted(boolean isDeleted)
 	{
 		this.isDeleted = isDeleted;
+		this.propertyChanged("isDeleted");
 	}
 	
 	/**
@@ -117,6 +132,120 @@ public abstract class GenericDataObject implements Serializable
 		this.setModifiedTimeStamp(unixTs);
 	}
 	
+	/**
+	 * Computes a digest of the content of the instance which changes whenever a persisted value changes.
+	 * Only used for dirty tracking of instances which do not support change sets (see {@link #supportsChangeSets()}).
+	 * By default the digest is the SHA-256 hash of the serialized instance, so all non-transient fields are covered.
+	 * Deriving classes may override it with a cheaper digest of their fields.
+	 * 
+	 * @return the digest or null if it cannot be computed, in which case the instance is always considered dirty
+	 */
+	protected byte[] computeContentDigest()
+	{
+		try
+		{
+			MessageDigest digest = MessageDigest.getInstance("SHA-256");
+
+			try (ObjectOutputStream out = new ObjectOutputStream(new DigestOutputStream(OutputStream.nullOutputStream(), digest)))
+			{
+				out.writeObject(this);
+			}
+
+			return digest.digest();
+		}
+		catch (Exception e)
+		{
+			return null;
+		}
+	}
+
+	/**
+	 * Captures the current content of the instance as persisted state, for instance after it was loaded or saved,
+	 * and starts recording the changed properties (see {@link #getChangedProperties()}).
+	 * Instances which support change sets are considered clean as long as no property changed, so the digest
+	 * of their content is only computed if they do not (see {@link #computeContentDigest()}).
+	 * To be called by the DAO if it tracks dirty data objects.
+	 */
+	public void markClean()
+	{
+		this.cleanDigest = this.supportsChangeSets() ? null : this.computeContentDigest();
+		this.changedProperties = new HashSet<>();
+	}
+
+	/**
+	 * Forgets the persisted state, so the instance is considered dirty and entirely changed until {@link #markClean()} is called
+	 */
+	public void markDirty()
+	{
+		this.cleanDigest = null;
+		this.changedProperties = null;
+	}
+
+	/**
+	 * Determines if the changed properties recorded via {@link #propertyChanged(String)} cover every persisted property,
+	 * so data access objects may save only the changed properties instead of the whole instance.
+	 * Returns false by default, since a change made by a setter which does not record it would be lost by a partial update.
+	 * Deriving classes opt in by overriding it once every setter of a persisted property calls {@link #propertyChanged(String)};
+	 * their subclasses adding persisted properties without recording them have to override it again and return false.
+	 * 
+	 * @return true if partial updates of the instance are safe, false otherwise
+	 */
+	public boolean supportsChangeSets()
+	{
+		return false;
+	}
+
+	/**
+	 * Records that a persisted property changed since {@link #markClean()} was called.
+	 * Deriving classes which support partial updates (see {@link #supportsChangeSets()}) call it in the setter
+	 * of every persisted property.
+	 * 
+	 * @param propertyName the name of the changed property
+	 */
+	protected void propertyChanged(String propertyName)
+	{
+		Set<String> properties = this.changedProperties;
+
+		if (properties != null) properties.add(propertyName);
+	}
+
+	/**
+	 * Gets the properties which changed since {@link #markClean()} was called
+	 * 
+	 * @return an unmodifiable copy of the names of the changed properties, or null if the changes were not recorded
+	 */
+	public Set<String> getChangedProperties()
+	{
+		Set<String> properties = this.changedProperties;
+
+		return (properties == null) ? null : Collections.unmodifiableSet(new HashSet<>(properties));
+	}
+
+	/**
+	 * Determines if the instance was changed since {@link #markClean()} was called.
+	 * Instances which support change sets are dirty if any property changed, even if it was set back to its persisted value;
+	 * other instances are dirty if the digest of their content changed.
+	 * 
+	 * @return true if the content differs from the persisted state or no persisted state was captured, false otherwise
+	 */
+	public boolean isDirty()
+	{
+		if (this.supportsChangeSets())
+		{
+			Set<String> properties = this.changedProperties;
+
+			return (properties == null) || !properties.isEmpty();
+		}
+
+		byte[] clean = this.cleanDigest;
+
+		if (clean == null) return true;
+
+		byte[] current = this.computeContentDigest();
+
+		return (current == null) || !MessageDigest.isEqual(clean, current);
+	}
+
 	/**
 	 * Gets the id of the object as hash code
 	 */
@@ -0,0 +1,182 @@
+package com.schoste.ddd.infrastructure.dal.v2.services;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import com.schoste.ddd.infrastructure.dal.v2.models.GenericDataObject;
+import com.schoste.ddd.infrastructure.dal.v2.services.RequestCoalescer.Loader;
+
+/**
+ * Collects the gets of single data objects issued by concurrent threads within a short window
+ * and loads them with a single load of several ids.
+ * The first thread of a window becomes its leader: it waits until the window contains maxBatchSize distinct ids or
+ * maxWait has passed, then loads the ids of the window and hands each waiting thread its data object.
+ * Hence a get waits at most maxWait longer than the load itself, also if no other thread joins the window.
+ * Threads getting the same id within a window share the same data object.
+ *
+ * @param <T> the type of the data objects
+ */
+public class BatchLoader<T extends GenericDataObject>
+{
+	/**
+	 * The ids of a window and the results promised to the threads waiting for them
+	 *
+	 * @param <T> the type of the data objects
+	 */
+	protected static final class Batch<T>
+	{
+		protected final LinkedHashMap<Integer, CompletableFuture<T>> results = new LinkedHashMap<>();
+	}
+
+	protected final int maxBatchSize;
+	protected final long maxWaitNanos;
+	protected final AtomicLong numOfBatches = new AtomicLong();
+	protected final AtomicLong numOfRequests = new AtomicLong();
+	protected Batch<T> currentBatch = null;
+
+	/**
+	 * Creates a new instance of the class
+	 *
+	 * @param maxBatchSize the maximum number of distinct ids loaded at once
+	 * @param maxWait the maximum time the leader of a window waits for further gets
+	 * @param unit the unit of maxWait
+	 * @throws IllegalArgumentException thrown if maxBatchSize is smaller than 1, maxWait is negative or unit is null
+	 */
+	public BatchLoader(int maxBatchSize, long maxWait, TimeUnit unit) throws IllegalArgumentException
+	{
+		if (maxBatchSize < 1) throw new IllegalArgumentException("maxBatchSize");
+		if (maxWait < 0) throw new IllegalArgumentException("maxWait");
+		if (unit == null) throw new IllegalArgumentException("unit");
+
+		this.maxBatchSize = maxBatchSize;
+		this.maxWaitNanos = unit.toNanos(maxWait);
+	}
+
+	/**
+	 * Gets the number of loads performed so far
+	 *
+	 * @return the number of batches
+	 */
+	public long getBatchCount()
+	{
+		return this.numOfBatches.get();
+	}
+
+	/**
+	 * Gets the number of gets served so far
+	 *
+	 * @return the number of gets
+	 */
+	public long getRequestCount()
+	{
+		return this.numOfRequests.get();
+	}
+
+	/**
+	 * Gets a data object as part of the current window
+	 *
+	 * @param id the id of the data object
+	 * @param loader loads the data objects of a window
+	 * @return the data object or null if there is no such data object
+	 * @throws Exception re-throws every exception of the loader, which is thrown to all threads of the window
+	 */
+	public T get(int id, Loader<int[], Collection<T>> loader) throws Exception
+	{
+		Batch<T> batch;
+		CompletableFuture<T> result;
+		boolean leader = false;
+
+		this.numOfRequests.incrementAndGet();
+
+		synchronized (this)
+		{
+			if (this.currentBatch == null)
+			{
+				this.currentBatch = new Batch<>();
+
+				leader = true;
+			}
+
+			batch = this.currentBatch;
+			result = batch.results.computeIfAbsent(id, i -> new CompletableFuture<>());
+
+			if (batch.results.size() >= this.maxBatchSize)
+			{
+				this.currentBatch = null;
+				this.notifyAll();
+			}
+		}
+
+		if (leader) this.dispatch(batch, loader);
+
+		try
+		{
+			return result.get();
+		}
+		catch (ExecutionException e)
+		{
+			if (e.getCause() instanceof Exception) throw (Exception) e.getCause();
+
+			throw e;
+		}
+	}
+
+	/**
+	 * Waits until a window is full or its time is up, closes it and loads its ids
+	 *
+	 * @param batch the window to load
+	 * @param loader loads the data objects of the window
+	 */
+	protected void dispatch(Batch<T> batch, Loader<int[], Collection<T>> loader)
+	{
+		boolean interrupted = false;
+
+		synchronized (this)
+		{
+			long deadline = System.nanoTime() + this.maxWaitNanos;
+			long remaining;
+
+			while ((this.currentBatch == batch) && ((remaining = deadline - System.nanoTime()) > 0))
+			{
+				try
+				{
+					TimeUnit.NANOSECONDS.timedWait(this, remaining);
+				}
+				catch (InterruptedException e)
+				{
+					interrupted = true;
+
+					break;
+				}
+			}
+
+			if (this.currentBatch == batch) this.currentBatch = null;
+		}
+
+		this.numOfBatches.incrementAndGet();
+
+		try
+		{
+			int[] ids = batch.results.keySet().stream().mapToInt(Integer::intValue).toArray();
+			Map<Integer, T> dataObjectsById = new HashMap<>();
+
+			for (T dataObject : loader.load(ids)) if (dataObject != null) dataObjectsById.put(dataObject.getId(), dataObject);
+
+			batch.results.forEach((id, result) -> result.complete(dataObjectsById.get(id)));
+		}
+		catch (Throwable t)
+		{
+			batch.results.values().forEach(result -> result.completeExceptionally(t));
+		}
+		finally
+		{
+			if (interrupted) Thread.currentThread().interrupt();
+		}
+	}
+}
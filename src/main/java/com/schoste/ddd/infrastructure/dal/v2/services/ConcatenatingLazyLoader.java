@@ -0,0 +1,183 @@
+package com.schoste.ddd.infrastructure.dal.v2.services;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.Spliterator;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Predicate;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+import com.schoste.ddd.infrastructure.dal.v2.models.GenericDataObject;
+
+/**
+ * Implementation of the {@link LazyLoader} interface which provides the data objects of several lazy loaders one after another.
+ * Each wrapped lazy loader is closed as soon as it is exhausted, the remaining ones when this loader is closed.
+ * Wrapped lazy loaders which read ahead (see {@link PrefetchingLazyLoader}) start loading when they are reached.
+ *
+ * @param <SR> the data type of a potential source record that needs to be converted into the actual data object
+ * @param <DO> the data type of the actual data object returned by the loader.
+ */
+public class ConcatenatingLazyLoader<SR, DO extends GenericDataObject> implements LazyLoader<SR, DO>
+{
+    protected final List<LazyLoader<SR, DO>> lazyLoaders;
+    protected final boolean[] closed;
+    protected int current = 0;
+
+    /**
+     * Creates a new instance of the class
+     *
+     * @param lazyLoaders the lazy loaders to read from in the given order
+     * @throws IllegalArgumentException thrown if lazyLoaders is null or contains null
+     */
+    public ConcatenatingLazyLoader(List<? extends LazyLoader<SR, DO>> lazyLoaders) throws IllegalArgumentException
+    {
+        if ((lazyLoaders == null) || lazyLoaders.stream().anyMatch(Objects::isNull)) throw new IllegalArgumentException("lazyLoaders");
+
+        this.lazyLoaders = new ArrayList<>(lazyLoaders);
+        this.closed = new boolean[lazyLoaders.size()];
+    }
+
+    /**
+     * Implements {@link Spliterator#tryAdvance(Consumer)}.
+     * Takes the next data object of the current lazy loader and moves on to the next lazy loader when the current one is exhausted.
+     *
+     * @param action the consumer of the stream that will take the next data object
+     * @return true if a data object was provided, false if all lazy loaders are exhausted
+     */
+    @Override
+    public boolean tryAdvance(Consumer<? super DO> action)
+    {
+        while (this.current < this.lazyLoaders.size())
+        {
+            if (this.lazyLoaders.get(this.current).tryAdvance(action)) return true;
+
+            this.close(this.current++);
+        }
+
+        return false;
+    }
+
+    /**
+     * Implements {@link LazyLoader#project(Function, Predicate)}.
+     * Concatenates the projections of the lazy loaders which were not reached yet.
+     *
+     * @param <R> the data type of the projected values
+     * @param projection maps a source record to the value of the stream
+     * @param filterPredicate if not null, only source records passing this filter are projected
+     * @return a stream of projected values which closes this loader when it is closed
+     * @throws UnsupportedOperationException thrown if a lazy loader cannot provide its source records
+     */
+    @Override
+    public <R> Stream<R> project(Function<? super SR, ? extends R> projection, Predicate<? super SR> filterPredicate) throws UnsupportedOperationException
+    {
+        if (projection == null) throw new IllegalArgumentException("projection");
+
+        return IntStream.range(this.current, this.lazyLoaders.size())
+                        .boxed()
+                        .flatMap(i -> this.lazyLoaders.get(i).<R>project(projection, filterPredicate).onClose(() -> this.closed[i] = true))
+                        .onClose(this);
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * @return true if the source records of all lazy loaders are the ids of the data objects
+     */
+    @Override
+    public boolean hasIdSourceRecords()
+    {
+        return this.lazyLoaders.stream().allMatch(LazyLoader::hasIdSourceRecords);
+    }
+
+    /**
+     * Implements {@link Runnable#run()}.
+     * Callback method for {@link java.util.stream.Stream#onClose(Runnable)} which will be called by the encapsulating {@link Stream} class
+     * when it is closed.
+     */
+    @Override
+    public void run()
+    {
+        this.close();
+    }
+
+    /**
+     * Implements {@link Spliterator#trySplit()}.
+     * Splitting is not supported.
+     *
+     * @return null
+     */
+    @Override
+    public Spliterator<DO> trySplit()
+    {
+        return null;
+    }
+
+    /**
+     * Implements {@link Spliterator#estimateSize()}.
+     *
+     * @return the sum of the estimates of the lazy loaders which are not exhausted, or {@link Long#MAX_VALUE} if it overflows
+     */
+    @Override
+    public long estimateSize()
+    {
+        long estimatedSize = 0;
+
+        for (int i = this.current; i < this.lazyLoaders.size(); i++)
+        {
+            estimatedSize += this.lazyLoaders.get(i).estimateSize();
+
+            if (estimatedSize < 0) return Long.MAX_VALUE;
+        }
+
+        return estimatedSize;
+    }
+
+    /**
+     * Implements {@link Spliterator#characteristics()}.
+     *
+     * @return the characteristics common to all lazy loaders, except for those which do not hold for the concatenation
+     */
+    @Override
+    public int characteristics()
+    {
+        int characteristics = Spliterator.IMMUTABLE | Spliterator.NONNULL | Spliterator.ORDERED;
+
+        for (LazyLoader<SR, DO> lazyLoader : this.lazyLoaders) characteristics &= lazyLoader.characteristics();
+
+        return characteristics;
+    }
+
+    /**
+     * Implements {@link AutoCloseable#close()}.
+     * Closes all lazy loaders which were not closed yet.
+     */
+    @Override
+    public void close()
+    {
+        for (int i = 0; i < this.lazyLoaders.size(); i++) this.close(i);
+    }
+
+    /**
+     * Closes a lazy loader unless it was closed before
+     *
+     * @param index the index of the lazy loader
+     */
+    protected void close(int index)
+    {
+        if (this.closed[index]) return;
+
+        this.closed[index] = true;
+
+        try
+        {
+            this.lazyLoaders.get(index).close();
+        }
+        catch (Exception e)
+        {
+            e.printStackTrace(System.err);
+        }
+    }
+}
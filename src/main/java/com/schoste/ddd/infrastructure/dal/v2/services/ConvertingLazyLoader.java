@@ -0,0 +1,216 @@
+package com.schoste.ddd.infrastructure.dal.v2.services;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+import com.schoste.ddd.infrastructure.dal.v2.models.GenericDataObject;
+
+/**
+ * A generic stub for lazy loaders which obtain source records one by one and leave their conversion to this class.
+ * Deriving classes implement {@link #tryAdvanceSourceRecord(Consumer)}, the source records are converted
+ * one by one, in chunks or into reused data objects depending on the constructor used.
+ * Since the source records are accessible, such loaders also support {@link #project(Function, Predicate)}.
+ * 
+ * @param <SR> the data type of a potential source record that needs to be converted into the actual data object
+ * @param <DO> the data type of the actual data object returned by the loader.
+ */
+abstract public class ConvertingLazyLoader<SR, DO extends GenericDataObject> extends GenericLazyLoader<SR, DO>
+{
+    protected Function<List<SR>, List<DO>> sourceRecordsToDataObjsConversionFn;
+    protected int chunkSize = 1;
+    protected List<DO> dataObjsBuffer = Collections.emptyList();
+    protected int dataObjsBufferIndex = 0;
+    protected BiConsumer<SR, DO> sourceRecordToDataObjFillFn;
+    protected Supplier<DO> dataObjFactory;
+    protected List<DO> dataObjsPool;
+    protected int poolSize = 0;
+    protected int dataObjsPoolIndex = 0;
+    protected Consumer<? super DO> pooledDataObjAction;
+    protected final Consumer<SR> fillAndAcceptFn = sourceRecord -> this.pooledDataObjAction.accept(this.fillNextPooledDataObj(sourceRecord));
+
+    /**
+     * Creates a lazy loader which converts every source record into a new data object.
+     * 
+     * @param sourceRecordToDataObjConversionFn converts a source record into a data object
+     */
+    public ConvertingLazyLoader(Function<SR, DO> sourceRecordToDataObjConversionFn)
+    {
+        super(sourceRecordToDataObjConversionFn);
+    }
+
+    /**
+     * Creates a lazy loader which converts source records in chunks.
+     * Up to chunkSize source records are obtained via {@link #tryAdvanceSourceRecord(Consumer)} and converted by a single
+     * call of sourceRecordsToDataObjsConversionFn. The resulting data objects are buffered and provided one by one
+     * by {@link #tryAdvance(Consumer)} before the next chunk is loaded.
+     * 
+     * @param sourceRecordsToDataObjsConversionFn converts a chunk of source records into a list of data objects
+     * @param chunkSize the maximum number of source records converted at once
+     */
+    public ConvertingLazyLoader(Function<List<SR>, List<DO>> sourceRecordsToDataObjsConversionFn, int chunkSize)
+    {
+        super();
+
+        if (sourceRecordsToDataObjsConversionFn == null) throw new IllegalArgumentException("sourceRecordsToDataObjsConversionFn");
+        if (chunkSize < 1) throw new IllegalArgumentException("chunkSize");
+
+        this.sourceRecordsToDataObjsConversionFn = sourceRecordsToDataObjsConversionFn;
+        this.chunkSize = chunkSize;
+    }
+
+    /**
+     * Creates a lazy loader which reuses data objects instead of creating a new one per source record.
+     * The loader keeps a pool of poolSize data objects created by dataObjFactory and refills them in turns
+     * by calling sourceRecordToDataObjFillFn. Hence a data object provided by {@link #tryAdvance(Consumer)} is
+     * overwritten after poolSize further calls and consumers must not retain references to it.
+     * The fill function must set every property of the data object, since it still holds the values of an earlier source record.
+     * 
+     * @param sourceRecordToDataObjFillFn copies the values of a source record into a (reused) data object
+     * @param dataObjFactory creates the data objects of the pool
+     * @param poolSize the number of data objects which are reused
+     */
+    public ConvertingLazyLoader(BiConsumer<SR, DO> sourceRecordToDataObjFillFn, Supplier<DO> dataObjFactory, int poolSize)
+    {
+        super();
+
+        if (sourceRecordToDataObjFillFn == null) throw new IllegalArgumentException("sourceRecordToDataObjFillFn");
+        if (dataObjFactory == null) throw new IllegalArgumentException("dataObjFactory");
+        if (poolSize < 1) throw new IllegalArgumentException("poolSize");
+
+        this.sourceRecordToDataObjFillFn = sourceRecordToDataObjFillFn;
+        this.dataObjFactory = dataObjFactory;
+        this.poolSize = poolSize;
+        this.dataObjsPool = new ArrayList<>(poolSize);
+    }
+
+    /**
+     * Implements {@link Spliterator#tryAdvance(Consumer)}.
+     * Called by the encapsulating {@link Stream} class when the next record is requested.
+     * Obtains the next source record via {@link #tryAdvanceSourceRecord(Consumer)} and converts it into a data object.
+     * If the loader converts in chunks, the data object is taken from the buffer which is refilled when it is empty.
+     * If the loader reuses data objects, the next data object of the pool is refilled with the source record.
+     * 
+     * @param action the consumer of the stream that will take the next data object when {@link Consumer#accept(Object)} is called by this method.
+     * @return true if a data object was provided, false if there are no more data objects
+     */
+    @Override
+    public boolean tryAdvance(Consumer<? super DO> action)
+    {
+        if (this.sourceRecordToDataObjFillFn != null)
+        {
+            // avoids allocating a capturing consumer per call, which would defeat reusing the data objects
+            this.pooledDataObjAction = action;
+
+            try
+            {
+                return this.tryAdvanceSourceRecord(this.fillAndAcceptFn);
+            }
+            finally
+            {
+                this.pooledDataObjAction = null;
+            }
+        }
+
+        if (this.sourceRecordsToDataObjsConversionFn == null)
+        {
+            return this.tryAdvanceSourceRecord(sourceRecord -> action.accept(this.sourceRecordToDataObjConversionFn.apply(sourceRecord)));
+        }
+
+        while (this.dataObjsBufferIndex >= this.dataObjsBuffer.size())
+        {
+            if (!this.fillDataObjsBuffer()) return false;
+        }
+
+        action.accept(this.dataObjsBuffer.get(this.dataObjsBufferIndex++));
+
+        return true;
+    }
+
+    /**
+     * Takes the next data object of the pool (creating it if the pool is not full yet) and fills it with the source record.
+     * 
+     * @param sourceRecord the source record to copy into the data object
+     * @return the filled data object
+     */
+    protected DO fillNextPooledDataObj(SR sourceRecord)
+    {
+        if (this.dataObjsPool.size() < this.poolSize) this.dataObjsPool.add(this.dataObjFactory.get());
+
+        DO dataObj = this.dataObjsPool.get(this.dataObjsPoolIndex);
+
+        this.dataObjsPoolIndex = (this.dataObjsPoolIndex + 1) % this.poolSize;
+        this.sourceRecordToDataObjFillFn.accept(sourceRecord, dataObj);
+
+        return dataObj;
+    }
+
+    /**
+     * Loads the next chunk of source records and converts them into the buffer of data objects.
+     * 
+     * @return true if source records were loaded, false if there are no more source records
+     */
+    protected boolean fillDataObjsBuffer()
+    {
+        List<SR> sourceRecords = new ArrayList<>(this.chunkSize);
+
+        while ((sourceRecords.size() < this.chunkSize) && this.tryAdvanceSourceRecord(sourceRecords::add)) ;
+
+        this.dataObjsBuffer = Collections.emptyList();
+        this.dataObjsBufferIndex = 0;
+
+        if (sourceRecords.isEmpty()) return false;
+
+        List<DO> dataObjs = this.sourceRecordsToDataObjsConversionFn.apply(sourceRecords);
+
+        if (dataObjs != null) this.dataObjsBuffer = dataObjs;
+
+        return true;
+    }
+
+    /**
+     * Provides the next source record of the data source.
+     * Needs to be implemented by the deriving class.
+     * 
+     * @param action the consumer that will take the next source record when {@link Consumer#accept(Object)} is called by this method.
+     * @return true if a source record was provided, false if there are no more source records
+     */
+    abstract protected boolean tryAdvanceSourceRecord(Consumer<? super SR> action);
+
+    /**
+     * Implements {@link LazyLoader#project(Function, Predicate)}.
+     * Streams the source records provided by {@link #tryAdvanceSourceRecord(Consumer)}.
+     * 
+     * @param <R> the data type of the projected values
+     * @param projection maps a source record to the value of the stream
+     * @param filterPredicate if not null, only source records passing this filter are projected
+     * @return a stream of projected values which closes this loader when it is closed
+     */
+    @Override
+    public <R> Stream<R> project(Function<? super SR, ? extends R> projection, Predicate<? super SR> filterPredicate)
+    {
+        if (projection == null) throw new IllegalArgumentException("projection");
+
+        Spliterator<SR> sourceRecords = new Spliterators.AbstractSpliterator<SR>(this.estimateSize(), this.characteristics())
+        {
+            @Override
+            public boolean tryAdvance(Consumer<? super SR> action)
+            {
+                return ConvertingLazyLoader.this.tryAdvanceSourceRecord(action);
+            }
+        };
+        Stream<SR> sourceRecordStream = (filterPredicate == null) ? StreamSupport.stream(sourceRecords, false)
+                                                                  : StreamSupport.stream(sourceRecords, false).filter(filterPredicate);
+
+        return sourceRecordStream.<R>map(projection).onClose(this);
+    }
+}
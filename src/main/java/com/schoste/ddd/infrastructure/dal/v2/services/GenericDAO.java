@@ -3,16 +3,38 @@ package com.schoste.ddd.infrastructure.dal.v2.services;
 import java.lang.reflect.ParameterizedType;
 import java.lang.reflect.Type;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
 import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Flow;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BiConsumer;
+import java.util.function.BiFunction;
+import java.util.function.BiPredicate;
+import java.util.function.Function;
 import java.util.function.Predicate;
 import java.util.stream.Stream;
 import java.util.stream.StreamSupport;
 
 import com.schoste.ddd.infrastructure.dal.v2.exceptions.DALException;
 import com.schoste.ddd.infrastructure.dal.v2.models.GenericDataObject;
+import com.schoste.ddd.infrastructure.dal.v2.services.caching.BloomFilter;
+import com.schoste.ddd.infrastructure.dal.v2.services.caching.NegativeCache;
+import com.schoste.ddd.infrastructure.dal.v2.services.caching.TieredDataObjectCache;
 import com.schoste.ddd.infrastructure.dal.v2.services.listeners.DeleteListener;
 import com.schoste.ddd.infrastructure.dal.v2.services.listeners.GetListener;
+import com.schoste.ddd.infrastructure.dal.v2.services.listeners.ListenerInterest;
+import com.schoste.ddd.infrastructure.dal.v2.services.listeners.ListenerInterest.Phase;
+import com.schoste.ddd.infrastructure.dal.v2.services.listeners.OrderedListenerExecutor;
 import com.schoste.ddd.infrastructure.dal.v2.services.listeners.ReloadListener;
 import com.schoste.ddd.infrastructure.dal.v2.services.listeners.SaveListener;
 
@@ -25,11 +47,32 @@ import com.schoste.ddd.infrastructure.dal.v2.services.listeners.SaveListener;
  */
 public abstract class GenericDAO <T extends GenericDataObject> implements GenericDataAccessObject<T> 
 {
+	/**
+	 * The number of ids loaded at once by the lazy loaders of {@link #doGetRange(int, int)}
+	 */
+	public static final int RANGE_CHUNK_SIZE = 100;
+
 	protected long latestModificationTimeStamp = Long.MIN_VALUE;
+	protected HashSet<Integer> latestModificationIds = new HashSet<>();
 	protected HashSet<GetListener<T>> onGetListeners = new HashSet<>();
 	protected HashSet<SaveListener<T>> onSaveListeners = new HashSet<>();
 	protected HashSet<DeleteListener<T>> onDeleteListeners = new HashSet<>();
 	protected HashSet<ReloadListener<T>> onReloadListeners = new HashSet<>();
+	protected ConcurrentHashMap<GetListener<T>, ListenerInterest<T>> onGetListenerInterests = new ConcurrentHashMap<>();
+	protected ConcurrentHashMap<SaveListener<T>, ListenerInterest<T>> onSaveListenerInterests = new ConcurrentHashMap<>();
+	protected ConcurrentHashMap<DeleteListener<T>, ListenerInterest<T>> onDeleteListenerInterests = new ConcurrentHashMap<>();
+	protected ConcurrentHashMap<ReloadListener<T>, ListenerInterest<T>> onReloadListenerInterests = new ConcurrentHashMap<>();
+	protected volatile int prefetchDepth = 0;
+	protected volatile OrderedListenerExecutor afterListenerExecutor = null;
+	protected volatile TieredDataObjectCache<T> cache = null;
+	protected volatile NegativeCache negativeCache = null;
+	protected volatile BloomFilter bloomFilter = null;
+	protected volatile BloomFilter pendingBloomFilter = null;
+	protected volatile GroupCommitter<T> groupCommitter = null;
+	protected volatile boolean dirtyTracking = false;
+	protected final AtomicLong numOfSkippedSaves = new AtomicLong();
+	protected volatile RequestCoalescer<T> requestCoalescer = null;
+	protected volatile BatchLoader<T> batchLoader = null;
 
 	/**
 	 * The method that actually gets a data object and needs to be implemented by its deriving class.
@@ -60,6 +103,24 @@ public abstract class GenericDAO <T extends GenericDataObject> implements Generi
 	 */
 	protected abstract void doSave(T dataObject) throws Exception;
 
+	/**
+	 * The method that actually saves the changed properties of a persisted data object, if the data source supports partial updates.
+	 * Called by {@link #save(GenericDataObject)} instead of {@link #doSave(GenericDataObject)} if dirty tracking is enabled
+	 * and the data object supports change sets (see {@link GenericDataObject#supportsChangeSets()}) and recorded its changed properties
+	 * (see {@link GenericDataObject#getChangedProperties()}).
+	 * Implementations must update the time stamps like {@link #doSave(GenericDataObject)}.
+	 * The default implementation saves the whole data object via {@link #doSave(GenericDataObject)}.
+	 * Consider implementing the method synchronized for thread safety.
+	 * 
+	 * @param dataObject the data object to save
+	 * @param changedProperties the names of the properties which changed since the data object was loaded or saved
+	 * @throws Exception re-throws every exception
+	 */
+	protected void doSaveDelta(T dataObject, Set<String> changedProperties) throws Exception
+	{
+		this.doSave(dataObject);
+	}
+
 	/**
 	 * The method to actually save the data objects and needs to be implemented by its deriving class.
 	 * Consider implementing the method synchronized for thread safety.
@@ -105,6 +166,194 @@ public abstract class GenericDAO <T extends GenericDataObject> implements Generi
 	 */
 	protected abstract Collection<T> doReloadAll() throws Exception;
 
+	/**
+	 * The method that actually reloads the data objects modified at or after a time stamp.
+	 * The time stamp itself must be included, since data objects saved within the same millisecond as the latest
+	 * reloaded one would be missed otherwise; {@link #reloadChanged()} drops the data objects it already reloaded.
+	 * The default implementation filters the result of {@link #doReloadAll()}; deriving classes should
+	 * override it to let the data source select the modified data objects, so the cost depends on the number of changes only.
+	 * Consider implementing the method synchronized for thread safety.
+	 * 
+	 * @param modifiedTimeStamp the time stamp at or after which the data objects to reload were modified
+	 * @return a list of loaded data objects
+	 * @throws Exception re-throws every exception
+	 */
+	protected Collection<T> doReloadSince(long modifiedTimeStamp) throws Exception
+	{
+		Collection<T> dataObjects = new ArrayList<>();
+
+		for (T dataObject : this.doReloadAll()) if (dataObject.getModifiedTimeStamp() >= modifiedTimeStamp) dataObjects.add(dataObject);
+
+		return dataObjects;
+	}
+
+	/**
+	 * The method that actually counts the data objects.
+	 * The default implementation counts the ids streamed by {@link #streamIds(LazyLoader, Predicate)};
+	 * deriving classes should override it if the data source can answer from its metadata.
+	 * 
+	 * @return the number of data objects
+	 * @throws Exception re-throws every exception
+	 */
+	protected long doCount() throws Exception
+	{
+		try (Stream<Integer> ids = this.streamIds(this.createReusingLazyLoader(), null))
+		{
+			return ids.count();
+		}
+	}
+
+	/**
+	 * The method that actually gets a page of data objects in the order of their ids.
+	 * The default implementation streams all ids via {@link #streamIds(LazyLoader, Predicate)}, keeps the smallest ids after afterId
+	 * and loads only their data objects via {@link #doGet(int[])}. Hence every page costs O(n) in the number of data objects,
+	 * no matter how far the caller paged already; deriving classes should override it to seek afterId
+	 * if the data source supports range scans over the ids.
+	 * 
+	 * @param afterId the id after which the page starts
+	 * @param limit the maximum number of data objects of the page, at least 1
+	 * @return the page
+	 * @throws Exception re-throws every exception
+	 */
+	protected Page<T> doGetPage(int afterId, int limit) throws Exception
+	{
+		PriorityQueue<Integer> smallestIds = new PriorityQueue<>(Comparator.reverseOrder());
+
+		try (Stream<Integer> ids = this.streamIds(this.createReusingLazyLoader(), id -> id > afterId))
+		{
+			ids.forEach(id ->
+			{
+				// one id more than the limit tells if there is a next page
+				if ((smallestIds.size() > limit) && (id > smallestIds.peek())) return;
+
+				smallestIds.add(id);
+
+				if ((smallestIds.size() - 1) > limit) smallestIds.poll();
+			});
+		}
+
+		boolean hasNext = smallestIds.size() > limit;
+
+		if (hasNext) smallestIds.poll();
+
+		int[] pageIds = smallestIds.stream().mapToInt(Integer::intValue).sorted().toArray();
+		List<T> dataObjects = (pageIds.length < 1) ? new ArrayList<>() : new ArrayList<>(this.doGet(pageIds));
+
+		dataObjects.sort(Comparator.comparingInt(GenericDataObject::getId));
+
+		return new Page<>(dataObjects, (pageIds.length < 1) ? afterId : pageIds[pageIds.length - 1], hasNext);
+	}
+
+	/**
+	 * The method that actually creates a lazy loader of the data objects whose ids are within a range.
+	 * Lazy loaders whose source records are the ids (see {@link LazyLoader#hasIdSourceRecords()}) let {@link #deleteRange(int, int)}
+	 * collect the ids without loading the data objects.
+	 * The default implementation collects the ids in the range via {@link #streamIds(LazyLoader, Predicate)},
+	 * sorts them and returns an {@link IdListLazyLoader} which loads them in chunks via {@link #doGet(int[])};
+	 * deriving classes should override it if the data source can seek to an id.
+	 * 
+	 * @param fromId the smallest id of the range
+	 * @param toId the greatest id of the range
+	 * @return a lazy loader of the data objects within the range
+	 * @throws Exception re-throws every exception
+	 */
+	protected LazyLoader<Integer, T> doGetRange(int fromId, int toId) throws Exception
+	{
+		int[] ids;
+
+		try (Stream<Integer> idStream = this.streamIds(this.createReusingLazyLoader(), id -> (id >= fromId) && (id <= toId)))
+		{
+			ids = idStream.mapToInt(Integer::intValue).sorted().toArray();
+		}
+
+		return new IdListLazyLoader<>(ids, this::loadChunk, RANGE_CHUNK_SIZE);
+	}
+
+	/**
+	 * Streams the ids of the data objects provided by a lazy loader.
+	 * If the source records of the lazy loader are the ids (see {@link LazyLoader#hasIdSourceRecords()}), they are projected
+	 * without loading any data object; otherwise the data objects are loaded and their ids are streamed.
+	 * 
+	 * @param ll the lazy loader to consume, which is closed when the returned stream is closed
+	 * @param filterPredicate if not null, only ids passing this filter are streamed
+	 * @return a stream of ids
+	 * @throws Exception re-throws every exception
+	 */
+	protected Stream<Integer> streamIds(LazyLoader<Integer, T> ll, Predicate<? super Integer> filterPredicate) throws Exception
+	{
+		if (ll.hasIdSourceRecords())
+		{
+			try
+			{
+				return ll.project(id -> id, filterPredicate);
+			}
+			catch (UnsupportedOperationException e)
+			{
+				// the lazy loader does not support projections after all, so the data objects are loaded
+			}
+		}
+
+		Stream<Integer> ids = this.stream(ll, null).map(GenericDataObject::getId);
+
+		return (filterPredicate == null) ? ids : ids.filter(filterPredicate);
+	}
+
+	/**
+	 * Loads a chunk of data objects for a lazy loader via {@link #doGet(int[])}
+	 * 
+	 * @param ids the ids of the data objects
+	 * @return the data objects in the order of their ids
+	 * @throws IllegalStateException thrown if {@link #doGet(int[])} fails, with a {@link DALException} as cause
+	 */
+	protected List<T> loadChunk(List<Integer> ids) throws IllegalStateException
+	{
+		try
+		{
+			List<T> dataObjects = new ArrayList<>(this.doGet(ids.stream().mapToInt(Integer::intValue).toArray()));
+
+			dataObjects.sort(Comparator.comparingInt(GenericDataObject::getId));
+
+			return dataObjects;
+		}
+		catch (Exception e)
+		{
+			throw new IllegalStateException(new DALException(e));
+		}
+	}
+
+	/**
+	 * The method that actually checks if a data object exists.
+	 * The default implementation loads the data object via {@link #doGet(int)}; deriving classes should
+	 * override it if the data source can answer without materializing the data object.
+	 * 
+	 * @param id the id of the data object to check
+	 * @return true if the data object exists, false otherwise
+	 * @throws Exception re-throws every exception
+	 */
+	protected boolean doExists(int id) throws Exception
+	{
+		return this.doGet(id) != null;
+	}
+
+	/**
+	 * The method that actually checks if several data objects exist.
+	 * The default implementation loads the data objects via {@link #doGet(int[])}; deriving classes should
+	 * override it if the data source can answer without materializing the data objects.
+	 * 
+	 * @param ids the ids of the data objects to check
+	 * @return true if all data objects exist, false otherwise
+	 * @throws Exception re-throws every exception
+	 */
+	protected boolean doExistsAll(int[] ids) throws Exception
+	{
+		Set<Integer> missingIds = new HashSet<>();
+
+		for (int id : ids) missingIds.add(id);
+		for (T dataObject : this.doGet(ids)) if (dataObject != null) missingIds.remove(dataObject.getId());
+
+		return missingIds.isEmpty();
+	}
+
 	/**
 	 * Clears the actual storage. This method needs to be implemented by its deriving class.
 	 * Consider implementing the method synchronized for thread safety.
@@ -126,6 +375,21 @@ public abstract class GenericDAO <T extends GenericDataObject> implements Generi
 	 */
 	protected abstract LazyLoader<Integer, T> createLazyLoader() throws Exception;
 
+	/**
+	 * Returns an iterable object like {@link #createLazyLoader()}, but which may reuse its data objects
+	 * (for instance by creating it via {@link ConvertingLazyLoader#ConvertingLazyLoader(java.util.function.BiConsumer, java.util.function.Supplier, int)})
+	 * so it can be processed in calls to {@link GenericDataAccessObject#getAllReusing(Predicate)}
+	 * 
+	 * May be overwritten by the extending class. Returns the lazy loader of {@link #createLazyLoader()} by default.
+	 * 
+	 * @return an iterable object that will poll the next available data object from the data source
+	 * @throws Exception re-throws every exception
+	 */
+	protected LazyLoader<Integer, T> createReusingLazyLoader() throws Exception
+	{
+		return this.createLazyLoader();
+	}
+
 	/**
 	 * {@inheritDoc}
 	 */
@@ -133,105 +397,996 @@ public abstract class GenericDAO <T extends GenericDataObject> implements Generi
 	public abstract T createDataObject() throws DALException;
 
 	/**
-	 * Updates the latest modification time stamp (ts) of the DAO to the ts of
-	 * the data object in the provided collection with the greatest (most recent)
-	 * ts in the collection.
+	 * Gets the number of data objects which are loaded ahead of the consumer of {@link #getAll(Predicate)}
 	 * 
-	 * @param dataObjects a set of data object to check if one's ts is greater (more recent)
+	 * @return the number of data objects to load ahead, or 0 if data objects are loaded in the consuming thread
 	 */
-	protected synchronized void updateLatestModificationDate(Collection<T> dataObjects)
+	public int getPrefetchDepth()
 	{
-		for (T dataObject : dataObjects) updateLatestModificationDate(dataObject);
+		return this.prefetchDepth;
 	}
-	
+
 	/**
-	 * Updates the latest modification time stamp (ts) of the DAO to the ts of
-	 * the data object, if the data object's ts is greater (more recent) than the
-	 * ts of the DAO.
+	 * Sets the number of data objects which are loaded ahead of the consumer of {@link #getAll(Predicate)}.
+	 * If greater than 0, the lazy loaders created by {@link #createLazyLoader()} are wrapped by a {@link PrefetchingLazyLoader}
+	 * which loads and converts data objects in a background thread.
 	 * 
-	 * @param dataObject the data object to check if its ts is greater (more recent)
+	 * @param prefetchDepth the number of data objects to load ahead, or 0 to load data objects in the consuming thread
+	 * @throws IllegalArgumentException thrown if parameter prefetchDepth is negative
 	 */
-	protected synchronized void updateLatestModificationDate(T dataObject)
+	public void setPrefetchDepth(int prefetchDepth) throws IllegalArgumentException
 	{
-		long doTS = dataObject.getModifiedTimeStamp();
-		
-		if (doTS > this.latestModificationTimeStamp) this.latestModificationTimeStamp = doTS;
+		if (prefetchDepth < 0) throw new IllegalArgumentException("prefetchDepth");
+
+		this.prefetchDepth = prefetchDepth;
 	}
-	
+
 	/**
-	 * Obtains the actual data class of data objects that derive from GenericDataObject
+	 * Creates a lazy loader via {@link #createLazyLoader()} and wraps it by a {@link PrefetchingLazyLoader}
+	 * if a prefetch depth was set via {@link #setPrefetchDepth(int)}
 	 * 
-	 * @return the actual data class
-	 * @throws IllegalStateException thrown if the actual data class cannot be obtained
+	 * @return a lazy loader which will poll the next available data object from the data source
 	 * @throws Exception re-throws every exception
 	 */
-	@SuppressWarnings("rawtypes")
-	protected Class getDataObjectClass() throws IllegalStateException, Exception
+	protected LazyLoader<Integer, T> openLazyLoader() throws Exception
 	{
-		Type[] types = ((ParameterizedType) this.getClass().getGenericSuperclass()).getActualTypeArguments();
+		LazyLoader<Integer, T> ll = this.createLazyLoader();
 
-		if (types.length < 1) throw new IllegalStateException();
+		return (this.prefetchDepth > 0) ? new PrefetchingLazyLoader<>(ll, this.prefetchDepth) : ll;
+	}
 
-		return (Class) types[0];
+	/**
+	 * Gets the executor which notifies the after-listeners asynchronously
+	 * 
+	 * @return the executor or null if after-listeners are notified in the calling thread
+	 */
+	public OrderedListenerExecutor getAfterListenerExecutor()
+	{
+		return this.afterListenerExecutor;
 	}
-	
+
 	/**
-	 * {@inheritDoc}
+	 * Sets the executor which notifies the after-listeners ({@link GetListener#onAfterGet(GenericDataObject)},
+	 * {@link SaveListener#onAfterSaved(GenericDataObject)}, {@link DeleteListener#onAfterDeleted(GenericDataObject)},
+	 * {@link ReloadListener#onAfterReload(Collection)} and their overloads) asynchronously.
+	 * The notifications of this DAO are delivered in the order of the operations which triggered them.
+	 * The data objects are passed to the listeners as they are, so they may have been changed by the caller in the meantime.
+	 * Exceptions thrown by after-listeners are no longer re-thrown to the caller, but reported via {@link OrderedListenerExecutor#reportFailure(Throwable)}.
+	 * 
+	 * @param afterListenerExecutor the executor or null to notify the after-listeners in the calling thread
 	 */
-	@Override
-	public void clear() throws DALException
+	public void setAfterListenerExecutor(OrderedListenerExecutor afterListenerExecutor)
 	{
-		try
+		this.afterListenerExecutor = afterListenerExecutor;
+	}
+
+	/**
+	 * Gets the cache in front of the data source
+	 * 
+	 * @return the cache or null if data objects are always loaded from the data source
+	 */
+	public TieredDataObjectCache<T> getCache()
+	{
+		return this.cache;
+	}
+
+	/**
+	 * Sets a cache in front of the data source, which is used by {@link #get(int)} and {@link #get(int[])}.
+	 * Saved and deleted data objects are invalidated, and the whole cache is cleared by {@link #clear()} and {@link #reloadAll()}.
+	 * Data objects served by the cache are copies, so changing them does not affect other callers.
+	 * Other methods (for instance {@link #getAll(Predicate)}) always read from the data source.
+	 * Changes of the data source which bypass this DAO are not detected.
+	 * 
+	 * @param cache the cache or null to always load data objects from the data source
+	 */
+	public void setCache(TieredDataObjectCache<T> cache)
+	{
+		this.cache = cache;
+	}
+
+	/**
+	 * Gets the cache of ids for which no data object was found
+	 * 
+	 * @return the negative cache or null if missing ids are always looked up in the data source
+	 */
+	public NegativeCache getNegativeCache()
+	{
+		return this.negativeCache;
+	}
+
+	/**
+	 * Sets a cache of ids for which {@link #doGet(int)} or {@link #doGet(int[])} found no data object, so {@link #get(int)} and
+	 * {@link #get(int[])} do not look them up in the data source again. Ids are forgotten when a data object with the id is saved,
+	 * and all ids are forgotten by {@link #clear()} and {@link #reloadAll()}.
+	 * Data objects created in the data source without this DAO are not found until the time to live of their id has passed.
+	 * 
+	 * @param negativeCache the negative cache or null to always look up missing ids in the data source
+	 */
+	public void setNegativeCache(NegativeCache negativeCache)
+	{
+		this.negativeCache = negativeCache;
+	}
+
+	/**
+	 * Gets the Bloom filter of the ids of existing data objects
+	 * 
+	 * @return the Bloom filter or null if {@link #exists(int)} always asks the data source
+	 */
+	public BloomFilter getBloomFilter()
+	{
+		return this.bloomFilter;
+	}
+
+	/**
+	 * Sets a Bloom filter of the ids of existing data objects, so {@link #exists(int)} and {@link #existsAll(int[])}
+	 * answer definite negatives without asking the data source. The filter is filled with the ids of all data objects
+	 * of the data source and afterwards with the ids of saved and reloaded data objects.
+	 * The filter is used once it holds all ids, and data objects saved or reloaded while it is filled are added as well
+	 * (see {@link #rememberExisting(Collection)}), so they are not reported as missing.
+	 * Data objects created in the data source without this DAO are only found after {@link #reloadChanged()} or {@link #reloadAll()}.
+	 * 
+	 * @param bloomFilter the Bloom filter or null to always ask the data source
+	 * @throws DALException re-throws every exception while reading the ids of the data source as DAL exception
+	 */
+	public void setBloomFilter(BloomFilter bloomFilter) throws DALException
+	{
+		if (bloomFilter == null)
 		{
-			this.doClear();
-			this.latestModificationTimeStamp = Long.MIN_VALUE;
+			this.bloomFilter = null;
+
+			return;
+		}
+
+		this.pendingBloomFilter = bloomFilter;
+
+		try (Stream<Integer> ids = this.streamIds(this.createReusingLazyLoader(), null))
+		{
+			ids.forEach(bloomFilter::put);
+
+			this.bloomFilter = bloomFilter;
 		}
 		catch (Exception e)
 		{
 			throw new DALException(e);
 		}
+		finally
+		{
+			this.pendingBloomFilter = null;
+		}
 	}
 
 	/**
-	 * {@inheritDoc}
+	 * Gets the group committer of the units of work created by {@link #createUnitOfWork()}
+	 * 
+	 * @return the group committer or null if every unit of work is written on its own
 	 */
-	@Override
-	public synchronized void registerOnGetListener(GetListener<T> listener) throws IllegalArgumentException
+	public GroupCommitter<T> getGroupCommitter()
 	{
-		if (listener == null) throw new IllegalArgumentException("listener");
+		return this.groupCommitter;
+	}
 
-		this.onGetListeners.add(listener);
+	/**
+	 * Sets a group committer which merges units of work committed by concurrent threads into shared saves and deletes
+	 * 
+	 * @param groupCommitter the group committer or null to write every unit of work on its own
+	 */
+	public void setGroupCommitter(GroupCommitter<T> groupCommitter)
+	{
+		this.groupCommitter = groupCommitter;
 	}
 
 	/**
-	 * {@inheritDoc}
+	 * Checks if saves of unchanged data objects are skipped
+	 * 
+	 * @return true if dirty tracking is enabled
 	 */
-	@Override
-	public synchronized void unregisterOnGetListener(GetListener<T> listener) throws IllegalArgumentException
+	public boolean isDirtyTracking()
 	{
-		if (listener == null) throw new IllegalArgumentException("listener");
+		return this.dirtyTracking;
+	}
 
-		this.onGetListeners.remove(listener);		
+	/**
+	 * Enables or disables dirty tracking. If enabled, the state of data objects is captured via {@link GenericDataObject#markClean()}
+	 * when they are loaded from the data source or the cache or saved, and saves of persisted data objects which did not change since
+	 * are skipped without notifying the save listeners (see {@link #getSkippedSaveCount()}).
+	 * Data objects which support change sets (see {@link GenericDataObject#supportsChangeSets()}) only record their changed properties;
+	 * the content of other data objects is serialized and hashed on every load and save.
+	 * Requires a data source which creates new data object instances on every load.
+	 * 
+	 * @param dirtyTracking true to skip saves of unchanged data objects
+	 */
+	public void setDirtyTracking(boolean dirtyTracking)
+	{
+		this.dirtyTracking = dirtyTracking;
 	}
 
 	/**
-	 * {@inheritDoc}
+	 * Gets the number of saves skipped by dirty tracking
+	 * 
+	 * @return the number of data objects which were not saved because they did not change
 	 */
-	@Override
-	public synchronized Collection<GetListener<T>> getOnGetListeners()
+	public long getSkippedSaveCount()
 	{
-		return new HashSet<>(this.onGetListeners);
+		return this.numOfSkippedSaves.get();
 	}
 
 	/**
-	 * {@inheritDoc}
+	 * Gets the coalescer of concurrent loads of the same data objects
+	 * 
+	 * @return the coalescer or null if every get loads its data objects itself
 	 */
-	@Override
-	public synchronized void registerOnSaveListener(SaveListener<T> listener) throws IllegalArgumentException
+	public RequestCoalescer<T> getRequestCoalescer()
+	{
+		return this.requestCoalescer;
+	}
+
+	/**
+	 * Sets a coalescer of concurrent loads of the same data objects, which is used by {@link #get(int)} and {@link #get(int[])}
+	 * for data objects which are not cached. Concurrent gets of the same id then share a single call of {@link #doGet(int)}
+	 * or {@link #doGet(int[])} and its result.
+	 * 
+	 * @param requestCoalescer the coalescer or null to let every get load its data objects itself
+	 */
+	public void setRequestCoalescer(RequestCoalescer<T> requestCoalescer)
+	{
+		this.requestCoalescer = requestCoalescer;
+	}
+
+	/**
+	 * Gets the batch loader which collects concurrent gets of single data objects
+	 * 
+	 * @return the batch loader or null if {@link #get(int)} loads its data object via {@link #doGet(int)}
+	 */
+	public BatchLoader<T> getBatchLoader()
+	{
+		return this.batchLoader;
+	}
+
+	/**
+	 * Sets a batch loader which collects the calls of {@link #get(int)} issued by concurrent threads within a short window
+	 * for data objects which are not cached, and loads them via a single call of {@link #doGet(int[])}
+	 * 
+	 * @param batchLoader the batch loader or null to let {@link #get(int)} load its data object via {@link #doGet(int)}
+	 */
+	public void setBatchLoader(BatchLoader<T> batchLoader)
+	{
+		this.batchLoader = batchLoader;
+	}
+
+	/**
+	 * Loads a data object from the cache set by {@link #setCache(TieredDataObjectCache)} or, if it is not cached and not known
+	 * to be missing by the negative cache set by {@link #setNegativeCache(NegativeCache)}, as part of a window of the batch loader
+	 * set by {@link #setBatchLoader(BatchLoader)} or via {@link #loadFromDataSource(int)}, coalesced by the coalescer set by
+	 * {@link #setRequestCoalescer(RequestCoalescer)}
+	 * 
+	 * @param id the id of the data object to load
+	 * @return the loaded data object or null if there is no such data object
+	 * @throws Exception re-throws every exception of {@link #doGet(int)}, {@link #doGet(int[])} or of the coalescer
+	 */
+	protected T load(int id) throws Exception
+	{
+		TieredDataObjectCache<T> currentCache = this.cache;
+
+		if (currentCache != null)
+		{
+			T dataObject = currentCache.get(id);
+
+			// copies served by the cache carry no clean state
+			if (dataObject != null) return this.captureCleanState(dataObject);
+		}
+
+		NegativeCache currentNegativeCache = this.negativeCache;
+
+		if ((currentNegativeCache != null) && currentNegativeCache.isMissing(id)) return null;
+
+		BatchLoader<T> batcher = this.batchLoader;
+
+		if (batcher != null) return batcher.get(id, this::loadCoalesced);
+
+		RequestCoalescer<T> coalescer = this.requestCoalescer;
+
+		return (coalescer == null) ? this.loadFromDataSource(id) : coalescer.get(id, this::loadFromDataSource);
+	}
+
+	/**
+	 * Loads data objects from the cache set by {@link #setCache(TieredDataObjectCache)} and those which are neither cached nor known
+	 * to be missing by the negative cache set by {@link #setNegativeCache(NegativeCache)} via {@link #loadFromDataSource(int[])},
+	 * coalesced by the coalescer set by {@link #setRequestCoalescer(RequestCoalescer)}.
+	 * If a cache or negative cache is set, the data objects are returned in the order of the given ids.
+	 * 
+	 * @param ids the ids of the data objects to load or null to load all data objects from the data source
+	 * @return the loaded data objects
+	 * @throws Exception re-throws every exception of {@link #doGet(int[])} or of the coalescer
+	 */
+	protected Collection<T> load(int[] ids) throws Exception
+	{
+		TieredDataObjectCache<T> currentCache = this.cache;
+		NegativeCache currentNegativeCache = this.negativeCache;
+
+		if ((ids == null) || ((currentCache == null) && (currentNegativeCache == null) && (this.requestCoalescer == null))) return this.captureCleanState(this.doGet(ids));
+
+		Map<Integer, T> dataObjectsById = new HashMap<>(ids.length * 2);
+		int[] missingIds = new int[ids.length];
+		int numOfMissingIds = 0;
+
+		for (int id : ids)
+		{
+			T dataObject = (currentCache == null) ? null : currentCache.get(id);
+
+			if (dataObject != null) dataObjectsById.put(id, this.captureCleanState(dataObject));
+			else if ((currentNegativeCache == null) || !currentNegativeCache.isMissing(id)) missingIds[numOfMissingIds++] = id;
+		}
+
+		if (numOfMissingIds > 0)
+		{
+			Collection<T> loaded = this.loadCoalesced((numOfMissingIds == ids.length) ? ids : Arrays.copyOf(missingIds, numOfMissingIds));
+
+			for (T dataObject : loaded) if (dataObject != null) dataObjectsById.put(dataObject.getId(), dataObject);
+		}
+
+		List<T> dataObjects = new ArrayList<>(dataObjectsById.size());
+
+		// removing keeps the first occurrence of ids which were requested more than once
+		for (int id : ids)
+		{
+			T dataObject = dataObjectsById.remove(id);
+
+			if (dataObject != null) dataObjects.add(dataObject);
+		}
+
+		return dataObjects;
+	}
+
+	/**
+	 * Loads data objects via {@link #loadFromDataSource(int[])}, coalesced by the coalescer set by {@link #setRequestCoalescer(RequestCoalescer)}
+	 * 
+	 * @param ids the ids of the data objects to load
+	 * @return the loaded data objects
+	 * @throws Exception re-throws every exception of {@link #doGet(int[])} or of the coalescer
+	 */
+	protected Collection<T> loadCoalesced(int[] ids) throws Exception
+	{
+		RequestCoalescer<T> coalescer = this.requestCoalescer;
+
+		return (coalescer == null) ? this.loadFromDataSource(ids) : coalescer.get(ids, this::loadFromDataSource);
+	}
+
+	/**
+	 * Loads a data object via {@link #doGet(int)} and puts it into the cache set by {@link #setCache(TieredDataObjectCache)},
+	 * or its id into the negative cache set by {@link #setNegativeCache(NegativeCache)} if it was not found
+	 * 
+	 * @param id the id of the data object to load
+	 * @return the loaded data object or null if there is no such data object
+	 * @throws Exception re-throws every exception of {@link #doGet(int)}
+	 */
+	protected T loadFromDataSource(int id) throws Exception
+	{
+		TieredDataObjectCache<T> currentCache = this.cache;
+		NegativeCache currentNegativeCache = this.negativeCache;
+
+		if ((currentCache == null) && (currentNegativeCache == null)) return this.captureCleanState(this.doGet(id));
+
+		long invalidationStamp = (currentCache == null) ? 0 : currentCache.getInvalidationStamp();
+		long negativeInvalidationStamp = (currentNegativeCache == null) ? 0 : currentNegativeCache.getInvalidationStamp();
+		T dataObject = this.captureCleanState(this.doGet(id));
+
+		if (dataObject == null)
+		{
+			if (currentNegativeCache != null) currentNegativeCache.recordMiss(id, negativeInvalidationStamp);
+		}
+		else if (currentCache != null)
+		{
+			currentCache.put(dataObject, invalidationStamp);
+		}
+
+		return dataObject;
+	}
+
+	/**
+	 * Loads data objects via a single call of {@link #doGet(int[])} and puts them into the cache set by {@link #setCache(TieredDataObjectCache)},
+	 * and the ids which were not found into the negative cache set by {@link #setNegativeCache(NegativeCache)}
+	 * 
+	 * @param ids the ids of the data objects to load
+	 * @return the loaded data objects
+	 * @throws Exception re-throws every exception of {@link #doGet(int[])}
+	 */
+	protected Collection<T> loadFromDataSource(int[] ids) throws Exception
+	{
+		TieredDataObjectCache<T> currentCache = this.cache;
+		NegativeCache currentNegativeCache = this.negativeCache;
+
+		if ((currentCache == null) && (currentNegativeCache == null)) return this.captureCleanState(this.doGet(ids));
+
+		long invalidationStamp = (currentCache == null) ? 0 : currentCache.getInvalidationStamp();
+		long negativeInvalidationStamp = (currentNegativeCache == null) ? 0 : currentNegativeCache.getInvalidationStamp();
+		Collection<T> dataObjects = this.captureCleanState(this.doGet(ids));
+		Set<Integer> foundIds = new HashSet<>();
+
+		for (T dataObject : dataObjects)
+		{
+			if (dataObject == null) continue;
+			if (currentCache != null) currentCache.put(dataObject, invalidationStamp);
+
+			foundIds.add(dataObject.getId());
+		}
+
+		if (currentNegativeCache != null)
+		{
+			for (int id : ids) if (!foundIds.contains(id)) currentNegativeCache.recordMiss(id, negativeInvalidationStamp);
+		}
+
+		return dataObjects;
+	}
+
+	/**
+	 * Captures the state of a loaded or saved data object if dirty tracking is enabled
+	 * 
+	 * @param dataObject the data object or null
+	 * @return the data object
+	 */
+	protected T captureCleanState(T dataObject)
+	{
+		if (this.dirtyTracking && (dataObject != null)) dataObject.markClean();
+
+		return dataObject;
+	}
+
+	/**
+	 * Captures the state of loaded or saved data objects if dirty tracking is enabled
+	 * 
+	 * @param dataObjects the data objects
+	 * @return the data objects
+	 */
+	protected Collection<T> captureCleanState(Collection<T> dataObjects)
+	{
+		if (this.dirtyTracking) for (T dataObject : dataObjects) if (dataObject != null) dataObject.markClean();
+
+		return dataObjects;
+	}
+
+	/**
+	 * Checks if a save of a data object can be skipped because dirty tracking is enabled and the data object is persisted and unchanged
+	 * 
+	 * @param dataObject the data object to save
+	 * @return true if the save can be skipped
+	 */
+	protected boolean isUnchanged(T dataObject)
+	{
+		return this.dirtyTracking && (dataObject.getId() > 0) && !dataObject.isDirty();
+	}
+
+	/**
+	 * Gets the properties of a data object to save via {@link #doSaveDelta(GenericDataObject, Set)}
+	 * 
+	 * @param dataObject the data object to save
+	 * @return the changed properties or null if the data object has to be saved entirely,
+	 *         for instance if it does not record all its changes (see {@link GenericDataObject#supportsChangeSets()})
+	 */
+	protected Set<String> getDeltaProperties(T dataObject)
+	{
+		if (!this.dirtyTracking || (dataObject.getId() < 1) || !dataObject.supportsChangeSets()) return null;
+
+		Set<String> changedProperties = dataObject.getChangedProperties();
+
+		return ((changedProperties == null) || changedProperties.isEmpty()) ? null : changedProperties;
+	}
+
+	/**
+	 * Removes the data objects whose saves can be skipped by dirty tracking and counts them as skipped saves
+	 * 
+	 * @param dataObjects the data objects to save
+	 * @return the data objects which need to be saved
+	 */
+	protected Collection<T> withoutUnchanged(Collection<T> dataObjects)
+	{
+		if (!this.dirtyTracking) return dataObjects;
+
+		Collection<T> changedDataObjects = new ArrayList<>(dataObjects.size());
+
+		for (T dataObject : dataObjects)
+		{
+			if (this.isUnchanged(dataObject)) this.numOfSkippedSaves.incrementAndGet();
+			else changedDataObjects.add(dataObject);
+		}
+
+		return changedDataObjects;
+	}
+
+	/**
+	 * Removes data objects from the cache set by {@link #setCache(TieredDataObjectCache)} and their ids from the negative cache
+	 * set by {@link #setNegativeCache(NegativeCache)}
+	 * 
+	 * @param ids the ids of the data objects to remove
+	 */
+	protected void invalidate(int... ids)
+	{
+		TieredDataObjectCache<T> currentCache = this.cache;
+		NegativeCache currentNegativeCache = this.negativeCache;
+
+		if (currentCache != null) for (int id : ids) currentCache.invalidate(id);
+		if (currentNegativeCache != null) for (int id : ids) currentNegativeCache.invalidate(id);
+	}
+
+	/**
+	 * Removes data objects from the cache set by {@link #setCache(TieredDataObjectCache)} and their ids from the negative cache
+	 * set by {@link #setNegativeCache(NegativeCache)}
+	 * 
+	 * @param dataObjects the data objects to remove
+	 */
+	protected void invalidate(Collection<T> dataObjects)
+	{
+		this.invalidate(dataObjects.stream().mapToInt(GenericDataObject::getId).toArray());
+	}
+
+	/**
+	 * Adds the ids of saved or reloaded data objects to the Bloom filter set by {@link #setBloomFilter(BloomFilter)},
+	 * including a filter which is still being filled with the ids of the data source
+	 * 
+	 * @param dataObjects the existing data objects
+	 */
+	protected void rememberExisting(Collection<T> dataObjects)
+	{
+		// the pending filter is read first: once it is gone, the filled filter has already been published
+		BloomFilter currentPendingBloomFilter = this.pendingBloomFilter;
+		BloomFilter currentBloomFilter = this.bloomFilter;
+
+		if (currentPendingBloomFilter != null) for (T dataObject : dataObjects) currentPendingBloomFilter.put(dataObject.getId());
+		if ((currentBloomFilter != null) && (currentBloomFilter != currentPendingBloomFilter)) for (T dataObject : dataObjects) currentBloomFilter.put(dataObject.getId());
+	}
+
+	/**
+	 * Removes all data objects from the cache set by {@link #setCache(TieredDataObjectCache)} and all ids from the negative cache
+	 * set by {@link #setNegativeCache(NegativeCache)}
+	 */
+	protected void invalidateAll()
+	{
+		TieredDataObjectCache<T> currentCache = this.cache;
+		NegativeCache currentNegativeCache = this.negativeCache;
+
+		if (currentCache != null) currentCache.clear();
+		if (currentNegativeCache != null) currentNegativeCache.clear();
+	}
+
+	/**
+	 * Notifies all given after-listeners, either in the calling thread or via the executor set by {@link #setAfterListenerExecutor(OrderedListenerExecutor)}.
+	 * In the latter case the listeners registered at the time of the call are notified with the interests they had at that time.
+	 * 
+	 * @param <L> the type of the listeners
+	 * @param listeners the listeners to notify
+	 * @param interests the interests of the listeners which were registered with one
+	 * @param notification invokes the after-method of a listener given its interest, which is null if it has none
+	 */
+	protected <L> void notifyAfterListeners(Collection<L> listeners, Map<L, ListenerInterest<T>> interests, BiConsumer<L, ListenerInterest<T>> notification)
+	{
+		OrderedListenerExecutor executor = this.afterListenerExecutor;
+
+		if (executor == null)
+		{
+			for (L listener : listeners) notification.accept(listener, interests.get(listener));
+
+			return;
+		}
+
+		if (listeners.isEmpty()) return;
+
+		List<L> listenersToNotify = new ArrayList<>(listeners);
+		List<ListenerInterest<T>> interestsOfListeners = new ArrayList<>(listenersToNotify.size());
+
+		for (L listener : listenersToNotify) interestsOfListeners.add(interests.get(listener));
+
+		executor.execute(() ->
+		{
+			for (int i = 0; i < listenersToNotify.size(); i++)
+			{
+				try
+				{
+					notification.accept(listenersToNotify.get(i), interestsOfListeners.get(i));
+				}
+				catch (RuntimeException e)
+				{
+					executor.reportFailure(e);
+				}
+			}
+		});
+	}
+
+	/**
+	 * Notifies the after-listeners interested in a data object via {@link #notifyAfterListeners(Collection, Map, BiConsumer)}
+	 * 
+	 * @param <L> the type of the listeners
+	 * @param listeners the listeners to notify
+	 * @param interests the interests of the listeners which were registered with one
+	 * @param dataObject the data object of the operation
+	 * @param notification invokes the after-method of a listener
+	 */
+	protected <L> void notifyAfterListeners(Collection<L> listeners, Map<L, ListenerInterest<T>> interests, T dataObject, BiConsumer<L, T> notification)
+	{
+		this.notifyAfterListeners(listeners, interests, (listener, interest) ->
+		{
+			if ((interest == null) || (interest.includes(Phase.AFTER) && interest.matches(dataObject))) notification.accept(listener, dataObject);
+		});
+	}
+
+	/**
+	 * Notifies the after-listeners interested in some of the data objects via {@link #notifyAfterListeners(Collection, Map, BiConsumer)}.
+	 * Each listener receives only the data objects of interest.
+	 * 
+	 * @param <L> the type of the listeners
+	 * @param listeners the listeners to notify
+	 * @param interests the interests of the listeners which were registered with one
+	 * @param dataObjects the data objects of the operation
+	 * @param notification invokes the after-method of a listener
+	 */
+	protected <L> void notifyAfterListeners(Collection<L> listeners, Map<L, ListenerInterest<T>> interests, Collection<T> dataObjects, BiConsumer<L, Collection<T>> notification)
+	{
+		this.notifyAfterListeners(listeners, interests, (listener, interest) ->
+		{
+			if (interest == null)
+			{
+				notification.accept(listener, dataObjects);
+			}
+			else if (interest.includes(Phase.AFTER))
+			{
+				Collection<T> selectedDataObjects = interest.select(dataObjects);
+
+				if ((selectedDataObjects == dataObjects) || !selectedDataObjects.isEmpty()) notification.accept(listener, selectedDataObjects);
+			}
+		});
+	}
+
+	/**
+	 * Notifies the after-listeners interested in some of the ids via {@link #notifyAfterListeners(Collection, Map, BiConsumer)}.
+	 * Each listener receives only the ids of interest.
+	 * 
+	 * @param <L> the type of the listeners
+	 * @param listeners the listeners to notify
+	 * @param interests the interests of the listeners which were registered with one
+	 * @param ids the ids of the operation
+	 * @param notification invokes the after-method of a listener
+	 */
+	protected <L> void notifyAfterListeners(Collection<L> listeners, Map<L, ListenerInterest<T>> interests, int[] ids, BiConsumer<L, int[]> notification)
+	{
+		this.notifyAfterListeners(listeners, interests, (listener, interest) ->
+		{
+			if (interest == null)
+			{
+				notification.accept(listener, ids);
+			}
+			else if (interest.includes(Phase.AFTER))
+			{
+				int[] selectedIds = interest.select(ids);
+
+				if ((selectedIds == ids) || (selectedIds.length > 0)) notification.accept(listener, selectedIds);
+			}
+		});
+	}
+
+	/**
+	 * Notifies the before-listeners interested in a data object in the calling thread
+	 * 
+	 * @param <L> the type of the listeners
+	 * @param listeners the listeners to notify
+	 * @param interests the interests of the listeners which were registered with one
+	 * @param dataObject the data object of the operation
+	 * @param notification invokes the before-method of a listener and returns its result
+	 * @return false if a listener cancelled the operation
+	 */
+	protected <L> boolean notifyBeforeListeners(Collection<L> listeners, Map<L, ListenerInterest<T>> interests, T dataObject, BiPredicate<L, T> notification)
+	{
+		for (L listener : listeners)
+		{
+			ListenerInterest<T> interest = interests.get(listener);
+
+			if ((interest != null) && !(interest.includes(Phase.BEFORE) && interest.matches(dataObject))) continue;
+			if (!notification.test(listener, dataObject)) return false;
+		}
+
+		return true;
+	}
+
+	/**
+	 * Notifies the before-listeners interested in some of the data objects in the calling thread.
+	 * Each listener receives only the data objects of interest. If a listener changes its subset,
+	 * the changes are applied to the collection of data objects before the next listener is notified.
+	 * 
+	 * @param <L> the type of the listeners
+	 * @param listeners the listeners to notify
+	 * @param interests the interests of the listeners which were registered with one
+	 * @param dataObjects the data objects of the operation
+	 * @param notification invokes the before-method of a listener and returns its result
+	 * @return false if a listener cancelled the operation
+	 */
+	protected <L> boolean notifyBeforeListeners(Collection<L> listeners, Map<L, ListenerInterest<T>> interests, Collection<T> dataObjects, BiPredicate<L, Collection<T>> notification)
+	{
+		for (L listener : listeners)
+		{
+			ListenerInterest<T> interest = interests.get(listener);
+
+			if (interest == null)
+			{
+				if (!notification.test(listener, dataObjects)) return false;
+
+				continue;
+			}
+
+			if (!interest.includes(Phase.BEFORE)) continue;
+
+			Collection<T> selectedDataObjects = interest.select(dataObjects);
+
+			if (selectedDataObjects == dataObjects)
+			{
+				if (!notification.test(listener, dataObjects)) return false;
+
+				continue;
+			}
+
+			if (selectedDataObjects.isEmpty()) continue;
+
+			List<T> originallySelectedDataObjects = new ArrayList<>(selectedDataObjects);
+
+			if (!notification.test(listener, selectedDataObjects)) return false;
+
+			mergeDataObjects(dataObjects, originallySelectedDataObjects, selectedDataObjects);
+		}
+
+		return true;
+	}
+
+	/**
+	 * Notifies the before-listeners interested in some of the ids in the calling thread.
+	 * Each listener receives only the ids of interest. The ids returned by a listener replace its ids of interest
+	 * before the next listener is notified.
+	 * 
+	 * @param <L> the type of the listeners
+	 * @param listeners the listeners to notify
+	 * @param interests the interests of the listeners which were registered with one
+	 * @param ids the ids of the operation or null if all data objects are affected
+	 * @param notification invokes the before-method of a listener and returns the ids to use
+	 * @return the ids to use for the operation
+	 */
+	protected <L> int[] notifyBeforeListeners(Collection<L> listeners, Map<L, ListenerInterest<T>> interests, int[] ids, BiFunction<L, int[], int[]> notification)
+	{
+		int[] actualIds = ids;
+
+		for (L listener : listeners)
+		{
+			ListenerInterest<T> interest = interests.get(listener);
+
+			if (interest == null)
+			{
+				actualIds = notification.apply(listener, actualIds);
+
+				continue;
+			}
+
+			if (!interest.includes(Phase.BEFORE)) continue;
+
+			int[] selectedIds = interest.select(actualIds);
+
+			if (selectedIds == actualIds) actualIds = notification.apply(listener, actualIds);
+			else if (selectedIds.length > 0) actualIds = mergeIds(actualIds, interest, notification.apply(listener, selectedIds));
+		}
+
+		return actualIds;
+	}
+
+	/**
+	 * Replaces the data objects a listener received with the data objects the listener left in its subset
+	 * 
+	 * @param <T> the type of the data objects
+	 * @param dataObjects the data objects of the operation
+	 * @param originallySelectedDataObjects the data objects passed to the listener
+	 * @param selectedDataObjects the data objects after the listener was notified
+	 */
+	protected static <T> void mergeDataObjects(Collection<T> dataObjects, List<T> originallySelectedDataObjects, Collection<T> selectedDataObjects)
+	{
+		if (originallySelectedDataObjects.size() == selectedDataObjects.size())
+		{
+			int i = 0;
+			boolean changed = false;
+
+			for (T selectedDataObject : selectedDataObjects) changed |= (selectedDataObject != originallySelectedDataObjects.get(i++));
+
+			if (!changed) return;
+		}
+
+		Set<T> replacedDataObjects = Collections.newSetFromMap(new IdentityHashMap<>());
+
+		replacedDataObjects.addAll(originallySelectedDataObjects);
+		dataObjects.removeIf(replacedDataObjects::contains);
+		dataObjects.addAll(selectedDataObjects);
+	}
+
+	/**
+	 * Replaces the ids of interest with the ids a listener returned
+	 * 
+	 * @param ids the ids of the operation
+	 * @param interest the interest of the listener
+	 * @param returnedIds the ids returned by the listener
+	 * @return the ids which are not of interest followed by the returned ids
+	 */
+	protected static int[] mergeIds(int[] ids, ListenerInterest<?> interest, int[] returnedIds)
+	{
+		int[] unselectedIds = Arrays.stream(ids).filter(id -> !interest.matches(id)).toArray();
+
+		if ((returnedIds == null) || (returnedIds.length < 1)) return unselectedIds;
+
+		int[] mergedIds = Arrays.copyOf(unselectedIds, unselectedIds.length + returnedIds.length);
+
+		System.arraycopy(returnedIds, 0, mergedIds, unselectedIds.length, returnedIds.length);
+
+		return mergedIds;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public void flushListeners() throws DALException
+	{
+		OrderedListenerExecutor executor = this.afterListenerExecutor;
+
+		if (executor == null) return;
+
+		try
+		{
+			executor.flush();
+		}
+		catch (InterruptedException e)
+		{
+			Thread.currentThread().interrupt();
+
+			throw new DALException(e);
+		}
+	}
+
+	/**
+	 * Updates the latest modification time stamp (ts) of the DAO to the ts of
+	 * the data object in the provided collection with the greatest (most recent)
+	 * ts in the collection.
+	 * 
+	 * @param dataObjects a set of data object to check if one's ts is greater (more recent)
+	 */
+	protected synchronized void updateLatestModificationDate(Collection<T> dataObjects)
+	{
+		for (T dataObject : dataObjects) updateLatestModificationDate(dataObject);
+	}
+	
+	/**
+	 * Updates the latest modification time stamp (ts) of the DAO to the ts of
+	 * the data object, if the data object's ts is greater (more recent) than the
+	 * ts of the DAO. The ids of the data objects with the latest ts are remembered,
+	 * so {@link #reloadChanged()} does not provide them again.
+	 * 
+	 * @param dataObject the data object to check if its ts is greater (more recent)
+	 */
+	protected synchronized void updateLatestModificationDate(T dataObject)
+	{
+		long doTS = dataObject.getModifiedTimeStamp();
+		
+		if (doTS > this.latestModificationTimeStamp)
+		{
+			this.latestModificationTimeStamp = doTS;
+			this.latestModificationIds.clear();
+		}
+
+		if (doTS == this.latestModificationTimeStamp) this.latestModificationIds.add(dataObject.getId());
+	}
+	
+	/**
+	 * Obtains the actual data class of data objects that derive from GenericDataObject
+	 * 
+	 * @return the actual data class
+	 * @throws IllegalStateException thrown if the actual data class cannot be obtained
+	 * @throws Exception re-throws every exception
+	 */
+	@SuppressWarnings("rawtypes")
+	protected Class getDataObjectClass() throws IllegalStateException, Exception
+	{
+		Type[] types = ((ParameterizedType) this.getClass().getGenericSuperclass()).getActualTypeArguments();
+
+		if (types.length < 1) throw new IllegalStateException();
+
+		return (Class) types[0];
+	}
+	
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public void clear() throws DALException
+	{
+		try
+		{
+			this.doClear();
+
+			synchronized (this)
+			{
+				this.latestModificationTimeStamp = Long.MIN_VALUE;
+				this.latestModificationIds.clear();
+			}
+
+			this.invalidateAll();
+
+			BloomFilter currentBloomFilter = this.bloomFilter;
+
+			if (currentBloomFilter != null) currentBloomFilter.clear();
+		}
+		catch (Exception e)
+		{
+			throw new DALException(e);
+		}
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public synchronized void registerOnGetListener(GetListener<T> listener) throws IllegalArgumentException
+	{
+		if (listener == null) throw new IllegalArgumentException("listener");
+
+		this.onGetListeners.add(listener);
+		this.onGetListenerInterests.remove(listener);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public synchronized void registerOnGetListener(GetListener<T> listener, ListenerInterest<T> interest) throws IllegalArgumentException
+	{
+		if (listener == null) throw new IllegalArgumentException("listener");
+		if (interest == null) throw new IllegalArgumentException("interest");
+
+		this.onGetListeners.add(listener);
+		this.onGetListenerInterests.put(listener, interest);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public synchronized void unregisterOnGetListener(GetListener<T> listener) throws IllegalArgumentException
+	{
+		if (listener == null) throw new IllegalArgumentException("listener");
+
+		this.onGetListeners.remove(listener);
+		this.onGetListenerInterests.remove(listener);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public synchronized Collection<GetListener<T>> getOnGetListeners()
+	{
+		return new HashSet<>(this.onGetListeners);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public synchronized void registerOnSaveListener(SaveListener<T> listener) throws IllegalArgumentException
+	{
+		if (listener == null) throw new IllegalArgumentException("listener");
+
+		this.onSaveListeners.add(listener);
+		this.onSaveListenerInterests.remove(listener);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public synchronized void registerOnSaveListener(SaveListener<T> listener, ListenerInterest<T> interest) throws IllegalArgumentException
 	{
 		if (listener == null) throw new IllegalArgumentException("listener");
+		if (interest == null) throw new IllegalArgumentException("interest");
 
 		this.onSaveListeners.add(listener);
+		this.onSaveListenerInterests.put(listener, interest);
 	}
 
 	/**
@@ -242,7 +1397,8 @@ public abstract class GenericDAO <T extends GenericDataObject> implements Generi
 	{
 		if (listener == null) throw new IllegalArgumentException("listener");
 
-		this.onSaveListeners.remove(listener);		
+		this.onSaveListeners.remove(listener);
+		this.onSaveListenerInterests.remove(listener);
 	}
 
 	/**
@@ -263,6 +1419,20 @@ public abstract class GenericDAO <T extends GenericDataObject> implements Generi
 		if (listener == null) throw new IllegalArgumentException("listener");
 
 		this.onDeleteListeners.add(listener);
+		this.onDeleteListenerInterests.remove(listener);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public synchronized void registerOnDeleteListener(DeleteListener<T> listener, ListenerInterest<T> interest) throws IllegalArgumentException
+	{
+		if (listener == null) throw new IllegalArgumentException("listener");
+		if (interest == null) throw new IllegalArgumentException("interest");
+
+		this.onDeleteListeners.add(listener);
+		this.onDeleteListenerInterests.put(listener, interest);
 	}
 
 	/**
@@ -273,7 +1443,8 @@ public abstract class GenericDAO <T extends GenericDataObject> implements Generi
 	{
 		if (listener == null) throw new IllegalArgumentException("listener");
 
-		this.onDeleteListeners.remove(listener);		
+		this.onDeleteListeners.remove(listener);
+		this.onDeleteListenerInterests.remove(listener);
 	}
 
 	/**
@@ -294,6 +1465,20 @@ public abstract class GenericDAO <T extends GenericDataObject> implements Generi
 		if (listener == null) throw new IllegalArgumentException("listener");
 
 		this.onReloadListeners.add(listener);
+		this.onReloadListenerInterests.remove(listener);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public synchronized void registerOnReloadListener(ReloadListener<T> listener, ListenerInterest<T> interest) throws IllegalArgumentException
+	{
+		if (listener == null) throw new IllegalArgumentException("listener");
+		if (interest == null) throw new IllegalArgumentException("interest");
+
+		this.onReloadListeners.add(listener);
+		this.onReloadListenerInterests.put(listener, interest);
 	}
 
 	/**
@@ -304,7 +1489,8 @@ public abstract class GenericDAO <T extends GenericDataObject> implements Generi
 	{
 		if (listener == null) throw new IllegalArgumentException("listener");
 
-		this.onReloadListeners.remove(listener);		
+		this.onReloadListeners.remove(listener);
+		this.onReloadListenerInterests.remove(listener);
 	}
 
 	/**
@@ -328,12 +1514,16 @@ public abstract class GenericDAO <T extends GenericDataObject> implements Generi
 			
 			for (GetListener<T> onGetListener : this.onGetListeners)
 			{
+				ListenerInterest<T> interest = this.onGetListenerInterests.get(onGetListener);
+
+				if ((interest != null) && !(interest.includes(Phase.BEFORE) && interest.matches(actualId))) continue;
+
 				actualId = onGetListener.onBeforeGet(actualId);
 			}
 	
-			T dataObject = this.doGet(actualId);
+			T dataObject = this.load(actualId);
 	
-			for (GetListener<T> onGetListener : this.onGetListeners) onGetListener.onAfterGet(dataObject);
+			this.notifyAfterListeners(this.onGetListeners, this.onGetListenerInterests, dataObject, GetListener::onAfterGet);
 
 			return dataObject;
 		}
@@ -353,16 +1543,11 @@ public abstract class GenericDAO <T extends GenericDataObject> implements Generi
 
 		try
 		{
-			int[] actualIds = ids;
-			
-			for (GetListener<T> onGetListener : this.onGetListeners)
-			{
-				actualIds = onGetListener.onBeforeGet(actualIds);
-			}
+			int[] actualIds = this.notifyBeforeListeners(this.onGetListeners, this.onGetListenerInterests, ids, GetListener::onBeforeGet);
 	
-			Collection<T> dataObjects = this.doGet(actualIds);
+			Collection<T> dataObjects = this.load(actualIds);
 	
-			for (GetListener<T> onGetListener : this.onGetListeners) onGetListener.onAfterGet(dataObjects);
+			this.notifyAfterListeners(this.onGetListeners, this.onGetListenerInterests, dataObjects, GetListener::onAfterGet);
 
 			return dataObjects;
 		}
@@ -380,16 +1565,11 @@ public abstract class GenericDAO <T extends GenericDataObject> implements Generi
 	{
 		try
 		{
-			int[] actualIds = null;
-			
-			for (GetListener<T> onGetListener : this.onGetListeners)
-			{
-				actualIds = onGetListener.onBeforeGet(actualIds);
-			}
+			int[] actualIds = this.notifyBeforeListeners(this.onGetListeners, this.onGetListenerInterests, (int[]) null, GetListener::onBeforeGet);
 	
-			Collection<T> dataObjects = this.doGet(actualIds);
+			Collection<T> dataObjects = this.load(actualIds);
 	
-			for (GetListener<T> onGetListener : this.onGetListeners) onGetListener.onAfterGet(dataObjects);
+			this.notifyAfterListeners(this.onGetListeners, this.onGetListenerInterests, dataObjects, GetListener::onAfterGet);
 
 			return dataObjects;
 		}
@@ -399,6 +1579,182 @@ public abstract class GenericDAO <T extends GenericDataObject> implements Generi
 		}
 	}
 
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public boolean exists(int id) throws DALException
+	{
+		try
+		{
+			BloomFilter currentBloomFilter = this.bloomFilter;
+
+			if ((currentBloomFilter != null) && !currentBloomFilter.mightContain(id)) return false;
+
+			TieredDataObjectCache<T> currentCache = this.cache;
+
+			if ((currentCache != null) && (currentCache.get(id) != null)) return true;
+
+			NegativeCache currentNegativeCache = this.negativeCache;
+
+			if ((currentNegativeCache != null) && currentNegativeCache.isMissing(id)) return false;
+
+			return this.doExists(id);
+		}
+		catch (Exception e)
+		{
+			throw new DALException(e);
+		}
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public boolean existsAll(int[] ids) throws IllegalArgumentException, DALException
+	{
+		if (ids == null) throw new IllegalArgumentException("ids");
+
+		try
+		{
+			BloomFilter currentBloomFilter = this.bloomFilter;
+			TieredDataObjectCache<T> currentCache = this.cache;
+			NegativeCache currentNegativeCache = this.negativeCache;
+			int[] uncertainIds = new int[ids.length];
+			int numOfUncertainIds = 0;
+
+			for (int id : ids)
+			{
+				if ((currentBloomFilter != null) && !currentBloomFilter.mightContain(id)) return false;
+				if ((currentCache != null) && (currentCache.get(id) != null)) continue;
+				if ((currentNegativeCache != null) && currentNegativeCache.isMissing(id)) return false;
+
+				uncertainIds[numOfUncertainIds++] = id;
+			}
+
+			if (numOfUncertainIds < 1) return true;
+
+			return this.doExistsAll((numOfUncertainIds == ids.length) ? ids : Arrays.copyOf(uncertainIds, numOfUncertainIds));
+		}
+		catch (Exception e)
+		{
+			throw new DALException(e);
+		}
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public UnitOfWork<T> createUnitOfWork()
+	{
+		return new UnitOfWork<>(this);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public Page<T> getPage(int afterId, int limit) throws IllegalArgumentException, DALException
+	{
+		if (limit < 1) throw new IllegalArgumentException("limit");
+
+		try
+		{
+			return this.doGetPage(afterId, limit);
+		}
+		catch (Exception e)
+		{
+			throw new DALException(e);
+		}
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public Stream<T> getRange(int fromId, int toId) throws IllegalArgumentException, DALException
+	{
+		if (fromId > toId) throw new IllegalArgumentException("toId");
+
+		try
+		{
+			return this.stream(this.doGetRange(fromId, toId), null);
+		}
+		catch (Exception e)
+		{
+			throw new DALException(e);
+		}
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public void deleteRange(int fromId, int toId) throws IllegalArgumentException, DALException
+	{
+		if (fromId > toId) throw new IllegalArgumentException("toId");
+
+		int[] ids;
+
+		try (Stream<Integer> idStream = this.streamIds(this.doGetRange(fromId, toId), null))
+		{
+			ids = idStream.mapToInt(Integer::intValue).toArray();
+		}
+		catch (Exception e)
+		{
+			throw new DALException(e);
+		}
+
+		if (ids.length > 0) this.delete(ids);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public long count() throws DALException
+	{
+		try
+		{
+			return this.doCount();
+		}
+		catch (Exception e)
+		{
+			throw new DALException(e);
+		}
+	}
+
+	/**
+	 * {@inheritDoc}
+	 * The data objects are streamed via {@link #getAllReusing(Predicate)}, so no data object is kept alive by counting.
+	 */
+	@Override
+	public long countWhere(Predicate<? super T> filterPredicate) throws IllegalArgumentException, DALException
+	{
+		if (filterPredicate == null) throw new IllegalArgumentException("filterPredicate");
+
+		try (Stream<T> dataObjects = this.getAllReusing(filterPredicate))
+		{
+			return dataObjects.count();
+		}
+	}
+
+	/**
+	 * Creates a stream of the data objects provided by a lazy loader which closes the lazy loader when the stream is closed
+	 * 
+	 * @param ll the lazy loader to stream
+	 * @param filterPredicate if not null, then this filter predicate will be applied on each loaded data object
+	 * @return a stream of data objects which passed a given filter (if provided)
+	 */
+	protected Stream<T> stream(LazyLoader<Integer, T> ll, Predicate<? super T> filterPredicate)
+	{
+		Stream<T> lazyLoadingStream = (filterPredicate == null) ? StreamSupport.stream(ll, false)
+																: StreamSupport.stream(ll, false).filter(filterPredicate);
+
+		return lazyLoadingStream.onClose(ll);
+	}
+
 	/**
 	 * {@inheritDoc}
 	 */
@@ -407,13 +1763,43 @@ public abstract class GenericDAO <T extends GenericDataObject> implements Generi
 	{
 		try
 		{
-			LazyLoader<Integer, T> ll = this.createLazyLoader();
-			Stream<T> lazyLoadingStream = (filterPredicate == null) ? StreamSupport.stream(ll, false)
-																	: StreamSupport.stream(ll, false).filter(filterPredicate);
+			return this.stream(this.openLazyLoader(), filterPredicate);
+		}
+		catch (Exception e)
+		{
+			throw new DALException(e);
+		}
+	}
+
+	/**
+	 * {@inheritDoc}
+	 * The lazy loader is created by {@link #createReusingLazyLoader()} and never wrapped by a {@link PrefetchingLazyLoader},
+	 * since data objects loaded ahead would overwrite the ones still in use by the consumer.
+	 */
+	@Override
+	public Stream<T> getAllReusing(Predicate<? super T> filterPredicate) throws DALException
+	{
+		try
+		{
+			return this.stream(this.createReusingLazyLoader(), filterPredicate);
+		}
+		catch (Exception e)
+		{
+			throw new DALException(e);
+		}
+	}
 
-					  lazyLoadingStream.onClose(ll);
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public <R> Stream<R> projectIds(Function<? super Integer, ? extends R> projection, Predicate<? super Integer> filterPredicate) throws IllegalArgumentException, DALException
+	{
+		if (projection == null) throw new IllegalArgumentException("projection");
 
-			return lazyLoadingStream;
+		try
+		{
+			return this.streamIds(this.createLazyLoader(), filterPredicate).map(projection);
 		}
 		catch (Exception e)
 		{
@@ -421,6 +1807,26 @@ public abstract class GenericDAO <T extends GenericDataObject> implements Generi
 		}
 	}
 
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public Flow.Publisher<T> getAllPublisher(Predicate<? super T> filterPredicate) throws DALException
+	{
+		return LazyLoaderPublisher.ofDataObjects(this::openLazyLoader, filterPredicate);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public Flow.Publisher<List<T>> getAllPublisher(Predicate<? super T> filterPredicate, int batchSize) throws IllegalArgumentException, DALException
+	{
+		if (batchSize < 1) throw new IllegalArgumentException("batchSize");
+
+		return LazyLoaderPublisher.ofBatches(this::openLazyLoader, filterPredicate, batchSize);
+	}
+
 	/**
 	 * {@inheritDoc}
 	 */
@@ -431,14 +1837,25 @@ public abstract class GenericDAO <T extends GenericDataObject> implements Generi
 
 		try
 		{
-			for (SaveListener<T> onSaveListener : this.onSaveListeners)
+			if (this.isUnchanged(dataObject))
 			{
-				if (!onSaveListener.onBeforeSaving(dataObject)) return;
+				this.numOfSkippedSaves.incrementAndGet();
+
+				return;
 			}
+
+			if (!this.notifyBeforeListeners(this.onSaveListeners, this.onSaveListenerInterests, dataObject, SaveListener::onBeforeSaving)) return;
+
+			Set<String> changedProperties = this.getDeltaProperties(dataObject);
+
+			if (changedProperties == null) this.doSave(dataObject);
+			else this.doSaveDelta(dataObject, changedProperties);
+
+			this.invalidate(dataObject.getId());
+			this.rememberExisting(List.of(dataObject));
+			this.captureCleanState(dataObject);
 	
-			this.doSave(dataObject);
-	
-			for (SaveListener<T> onSaveListener : this.onSaveListeners) onSaveListener.onAfterSaved(dataObject);
+			this.notifyAfterListeners(this.onSaveListeners, this.onSaveListenerInterests, dataObject, SaveListener::onAfterSaved);
 		}
 		catch (Exception e)
 		{
@@ -484,14 +1901,17 @@ public abstract class GenericDAO <T extends GenericDataObject> implements Generi
 
 		try
 		{
-			for (SaveListener<T> onSaveListener : this.onSaveListeners)
-			{
-				if (!onSaveListener.onBeforeSaving(dataObjects)) return;
-			}
+			Collection<T> changedDataObjects = this.withoutUnchanged(dataObjects);
+
+			if (changedDataObjects.isEmpty() && !dataObjects.isEmpty()) return;
+			if (!this.notifyBeforeListeners(this.onSaveListeners, this.onSaveListenerInterests, changedDataObjects, SaveListener::onBeforeSaving)) return;
 	
-			this.doSave(dataObjects);
+			this.doSave(changedDataObjects);
+			this.invalidate(changedDataObjects);
+			this.rememberExisting(changedDataObjects);
+			this.captureCleanState(changedDataObjects);
 	
-			for (SaveListener<T> onSaveListener : this.onSaveListeners) onSaveListener.onAfterSaved(dataObjects);
+			this.notifyAfterListeners(this.onSaveListeners, this.onSaveListenerInterests, changedDataObjects, SaveListener::onAfterSaved);
 		}
 		catch (Exception e)
 		{
@@ -519,14 +1939,17 @@ public abstract class GenericDAO <T extends GenericDataObject> implements Generi
 				dataObjectsList.add((T) dataObject);
 			}
 
-			for (SaveListener<T> onSaveListener : this.onSaveListeners)
-			{
-				if (!onSaveListener.onBeforeSaving(dataObjectsList)) return;
-			}
+			Collection<T> changedDataObjects = this.withoutUnchanged(dataObjectsList);
+
+			if (changedDataObjects.isEmpty() && !dataObjectsList.isEmpty()) return;
+			if (!this.notifyBeforeListeners(this.onSaveListeners, this.onSaveListenerInterests, changedDataObjects, SaveListener::onBeforeSaving)) return;
 
-			this.doSave(dataObjectsList);
+			this.doSave(changedDataObjects);
+			this.invalidate(changedDataObjects);
+			this.rememberExisting(changedDataObjects);
+			this.captureCleanState(changedDataObjects);
 
-			for (SaveListener<T> onSaveListener : this.onSaveListeners) onSaveListener.onAfterSaved(dataObjectsList);
+			this.notifyAfterListeners(this.onSaveListeners, this.onSaveListenerInterests, changedDataObjects, SaveListener::onAfterSaved);
 		}
 		catch (IllegalArgumentException e)
 		{
@@ -552,14 +1975,12 @@ public abstract class GenericDAO <T extends GenericDataObject> implements Generi
 
 		try
 		{
-			for (DeleteListener<T> onDeleteListener : this.onDeleteListeners)
-			{
-				if (!onDeleteListener.onBeforeDeleting(dataObject)) return;
-			}
+			if (!this.notifyBeforeListeners(this.onDeleteListeners, this.onDeleteListenerInterests, dataObject, DeleteListener::onBeforeDeleting)) return;
 	
 			this.doDelete(dataObject);
+			this.invalidate(dataObject.getId());
 	
-			for (DeleteListener<T> onDeleteListener : this.onDeleteListeners) onDeleteListener.onAfterDeleted(dataObject);
+			this.notifyAfterListeners(this.onDeleteListeners, this.onDeleteListenerInterests, dataObject, DeleteListener::onAfterDeleted);
 		}
 		catch (Exception e)
 		{
@@ -605,14 +2026,12 @@ public abstract class GenericDAO <T extends GenericDataObject> implements Generi
 
 		try
 		{
-			for (DeleteListener<T> onDeleteListener : this.onDeleteListeners)
-			{
-				if (!onDeleteListener.onBeforeDeleting(dataObjects)) return;
-			}
+			if (!this.notifyBeforeListeners(this.onDeleteListeners, this.onDeleteListenerInterests, dataObjects, DeleteListener::onBeforeDeleting)) return;
 	
 			this.doDelete(dataObjects);
+			this.invalidate(dataObjects);
 	
-			for (DeleteListener<T> onDeleteListener : this.onDeleteListeners) onDeleteListener.onAfterDeleted(dataObjects);
+			this.notifyAfterListeners(this.onDeleteListeners, this.onDeleteListenerInterests, dataObjects, DeleteListener::onAfterDeleted);
 		}
 		catch (Exception e)
 		{
@@ -630,16 +2049,12 @@ public abstract class GenericDAO <T extends GenericDataObject> implements Generi
 
 		try
 		{
-			int[] dataObjectIdsToDelete = dataObjectIds;
-	
-			for (DeleteListener<T> onDeleteListener : this.onDeleteListeners)
-			{
-				dataObjectIdsToDelete = onDeleteListener.onBeforeDeleting(dataObjectIdsToDelete);
-			}
+			int[] dataObjectIdsToDelete = this.notifyBeforeListeners(this.onDeleteListeners, this.onDeleteListenerInterests, dataObjectIds, DeleteListener::onBeforeDeleting);
 	
 			this.doDelete(dataObjectIdsToDelete);
+			this.invalidate(dataObjectIdsToDelete);
 	
-			for (DeleteListener<T> onDeleteListener : this.onDeleteListeners) onDeleteListener.onAfterDeleted(dataObjectIdsToDelete);
+			this.notifyAfterListeners(this.onDeleteListeners, this.onDeleteListenerInterests, dataObjectIdsToDelete, DeleteListener::onAfterDeleted);
 		}
 		catch (Exception e)
 		{
@@ -667,14 +2082,12 @@ public abstract class GenericDAO <T extends GenericDataObject> implements Generi
 				dataObjectsList.add((T) dataObject);
 			}
 
-			for (DeleteListener<T> onDeleteListener : this.onDeleteListeners)
-			{
-				if (!onDeleteListener.onBeforeDeleting(dataObjectsList)) return;
-			}
+			if (!this.notifyBeforeListeners(this.onDeleteListeners, this.onDeleteListenerInterests, dataObjectsList, DeleteListener::onBeforeDeleting)) return;
 	
 			this.doDelete(dataObjectsList);
+			this.invalidate(dataObjectsList);
 	
-			for (DeleteListener<T> onDeleteListener : this.onDeleteListeners) onDeleteListener.onAfterDeleted(dataObjectsList);
+			this.notifyAfterListeners(this.onDeleteListeners, this.onDeleteListenerInterests, dataObjectsList, DeleteListener::onAfterDeleted);
 		}
 		catch (IllegalArgumentException e)
 		{
@@ -702,12 +2115,72 @@ public abstract class GenericDAO <T extends GenericDataObject> implements Generi
 
 			for (ReloadListener<T> onReloadListener : this.onReloadListeners)
 			{
+				ListenerInterest<T> interest = this.onReloadListenerInterests.get(onReloadListener);
+
+				if ((interest != null) && !interest.includes(Phase.BEFORE)) continue;
 				if (!onReloadListener.onBeforeReload(dataObjects)) return dataObjects;
 			}
 
 			dataObjects.addAll(this.doReloadAll());
 
-			for (ReloadListener<T> onReloadListener : this.onReloadListeners) onReloadListener.onAfterReload(dataObjects);
+			this.invalidateAll();
+			this.rememberExisting(dataObjects);
+			this.updateLatestModificationDate(dataObjects);
+
+			this.notifyAfterListeners(this.onReloadListeners, this.onReloadListenerInterests, dataObjects, ReloadListener::onAfterReload);
+
+			return dataObjects;
+		}
+		catch (Exception e)
+		{
+			throw new DALException(e);
+		}
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public Collection<T> reloadChanged() throws DALException
+	{
+		try
+		{
+			Collection<T> dataObjects = new ArrayList<>();
+
+			for (ReloadListener<T> onReloadListener : this.onReloadListeners)
+			{
+				ListenerInterest<T> interest = this.onReloadListenerInterests.get(onReloadListener);
+
+				if ((interest != null) && !interest.includes(Phase.BEFORE)) continue;
+				if (!onReloadListener.onBeforeReload(dataObjects)) return dataObjects;
+			}
+
+			long modifiedTimeStamp;
+			Set<Integer> reloadedIds;
+
+			synchronized (this)
+			{
+				modifiedTimeStamp = this.latestModificationTimeStamp;
+				reloadedIds = new HashSet<>(this.latestModificationIds);
+			}
+
+			Collection<T> changedDataObjects = new ArrayList<>();
+
+			// the data source includes the latest time stamp, so data objects already reloaded with it are dropped
+			for (T dataObject : this.doReloadSince(modifiedTimeStamp))
+			{
+				if ((dataObject.getModifiedTimeStamp() == modifiedTimeStamp) && reloadedIds.contains(dataObject.getId())) continue;
+
+				changedDataObjects.add(dataObject);
+			}
+
+			dataObjects.addAll(changedDataObjects);
+
+			this.invalidate(changedDataObjects);
+			this.rememberExisting(changedDataObjects);
+			this.updateLatestModificationDate(changedDataObjects);
+
+			this.notifyAfterListeners(this.onReloadListeners, this.onReloadListenerInterests, dataObjects, ReloadListener::onAfterReload);
 
 			return dataObjects;
 		}
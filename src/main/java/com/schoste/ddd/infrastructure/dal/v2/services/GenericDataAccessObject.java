@@ -1,19 +1,30 @@
 package com.schoste.ddd.infrastructure.dal.v2.services;
 
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.Flow;
+import java.util.function.Function;
 import java.util.function.Predicate;
+import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
 import com.schoste.ddd.infrastructure.dal.v2.exceptions.DALException;
 import com.schoste.ddd.infrastructure.dal.v2.models.GenericDataObject;
 import com.schoste.ddd.infrastructure.dal.v2.services.listeners.DeleteListener;
 import com.schoste.ddd.infrastructure.dal.v2.services.listeners.GetListener;
+import com.schoste.ddd.infrastructure.dal.v2.services.listeners.ListenerInterest;
 import com.schoste.ddd.infrastructure.dal.v2.services.listeners.ReloadListener;
 import com.schoste.ddd.infrastructure.dal.v2.services.listeners.SaveListener;
 
 /**
  * Interface to the generic data access object (DAO) class.
  * It defines methods common to all DAOs.
+ * Methods added after the first release have default implementations which are built on the original methods,
+ * so existing implementations keep compiling. They are correct, but not efficient: most of them load all data objects,
+ * hence implementations should override them (as {@link GenericDAO} does).
  * 
  * @author Philipp Schosteritsch
  *
@@ -50,6 +61,41 @@ public interface GenericDataAccessObject<T extends GenericDataObject>
 	 */
 	Collection<T> get(int[] ids) throws IllegalArgumentException, DALException;
 
+	/**
+	 * Checks if a data object exists in the data source without necessarily loading it
+	 * 
+	 * @param id the identifier of the data object
+	 * The default implementation loads the data object via {@link #get(int)}.
+	 * 
+	 * @param id the identifier of the data object
+	 * @return true if a data object with the given id exists, false otherwise
+	 * @throws DALException re-throws every exception as DAL exception
+	 */
+	default boolean exists(int id) throws DALException
+	{
+		return this.get(id) != null;
+	}
+
+	/**
+	 * Checks if data objects exist in the data source without necessarily loading them
+	 * 
+	 * @param ids the identifiers of the data objects
+	 * The default implementation loads the data objects via {@link #get(int[])}.
+	 * 
+	 * @param ids the identifiers of the data objects
+	 * @return true if data objects with all given ids exist, false otherwise
+	 * @throws IllegalArgumentException thrown if parameter ids is null
+	 * @throws DALException re-throws every exception as DAL exception
+	 */
+	default boolean existsAll(int[] ids) throws IllegalArgumentException, DALException
+	{
+		if (ids == null) throw new IllegalArgumentException("ids");
+
+		long numOfFoundIds = this.get(ids).stream().mapToInt(GenericDataObject::getId).distinct().count();
+
+		return numOfFoundIds == Arrays.stream(ids).distinct().count();
+	}
+
 	/**
 	 * Gets all not deleted data objects from the underlying data source
 	 * which's modification time stamp is greater than the last saved
@@ -71,6 +117,194 @@ public interface GenericDataAccessObject<T extends GenericDataObject>
 	 */
 	public Stream<T> getAll(Predicate<? super T> filterPredicate) throws DALException;
 
+	/**
+	 * Lazily loads data objects like {@link #getAll(Predicate)}, but allows the implementation to reuse the data object
+	 * instances of the stream instead of creating a new one for every loaded record.
+	 * A data object provided by the stream is only valid until the next one is requested: consumers must not retain
+	 * references to it (e.g. by collecting the stream) and must copy what they need to keep.
+	 * Implementations that do not support reusing data objects return the same stream as {@link #getAll(Predicate)}.
+	 * 
+	 * @param filterPredicate if not null, then this filter predicate will be applied on each loaded data object before it is considered to be added to the result stream
+	 * @return a stream of (reused) data objects which passed a given filter (if provided)
+	 * @throws DALException re-throws every exception as DAL exception
+	 */
+	default Stream<T> getAllReusing(Predicate<? super T> filterPredicate) throws DALException
+	{
+		return this.getAll(filterPredicate);
+	}
+
+	/**
+	 * Lazily loads the ids of all data objects and maps them to the values of the returned stream.
+	 * If the lazy loader of the implementation provides the ids as source records (see {@link LazyLoader#hasIdSourceRecords()}),
+	 * no data object is materialized. Projections of other values of the source records are provided by lazy loaders
+	 * via {@link LazyLoader#project(Function, Predicate)}, typed on their actual source records.
+	 * 
+	 * The default implementation maps the data objects of {@link #getAll(Predicate)} to their ids.
+	 * 
+	 * @param <R> the data type of the projected values
+	 * @param projection maps an id to the value of the stream
+	 * @param filterPredicate if not null, only ids passing this filter are projected
+	 * @return a stream of projected values
+	 * @throws IllegalArgumentException thrown if parameter projection is null
+	 * @throws DALException re-throws every exception as DAL exception
+	 */
+	default <R> Stream<R> projectIds(Function<? super Integer, ? extends R> projection, Predicate<? super Integer> filterPredicate) throws IllegalArgumentException, DALException
+	{
+		if (projection == null) throw new IllegalArgumentException("projection");
+
+		Stream<Integer> ids = this.getAll(null).map(GenericDataObject::getId);
+
+		return ((filterPredicate == null) ? ids : ids.filter(filterPredicate)).map(projection);
+	}
+
+	/**
+	 * Creates a unit of work which records saves and deletes and writes them at once when it is committed.
+	 * Units of work write via {@link GenericDAO}, hence the default implementation does not support them.
+	 * 
+	 * @return a new unit of work of this DAO
+	 * @throws UnsupportedOperationException thrown if the implementation does not support units of work
+	 */
+	default UnitOfWork<T> createUnitOfWork() throws UnsupportedOperationException
+	{
+		throw new UnsupportedOperationException("createUnitOfWork");
+	}
+
+	/**
+	 * Gets a page of data objects in the order of their ids (keyset pagination).
+	 * The first page is requested with an afterId smaller than all ids (e.g. 0), each further page with
+	 * {@link Page#getNextAfterId()} of the previous page, so paging can be resumed at any time.
+	 * 
+	 * @param afterId the id after which the page starts
+	 * @param limit the maximum number of data objects of the page
+	 * The default implementation sorts all data objects with an id greater than afterId.
+	 * 
+	 * @param afterId the id after which the page starts
+	 * @param limit the maximum number of data objects of the page
+	 * @return the page
+	 * @throws IllegalArgumentException thrown if parameter limit is smaller than 1
+	 * @throws DALException re-throws every exception as DAL exception
+	 */
+	default Page<T> getPage(int afterId, int limit) throws IllegalArgumentException, DALException
+	{
+		if (limit < 1) throw new IllegalArgumentException("limit");
+
+		List<T> dataObjects;
+
+		try (Stream<T> doStream = this.getAll(dataObject -> dataObject.getId() > afterId))
+		{
+			// one data object more than the limit tells if there is a next page
+			dataObjects = doStream.sorted(Comparator.comparingInt(GenericDataObject::getId)).limit(limit + 1L).collect(Collectors.toCollection(ArrayList::new));
+		}
+
+		boolean hasNext = dataObjects.size() > limit;
+
+		if (hasNext) dataObjects.remove(limit);
+
+		return new Page<>(dataObjects, dataObjects.isEmpty() ? afterId : dataObjects.get(dataObjects.size() - 1).getId(), hasNext);
+	}
+
+	/**
+	 * Lazily loads the data objects whose ids are within a range.
+	 * The stream must be closed after use, for instance by a try-with-resources statement.
+	 * The default implementation filters and sorts the data objects of {@link #getAll(Predicate)}.
+	 * 
+	 * @param fromId the smallest id of the range (inclusive)
+	 * @param toId the greatest id of the range (inclusive)
+	 * @return a stream of the data objects within the range, in the order of their ids unless the implementation states otherwise
+	 * @throws IllegalArgumentException thrown if parameter fromId is greater than parameter toId
+	 * @throws DALException re-throws every exception as DAL exception
+	 */
+	default Stream<T> getRange(int fromId, int toId) throws IllegalArgumentException, DALException
+	{
+		if (fromId > toId) throw new IllegalArgumentException("toId");
+
+		return this.getAll(dataObject -> (dataObject.getId() >= fromId) && (dataObject.getId() <= toId)).sorted(Comparator.comparingInt(GenericDataObject::getId));
+	}
+
+	/**
+	 * Deletes the data objects whose ids are within a range like {@link #delete(int[])}
+	 * 
+	 * @param fromId the smallest id of the range (inclusive)
+	 * @param toId the greatest id of the range (inclusive)
+	 * @throws IllegalArgumentException thrown if parameter fromId is greater than parameter toId
+	 * @throws DALException re-throws every exception as DAL exception
+	 */
+	default void deleteRange(int fromId, int toId) throws IllegalArgumentException, DALException
+	{
+		int[] ids;
+
+		try (Stream<T> doStream = this.getRange(fromId, toId))
+		{
+			ids = doStream.mapToInt(GenericDataObject::getId).toArray();
+		}
+
+		if (ids.length > 0) this.delete(ids);
+	}
+
+	/**
+	 * Counts the data objects of the underlying data source without building a collection of them.
+	 * The default implementation counts the data objects of {@link #getAllReusing(Predicate)}.
+	 * 
+	 * @return the number of data objects
+	 * @throws DALException re-throws every exception as DAL exception
+	 */
+	default long count() throws DALException
+	{
+		try (Stream<T> doStream = this.getAllReusing(null))
+		{
+			return doStream.count();
+		}
+	}
+
+	/**
+	 * Counts the data objects of the underlying data source which pass a filter without keeping the data objects alive
+	 * 
+	 * @param filterPredicate the filter predicate the counted data objects pass
+	 * @return the number of data objects passing the filter
+	 * @throws IllegalArgumentException thrown if parameter filterPredicate is null
+	 * @throws DALException re-throws every exception as DAL exception
+	 */
+	default long countWhere(Predicate<? super T> filterPredicate) throws IllegalArgumentException, DALException
+	{
+		if (filterPredicate == null) throw new IllegalArgumentException("filterPredicate");
+
+		try (Stream<T> doStream = this.getAllReusing(filterPredicate))
+		{
+			return doStream.count();
+		}
+	}
+
+	/**
+	 * Lazily loads data objects from the underlying data source like {@link #getAll(Predicate)}, but pushes them to
+	 * subscribers of the returned publisher. Data objects are only loaded when a subscriber requests them and the
+	 * underlying lazy loader is closed when the subscription completes or is cancelled.
+	 * Every subscriber gets its own lazy loader.
+	 * The default implementation emits the data objects of {@link #getAll(Predicate)} via a {@link StreamLazyLoader}.
+	 * 
+	 * @param filterPredicate if not null, then this filter predicate will be applied on each loaded data object before it is emitted
+	 * @return a publisher of data objects which passed a given filter (if provided)
+	 * @throws DALException re-throws every exception as DAL exception
+	 */
+	default Flow.Publisher<T> getAllPublisher(Predicate<? super T> filterPredicate) throws DALException
+	{
+		return LazyLoaderPublisher.ofDataObjects(() -> new StreamLazyLoader<>(this.getAll(null)), filterPredicate);
+	}
+
+	/**
+	 * Lazily loads data objects from the underlying data source like {@link #getAllPublisher(Predicate)}, but emits
+	 * lists of up to batchSize data objects per requested element.
+	 * 
+	 * @param filterPredicate if not null, then this filter predicate will be applied on each loaded data object before it is added to a batch
+	 * @param batchSize the maximum number of data objects per emitted list
+	 * @return a publisher of lists of data objects which passed a given filter (if provided)
+	 * @throws IllegalArgumentException thrown if parameter batchSize is smaller than 1
+	 * @throws DALException re-throws every exception as DAL exception
+	 */
+	default Flow.Publisher<List<T>> getAllPublisher(Predicate<? super T> filterPredicate, int batchSize) throws IllegalArgumentException, DALException
+	{
+		return LazyLoaderPublisher.ofBatches(() -> new StreamLazyLoader<>(this.getAll(null)), filterPredicate, batchSize);
+	}
+
 	/**
 	 * Resets the modification time stamp and gets all not deleted data objects
 	 * from the underlying data source
@@ -80,6 +314,23 @@ public interface GenericDataAccessObject<T extends GenericDataObject>
 	 */
 	public Collection<T> reloadAll() throws DALException;
 
+	/**
+	 * Reloads only the data objects which were modified since the latest modification time stamp seen by the DAO,
+	 * so the cost depends on the number of changes rather than on the number of data objects.
+	 * Data objects modified within the same millisecond as that time stamp are included, unless the DAO already reloaded
+	 * them with that time stamp.
+	 * Reload listeners are notified about the changed data objects only.
+	 * Deleted data objects are not detected; use {@link #reloadAll()} for that.
+	 * The default implementation reloads all data objects via {@link #reloadAll()}.
+	 * 
+	 * @return a collection of the changed data objects
+	 * @throws DALException re-throws every exception as DAL exception
+	 */
+	default Collection<T> reloadChanged() throws DALException
+	{
+		return this.reloadAll();
+	}
+
 	/**
 	 * Persists any changes to a data object to the underlying data source
 	 * 
@@ -168,6 +419,18 @@ public interface GenericDataAccessObject<T extends GenericDataObject>
 	 */
 	public void clear() throws DALException;
 
+	/**
+	 * Waits until all after-listener notifications which are delivered asynchronously were delivered.
+	 * Returns immediately if the after-listeners are notified in the thread performing the operation,
+	 * which is what the default implementation assumes.
+	 * 
+	 * @throws DALException re-throws every exception as DAL exception
+	 */
+	default void flushListeners() throws DALException
+	{
+
+	}
+
 	/**
 	 * Registers a new listener which will be called before getting DOs and after DOs were loaded.
 	 * 
@@ -176,6 +439,22 @@ public interface GenericDataAccessObject<T extends GenericDataObject>
 	 */
 	void registerOnGetListener(GetListener<T> listener) throws IllegalArgumentException;
 
+	/**
+	 * Registers a new listener like {@link #registerOnGetListener(GetListener)}, but which will only be notified
+	 * about the events it is interested in. Batch operations pass only the data objects or ids of interest to the listener.
+	 * The default implementation ignores the interest and registers the listener for all events.
+	 * 
+	 * @param listener the instance of the listener to register
+	 * @param interest the events the listener is interested in
+	 * @throws IllegalArgumentException thrown if parameter listener or interest is null
+	 */
+	default void registerOnGetListener(GetListener<T> listener, ListenerInterest<T> interest) throws IllegalArgumentException
+	{
+		if (interest == null) throw new IllegalArgumentException("interest");
+
+		this.registerOnGetListener(listener);
+	}
+
 	/**
 	 * Unregisters a listener so it will not be called before getting DOs and after DOs were loaded.
 	 * 
@@ -199,6 +478,22 @@ public interface GenericDataAccessObject<T extends GenericDataObject>
 	 */
 	void registerOnSaveListener(SaveListener<T> listener) throws IllegalArgumentException;
 
+	/**
+	 * Registers a new listener like {@link #registerOnSaveListener(SaveListener)}, but which will only be notified
+	 * about the events it is interested in. Batch operations pass only the data objects or ids of interest to the listener.
+	 * The default implementation ignores the interest and registers the listener for all events.
+	 * 
+	 * @param listener the instance of the listener to register
+	 * @param interest the events the listener is interested in
+	 * @throws IllegalArgumentException thrown if parameter listener or interest is null
+	 */
+	default void registerOnSaveListener(SaveListener<T> listener, ListenerInterest<T> interest) throws IllegalArgumentException
+	{
+		if (interest == null) throw new IllegalArgumentException("interest");
+
+		this.registerOnSaveListener(listener);
+	}
+
 	/**
 	 * Unregisters a listener so it will not be called before saving DOs and after DOs were saved.
 	 * 
@@ -222,6 +517,22 @@ public interface GenericDataAccessObject<T extends GenericDataObject>
 	 */
 	void registerOnDeleteListener(DeleteListener<T> listener) throws IllegalArgumentException;
 
+	/**
+	 * Registers a new listener like {@link #registerOnDeleteListener(DeleteListener)}, but which will only be notified
+	 * about the events it is interested in. Batch operations pass only the data objects or ids of interest to the listener.
+	 * The default implementation ignores the interest and registers the listener for all events.
+	 * 
+	 * @param listener the instance of the listener to register
+	 * @param interest the events the listener is interested in
+	 * @throws IllegalArgumentException thrown if parameter listener or interest is null
+	 */
+	default void registerOnDeleteListener(DeleteListener<T> listener, ListenerInterest<T> interest) throws IllegalArgumentException
+	{
+		if (interest == null) throw new IllegalArgumentException("interest");
+
+		this.registerOnDeleteListener(listener);
+	}
+
 	/**
 	 * Unregisters a listener so it will not be called before deleting DOs and after DOs were deleted.
 	 * 
@@ -245,6 +556,22 @@ public interface GenericDataAccessObject<T extends GenericDataObject>
 	 */
 	void registerOnReloadListener(ReloadListener<T> listener) throws IllegalArgumentException;
 
+	/**
+	 * Registers a new listener like {@link #registerOnReloadListener(ReloadListener)}, but which will only be notified
+	 * about the events it is interested in. Batch operations pass only the data objects or ids of interest to the listener.
+	 * The default implementation ignores the interest and registers the listener for all events.
+	 * 
+	 * @param listener the instance of the listener to register
+	 * @param interest the events the listener is interested in
+	 * @throws IllegalArgumentException thrown if parameter listener or interest is null
+	 */
+	default void registerOnReloadListener(ReloadListener<T> listener, ListenerInterest<T> interest) throws IllegalArgumentException
+	{
+		if (interest == null) throw new IllegalArgumentException("interest");
+
+		this.registerOnReloadListener(listener);
+	}
+
 	/**
 	 * Unregisters a listener so it will not be called before reloading DOs and after DOs were reloaded.
 	 * 
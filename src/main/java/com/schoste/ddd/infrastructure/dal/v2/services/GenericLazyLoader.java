@@ -17,6 +17,15 @@ abstract public class GenericLazyLoader<SR, DO extends GenericDataObject> implem
 {
     protected Function<SR, DO> sourceRecordToDataObjConversionFn;
 
+    /**
+     * Creates a lazy loader without a conversion function.
+     * Meant for deriving classes which convert the source records differently, see {@link ConvertingLazyLoader}.
+     */
+    protected GenericLazyLoader()
+    {
+
+    }
+
     public GenericLazyLoader(Function<SR, DO> sourceRecordToDataObjConversionFn)
     {
         if (sourceRecordToDataObjConversionFn == null) throw new IllegalArgumentException();
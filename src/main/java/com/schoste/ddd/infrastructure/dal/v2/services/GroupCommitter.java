@@ -0,0 +1,183 @@
+package com.schoste.ddd.infrastructure.dal.v2.services;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import com.schoste.ddd.infrastructure.dal.v2.exceptions.DALException;
+import com.schoste.ddd.infrastructure.dal.v2.models.GenericDataObject;
+
+/**
+ * Merges the commits of units of work issued by concurrent threads within a short window into shared calls to the data source (group commit).
+ * The first thread of a window becomes its leader: it waits until the window contains maxGroupSize units of work or
+ * maxWait has passed, then merges the units of work in the order of their commits and writes them with a single save and a single delete.
+ * All threads of a window get the same outcome, i.e. a failure of the shared write fails the commits of all units of work of the window.
+ *
+ * A group committer must only be used by one DAO.
+ *
+ * @param <T> the type of the data objects
+ */
+public class GroupCommitter<T extends GenericDataObject>
+{
+	/**
+	 * The units of work of a window and the outcome promised to the threads committing them
+	 *
+	 * @param <T> the type of the data objects
+	 */
+	protected static final class Group<T extends GenericDataObject>
+	{
+		protected final List<UnitOfWork<T>> unitsOfWork = new ArrayList<>();
+		protected final CompletableFuture<Void> result = new CompletableFuture<>();
+	}
+
+	protected final int maxGroupSize;
+	protected final long maxWaitNanos;
+	protected final AtomicLong numOfGroups = new AtomicLong();
+	protected final AtomicLong numOfCommits = new AtomicLong();
+	protected Group<T> currentGroup = null;
+
+	/**
+	 * Creates a new instance of the class
+	 *
+	 * @param maxGroupSize the maximum number of units of work written at once
+	 * @param maxWait the maximum time the leader of a window waits for further commits
+	 * @param unit the unit of maxWait
+	 * @throws IllegalArgumentException thrown if maxGroupSize is smaller than 1, maxWait is negative or unit is null
+	 */
+	public GroupCommitter(int maxGroupSize, long maxWait, TimeUnit unit) throws IllegalArgumentException
+	{
+		if (maxGroupSize < 1) throw new IllegalArgumentException("maxGroupSize");
+		if (maxWait < 0) throw new IllegalArgumentException("maxWait");
+		if (unit == null) throw new IllegalArgumentException("unit");
+
+		this.maxGroupSize = maxGroupSize;
+		this.maxWaitNanos = unit.toNanos(maxWait);
+	}
+
+	/**
+	 * Gets the number of shared writes performed so far
+	 *
+	 * @return the number of groups
+	 */
+	public long getGroupCount()
+	{
+		return this.numOfGroups.get();
+	}
+
+	/**
+	 * Gets the number of units of work committed so far
+	 *
+	 * @return the number of commits
+	 */
+	public long getCommitCount()
+	{
+		return this.numOfCommits.get();
+	}
+
+	/**
+	 * Commits a unit of work as part of the current window
+	 *
+	 * @param unitOfWork the unit of work to commit
+	 * @throws DALException re-throws every exception of the shared write as DAL exception, which is thrown to all threads of the window
+	 */
+	public void commit(UnitOfWork<T> unitOfWork) throws DALException
+	{
+		Group<T> group;
+		boolean leader = false;
+
+		this.numOfCommits.incrementAndGet();
+
+		synchronized (this)
+		{
+			if (this.currentGroup == null)
+			{
+				this.currentGroup = new Group<>();
+
+				leader = true;
+			}
+
+			group = this.currentGroup;
+			group.unitsOfWork.add(unitOfWork);
+
+			if (group.unitsOfWork.size() >= this.maxGroupSize)
+			{
+				this.currentGroup = null;
+				this.notifyAll();
+			}
+		}
+
+		if (leader) this.dispatch(group);
+
+		try
+		{
+			group.result.get();
+		}
+		catch (ExecutionException e)
+		{
+			if (e.getCause() instanceof DALException) throw (DALException) e.getCause();
+
+			throw new DALException(e.getCause());
+		}
+		catch (InterruptedException e)
+		{
+			Thread.currentThread().interrupt();
+
+			throw new DALException(e);
+		}
+	}
+
+	/**
+	 * Waits until a window is full or its time is up, closes it and writes its units of work
+	 *
+	 * @param group the window to write
+	 */
+	protected void dispatch(Group<T> group)
+	{
+		boolean interrupted = false;
+
+		synchronized (this)
+		{
+			long deadline = System.nanoTime() + this.maxWaitNanos;
+			long remaining;
+
+			while ((this.currentGroup == group) && ((remaining = deadline - System.nanoTime()) > 0))
+			{
+				try
+				{
+					TimeUnit.NANOSECONDS.timedWait(this, remaining);
+				}
+				catch (InterruptedException e)
+				{
+					interrupted = true;
+
+					break;
+				}
+			}
+
+			if (this.currentGroup == group) this.currentGroup = null;
+		}
+
+		this.numOfGroups.incrementAndGet();
+
+		try
+		{
+			UnitOfWork<T> merged = new UnitOfWork<>(group.unitsOfWork.get(0).getDataAccessObject());
+
+			for (UnitOfWork<T> unitOfWork : group.unitsOfWork) unitOfWork.mergeInto(merged);
+
+			merged.write();
+			group.result.complete(null);
+		}
+		catch (Throwable t)
+		{
+			group.result.completeExceptionally(t);
+		}
+		finally
+		{
+			if (interrupted) Thread.currentThread().interrupt();
+		}
+	}
+}
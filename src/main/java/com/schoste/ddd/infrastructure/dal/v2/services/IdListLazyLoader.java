@@ -0,0 +1,94 @@
+package com.schoste.ddd.infrastructure.dal.v2.services;
+
+import java.util.List;
+import java.util.Spliterator;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+import com.schoste.ddd.infrastructure.dal.v2.models.GenericDataObject;
+
+/**
+ * Implementation of the {@link LazyLoader} interface whose source records are a given list of ids.
+ * The ids are converted in chunks, so data objects are loaded with one call per chunk and only when the consumer reaches them.
+ * Ids for which the conversion returns no data object are skipped.
+ *
+ * @param <DO> the data type of the actual data object returned by the loader.
+ */
+public class IdListLazyLoader<DO extends GenericDataObject> extends ConvertingLazyLoader<Integer, DO>
+{
+    protected final int[] ids;
+    protected int idsIndex = 0;
+
+    /**
+     * Creates a new instance of the class
+     *
+     * @param ids the ids to provide in the given order
+     * @param idsToDataObjsConversionFn loads the data objects of a chunk of ids
+     * @param chunkSize the maximum number of ids loaded at once
+     * @throws IllegalArgumentException thrown if ids or idsToDataObjsConversionFn is null or chunkSize is smaller than 1
+     */
+    public IdListLazyLoader(int[] ids, Function<List<Integer>, List<DO>> idsToDataObjsConversionFn, int chunkSize) throws IllegalArgumentException
+    {
+        super(idsToDataObjsConversionFn, chunkSize);
+
+        if (ids == null) throw new IllegalArgumentException("ids");
+
+        this.ids = ids;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    protected boolean tryAdvanceSourceRecord(Consumer<? super Integer> action)
+    {
+        if (this.idsIndex >= this.ids.length) return false;
+
+        action.accept(this.ids[this.idsIndex++]);
+
+        return true;
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * @return true, since the source records are the given ids
+     */
+    @Override
+    public boolean hasIdSourceRecords()
+    {
+        return true;
+    }
+
+    /**
+     * Implements {@link Spliterator#estimateSize()}.
+     *
+     * @return the number of ids which were not provided yet
+     */
+    @Override
+    public long estimateSize()
+    {
+        return this.ids.length - this.idsIndex;
+    }
+
+    /**
+     * Implements {@link Spliterator#characteristics()}.
+     *
+     * @return a value indicating an ordered and immutable collection
+     */
+    @Override
+    public int characteristics()
+    {
+        return Spliterator.ORDERED | Spliterator.IMMUTABLE;
+    }
+
+    /**
+     * Implements {@link AutoCloseable#close()}.
+     * Nothing to release, since the ids are held in memory.
+     */
+    @Override
+    public void close()
+    {
+        return;
+    }
+}
@@ -1,6 +1,9 @@
 package com.schoste.ddd.infrastructure.dal.v2.services;
 
 import java.util.Spliterator;
+import java.util.function.Function;
+import java.util.function.Predicate;
+import java.util.stream.Stream;
 
 import com.schoste.ddd.infrastructure.dal.v2.models.GenericDataObject;
 
@@ -12,5 +15,34 @@ import com.schoste.ddd.infrastructure.dal.v2.models.GenericDataObject;
  */
 public interface LazyLoader<SR, DO extends GenericDataObject> extends Spliterator<DO>, Runnable, AutoCloseable
 {
+    /**
+     * Streams the remaining source records of the loader without converting them into data objects.
+     * Only the records passing the filter predicate are mapped by the projection function, so callers which need a few
+     * values of a record do not pay for materializing the whole data object.
+     * The loader is consumed by the returned stream and closed when the stream is closed.
+     * The default implementation does not support projections, so implementations written before projections
+     * were introduced keep compiling.
+     * 
+     * @param <R> the data type of the projected values
+     * @param projection maps a source record to the value of the stream
+     * @param filterPredicate if not null, only source records passing this filter are projected
+     * @return a stream of projected values
+     * @throws UnsupportedOperationException thrown if the loader cannot provide its source records
+     */
+    default <R> Stream<R> project(Function<? super SR, ? extends R> projection, Predicate<? super SR> filterPredicate) throws UnsupportedOperationException
+    {
+        throw new UnsupportedOperationException("project");
+    }
 
+    /**
+     * Tells if the source records of the loader are the ids of the data objects and can be streamed via
+     * {@link #project(Function, Predicate)}, so callers which only need the ids do not load any data object.
+     * The default implementation returns false, hence callers fall back to the ids of the loaded data objects.
+     * 
+     * @return true if the source records are the ids of the data objects and projections are supported
+     */
+    default boolean hasIdSourceRecords()
+    {
+        return false;
+    }
 }
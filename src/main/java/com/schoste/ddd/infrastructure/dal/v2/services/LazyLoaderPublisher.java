@@ -0,0 +1,314 @@
+package com.schoste.ddd.infrastructure.dal.v2.services;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Flow;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Predicate;
+
+import com.schoste.ddd.infrastructure.dal.v2.exceptions.DALException;
+import com.schoste.ddd.infrastructure.dal.v2.models.GenericDataObject;
+
+/**
+ * Implementation of {@link Flow.Publisher} which emits the data objects provided by a {@link LazyLoader}.
+ * Data objects are only loaded when the subscriber requests them via {@link Flow.Subscription#request(long)},
+ * so the demand of the subscriber is passed on to the underlying data source.
+ * Every subscriber gets its own lazy loader which is closed when the subscription completes, fails or is cancelled.
+ *
+ * @param <T> the type of the data objects provided by the lazy loader
+ * @param <E> the type of the elements emitted to the subscriber (a data object or a list of data objects)
+ */
+public class LazyLoaderPublisher<T extends GenericDataObject, E> implements Flow.Publisher<E>
+{
+	/**
+	 * Creates a new lazy loader for every subscriber of the {@link LazyLoaderPublisher}
+	 *
+	 * @param <T> the type of the data objects provided by the lazy loader
+	 */
+	@FunctionalInterface
+	public interface LazyLoaderFactory<T extends GenericDataObject>
+	{
+		/**
+		 * Creates a new lazy loader
+		 *
+		 * @return a new instance of a lazy loader
+		 * @throws Exception re-throws every exception
+		 */
+		LazyLoader<?, T> createLazyLoader() throws Exception;
+	}
+
+	protected final LazyLoaderFactory<T> lazyLoaderFactory;
+	protected final Predicate<? super T> filterPredicate;
+	protected final int batchSize;
+
+	/**
+	 * Creates a new instance of the class
+	 *
+	 * @param lazyLoaderFactory the factory which creates the lazy loader for every subscriber
+	 * @param filterPredicate if not null, only data objects passing this filter are emitted
+	 * @param batchSize the number of data objects per emitted list, or 0 if single data objects are emitted
+	 * @throws IllegalArgumentException thrown if lazyLoaderFactory is null or batchSize is negative
+	 */
+	protected LazyLoaderPublisher(LazyLoaderFactory<T> lazyLoaderFactory, Predicate<? super T> filterPredicate, int batchSize) throws IllegalArgumentException
+	{
+		if (lazyLoaderFactory == null) throw new IllegalArgumentException("lazyLoaderFactory");
+		if (batchSize < 0) throw new IllegalArgumentException("batchSize");
+
+		this.lazyLoaderFactory = lazyLoaderFactory;
+		this.filterPredicate = filterPredicate;
+		this.batchSize = batchSize;
+	}
+
+	/**
+	 * Creates a publisher which emits one data object per requested element
+	 *
+	 * @param <T> the type of the data objects
+	 * @param lazyLoaderFactory the factory which creates the lazy loader for every subscriber
+	 * @param filterPredicate if not null, only data objects passing this filter are emitted
+	 * @return a new publisher
+	 * @throws IllegalArgumentException thrown if lazyLoaderFactory is null
+	 */
+	public static <T extends GenericDataObject> LazyLoaderPublisher<T, T> ofDataObjects(LazyLoaderFactory<T> lazyLoaderFactory, Predicate<? super T> filterPredicate) throws IllegalArgumentException
+	{
+		return new LazyLoaderPublisher<>(lazyLoaderFactory, filterPredicate, 0);
+	}
+
+	/**
+	 * Creates a publisher which emits a list of up to batchSize data objects per requested element.
+	 * Only the last list may contain less data objects.
+	 *
+	 * @param <T> the type of the data objects
+	 * @param lazyLoaderFactory the factory which creates the lazy loader for every subscriber
+	 * @param filterPredicate if not null, only data objects passing this filter are emitted
+	 * @param batchSize the maximum number of data objects per emitted list
+	 * @return a new publisher
+	 * @throws IllegalArgumentException thrown if lazyLoaderFactory is null or batchSize is smaller than 1
+	 */
+	public static <T extends GenericDataObject> LazyLoaderPublisher<T, List<T>> ofBatches(LazyLoaderFactory<T> lazyLoaderFactory, Predicate<? super T> filterPredicate, int batchSize) throws IllegalArgumentException
+	{
+		if (batchSize < 1) throw new IllegalArgumentException("batchSize");
+
+		return new LazyLoaderPublisher<>(lazyLoaderFactory, filterPredicate, batchSize);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public void subscribe(Flow.Subscriber<? super E> subscriber)
+	{
+		if (subscriber == null) throw new NullPointerException("subscriber");
+
+		LazyLoader<?, T> lazyLoader;
+
+		try
+		{
+			lazyLoader = this.lazyLoaderFactory.createLazyLoader();
+		}
+		catch (Exception e)
+		{
+			subscriber.onSubscribe(new Flow.Subscription()
+			{
+				@Override
+				public void request(long n) { }
+
+				@Override
+				public void cancel() { }
+			});
+			subscriber.onError(new DALException(e));
+
+			return;
+		}
+
+		LazyLoaderSubscription subscription = new LazyLoaderSubscription(subscriber, lazyLoader);
+
+		subscription.signal(() -> subscriber.onSubscribe(subscription));
+	}
+
+	/**
+	 * Subscription of a single subscriber. Elements are loaded and emitted on the thread which
+	 * requests them. Concurrent or re-entrant calls to {@link #request(long)} and {@link #cancel()}
+	 * are serialized, so the lazy loader is never accessed by two threads at the same time.
+	 */
+	protected class LazyLoaderSubscription implements Flow.Subscription
+	{
+		protected final Flow.Subscriber<? super E> subscriber;
+		protected final LazyLoader<?, T> lazyLoader;
+		protected final AtomicLong demand = new AtomicLong();
+		protected final AtomicInteger workInProgress = new AtomicInteger();
+		protected volatile boolean cancelled = false;
+		protected volatile Throwable pendingError = null;
+		protected boolean terminated = false;
+		protected T nextDataObject = null;
+
+		protected LazyLoaderSubscription(Flow.Subscriber<? super E> subscriber, LazyLoader<?, T> lazyLoader)
+		{
+			this.subscriber = subscriber;
+			this.lazyLoader = lazyLoader;
+		}
+
+		/**
+		 * {@inheritDoc}
+		 */
+		@Override
+		public void request(long n)
+		{
+			if (n <= 0) this.pendingError = new IllegalArgumentException("n");
+			else this.demand.getAndAccumulate(n, (current, requested) -> (current + requested < 0) ? Long.MAX_VALUE : current + requested);
+
+			this.drain();
+		}
+
+		/**
+		 * {@inheritDoc}
+		 */
+		@Override
+		public void cancel()
+		{
+			this.cancelled = true;
+
+			this.drain();
+		}
+
+		/**
+		 * Emits elements as long as there is demand. Only one thread at a time executes the loop.
+		 */
+		protected void drain()
+		{
+			if (this.workInProgress.getAndIncrement() != 0) return;
+
+			int missed = 1;
+
+			do
+			{
+				if (!this.terminated) this.emit();
+
+				missed = this.workInProgress.addAndGet(-missed);
+			}
+			while (missed != 0);
+		}
+
+		protected void emit()
+		{
+			while (!this.cancelled && (this.pendingError == null) && (this.demand.get() > 0))
+			{
+				E element;
+
+				try
+				{
+					element = this.next();
+				}
+				catch (Exception e)
+				{
+					this.terminate();
+					this.signal(() -> this.subscriber.onError(new DALException(e)));
+
+					return;
+				}
+
+				if (element == null)
+				{
+					this.terminate();
+					this.signal(this.subscriber::onComplete);
+
+					return;
+				}
+
+				this.demand.decrementAndGet();
+
+				if (!this.signal(() -> this.subscriber.onNext(element))) return;
+			}
+
+			if (this.pendingError != null)
+			{
+				Throwable error = this.pendingError;
+
+				this.terminate();
+				this.signal(() -> this.subscriber.onError(error));
+			}
+			else if (this.cancelled)
+			{
+				this.terminate();
+			}
+		}
+
+		/**
+		 * Calls a method of the subscriber.
+		 * A subscriber which throws is considered to have cancelled its subscription (Reactive Streams rule 2.13),
+		 * so the lazy loader is closed and the failure is passed to {@link DALException#report(Throwable)} instead of the subscriber.
+		 *
+		 * @param signal calls the method of the subscriber
+		 * @return true if the subscriber returned normally, false if it threw
+		 */
+		protected boolean signal(Runnable signal)
+		{
+			try
+			{
+				signal.run();
+
+				return true;
+			}
+			catch (Exception e)
+			{
+				this.cancelled = true;
+
+				if (!this.terminated) this.terminate();
+
+				DALException.report(e);
+
+				return false;
+			}
+		}
+
+		protected void terminate()
+		{
+			this.terminated = true;
+			this.lazyLoader.run();
+		}
+
+		/**
+		 * Loads the next data object which passes the filter predicate
+		 *
+		 * @return the next data object or null if there are no more data objects
+		 */
+		protected T nextDataObject()
+		{
+			while (this.lazyLoader.tryAdvance(dataObject -> this.nextDataObject = dataObject))
+			{
+				T dataObject = this.nextDataObject;
+
+				this.nextDataObject = null;
+
+				if (dataObject == null) continue;
+				if ((filterPredicate == null) || filterPredicate.test(dataObject)) return dataObject;
+			}
+
+			return null;
+		}
+
+		/**
+		 * Loads the next element to emit
+		 *
+		 * @return the next element or null if there are no more elements
+		 */
+		@SuppressWarnings("unchecked")
+		protected E next()
+		{
+			if (batchSize < 1) return (E) this.nextDataObject();
+
+			List<T> batch = new ArrayList<>(batchSize);
+
+			while (batch.size() < batchSize)
+			{
+				T dataObject = this.nextDataObject();
+
+				if (dataObject == null) break;
+
+				batch.add(dataObject);
+			}
+
+			return batch.isEmpty() ? null : (E) batch;
+		}
+	}
+}
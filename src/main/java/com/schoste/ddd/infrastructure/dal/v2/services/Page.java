@@ -0,0 +1,69 @@
+package com.schoste.ddd.infrastructure.dal.v2.services;
+
+import java.util.Collections;
+import java.util.List;
+
+import com.schoste.ddd.infrastructure.dal.v2.models.GenericDataObject;
+
+/**
+ * A page of data objects in the order of their ids, as returned by {@link GenericDataAccessObject#getPage(int, int)}.
+ * The next page is requested by passing {@link #getNextAfterId()} as afterId, so a page does not depend on an offset
+ * and stays stable while data objects are added or removed before it.
+ * Later pages only cost the same as the first one if the DAO seeks afterId in the data source
+ * (see {@link GenericDAO#doGetPage(int, int)}); the default implementation scans all ids for every page.
+ *
+ * @param <T> the type of the data objects
+ */
+public class Page<T extends GenericDataObject>
+{
+	protected final List<T> dataObjects;
+	protected final int nextAfterId;
+	protected final boolean hasNext;
+
+	/**
+	 * Creates a new instance of the class
+	 *
+	 * @param dataObjects the data objects of the page in the order of their ids
+	 * @param nextAfterId the id after which the next page starts
+	 * @param hasNext true if there are data objects with ids greater than nextAfterId
+	 * @throws IllegalArgumentException thrown if dataObjects is null
+	 */
+	public Page(List<T> dataObjects, int nextAfterId, boolean hasNext) throws IllegalArgumentException
+	{
+		if (dataObjects == null) throw new IllegalArgumentException("dataObjects");
+
+		this.dataObjects = Collections.unmodifiableList(dataObjects);
+		this.nextAfterId = nextAfterId;
+		this.hasNext = hasNext;
+	}
+
+	/**
+	 * Gets the data objects of the page
+	 *
+	 * @return an unmodifiable list of the data objects in the order of their ids
+	 */
+	public List<T> getDataObjects()
+	{
+		return this.dataObjects;
+	}
+
+	/**
+	 * Gets the continuation id to pass as afterId to get the next page
+	 *
+	 * @return the greatest id covered by this page
+	 */
+	public int getNextAfterId()
+	{
+		return this.nextAfterId;
+	}
+
+	/**
+	 * Checks if there is a next page
+	 *
+	 * @return true if there are data objects after this page, false if this is the last page
+	 */
+	public boolean hasNext()
+	{
+		return this.hasNext;
+	}
+}
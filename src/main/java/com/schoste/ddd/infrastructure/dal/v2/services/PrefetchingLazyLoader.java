@@ -0,0 +1,334 @@
+package com.schoste.ddd.infrastructure.dal.v2.services;
+
+import java.util.Spliterator;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Predicate;
+import java.util.stream.Stream;
+
+import com.schoste.ddd.infrastructure.dal.v2.models.GenericDataObject;
+
+/**
+ * Implementation of the {@link LazyLoader} interface which wraps another lazy loader and reads ahead of its consumer.
+ * A virtual thread advances the wrapped lazy loader (and thereby runs its source record to data object conversion)
+ * and puts the data objects into a bounded ring buffer, so loading the next data objects overlaps with processing
+ * the current one. The producer is started with the first call to {@link #tryAdvance(Consumer)} and stops
+ * when the buffer is full, the wrapped lazy loader is exhausted or this lazy loader is closed.
+ * Exceptions thrown by the wrapped lazy loader are re-thrown in the consuming thread.
+ * This lazy loader may be closed by another thread than its consumer, which then stops waiting for data objects.
+ *
+ * @param <SR> the data type of a potential source record that needs to be converted into the actual data object
+ * @param <DO> the data type of the actual data object returned by the loader.
+ */
+public class PrefetchingLazyLoader<SR, DO extends GenericDataObject> implements LazyLoader<SR, DO>
+{
+    /**
+     * The default number of data objects that are loaded ahead of the consumer
+     */
+    public static final int DEFAULT_PREFETCH_DEPTH = 64;
+
+    private static final Object END_OF_DATA = new Object();
+    private static final Object NULL_DATA_OBJECT = new Object();
+
+    /**
+     * Wraps an exception thrown by the producer so it can be passed through the buffer
+     */
+    private static final class ProducerFailure
+    {
+        private final Throwable cause;
+
+        private ProducerFailure(Throwable cause)
+        {
+            this.cause = cause;
+        }
+    }
+
+    /**
+     * Thrown inside the wrapped lazy loader to abort {@link Spliterator#tryAdvance(Consumer)} when this loader was closed
+     */
+    private static final class ProducerStopped extends RuntimeException
+    {
+        private static final long serialVersionUID = 1L;
+
+        private ProducerStopped()
+        {
+            super(null, null, false, false);
+        }
+    }
+
+    protected final LazyLoader<SR, DO> lazyLoader;
+    protected final BlockingQueue<Object> buffer;
+    protected final long estimatedSize;
+    protected final int characteristics;
+    protected volatile boolean closed = false;
+    protected volatile Thread producer = null;
+    protected volatile boolean exhausted = false;
+
+    /**
+     * Creates a new instance which loads up to {@link #DEFAULT_PREFETCH_DEPTH} data objects ahead of the consumer
+     *
+     * @param lazyLoader the lazy loader to read ahead from
+     * @throws IllegalArgumentException thrown if lazyLoader is null
+     */
+    public PrefetchingLazyLoader(LazyLoader<SR, DO> lazyLoader) throws IllegalArgumentException
+    {
+        this(lazyLoader, DEFAULT_PREFETCH_DEPTH);
+    }
+
+    /**
+     * Creates a new instance which loads up to prefetchDepth data objects ahead of the consumer
+     *
+     * @param lazyLoader the lazy loader to read ahead from
+     * @param prefetchDepth the capacity of the buffer between the producer and the consumer
+     * @throws IllegalArgumentException thrown if lazyLoader is null or prefetchDepth is smaller than 1
+     */
+    public PrefetchingLazyLoader(LazyLoader<SR, DO> lazyLoader, int prefetchDepth) throws IllegalArgumentException
+    {
+        if (lazyLoader == null) throw new IllegalArgumentException("lazyLoader");
+        if (prefetchDepth < 1) throw new IllegalArgumentException("prefetchDepth");
+
+        this.lazyLoader = lazyLoader;
+        this.buffer = new ArrayBlockingQueue<>(prefetchDepth);
+        this.estimatedSize = lazyLoader.estimateSize();
+        this.characteristics = lazyLoader.characteristics();
+    }
+
+    /**
+     * Runs in the producer thread. Advances the wrapped lazy loader until it is exhausted or this loader is closed
+     * and closes the wrapped lazy loader afterwards.
+     */
+    protected void produce()
+    {
+        try
+        {
+            while (!this.closed && this.lazyLoader.tryAdvance(this::enqueue)) ;
+
+            if (!this.closed) this.buffer.put(END_OF_DATA);
+        }
+        catch (ProducerStopped | InterruptedException e)
+        {
+            return;
+        }
+        catch (Throwable t)
+        {
+            try
+            {
+                if (!this.closed) this.buffer.put(new ProducerFailure(t));
+            }
+            catch (InterruptedException e)
+            {
+                return;
+            }
+        }
+        finally
+        {
+            this.lazyLoader.run();
+        }
+    }
+
+    /**
+     * Puts a data object into the buffer and waits while the buffer is full.
+     * {@link #close()} sets the closed flag before it interrupts the producer, so the producer also stops
+     * if the wrapped lazy loader swallowed the interrupt.
+     *
+     * @param dataObject the data object to put into the buffer
+     */
+    private void enqueue(DO dataObject)
+    {
+        if (this.closed) throw new ProducerStopped();
+
+        try
+        {
+            this.buffer.put((dataObject == null) ? NULL_DATA_OBJECT : dataObject);
+        }
+        catch (InterruptedException e)
+        {
+            throw new ProducerStopped();
+        }
+    }
+
+    /**
+     * Implements {@link Spliterator#tryAdvance(Consumer)}.
+     * Takes the next data object from the buffer and waits for the producer if the buffer is empty.
+     *
+     * @param action the consumer of the stream that will take the next data object
+     * @return true if a data object was provided, false if there are no more data objects
+     * @throws RuntimeException re-throws every unchecked exception thrown by the wrapped lazy loader
+     */
+    @SuppressWarnings("unchecked")
+    @Override
+    public boolean tryAdvance(Consumer<? super DO> action)
+    {
+        if (this.exhausted || this.closed) return false;
+
+        if (this.producer == null)
+        {
+            synchronized (this)
+            {
+                // close() may have been called by another thread in the meantime
+                if (this.closed) return false;
+
+                this.producer = Thread.ofVirtual().name("lazy-loader-prefetch").start(this::produce);
+            }
+        }
+
+        Object element;
+
+        try
+        {
+            element = this.buffer.take();
+        }
+        catch (InterruptedException e)
+        {
+            Thread.currentThread().interrupt();
+
+            this.close();
+
+            return false;
+        }
+
+        if (element == END_OF_DATA)
+        {
+            this.exhausted = true;
+
+            return false;
+        }
+
+        if (element instanceof ProducerFailure)
+        {
+            this.exhausted = true;
+
+            Throwable cause = ((ProducerFailure) element).cause;
+
+            if (cause instanceof RuntimeException) throw (RuntimeException) cause;
+            if (cause instanceof Error) throw (Error) cause;
+
+            throw new IllegalStateException(cause);
+        }
+
+        action.accept((element == NULL_DATA_OBJECT) ? null : (DO) element);
+
+        return true;
+    }
+
+    /**
+     * Implements {@link LazyLoader#project(Function, Predicate)}.
+     * Projections are delegated to the wrapped lazy loader without reading ahead, since they do not convert source records.
+     * 
+     * @param <R> the data type of the projected values
+     * @param projection maps a source record to the value of the stream
+     * @param filterPredicate if not null, only source records passing this filter are projected
+     * @return a stream of projected values which closes this loader when it is closed
+     * @throws IllegalStateException thrown if data objects were already requested via {@link #tryAdvance(Consumer)}
+     */
+    @Override
+    public <R> Stream<R> project(Function<? super SR, ? extends R> projection, Predicate<? super SR> filterPredicate) throws IllegalStateException
+    {
+        if (this.producer != null) throw new IllegalStateException();
+
+        return this.lazyLoader.<R>project(projection, filterPredicate).onClose(this);
+    }
+
+    /**
+     * {@inheritDoc}
+     * 
+     * @return the answer of the wrapped lazy loader
+     */
+    @Override
+    public boolean hasIdSourceRecords()
+    {
+        return this.lazyLoader.hasIdSourceRecords();
+    }
+
+    /**
+     * Implements {@link Runnable#run()}.
+     * Callback method for {@link java.util.stream.Stream#onClose(Runnable)} which will be called by the encapsulating {@link Stream} class
+     * when it is closed.
+     */
+    @Override
+    public void run()
+    {
+        this.close();
+    }
+
+    /**
+     * Implements {@link Spliterator#trySplit()}.
+     * Splitting is not supported since the data objects are provided by a single producer.
+     *
+     * @return null
+     */
+    @Override
+    public Spliterator<DO> trySplit()
+    {
+        return null;
+    }
+
+    /**
+     * Implements {@link Spliterator#estimateSize()}.
+     *
+     * @return the estimate of the wrapped lazy loader when this loader was created
+     */
+    @Override
+    public long estimateSize()
+    {
+        return this.estimatedSize;
+    }
+
+    /**
+     * Implements {@link Spliterator#characteristics()}.
+     *
+     * @return the characteristics of the wrapped lazy loader when this loader was created
+     */
+    @Override
+    public int characteristics()
+    {
+        return this.characteristics;
+    }
+
+    /**
+     * Implements {@link AutoCloseable#close()}.
+     * Stops the producer and waits until it closed the wrapped lazy loader.
+     * If the producer was never started, the wrapped lazy loader is closed in the calling thread.
+     * A consumer waiting for the next data object in another thread is woken up and gets no more data objects.
+     */
+    @Override
+    public void close()
+    {
+        Thread currentProducer;
+
+        synchronized (this)
+        {
+            if (this.closed) return;
+
+            this.closed = true;
+
+            currentProducer = this.producer;
+        }
+
+        if (currentProducer == null)
+        {
+            this.lazyLoader.run();
+
+            return;
+        }
+
+        currentProducer.interrupt();
+
+        try
+        {
+            currentProducer.join();
+        }
+        catch (InterruptedException e)
+        {
+            Thread.currentThread().interrupt();
+        }
+        finally
+        {
+            // the producer no longer puts elements once closed, so there is room to wake up a waiting consumer
+            this.buffer.clear();
+            this.buffer.offer(END_OF_DATA);
+        }
+    }
+}
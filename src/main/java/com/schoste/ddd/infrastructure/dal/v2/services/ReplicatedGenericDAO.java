@@ -0,0 +1,473 @@
+package com.schoste.ddd.infrastructure.dal.v2.services;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import com.schoste.ddd.infrastructure.dal.v2.exceptions.DALException;
+import com.schoste.ddd.infrastructure.dal.v2.models.GenericDataObject;
+
+/**
+ * Data access object which writes to a primary DAO and reads from replica DAOs, which are used in turns.
+ * Replicating the data objects from the primary to the replicas is up to the data source.
+ *
+ * Reads are consistent with the writes of the calling thread (read-your-writes): the modification time stamps of the
+ * data objects saved and the ids of the data objects deleted by a thread are remembered for a configurable window.
+ * If a replica returns an older version of such a data object, or a data object which the thread deleted, the data objects
+ * concerned are read from the primary instead. Reads after {@link #clear()} or {@link #reloadAll()} of the thread go to the primary
+ * for the whole window. Reads also fall back to the primary if a replica throws an exception.
+ *
+ * Listeners registered at this DAO are notified once per operation. Writes of other threads may not be visible
+ * until they are replicated.
+ *
+ * @param <T> the class of the data object to persist
+ */
+public class ReplicatedGenericDAO<T extends GenericDataObject> extends GenericDAO<T>
+{
+	/**
+	 * The default time the writes of a thread are remembered, in milliseconds
+	 */
+	public static final long DEFAULT_READ_YOUR_WRITES_WINDOW_MILLIS = 10_000;
+
+	/**
+	 * The modification time stamp remembered for deleted data objects
+	 */
+	protected static final long DELETED = Long.MAX_VALUE;
+
+	/**
+	 * A write of a data object remembered for a thread
+	 */
+	protected static final class PendingWrite
+	{
+		protected final long modifiedTimeStamp;
+		protected final long writtenAt;
+
+		protected PendingWrite(long modifiedTimeStamp, long writtenAt)
+		{
+			this.modifiedTimeStamp = modifiedTimeStamp;
+			this.writtenAt = writtenAt;
+		}
+	}
+
+	/**
+	 * The writes of a thread which may not be replicated yet
+	 */
+	protected static final class PendingWrites
+	{
+		protected final LinkedHashMap<Integer, PendingWrite> writes = new LinkedHashMap<>();
+		protected long clearedAt = 0;
+		protected boolean cleared = false;
+	}
+
+	protected final Class<T> dataObjectClass;
+	protected final GenericDAO<T> primary;
+	protected final List<GenericDAO<T>> replicas;
+	protected final long readYourWritesWindowNanos;
+	protected final ThreadLocal<PendingWrites> pendingWrites = ThreadLocal.withInitial(PendingWrites::new);
+	protected final AtomicInteger nextReplica = new AtomicInteger();
+	protected final AtomicLong primaryFallbackCount = new AtomicLong();
+
+	/**
+	 * Creates a new instance of the class which remembers the writes of a thread for {@link #DEFAULT_READ_YOUR_WRITES_WINDOW_MILLIS}
+	 *
+	 * @param dataObjectClass the class of the data objects
+	 * @param primary the DAO to write to
+	 * @param replicas the DAOs to read from. If empty, all reads go to the primary.
+	 * @throws IllegalArgumentException thrown if a parameter is null or replicas contains null
+	 */
+	public ReplicatedGenericDAO(Class<T> dataObjectClass, GenericDAO<T> primary, List<? extends GenericDAO<T>> replicas) throws IllegalArgumentException
+	{
+		this(dataObjectClass, primary, replicas, DEFAULT_READ_YOUR_WRITES_WINDOW_MILLIS, TimeUnit.MILLISECONDS);
+	}
+
+	/**
+	 * Creates a new instance of the class
+	 *
+	 * @param dataObjectClass the class of the data objects
+	 * @param primary the DAO to write to
+	 * @param replicas the DAOs to read from. If empty, all reads go to the primary.
+	 * @param readYourWritesWindow the time the writes of a thread are remembered, which should exceed the maximum replication lag
+	 * @param unit the unit of readYourWritesWindow
+	 * @throws IllegalArgumentException thrown if a parameter is null, replicas contains null or readYourWritesWindow is negative
+	 */
+	public ReplicatedGenericDAO(Class<T> dataObjectClass, GenericDAO<T> primary, List<? extends GenericDAO<T>> replicas, long readYourWritesWindow, TimeUnit unit) throws IllegalArgumentException
+	{
+		if (dataObjectClass == null) throw new IllegalArgumentException("dataObjectClass");
+		if (primary == null) throw new IllegalArgumentException("primary");
+		if ((replicas == null) || replicas.stream().anyMatch(Objects::isNull)) throw new IllegalArgumentException("replicas");
+		if (readYourWritesWindow < 0) throw new IllegalArgumentException("readYourWritesWindow");
+		if (unit == null) throw new IllegalArgumentException("unit");
+
+		this.dataObjectClass = dataObjectClass;
+		this.primary = primary;
+		this.replicas = Collections.unmodifiableList(new ArrayList<>(replicas));
+		this.readYourWritesWindowNanos = unit.toNanos(readYourWritesWindow);
+	}
+
+	/**
+	 * Gets the DAO all writes go to
+	 *
+	 * @return the primary DAO
+	 */
+	public GenericDAO<T> getPrimary()
+	{
+		return this.primary;
+	}
+
+	/**
+	 * Gets the DAOs reads are balanced across
+	 *
+	 * @return an unmodifiable list of the replica DAOs
+	 */
+	public List<GenericDAO<T>> getReplicas()
+	{
+		return this.replicas;
+	}
+
+	/**
+	 * Gets the number of reads which went to the primary because a replica lagged behind the writes of the calling thread or failed
+	 *
+	 * @return the number of reads which fell back to the primary
+	 */
+	public long getPrimaryFallbackCount()
+	{
+		return this.primaryFallbackCount.get();
+	}
+
+	/**
+	 * Forgets the writes of the calling thread, so its following reads go to the replicas regardless of their lag.
+	 * Should be called by threads which are reused for another caller (for instance the threads of a pool).
+	 */
+	public void forgetWrites()
+	{
+		this.pendingWrites.remove();
+	}
+
+	/**
+	 * Gets the writes of the calling thread which are still within the read-your-writes window
+	 *
+	 * @return the pending writes of the calling thread
+	 */
+	protected PendingWrites getPendingWrites()
+	{
+		PendingWrites pending = this.pendingWrites.get();
+		long now = System.nanoTime();
+		Iterator<PendingWrite> writes = pending.writes.values().iterator();
+
+		while (writes.hasNext() && ((now - writes.next().writtenAt) > this.readYourWritesWindowNanos)) writes.remove();
+
+		if (pending.cleared && ((now - pending.clearedAt) > this.readYourWritesWindowNanos)) pending.cleared = false;
+
+		return pending;
+	}
+
+	/**
+	 * Remembers a write of the calling thread
+	 *
+	 * @param id the id of the data object written
+	 * @param modifiedTimeStamp the modification time stamp of the data object written or {@link #DELETED}
+	 */
+	protected void rememberWrite(int id, long modifiedTimeStamp)
+	{
+		LinkedHashMap<Integer, PendingWrite> writes = this.getPendingWrites().writes;
+
+		writes.remove(id);
+		writes.put(id, new PendingWrite(modifiedTimeStamp, System.nanoTime()));
+	}
+
+	/**
+	 * Remembers a write of the calling thread which affects all data objects
+	 */
+	protected void rememberWriteOfAll()
+	{
+		PendingWrites pending = this.getPendingWrites();
+
+		pending.writes.clear();
+		pending.cleared = true;
+		pending.clearedAt = System.nanoTime();
+	}
+
+	/**
+	 * Checks if a data object read from a replica reflects the writes of the calling thread
+	 *
+	 * @param pending the pending writes of the calling thread
+	 * @param id the id of the data object
+	 * @param dataObject the data object read from a replica or null if the replica did not find it
+	 * @return true if the data object is at least as recent as the last write of the calling thread
+	 */
+	protected boolean isCurrent(PendingWrites pending, int id, T dataObject)
+	{
+		PendingWrite write = pending.writes.get(id);
+
+		if (write == null) return true;
+		if (write.modifiedTimeStamp == DELETED) return (dataObject == null) || dataObject.getIsDeleted();
+
+		return (dataObject != null) && (dataObject.getModifiedTimeStamp() >= write.modifiedTimeStamp);
+	}
+
+	/**
+	 * Picks the replica for the next read
+	 *
+	 * @return the next replica in turn or null if there are no replicas
+	 */
+	protected GenericDAO<T> nextReplica()
+	{
+		if (this.replicas.isEmpty()) return null;
+
+		return this.replicas.get(Math.floorMod(this.nextReplica.getAndIncrement(), this.replicas.size()));
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	protected T doGet(int id) throws Exception
+	{
+		PendingWrites pending = this.getPendingWrites();
+		GenericDAO<T> replica = this.nextReplica();
+
+		if ((replica != null) && !pending.cleared)
+		{
+			try
+			{
+				T dataObject = replica.get(id);
+
+				if (this.isCurrent(pending, id, dataObject)) return dataObject;
+			}
+			catch (DALException e)
+			{
+				// the primary is asked below
+			}
+
+			this.primaryFallbackCount.incrementAndGet();
+		}
+
+		return this.primary.get(id);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	protected Collection<T> doGet(int[] ids) throws Exception
+	{
+		PendingWrites pending = this.getPendingWrites();
+		GenericDAO<T> replica = this.nextReplica();
+
+		if ((replica == null) || pending.cleared) return this.readFromPrimary(ids);
+
+		Collection<T> dataObjects;
+
+		try
+		{
+			dataObjects = (ids == null) ? replica.getAll() : replica.get(ids);
+		}
+		catch (DALException e)
+		{
+			this.primaryFallbackCount.incrementAndGet();
+
+			return this.readFromPrimary(ids);
+		}
+
+		if (pending.writes.isEmpty()) return dataObjects;
+
+		Map<Integer, T> dataObjectsById = new HashMap<>();
+
+		for (T dataObject : dataObjects) if (dataObject != null) dataObjectsById.put(dataObject.getId(), dataObject);
+
+		List<Integer> laggingIds = new ArrayList<>();
+
+		for (Integer id : pending.writes.keySet())
+		{
+			if ((ids != null) && !dataObjectsById.containsKey(id) && !contains(ids, id)) continue;
+			if (!this.isCurrent(pending, id, dataObjectsById.get(id))) laggingIds.add(id);
+		}
+
+		if (laggingIds.isEmpty()) return dataObjects;
+
+		this.primaryFallbackCount.incrementAndGet();
+
+		if (ids == null) return this.primary.getAll();
+
+		Collection<T> currentDataObjects = new ArrayList<>(dataObjects.size());
+
+		for (T dataObject : dataObjects) if ((dataObject == null) || !laggingIds.contains(dataObject.getId())) currentDataObjects.add(dataObject);
+
+		currentDataObjects.addAll(this.primary.get(laggingIds.stream().mapToInt(Integer::intValue).toArray()));
+
+		return currentDataObjects;
+	}
+
+	private Collection<T> readFromPrimary(int[] ids) throws DALException
+	{
+		return (ids == null) ? this.primary.getAll() : this.primary.get(ids);
+	}
+
+	private static boolean contains(int[] ids, int id)
+	{
+		for (int i : ids) if (i == id) return true;
+
+		return false;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	protected void doSave(T dataObject) throws Exception
+	{
+		this.primary.save(dataObject);
+		this.rememberWrite(dataObject.getId(), dataObject.getModifiedTimeStamp());
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	protected void doSave(Collection<T> dataObjects) throws Exception
+	{
+		this.primary.save(dataObjects);
+
+		for (T dataObject : dataObjects) this.rememberWrite(dataObject.getId(), dataObject.getModifiedTimeStamp());
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	protected void doDelete(T dataObject) throws Exception
+	{
+		this.primary.delete(dataObject);
+		this.rememberWrite(dataObject.getId(), DELETED);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	protected void doDelete(Collection<T> dataObjects) throws Exception
+	{
+		this.primary.delete(dataObjects);
+
+		for (T dataObject : dataObjects) this.rememberWrite(dataObject.getId(), DELETED);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	protected void doDelete(int[] dataObjectIds) throws Exception
+	{
+		this.primary.delete(dataObjectIds);
+
+		for (int dataObjectId : dataObjectIds) this.rememberWrite(dataObjectId, DELETED);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	protected Collection<T> doReloadAll() throws Exception
+	{
+		Collection<T> dataObjects = this.primary.reloadAll();
+
+		this.rememberWriteOfAll();
+
+		return dataObjects;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 * The primary reloads the data objects modified after the latest modification time stamp it has seen itself.
+	 */
+	@Override
+	protected Collection<T> doReloadSince(long modifiedTimeStamp) throws Exception
+	{
+		Collection<T> dataObjects = this.primary.reloadChanged();
+
+		for (T dataObject : dataObjects) this.rememberWrite(dataObject.getId(), dataObject.getModifiedTimeStamp());
+
+		return dataObjects;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	protected void doClear() throws Exception
+	{
+		this.primary.clear();
+		this.rememberWriteOfAll();
+	}
+
+	/**
+	 * Creates a lazy loader of the next replica, or of the primary if the calling thread has written data objects
+	 * within the read-your-writes window, since a lazy loader cannot be checked for lagging data objects in advance
+	 *
+	 * @return a lazy loader of a replica or the primary
+	 * @throws Exception re-throws every exception
+	 */
+	@Override
+	protected LazyLoader<Integer, T> createLazyLoader() throws Exception
+	{
+		return this.selectLazyLoaderSource().openLazyLoader();
+	}
+
+	/**
+	 * Creates a reusing lazy loader of the DAO selected like in {@link #createLazyLoader()}
+	 *
+	 * @return a lazy loader of a replica or the primary which may reuse its data objects
+	 * @throws Exception re-throws every exception
+	 */
+	@Override
+	protected LazyLoader<Integer, T> createReusingLazyLoader() throws Exception
+	{
+		return this.selectLazyLoaderSource().createReusingLazyLoader();
+	}
+
+	/**
+	 * Selects the DAO to stream data objects from
+	 *
+	 * @return the next replica, or the primary if there are no replicas or the calling thread has pending writes
+	 */
+	protected GenericDAO<T> selectLazyLoaderSource()
+	{
+		PendingWrites pending = this.getPendingWrites();
+		GenericDAO<T> replica = this.nextReplica();
+
+		if ((replica == null) || pending.cleared || !pending.writes.isEmpty()) return this.primary;
+
+		return replica;
+	}
+
+	/**
+	 * Creates a new data object via the primary
+	 *
+	 * @return an instance to a new data object
+	 * @throws DALException re-throws every exception of the primary
+	 */
+	@Override
+	public T createDataObject() throws DALException
+	{
+		return this.primary.createDataObject();
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@SuppressWarnings("rawtypes")
+	@Override
+	protected Class getDataObjectClass()
+	{
+		return this.dataObjectClass;
+	}
+}
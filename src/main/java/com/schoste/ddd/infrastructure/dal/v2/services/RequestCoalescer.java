@@ -0,0 +1,219 @@
+package com.schoste.ddd.infrastructure.dal.v2.services;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import com.schoste.ddd.infrastructure.dal.v2.models.GenericDataObject;
+
+/**
+ * Coalesces concurrent loads of the same data objects (single flight).
+ * The first thread requesting an id loads it, and all threads requesting the same id while it is loaded
+ * wait for that load and get the same data object (or exception) instead of loading it again.
+ * Requests of several ids only load the ids which are not already loaded by other threads.
+ * Waiting threads give up after a timeout; the loading thread itself is not limited.
+ *
+ * Note that the waiting threads receive the same instance of a data object as the loading thread.
+ *
+ * @param <T> the type of the data objects
+ */
+public class RequestCoalescer<T extends GenericDataObject>
+{
+	/**
+	 * Loads data objects from the data source
+	 *
+	 * @param <A> the type of the argument of the load
+	 * @param <R> the type of the result of the load
+	 */
+	@FunctionalInterface
+	public interface Loader<A, R>
+	{
+		/**
+		 * Loads data objects from the data source
+		 *
+		 * @param argument the id or ids of the data objects to load
+		 * @return the loaded data object or data objects
+		 * @throws Exception re-throws every exception
+		 */
+		R load(A argument) throws Exception;
+	}
+
+	protected final ConcurrentHashMap<Integer, CompletableFuture<T>> inFlight = new ConcurrentHashMap<>();
+	protected final AtomicInteger numOfWaiters = new AtomicInteger();
+	protected final long timeoutNanos;
+
+	/**
+	 * Creates a new instance of the class
+	 *
+	 * @param timeout the maximum time a thread waits for the load of another thread
+	 * @param unit the unit of timeout
+	 * @throws IllegalArgumentException thrown if timeout is smaller than 1 or unit is null
+	 */
+	public RequestCoalescer(long timeout, TimeUnit unit) throws IllegalArgumentException
+	{
+		if (timeout < 1) throw new IllegalArgumentException("timeout");
+		if (unit == null) throw new IllegalArgumentException("unit");
+
+		this.timeoutNanos = unit.toNanos(timeout);
+	}
+
+	/**
+	 * Gets the number of ids which are currently loaded
+	 *
+	 * @return the number of ids in flight
+	 */
+	public int getInFlightCount()
+	{
+		return this.inFlight.size();
+	}
+
+	/**
+	 * Gets the number of threads which currently wait for the load of another thread
+	 *
+	 * @return the number of waiting threads
+	 */
+	public int getWaiterCount()
+	{
+		return this.numOfWaiters.get();
+	}
+
+	/**
+	 * Loads a data object unless it is already loaded by another thread, in which case the result of the other thread is returned
+	 *
+	 * @param id the id of the data object
+	 * @param loader loads a single data object
+	 * @return the data object or null if there is no such data object
+	 * @throws TimeoutException thrown if the load of another thread did not finish in time
+	 * @throws Exception re-throws every exception of the loader, also in the waiting threads
+	 */
+	public T get(int id, Loader<Integer, T> loader) throws TimeoutException, Exception
+	{
+		CompletableFuture<T> ownLoad = new CompletableFuture<>();
+		CompletableFuture<T> otherLoad = this.inFlight.putIfAbsent(id, ownLoad);
+
+		if (otherLoad != null) return this.await(otherLoad, System.nanoTime() + this.timeoutNanos);
+
+		try
+		{
+			T dataObject = loader.load(id);
+
+			ownLoad.complete(dataObject);
+
+			return dataObject;
+		}
+		catch (Exception e)
+		{
+			ownLoad.completeExceptionally(e);
+
+			throw e;
+		}
+		finally
+		{
+			this.inFlight.remove(id, ownLoad);
+		}
+	}
+
+	/**
+	 * Loads the data objects which are not already loaded by other threads via a single call of the loader,
+	 * and waits for the data objects loaded by other threads afterwards
+	 *
+	 * @param ids the ids of the data objects
+	 * @param loader loads several data objects
+	 * @return the data objects which were found, each once
+	 * @throws TimeoutException thrown if the load of another thread did not finish in time
+	 * @throws Exception re-throws every exception of the loader, also in the waiting threads
+	 */
+	public Collection<T> get(int[] ids, Loader<int[], Collection<T>> loader) throws TimeoutException, Exception
+	{
+		Map<Integer, CompletableFuture<T>> ownLoads = new LinkedHashMap<>();
+		Map<Integer, CompletableFuture<T>> otherLoads = new LinkedHashMap<>();
+
+		for (int id : ids)
+		{
+			if (ownLoads.containsKey(id) || otherLoads.containsKey(id)) continue;
+
+			CompletableFuture<T> ownLoad = new CompletableFuture<>();
+			CompletableFuture<T> otherLoad = this.inFlight.putIfAbsent(id, ownLoad);
+
+			if (otherLoad == null) ownLoads.put(id, ownLoad);
+			else otherLoads.put(id, otherLoad);
+		}
+
+		List<T> dataObjects = new ArrayList<>(ids.length);
+
+		// the own ids are loaded before waiting for other threads, which in turn may wait for them
+		if (!ownLoads.isEmpty()) dataObjects.addAll(this.loadOwn(ownLoads, loader));
+
+		long deadline = System.nanoTime() + this.timeoutNanos;
+
+		for (CompletableFuture<T> otherLoad : otherLoads.values())
+		{
+			T dataObject = this.await(otherLoad, deadline);
+
+			if (dataObject != null) dataObjects.add(dataObject);
+		}
+
+		return dataObjects;
+	}
+
+	/**
+	 * Loads the ids this thread is responsible for and completes their futures
+	 */
+	protected Collection<T> loadOwn(Map<Integer, CompletableFuture<T>> ownLoads, Loader<int[], Collection<T>> loader) throws Exception
+	{
+		try
+		{
+			int[] ownIds = ownLoads.keySet().stream().mapToInt(Integer::intValue).toArray();
+			Collection<T> loadedDataObjects = loader.load(ownIds);
+			Map<Integer, T> loadedDataObjectsById = new HashMap<>();
+
+			for (T dataObject : loadedDataObjects) if (dataObject != null) loadedDataObjectsById.put(dataObject.getId(), dataObject);
+
+			ownLoads.forEach((id, ownLoad) -> ownLoad.complete(loadedDataObjectsById.get(id)));
+
+			return loadedDataObjects;
+		}
+		catch (Exception e)
+		{
+			ownLoads.values().forEach(ownLoad -> ownLoad.completeExceptionally(e));
+
+			throw e;
+		}
+		finally
+		{
+			ownLoads.forEach(this.inFlight::remove);
+		}
+	}
+
+	/**
+	 * Waits for the load of another thread
+	 */
+	protected T await(CompletableFuture<T> otherLoad, long deadline) throws TimeoutException, Exception
+	{
+		this.numOfWaiters.incrementAndGet();
+
+		try
+		{
+			return otherLoad.get(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+		}
+		catch (ExecutionException e)
+		{
+			if (e.getCause() instanceof Exception) throw (Exception) e.getCause();
+
+			throw e;
+		}
+		finally
+		{
+			this.numOfWaiters.decrementAndGet();
+		}
+	}
+}
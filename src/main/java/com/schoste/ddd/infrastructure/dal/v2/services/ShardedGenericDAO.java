@@ -0,0 +1,541 @@
+package com.schoste.ddd.infrastructure.dal.v2.services;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.FutureTask;
+import java.util.function.IntSupplier;
+import java.util.function.IntUnaryOperator;
+
+import com.schoste.ddd.infrastructure.dal.v2.exceptions.DALException;
+import com.schoste.ddd.infrastructure.dal.v2.models.GenericDataObject;
+
+/**
+ * Data access object which partitions the data objects by their id across several backing DAOs (the shards).
+ * A pluggable function maps an id to the index of its shard. Operations on several data objects are split per shard
+ * and performed by all affected shards in parallel (each in a virtual thread), and {@link #getAll(java.util.function.Predicate)}
+ * reads the shards one after another.
+ *
+ * Listeners registered at this DAO are notified once per operation, regardless of the number of affected shards.
+ * Listeners registered at the shards are notified by the shards for their part of the operation.
+ * Since the shards cannot assign ids without knowing each other, new data objects get their id from an id generator of this DAO
+ * before they are passed to their shard, which has to store them under that id.
+ *
+ * @param <T> the class of the data object to persist
+ */
+public class ShardedGenericDAO<T extends GenericDataObject> extends GenericDAO<T>
+{
+	/**
+	 * An operation performed by a single shard
+	 *
+	 * @param <T> the class of the data object
+	 * @param <A> the type of the argument of the operation
+	 * @param <R> the type of the result of the operation
+	 */
+	@FunctionalInterface
+	protected interface ShardOperation<T extends GenericDataObject, A, R>
+	{
+		R apply(GenericDAO<T> shard, A argument) throws Exception;
+	}
+
+	protected final Class<T> dataObjectClass;
+	protected final List<GenericDAO<T>> shards;
+	protected final IntUnaryOperator shardFunction;
+	protected final IntSupplier idGenerator;
+
+	/**
+	 * Creates a new instance of the class which maps an id to the shard with the index id modulo the number of shards
+	 *
+	 * @param dataObjectClass the class of the data objects
+	 * @param shards the backing DAOs
+	 * @param idGenerator provides the ids of new data objects
+	 * @throws IllegalArgumentException thrown if a parameter is null or shards is empty or contains null
+	 */
+	public ShardedGenericDAO(Class<T> dataObjectClass, List<? extends GenericDAO<T>> shards, IntSupplier idGenerator) throws IllegalArgumentException
+	{
+		this(dataObjectClass, shards, idGenerator, null);
+	}
+
+	/**
+	 * Creates a new instance of the class
+	 *
+	 * @param dataObjectClass the class of the data objects
+	 * @param shards the backing DAOs
+	 * @param shardFunction maps the id of a data object to the index of its shard in shards
+	 * @param idGenerator provides the ids of new data objects
+	 * @throws IllegalArgumentException thrown if a parameter is null or shards is empty or contains null
+	 */
+	public ShardedGenericDAO(Class<T> dataObjectClass, List<? extends GenericDAO<T>> shards, IntUnaryOperator shardFunction, IntSupplier idGenerator) throws IllegalArgumentException
+	{
+		this(dataObjectClass, shards, idGenerator, shardFunction);
+
+		if (shardFunction == null) throw new IllegalArgumentException("shardFunction");
+	}
+
+	/**
+	 * Creates a new instance of the class.
+	 * The default shard function is resolved against the copy of shards, so later changes of the given list do not affect it.
+	 *
+	 * @param dataObjectClass the class of the data objects
+	 * @param shards the backing DAOs
+	 * @param idGenerator provides the ids of new data objects
+	 * @param shardFunction maps the id of a data object to the index of its shard in shards, or null to use the id modulo the number of shards
+	 * @throws IllegalArgumentException thrown if a parameter other than shardFunction is null or shards is empty or contains null
+	 */
+	private ShardedGenericDAO(Class<T> dataObjectClass, List<? extends GenericDAO<T>> shards, IntSupplier idGenerator, IntUnaryOperator shardFunction) throws IllegalArgumentException
+	{
+		if (dataObjectClass == null) throw new IllegalArgumentException("dataObjectClass");
+		if ((shards == null) || shards.isEmpty() || shards.stream().anyMatch(Objects::isNull)) throw new IllegalArgumentException("shards");
+		if (idGenerator == null) throw new IllegalArgumentException("idGenerator");
+
+		this.dataObjectClass = dataObjectClass;
+		this.shards = Collections.unmodifiableList(new ArrayList<>(shards));
+		this.shardFunction = (shardFunction != null) ? shardFunction : id -> Math.floorMod(id, this.shards.size());
+		this.idGenerator = idGenerator;
+	}
+
+	/**
+	 * Gets the backing DAOs
+	 *
+	 * @return an unmodifiable list of the shards
+	 */
+	public List<GenericDAO<T>> getShards()
+	{
+		return this.shards;
+	}
+
+	/**
+	 * Gets the index of the shard of an id
+	 *
+	 * @param id the id of a data object
+	 * @return the index of the shard in {@link #getShards()}
+	 * @throws IllegalStateException thrown if the shard function returned an invalid index
+	 */
+	protected int shardOf(int id) throws IllegalStateException
+	{
+		int shard = this.shardFunction.applyAsInt(id);
+
+		if ((shard < 0) || (shard >= this.shards.size())) throw new IllegalStateException("shardFunction");
+
+		return shard;
+	}
+
+	/**
+	 * Assigns an id of the id generator to a data object which was not persisted yet
+	 *
+	 * @param dataObject the data object to save
+	 */
+	protected void assignId(T dataObject)
+	{
+		if (dataObject.getId() < 1) dataObject.setId(this.idGenerator.getAsInt());
+	}
+
+	/**
+	 * Splits ids by their shard
+	 *
+	 * @param ids the ids to split
+	 * @return the ids by the index of their shard
+	 */
+	protected Map<Integer, int[]> splitIds(int[] ids)
+	{
+		Map<Integer, int[]> idsByShard = new LinkedHashMap<>();
+		int[] numOfIds = new int[this.shards.size()];
+
+		for (int id : ids)
+		{
+			int shard = this.shardOf(id);
+			int[] shardIds = idsByShard.computeIfAbsent(shard, s -> new int[ids.length]);
+
+			shardIds[numOfIds[shard]++] = id;
+		}
+
+		idsByShard.replaceAll((shard, shardIds) -> Arrays.copyOf(shardIds, numOfIds[shard]));
+
+		return idsByShard;
+	}
+
+	/**
+	 * Splits data objects by their shard
+	 *
+	 * @param dataObjects the data objects to split
+	 * @return the data objects by the index of their shard
+	 */
+	protected Map<Integer, Collection<T>> splitDataObjects(Collection<T> dataObjects)
+	{
+		Map<Integer, Collection<T>> dataObjectsByShard = new LinkedHashMap<>();
+
+		for (T dataObject : dataObjects)
+		{
+			dataObjectsByShard.computeIfAbsent(this.shardOf(dataObject.getId()), s -> new ArrayList<>()).add(dataObject);
+		}
+
+		return dataObjectsByShard;
+	}
+
+	/**
+	 * Performs an operation by several shards in parallel and waits until all of them have finished.
+	 * An operation of a single shard is performed in the calling thread.
+	 *
+	 * @param <A> the type of the argument of the operation
+	 * @param <R> the type of the result of the operation
+	 * @param arguments the arguments of the operation by the index of the shard to perform it
+	 * @param operation the operation to perform
+	 * @return the results of the shards in the order of arguments
+	 * @throws Exception re-throws the first exception thrown by a shard after all shards have finished
+	 */
+	protected <A, R> List<R> fanOut(Map<Integer, A> arguments, ShardOperation<T, A, R> operation) throws Exception
+	{
+		if (arguments.size() == 1)
+		{
+			Map.Entry<Integer, A> argument = arguments.entrySet().iterator().next();
+
+			return Collections.singletonList(operation.apply(this.shards.get(argument.getKey()), argument.getValue()));
+		}
+
+		List<FutureTask<R>> tasks = new ArrayList<>(arguments.size());
+
+		for (Map.Entry<Integer, A> argument : arguments.entrySet())
+		{
+			GenericDAO<T> shard = this.shards.get(argument.getKey());
+			FutureTask<R> task = new FutureTask<>(() -> operation.apply(shard, argument.getValue()));
+
+			Thread.ofVirtual().name("dao-shard-" + argument.getKey()).start(task);
+			tasks.add(task);
+		}
+
+		List<R> results = new ArrayList<>(tasks.size());
+		Exception failure = null;
+
+		for (FutureTask<R> task : tasks)
+		{
+			try
+			{
+				results.add(task.get());
+			}
+			catch (ExecutionException e)
+			{
+				if (failure == null) failure = (e.getCause() instanceof Exception) ? (Exception) e.getCause() : e;
+			}
+		}
+
+		if (failure != null) throw failure;
+
+		return results;
+	}
+
+	/**
+	 * Performs an operation by all shards in parallel
+	 *
+	 * @param <R> the type of the result of the operation
+	 * @param operation the operation to perform
+	 * @return the results of the shards in the order of the shards
+	 * @throws Exception re-throws the first exception thrown by a shard after all shards have finished
+	 */
+	protected <R> List<R> fanOutToAll(ShardOperation<T, Void, R> operation) throws Exception
+	{
+		Map<Integer, Void> arguments = new LinkedHashMap<>();
+
+		for (int shard = 0; shard < this.shards.size(); shard++) arguments.put(shard, null);
+
+		return this.fanOut(arguments, operation);
+	}
+
+	private static <T> Collection<T> concat(List<Collection<T>> collections)
+	{
+		Collection<T> concatenation = new ArrayList<>();
+
+		for (Collection<T> collection : collections) if (collection != null) concatenation.addAll(collection);
+
+		return concatenation;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	protected T doGet(int id) throws Exception
+	{
+		return this.shards.get(this.shardOf(id)).get(id);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	protected Collection<T> doGet(int[] ids) throws Exception
+	{
+		if (ids == null) return concat(this.fanOutToAll((shard, none) -> shard.getAll()));
+
+		return concat(this.fanOut(this.splitIds(ids), (shard, shardIds) -> shard.get(shardIds)));
+	}
+
+	/**
+	 * {@inheritDoc}
+	 * Every shard returns its own page, and the pages are merged by id.
+	 */
+	@Override
+	protected Page<T> doGetPage(int afterId, int limit) throws Exception
+	{
+		List<Page<T>> shardPages = this.fanOutToAll((shard, none) -> shard.getPage(afterId, limit));
+		List<T> dataObjects = new ArrayList<>();
+		boolean hasNext = false;
+
+		for (Page<T> shardPage : shardPages)
+		{
+			dataObjects.addAll(shardPage.getDataObjects());
+
+			hasNext |= shardPage.hasNext();
+		}
+
+		dataObjects.sort(Comparator.comparingInt(GenericDataObject::getId));
+
+		if (dataObjects.size() > limit)
+		{
+			dataObjects = new ArrayList<>(dataObjects.subList(0, limit));
+			hasNext = true;
+		}
+
+		// the pages of the shards may end after the merged page, which therefore ends at its own last data object
+		int nextAfterId = dataObjects.isEmpty() ? afterId : dataObjects.get(dataObjects.size() - 1).getId();
+
+		return new Page<>(dataObjects, nextAfterId, hasNext);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	protected long doCount() throws Exception
+	{
+		long count = 0;
+
+		for (long shardCount : this.fanOutToAll((shard, none) -> shard.count())) count += shardCount;
+
+		return count;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	protected boolean doExists(int id) throws Exception
+	{
+		return this.shards.get(this.shardOf(id)).exists(id);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	protected boolean doExistsAll(int[] ids) throws Exception
+	{
+		return !this.fanOut(this.splitIds(ids), (shard, shardIds) -> shard.existsAll(shardIds)).contains(Boolean.FALSE);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	protected void doSave(T dataObject) throws Exception
+	{
+		this.assignId(dataObject);
+		this.shards.get(this.shardOf(dataObject.getId())).save(dataObject);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	protected void doSave(Collection<T> dataObjects) throws Exception
+	{
+		for (T dataObject : dataObjects) this.assignId(dataObject);
+
+		this.fanOut(this.splitDataObjects(dataObjects), (shard, shardDataObjects) ->
+		{
+			shard.save(shardDataObjects);
+
+			return null;
+		});
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	protected void doDelete(T dataObject) throws Exception
+	{
+		this.shards.get(this.shardOf(dataObject.getId())).delete(dataObject);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	protected void doDelete(Collection<T> dataObjects) throws Exception
+	{
+		this.fanOut(this.splitDataObjects(dataObjects), (shard, shardDataObjects) ->
+		{
+			shard.delete(shardDataObjects);
+
+			return null;
+		});
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	protected void doDelete(int[] dataObjectIds) throws Exception
+	{
+		this.fanOut(this.splitIds(dataObjectIds), (shard, shardIds) ->
+		{
+			shard.delete(shardIds);
+
+			return null;
+		});
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	protected Collection<T> doReloadAll() throws Exception
+	{
+		return concat(this.fanOutToAll((shard, none) -> shard.reloadAll()));
+	}
+
+	/**
+	 * {@inheritDoc}
+	 * The given time stamp is ignored: each shard reloads the data objects modified after the latest modification time stamp
+	 * it has seen itself by calling {@link GenericDAO#reloadChanged()}, so the caches and reload listeners of the shards are updated as well.
+	 *
+	 * @param modifiedTimeStamp ignored, since every shard keeps its own time stamp
+	 */
+	@Override
+	protected Collection<T> doReloadSince(long modifiedTimeStamp) throws Exception
+	{
+		return concat(this.fanOutToAll((shard, none) -> shard.reloadChanged()));
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	protected void doClear() throws Exception
+	{
+		this.fanOutToAll((shard, none) ->
+		{
+			shard.clear();
+
+			return null;
+		});
+	}
+
+	/**
+	 * Creates a lazy loader which reads the lazy loaders of the shards one after another.
+	 * The lazy loaders of the shards read ahead if a prefetch depth was set at the shard.
+	 *
+	 * @return a lazy loader of all shards
+	 * @throws Exception re-throws every exception
+	 */
+	@Override
+	protected LazyLoader<Integer, T> createLazyLoader() throws Exception
+	{
+		List<LazyLoader<Integer, T>> lazyLoaders = new ArrayList<>(this.shards.size());
+
+		try
+		{
+			for (GenericDAO<T> shard : this.shards) lazyLoaders.add(shard.openLazyLoader());
+		}
+		catch (Exception e)
+		{
+			new ConcatenatingLazyLoader<>(lazyLoaders).close();
+
+			throw e;
+		}
+
+		return new ConcatenatingLazyLoader<>(lazyLoaders);
+	}
+
+	/**
+	 * Creates a lazy loader which reads the ranges of the shards one after another,
+	 * hence the data objects are ordered by id within each shard only
+	 *
+	 * @param fromId the smallest id of the range
+	 * @param toId the greatest id of the range
+	 * @return a lazy loader of the data objects within the range of all shards
+	 * @throws Exception re-throws every exception
+	 */
+	@Override
+	protected LazyLoader<Integer, T> doGetRange(int fromId, int toId) throws Exception
+	{
+		List<LazyLoader<Integer, T>> lazyLoaders = new ArrayList<>(this.shards.size());
+
+		try
+		{
+			for (GenericDAO<T> shard : this.shards) lazyLoaders.add(shard.doGetRange(fromId, toId));
+		}
+		catch (Exception e)
+		{
+			new ConcatenatingLazyLoader<>(lazyLoaders).close();
+
+			throw e;
+		}
+
+		return new ConcatenatingLazyLoader<>(lazyLoaders);
+	}
+
+	/**
+	 * Creates a lazy loader which reads the reusing lazy loaders of the shards one after another
+	 *
+	 * @return a lazy loader of all shards which may reuse its data objects
+	 * @throws Exception re-throws every exception
+	 */
+	@Override
+	protected LazyLoader<Integer, T> createReusingLazyLoader() throws Exception
+	{
+		List<LazyLoader<Integer, T>> lazyLoaders = new ArrayList<>(this.shards.size());
+
+		try
+		{
+			for (GenericDAO<T> shard : this.shards) lazyLoaders.add(shard.createReusingLazyLoader());
+		}
+		catch (Exception e)
+		{
+			new ConcatenatingLazyLoader<>(lazyLoaders).close();
+
+			throw e;
+		}
+
+		return new ConcatenatingLazyLoader<>(lazyLoaders);
+	}
+
+	/**
+	 * Creates a new data object via the first shard
+	 *
+	 * @return an instance to a new data object
+	 * @throws DALException re-throws every exception of the shard
+	 */
+	@Override
+	public T createDataObject() throws DALException
+	{
+		return this.shards.get(0).createDataObject();
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@SuppressWarnings("rawtypes")
+	@Override
+	protected Class getDataObjectClass()
+	{
+		return this.dataObjectClass;
+	}
+}
@@ -0,0 +1,66 @@
+package com.schoste.ddd.infrastructure.dal.v2.services;
+
+import java.util.Spliterator;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+import com.schoste.ddd.infrastructure.dal.v2.models.GenericDataObject;
+
+/**
+ * Implementation of the {@link LazyLoader} interface which provides the data objects of a stream.
+ * Used by the default methods of {@link GenericDataAccessObject} to offer lazy loader based features on top of
+ * {@link GenericDataAccessObject#getAll(java.util.function.Predicate)}.
+ *
+ * @param <DO> the data type of the actual data object returned by the loader.
+ */
+public class StreamLazyLoader<DO extends GenericDataObject> extends GenericLazyLoader<DO, DO>
+{
+    protected final Stream<DO> stream;
+    protected final Spliterator<DO> spliterator;
+
+    /**
+     * Creates a new instance of the class
+     *
+     * @param stream the stream of data objects to provide; it is closed when the loader is closed
+     * @throws IllegalArgumentException thrown if stream is null
+     */
+    public StreamLazyLoader(Stream<DO> stream) throws IllegalArgumentException
+    {
+        super();
+
+        if (stream == null) throw new IllegalArgumentException("stream");
+
+        this.stream = stream;
+        this.spliterator = stream.spliterator();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean tryAdvance(Consumer<? super DO> action)
+    {
+        return this.spliterator.tryAdvance(action);
+    }
+
+    /**
+     * Implements {@link Spliterator#estimateSize()}.
+     *
+     * @return the estimated size of the stream
+     */
+    @Override
+    public long estimateSize()
+    {
+        return this.spliterator.estimateSize();
+    }
+
+    /**
+     * {@inheritDoc}
+     * Closes the stream.
+     */
+    @Override
+    public void close()
+    {
+        this.stream.close();
+    }
+}
@@ -0,0 +1,182 @@
+package com.schoste.ddd.infrastructure.dal.v2.services;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+import com.schoste.ddd.infrastructure.dal.v2.exceptions.DALException;
+import com.schoste.ddd.infrastructure.dal.v2.models.GenericDataObject;
+
+/**
+ * Records the saves and deletes of a business operation and writes them with a single save and a single delete of the DAO on {@link #commit()}.
+ * Operations are deduplicated by id: the last save or delete of an id wins, and new data objects (without id) are
+ * saved once however often they are recorded. Listeners of the DAO are notified once per commit with all data objects or ids.
+ * If the DAO has a {@link GroupCommitter}, concurrent commits of several units of work share the calls to the data source.
+ *
+ * A unit of work is not thread safe and meant to be used by the thread performing the business operation.
+ *
+ * @param <T> the type of the data objects
+ */
+public class UnitOfWork<T extends GenericDataObject>
+{
+	protected final GenericDAO<T> dao;
+	protected final LinkedHashMap<Integer, T> dataObjectsToSave = new LinkedHashMap<>();
+	protected final Set<T> newDataObjectsToSave = Collections.newSetFromMap(new IdentityHashMap<>());
+	protected final LinkedHashSet<Integer> idsToDelete = new LinkedHashSet<>();
+
+	/**
+	 * Creates a new instance of the class
+	 *
+	 * @param dao the DAO to commit to
+	 * @throws IllegalArgumentException thrown if dao is null
+	 */
+	public UnitOfWork(GenericDAO<T> dao) throws IllegalArgumentException
+	{
+		if (dao == null) throw new IllegalArgumentException("dao");
+
+		this.dao = dao;
+	}
+
+	/**
+	 * Gets the DAO the unit of work commits to
+	 *
+	 * @return the DAO
+	 */
+	public GenericDAO<T> getDataAccessObject()
+	{
+		return this.dao;
+	}
+
+	/**
+	 * Records the save of a data object, replacing an earlier save or delete of the same id
+	 *
+	 * @param dataObject the data object to save
+	 * @throws IllegalArgumentException thrown if dataObject is null
+	 */
+	public void save(T dataObject) throws IllegalArgumentException
+	{
+		if (dataObject == null) throw new IllegalArgumentException("dataObject");
+
+		if (dataObject.getId() < 1)
+		{
+			this.newDataObjectsToSave.add(dataObject);
+
+			return;
+		}
+
+		this.idsToDelete.remove(dataObject.getId());
+		this.dataObjectsToSave.put(dataObject.getId(), dataObject);
+	}
+
+	/**
+	 * Records the delete of a data object, replacing an earlier save of the same data object.
+	 * A new data object (without id) is not saved at all.
+	 *
+	 * @param dataObject the data object to delete
+	 * @throws IllegalArgumentException thrown if dataObject is null
+	 */
+	public void delete(T dataObject) throws IllegalArgumentException
+	{
+		if (dataObject == null) throw new IllegalArgumentException("dataObject");
+
+		if (dataObject.getId() < 1)
+		{
+			this.newDataObjectsToSave.remove(dataObject);
+
+			return;
+		}
+
+		this.delete(dataObject.getId());
+	}
+
+	/**
+	 * Records the delete of a data object by its id, replacing an earlier save of the same id
+	 *
+	 * @param id the id of the data object to delete
+	 */
+	public void delete(int id)
+	{
+		this.dataObjectsToSave.remove(id);
+		this.idsToDelete.add(id);
+	}
+
+	/**
+	 * Gets the number of data objects which will be saved by the commit
+	 *
+	 * @return the number of recorded saves after deduplication
+	 */
+	public int getPendingSaveCount()
+	{
+		return this.dataObjectsToSave.size() + this.newDataObjectsToSave.size();
+	}
+
+	/**
+	 * Gets the number of ids which will be deleted by the commit
+	 *
+	 * @return the number of recorded deletes after deduplication
+	 */
+	public int getPendingDeleteCount()
+	{
+		return this.idsToDelete.size();
+	}
+
+	/**
+	 * Discards all recorded saves and deletes
+	 */
+	public void rollback()
+	{
+		this.dataObjectsToSave.clear();
+		this.newDataObjectsToSave.clear();
+		this.idsToDelete.clear();
+	}
+
+	/**
+	 * Writes the recorded saves and deletes, via the group committer of the DAO if it has one.
+	 * The recorded operations are discarded if the commit succeeds and kept otherwise, so the commit can be repeated.
+	 *
+	 * @throws DALException re-throws every exception as DAL exception
+	 */
+	public void commit() throws DALException
+	{
+		if ((this.getPendingSaveCount() < 1) && (this.getPendingDeleteCount() < 1)) return;
+
+		GroupCommitter<T> groupCommitter = this.dao.getGroupCommitter();
+
+		if (groupCommitter == null) this.write();
+		else groupCommitter.commit(this);
+
+		this.rollback();
+	}
+
+	/**
+	 * Writes the recorded saves with a single save and the recorded deletes with a single delete of the DAO
+	 *
+	 * @throws DALException re-throws every exception as DAL exception
+	 */
+	protected void write() throws DALException
+	{
+		Collection<T> dataObjects = new ArrayList<>(this.getPendingSaveCount());
+
+		dataObjects.addAll(this.dataObjectsToSave.values());
+		dataObjects.addAll(this.newDataObjectsToSave);
+
+		if (!dataObjects.isEmpty()) this.dao.save(dataObjects);
+		if (!this.idsToDelete.isEmpty()) this.dao.delete(this.idsToDelete.stream().mapToInt(Integer::intValue).toArray());
+	}
+
+	/**
+	 * Records the saves and deletes of this unit of work in another one, as if they were performed after the operations recorded there
+	 *
+	 * @param unitOfWork the unit of work to record the operations in
+	 */
+	protected void mergeInto(UnitOfWork<T> unitOfWork)
+	{
+		for (T dataObject : this.dataObjectsToSave.values()) unitOfWork.save(dataObject);
+		for (T dataObject : this.newDataObjectsToSave) unitOfWork.save(dataObject);
+		for (int id : this.idsToDelete) unitOfWork.delete(id);
+	}
+}
@@ -0,0 +1,139 @@
+package com.schoste.ddd.infrastructure.dal.v2.services.caching;
+
+import java.util.Arrays;
+
+/**
+ * Probabilistic set of ids which answers whether an id was possibly added or definitely not.
+ * The number of bits and hash functions is derived from the expected number of ids and the accepted probability of false positives.
+ * Ids cannot be removed; ids of deleted data objects only increase the probability of false positives.
+ */
+public class BloomFilter
+{
+	protected final long[] words;
+	protected final int numOfBits;
+	protected final int numOfHashes;
+	protected int numOfIds = 0;
+
+	/**
+	 * Creates a new instance of the class
+	 *
+	 * @param expectedIds the expected number of ids
+	 * @param falsePositiveProbability the accepted probability that an id which was not added is reported as possibly added
+	 * @throws IllegalArgumentException thrown if expectedIds is smaller than 1 or falsePositiveProbability is not between 0 and 1 (exclusive)
+	 */
+	public BloomFilter(int expectedIds, double falsePositiveProbability) throws IllegalArgumentException
+	{
+		if (expectedIds < 1) throw new IllegalArgumentException("expectedIds");
+		if (!(falsePositiveProbability > 0) || !(falsePositiveProbability < 1)) throw new IllegalArgumentException("falsePositiveProbability");
+
+		double ln2 = Math.log(2);
+		long bits = (long) Math.ceil(-expectedIds * Math.log(falsePositiveProbability) / (ln2 * ln2));
+
+		this.numOfBits = (int) Math.min(Integer.MAX_VALUE - 63, Math.max(64, bits));
+		this.numOfHashes = (int) Math.max(1, Math.round((double) this.numOfBits / expectedIds * ln2));
+		this.words = new long[(this.numOfBits + 63) >>> 6];
+	}
+
+	/**
+	 * Mixes the bits of an id (finalizer of MurmurHash3)
+	 */
+	protected static int mix(int h)
+	{
+		h ^= h >>> 16;
+		h *= 0x85ebca6b;
+		h ^= h >>> 13;
+		h *= 0xc2b2ae35;
+		h ^= h >>> 16;
+
+		return h;
+	}
+
+	/**
+	 * Gets the index of the bit of the i-th hash function of an id by double hashing
+	 */
+	protected int bitIndex(int hash1, int hash2, int i)
+	{
+		return Math.floorMod(hash1 + (i * hash2), this.numOfBits);
+	}
+
+	/**
+	 * Adds an id
+	 *
+	 * @param id the id to add
+	 */
+	public synchronized void put(int id)
+	{
+		int hash1 = mix(id);
+		int hash2 = mix(hash1 ^ 0x9e3779b9) | 1;
+
+		for (int i = 0; i < this.numOfHashes; i++)
+		{
+			int bit = this.bitIndex(hash1, hash2, i);
+
+			this.words[bit >>> 6] |= 1L << bit;
+		}
+
+		this.numOfIds++;
+	}
+
+	/**
+	 * Checks if an id was possibly added
+	 *
+	 * @param id the id to check
+	 * @return false if the id was definitely not added, true if it was possibly added
+	 */
+	public synchronized boolean mightContain(int id)
+	{
+		int hash1 = mix(id);
+		int hash2 = mix(hash1 ^ 0x9e3779b9) | 1;
+
+		for (int i = 0; i < this.numOfHashes; i++)
+		{
+			int bit = this.bitIndex(hash1, hash2, i);
+
+			if ((this.words[bit >>> 6] & (1L << bit)) == 0) return false;
+		}
+
+		return true;
+	}
+
+	/**
+	 * Removes all ids
+	 */
+	public synchronized void clear()
+	{
+		Arrays.fill(this.words, 0);
+
+		this.numOfIds = 0;
+	}
+
+	/**
+	 * Gets the number of bits of the filter
+	 *
+	 * @return the number of bits
+	 */
+	public int getBitCount()
+	{
+		return this.numOfBits;
+	}
+
+	/**
+	 * Gets the number of hash functions applied to each id
+	 *
+	 * @return the number of hash functions
+	 */
+	public int getHashCount()
+	{
+		return this.numOfHashes;
+	}
+
+	/**
+	 * Gets the number of times {@link #put(int)} was called since the filter was created or cleared
+	 *
+	 * @return the number of added ids, including ids added repeatedly
+	 */
+	public synchronized int getPutCount()
+	{
+		return this.numOfIds;
+	}
+}
@@ -0,0 +1,143 @@
+package com.schoste.ddd.infrastructure.dal.v2.services.caching;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Remembers ids for which no data object was found, so repeated gets of missing ids do not reach the data source.
+ * An id is remembered for a limited time and the number of remembered ids is limited; when the limit is reached,
+ * the id remembered first is forgotten. Ids have to be invalidated when a data object with the id is created.
+ */
+public class NegativeCache
+{
+	protected final int capacity;
+	protected final long timeToLiveNanos;
+	protected final LinkedHashMap<Integer, Long> expirations = new LinkedHashMap<>();
+	protected long invalidationStamp = 0;
+	protected long hits = 0;
+
+	/**
+	 * Creates a new instance of the class
+	 *
+	 * @param capacity the maximum number of remembered ids
+	 * @param timeToLive the time an id is remembered
+	 * @param unit the unit of timeToLive
+	 * @throws IllegalArgumentException thrown if capacity or timeToLive is smaller than 1 or unit is null
+	 */
+	public NegativeCache(int capacity, long timeToLive, TimeUnit unit) throws IllegalArgumentException
+	{
+		if (capacity < 1) throw new IllegalArgumentException("capacity");
+		if (timeToLive < 1) throw new IllegalArgumentException("timeToLive");
+		if (unit == null) throw new IllegalArgumentException("unit");
+
+		this.capacity = capacity;
+		this.timeToLiveNanos = unit.toNanos(timeToLive);
+	}
+
+	/**
+	 * Checks if an id is remembered as missing
+	 *
+	 * @param id the id to check
+	 * @return true if no data object was found for the id within the time to live and the id was not invalidated since
+	 */
+	public synchronized boolean isMissing(int id)
+	{
+		Long expiration = this.expirations.get(id);
+
+		if (expiration == null) return false;
+
+		if ((expiration - System.nanoTime()) <= 0)
+		{
+			this.expirations.remove(id);
+
+			return false;
+		}
+
+		this.hits++;
+
+		return true;
+	}
+
+	/**
+	 * Gets the current invalidation stamp, which has to be obtained before the data source is asked for an id
+	 * and passed to {@link #recordMiss(int, long)}
+	 *
+	 * @return the invalidation stamp
+	 */
+	public synchronized long getInvalidationStamp()
+	{
+		return this.invalidationStamp;
+	}
+
+	/**
+	 * Remembers an id as missing unless any id was invalidated since the given stamp was obtained.
+	 * The latter prevents remembering an id for which a data object was created concurrently.
+	 *
+	 * @param id the id for which no data object was found
+	 * @param invalidationStamp the stamp returned by {@link #getInvalidationStamp()} before the data source was asked
+	 * @return true if the id is remembered
+	 */
+	public synchronized boolean recordMiss(int id, long invalidationStamp)
+	{
+		if (invalidationStamp != this.invalidationStamp) return false;
+
+		long now = System.nanoTime();
+
+		this.expirations.remove(id);
+		this.expirations.put(id, now + this.timeToLiveNanos);
+
+		Iterator<Long> eldest = this.expirations.values().iterator();
+
+		while (eldest.hasNext())
+		{
+			long expiration = eldest.next();
+
+			if ((this.expirations.size() <= this.capacity) && ((expiration - now) > 0)) break;
+
+			eldest.remove();
+		}
+
+		return true;
+	}
+
+	/**
+	 * Forgets an id, for instance because a data object with the id was created
+	 *
+	 * @param id the id to forget
+	 */
+	public synchronized void invalidate(int id)
+	{
+		this.invalidationStamp++;
+		this.expirations.remove(id);
+	}
+
+	/**
+	 * Forgets all ids
+	 */
+	public synchronized void clear()
+	{
+		this.invalidationStamp++;
+		this.expirations.clear();
+	}
+
+	/**
+	 * Gets the number of remembered ids, including those whose time to live has passed but which were not checked since
+	 *
+	 * @return the number of remembered ids
+	 */
+	public synchronized int size()
+	{
+		return this.expirations.size();
+	}
+
+	/**
+	 * Gets the number of calls of {@link #isMissing(int)} which returned true
+	 *
+	 * @return the number of gets which did not reach the data source
+	 */
+	public synchronized long getHits()
+	{
+		return this.hits;
+	}
+}
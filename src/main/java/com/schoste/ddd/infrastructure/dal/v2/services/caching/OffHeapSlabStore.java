@@ -0,0 +1,222 @@
+package com.schoste.ddd.infrastructure.dal.v2.services.caching;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+
+/**
+ * Stores byte arrays by id outside of the Java heap in a fixed number of direct {@link ByteBuffer} slabs of equal size.
+ * The slabs are written one after another like a log. When the last slab is full, writing continues with the oldest slab,
+ * whose entries are evicted as a whole. Hence the memory used by the store never exceeds slabSize * slabCount bytes,
+ * and only the index of the entries (but none of their contents) is visible to the garbage collector.
+ * Overwritten or removed entries keep occupying their space until their slab is evicted.
+ *
+ * Instances of this class are not thread safe.
+ */
+public class OffHeapSlabStore
+{
+	/**
+	 * The number of bytes preceding every entry in a slab, which hold the length of the entry
+	 */
+	protected static final int HEADER_SIZE = Integer.BYTES;
+
+	protected final int slabSize;
+	protected final ByteBuffer[] slabs;
+	protected final List<List<Integer>> slabIds;
+	protected final HashMap<Integer, Long> locations = new HashMap<>();
+	protected int currentSlab = 0;
+	protected long evictedCount = 0;
+
+	/**
+	 * Creates a new instance of the class. The slabs are allocated when they are written the first time.
+	 *
+	 * @param slabSize the number of bytes of a slab, which is the upper limit of the size of an entry
+	 * @param slabCount the number of slabs
+	 * @throws IllegalArgumentException thrown if slabSize is not greater than the size of the entry header or slabCount is smaller than 2
+	 */
+	public OffHeapSlabStore(int slabSize, int slabCount) throws IllegalArgumentException
+	{
+		if (slabSize <= HEADER_SIZE) throw new IllegalArgumentException("slabSize");
+		if (slabCount < 2) throw new IllegalArgumentException("slabCount");
+
+		this.slabSize = slabSize;
+		this.slabs = new ByteBuffer[slabCount];
+		this.slabIds = new ArrayList<>(slabCount);
+
+		for (int i = 0; i < slabCount; i++) this.slabIds.add(new ArrayList<>());
+	}
+
+	/**
+	 * Stores the bytes of an entry, which replaces a previously stored entry with the same id.
+	 * May evict the entries of the oldest slab.
+	 *
+	 * @param id the id of the entry
+	 * @param bytes the contents of the entry
+	 * @return false if the entry is larger than a slab and was not stored
+	 * @throws IllegalArgumentException thrown if bytes is null
+	 */
+	public boolean put(int id, byte[] bytes) throws IllegalArgumentException
+	{
+		if (bytes == null) throw new IllegalArgumentException("bytes");
+
+		this.locations.remove(id);
+
+		int entrySize = HEADER_SIZE + bytes.length;
+
+		if (entrySize > this.slabSize) return false;
+
+		ByteBuffer slab = this.getWritableSlab(entrySize);
+		int offset = slab.position();
+
+		slab.putInt(bytes.length);
+		slab.put(bytes);
+
+		this.locations.put(id, toLocation(this.currentSlab, offset));
+		this.slabIds.get(this.currentSlab).add(id);
+
+		return true;
+	}
+
+	/**
+	 * Gets the bytes of an entry
+	 *
+	 * @param id the id of the entry
+	 * @return a copy of the bytes stored for the id, or null if there is no such entry
+	 */
+	public byte[] get(int id)
+	{
+		Long location = this.locations.get(id);
+
+		if (location == null) return null;
+
+		ByteBuffer slab = this.slabs[toSlab(location)];
+		int offset = toOffset(location);
+		byte[] bytes = new byte[slab.getInt(offset)];
+
+		slab.get(offset + HEADER_SIZE, bytes);
+
+		return bytes;
+	}
+
+	/**
+	 * Removes an entry
+	 *
+	 * @param id the id of the entry
+	 * @return true if there was an entry for the id
+	 */
+	public boolean remove(int id)
+	{
+		return (this.locations.remove(id) != null);
+	}
+
+	/**
+	 * Removes all entries. The allocated slabs are kept for reuse.
+	 */
+	public void clear()
+	{
+		this.locations.clear();
+
+		for (int i = 0; i < this.slabs.length; i++)
+		{
+			if (this.slabs[i] != null) this.slabs[i].clear();
+
+			this.slabIds.get(i).clear();
+		}
+
+		this.currentSlab = 0;
+	}
+
+	/**
+	 * Gets the number of stored entries
+	 *
+	 * @return the number of entries
+	 */
+	public int size()
+	{
+		return this.locations.size();
+	}
+
+	/**
+	 * Gets the number of bytes allocated outside of the Java heap
+	 *
+	 * @return the number of allocated bytes
+	 */
+	public long getAllocatedBytes()
+	{
+		long allocatedBytes = 0;
+
+		for (ByteBuffer slab : this.slabs) if (slab != null) allocatedBytes += slab.capacity();
+
+		return allocatedBytes;
+	}
+
+	/**
+	 * Gets the number of entries which were evicted together with their slab
+	 *
+	 * @return the number of evicted entries
+	 */
+	public long getEvictedCount()
+	{
+		return this.evictedCount;
+	}
+
+	/**
+	 * Gets the slab to write an entry to, moving on to the next slab (and evicting it) if the current one has not enough space
+	 */
+	protected ByteBuffer getWritableSlab(int entrySize)
+	{
+		ByteBuffer slab = this.slabs[this.currentSlab];
+
+		if (slab == null)
+		{
+			slab = ByteBuffer.allocateDirect(this.slabSize);
+
+			this.slabs[this.currentSlab] = slab;
+		}
+
+		if (slab.remaining() >= entrySize) return slab;
+
+		this.currentSlab = (this.currentSlab + 1) % this.slabs.length;
+		this.evict(this.currentSlab);
+
+		return this.getWritableSlab(entrySize);
+	}
+
+	/**
+	 * Removes all entries which are (still) located in a slab and makes the slab writable from its start
+	 */
+	protected void evict(int slabIndex)
+	{
+		List<Integer> ids = this.slabIds.get(slabIndex);
+
+		for (Integer id : ids)
+		{
+			Long location = this.locations.get(id);
+
+			if ((location == null) || (toSlab(location) != slabIndex)) continue;
+
+			this.locations.remove(id);
+			this.evictedCount++;
+		}
+
+		ids.clear();
+
+		if (this.slabs[slabIndex] != null) this.slabs[slabIndex].clear();
+	}
+
+	private static long toLocation(int slabIndex, int offset)
+	{
+		return (((long) slabIndex) << 32) | (offset & 0xFFFFFFFFL);
+	}
+
+	private static int toSlab(long location)
+	{
+		return (int) (location >>> 32);
+	}
+
+	private static int toOffset(long location)
+	{
+		return (int) location;
+	}
+}
@@ -0,0 +1,307 @@
+package com.schoste.ddd.infrastructure.dal.v2.services.caching;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import com.schoste.ddd.infrastructure.dal.v2.exceptions.DALException;
+import com.schoste.ddd.infrastructure.dal.v2.models.GenericDataObject;
+
+/**
+ * Cache of data objects by id with two levels.
+ * Data objects are serialized once when they are put into the cache, so the cache holds snapshots which are not affected
+ * by later changes of the data object, and every call of {@link #get(int)} returns a new copy of the snapshot.
+ * Hence callers never share an instance and changes made by a caller (including changes of a failed or vetoed save)
+ * do not reach other callers.
+ * The first level (L1) holds a small number of serialized data objects on the Java heap and evicts the least recently used one when it is full.
+ * Evicted data objects are moved into the second level (L2), an {@link OffHeapSlabStore} outside of the Java heap,
+ * which can hold many more data objects without adding to the work of the garbage collector.
+ * A data object found in L2 is moved back to L1.
+ *
+ * Data objects which fail to be serialized or deserialized are dropped from the cache;
+ * the failure is reported via {@link DALException#report(Throwable)}.
+ *
+ * @param <T> the type of the data objects
+ */
+public class TieredDataObjectCache<T extends GenericDataObject>
+{
+	protected final int l1Capacity;
+	protected final LinkedHashMap<Integer, byte[]> l1 = new LinkedHashMap<>(16, 0.75f, true);
+	protected final OffHeapSlabStore l2;
+	protected long invalidationStamp = 0;
+	protected long l1Hits = 0;
+	protected long l2Hits = 0;
+	protected long misses = 0;
+
+	/**
+	 * Creates a new instance of the class
+	 *
+	 * @param l1Capacity the maximum number of data objects on the Java heap
+	 * @param l2SlabSize the number of bytes of a slab of L2, which is the upper limit of the size of a serialized data object
+	 * @param l2SlabCount the number of slabs of L2
+	 * @throws IllegalArgumentException thrown if l1Capacity is smaller than 1 or the slabs are invalid according to {@link OffHeapSlabStore#OffHeapSlabStore(int, int)}
+	 */
+	public TieredDataObjectCache(int l1Capacity, int l2SlabSize, int l2SlabCount) throws IllegalArgumentException
+	{
+		if (l1Capacity < 1) throw new IllegalArgumentException("l1Capacity");
+
+		this.l1Capacity = l1Capacity;
+		this.l2 = new OffHeapSlabStore(l2SlabSize, l2SlabCount);
+	}
+
+	/**
+	 * Gets a copy of a data object from the cache
+	 *
+	 * @param id the id of the data object
+	 * @return a new copy of the cached data object or null if it is not cached
+	 */
+	public synchronized T get(int id)
+	{
+		byte[] bytes = this.l1.get(id);
+		boolean inL1 = (bytes != null);
+
+		if (!inL1) bytes = this.l2.get(id);
+
+		if (bytes == null)
+		{
+			this.misses++;
+
+			return null;
+		}
+
+		T dataObject = this.deserialize(bytes);
+
+		if (dataObject == null)
+		{
+			this.l1.remove(id);
+			this.l2.remove(id);
+			this.misses++;
+
+			return null;
+		}
+
+		if (inL1)
+		{
+			this.l1Hits++;
+		}
+		else
+		{
+			this.l2Hits++;
+			this.l2.remove(id);
+			this.putL1(id, bytes);
+		}
+
+		return dataObject;
+	}
+
+	/**
+	 * Gets the current invalidation stamp, which has to be obtained before a data object is loaded
+	 * from the data source and passed to {@link #put(GenericDataObject, long)}
+	 *
+	 * @return the invalidation stamp
+	 */
+	public synchronized long getInvalidationStamp()
+	{
+		return this.invalidationStamp;
+	}
+
+	/**
+	 * Puts a snapshot of a data object into L1 unless any data object was invalidated since the given stamp was obtained.
+	 * The latter prevents caching a data object which was loaded before a concurrent change of the data source.
+	 *
+	 * @param dataObject the data object to cache
+	 * @param invalidationStamp the stamp returned by {@link #getInvalidationStamp()} before the data object was loaded
+	 * @return true if the data object was cached
+	 * @throws IllegalArgumentException thrown if dataObject is null
+	 */
+	public synchronized boolean put(T dataObject, long invalidationStamp) throws IllegalArgumentException
+	{
+		if (dataObject == null) throw new IllegalArgumentException("dataObject");
+		if (invalidationStamp != this.invalidationStamp) return false;
+
+		int id = dataObject.getId();
+		byte[] bytes = this.serialize(dataObject);
+
+		this.l2.remove(id);
+
+		if (bytes == null)
+		{
+			this.l1.remove(id);
+
+			return false;
+		}
+
+		this.putL1(id, bytes);
+
+		return true;
+	}
+
+	/**
+	 * Puts a snapshot of a data object into L1
+	 *
+	 * @param dataObject the data object to cache
+	 * @throws IllegalArgumentException thrown if dataObject is null
+	 */
+	public synchronized void put(T dataObject) throws IllegalArgumentException
+	{
+		this.put(dataObject, this.invalidationStamp);
+	}
+
+	/**
+	 * Removes a data object from both levels
+	 *
+	 * @param id the id of the data object
+	 */
+	public synchronized void invalidate(int id)
+	{
+		this.invalidationStamp++;
+		this.l1.remove(id);
+		this.l2.remove(id);
+	}
+
+	/**
+	 * Removes all data objects from both levels
+	 */
+	public synchronized void clear()
+	{
+		this.invalidationStamp++;
+		this.l1.clear();
+		this.l2.clear();
+	}
+
+	/**
+	 * Gets the number of data objects in L1
+	 *
+	 * @return the number of serialized data objects on the Java heap
+	 */
+	public synchronized int getL1Size()
+	{
+		return this.l1.size();
+	}
+
+	/**
+	 * Gets the number of data objects in L2
+	 *
+	 * @return the number of serialized data objects outside of the Java heap
+	 */
+	public synchronized int getL2Size()
+	{
+		return this.l2.size();
+	}
+
+	/**
+	 * Gets the number of bytes allocated by L2 outside of the Java heap
+	 *
+	 * @return the number of allocated bytes
+	 */
+	public synchronized long getL2AllocatedBytes()
+	{
+		return this.l2.getAllocatedBytes();
+	}
+
+	/**
+	 * Gets the number of data objects which were evicted from L2 due to its size
+	 *
+	 * @return the number of evicted data objects
+	 */
+	public synchronized long getL2EvictedCount()
+	{
+		return this.l2.getEvictedCount();
+	}
+
+	/**
+	 * Gets the number of calls of {@link #get(int)} which were answered by L1
+	 *
+	 * @return the number of L1 hits
+	 */
+	public synchronized long getL1Hits()
+	{
+		return this.l1Hits;
+	}
+
+	/**
+	 * Gets the number of calls of {@link #get(int)} which were answered by L2
+	 *
+	 * @return the number of L2 hits
+	 */
+	public synchronized long getL2Hits()
+	{
+		return this.l2Hits;
+	}
+
+	/**
+	 * Gets the number of calls of {@link #get(int)} which found no data object
+	 *
+	 * @return the number of misses
+	 */
+	public synchronized long getMisses()
+	{
+		return this.misses;
+	}
+
+	/**
+	 * Puts a serialized data object into L1 and moves the least recently used data objects to L2 while L1 exceeds its capacity
+	 */
+	protected void putL1(int id, byte[] bytes)
+	{
+		this.l1.put(id, bytes);
+
+		Iterator<Map.Entry<Integer, byte[]>> eldest = this.l1.entrySet().iterator();
+
+		while (this.l1.size() > this.l1Capacity)
+		{
+			Map.Entry<Integer, byte[]> evicted = eldest.next();
+
+			eldest.remove();
+			this.l2.put(evicted.getKey(), evicted.getValue());
+		}
+	}
+
+	/**
+	 * Serializes a data object
+	 *
+	 * @return the serialized data object, or null if it cannot be serialized
+	 */
+	protected byte[] serialize(T dataObject)
+	{
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+
+		try (ObjectOutputStream out = new ObjectOutputStream(bytes))
+		{
+			out.writeObject(dataObject);
+		}
+		catch (IOException e)
+		{
+			DALException.report(e);
+
+			return null;
+		}
+
+		return bytes.toByteArray();
+	}
+
+	/**
+	 * Deserializes a data object
+	 *
+	 * @return the data object, or null if it cannot be deserialized
+	 */
+	@SuppressWarnings("unchecked")
+	protected T deserialize(byte[] bytes)
+	{
+		try (ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(bytes)))
+		{
+			return (T) in.readObject();
+		}
+		catch (IOException | ClassNotFoundException | ClassCastException e)
+		{
+			DALException.report(e);
+
+			return null;
+		}
+	}
+}
@@ -0,0 +1,4 @@
+/**
+ * Package for the caches which can be put in front of the data source of a DAO
+ */
+package com.schoste.ddd.infrastructure.dal.v2.services.caching;
\ No newline at end of file
@@ -0,0 +1,273 @@
+package com.schoste.ddd.infrastructure.dal.v2.services.listeners;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+import com.schoste.ddd.infrastructure.dal.v2.exceptions.DALException;
+import com.schoste.ddd.infrastructure.dal.v2.models.GenericDataObject;
+
+/**
+ * Adapter which is registered as save and delete listener at a DAO and gathers the after-events over a window.
+ * Once per window, the saved data objects are delivered to {@link SaveListener#onAfterSaved(Collection)} and
+ * the ids of the deleted data objects to {@link DeleteListener#onAfterDeleted(int[])} of the wrapped listeners.
+ * A window is closed when it contains maxBatchSize distinct ids or maxDelay after its first event, whichever comes first.
+ * Events for the same id are merged within a window: the latest saved data object wins, and a deletion
+ * supersedes a preceding save (and vice versa).
+ * All before-events are accepted without changes.
+ *
+ * Windows closed by size are delivered in the thread which notified the adapter, windows closed by time
+ * in a virtual thread of the adapter. Exceptions thrown by the wrapped listeners in the latter are reported via
+ * {@link DALException#report(Throwable)}. Call {@link #close()} to deliver the last window and stop the timer.
+ *
+ * @param <T> the type of the data objects
+ */
+public class BatchingListenerAdapter<T extends GenericDataObject> implements SaveListener<T>, DeleteListener<T>, AutoCloseable
+{
+	protected final SaveListener<T> saveListener;
+	protected final DeleteListener<T> deleteListener;
+	protected final int maxBatchSize;
+	protected final long maxDelayNanos;
+	protected final ScheduledExecutorService timer;
+	protected final Object deliveryLock = new Object();
+	protected LinkedHashMap<Integer, T> savedDataObjects = new LinkedHashMap<>();
+	protected LinkedHashSet<Integer> deletedIds = new LinkedHashSet<>();
+	protected ScheduledFuture<?> scheduledFlush = null;
+	protected boolean closed = false;
+
+	/**
+	 * Creates a new instance of the class
+	 *
+	 * @param saveListener the listener to deliver the saved data objects to, or null to ignore saves
+	 * @param deleteListener the listener to deliver the ids of deleted data objects to, or null to ignore deletions
+	 * @param maxBatchSize the maximum number of distinct ids in a window
+	 * @param maxDelay the maximum time between the first event of a window and its delivery
+	 * @param unit the unit of maxDelay
+	 * @throws IllegalArgumentException thrown if both listeners are null, maxBatchSize or maxDelay is smaller than 1 or unit is null
+	 */
+	public BatchingListenerAdapter(SaveListener<T> saveListener, DeleteListener<T> deleteListener, int maxBatchSize, long maxDelay, TimeUnit unit) throws IllegalArgumentException
+	{
+		if ((saveListener == null) && (deleteListener == null)) throw new IllegalArgumentException("saveListener");
+		if (maxBatchSize < 1) throw new IllegalArgumentException("maxBatchSize");
+		if (maxDelay < 1) throw new IllegalArgumentException("maxDelay");
+		if (unit == null) throw new IllegalArgumentException("unit");
+
+		this.saveListener = saveListener;
+		this.deleteListener = deleteListener;
+		this.maxBatchSize = maxBatchSize;
+		this.maxDelayNanos = unit.toNanos(maxDelay);
+		this.timer = Executors.newSingleThreadScheduledExecutor(Thread.ofVirtual().name("dao-listener-batches").factory());
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public boolean onBeforeSaving(T dataObjectToSave)
+	{
+		return true;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public boolean onBeforeSaving(Collection<T> dataObjectsToSave)
+	{
+		return true;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public void onAfterSaved(T dataObjectSaved)
+	{
+		if (this.saveListener == null) return;
+
+		this.flushIfFull(this.addSaved(List.of(dataObjectSaved)));
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public void onAfterSaved(Collection<T> dataObjectsSaved)
+	{
+		if (this.saveListener == null) return;
+
+		this.flushIfFull(this.addSaved(dataObjectsSaved));
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public boolean onBeforeDeleting(T dataObjectToDelete)
+	{
+		return true;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public boolean onBeforeDeleting(Collection<T> dataObjectsToDelete)
+	{
+		return true;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public int[] onBeforeDeleting(int[] dataObjectIdsToDelete)
+	{
+		return dataObjectIdsToDelete;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public void onAfterDeleted(T dataObjectDeleted)
+	{
+		if (this.deleteListener == null) return;
+
+		this.flushIfFull(this.addDeleted(new int[] { dataObjectDeleted.getId() }));
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public void onAfterDeleted(Collection<T> dataObjectsDeleted)
+	{
+		if (this.deleteListener == null) return;
+
+		this.flushIfFull(this.addDeleted(dataObjectsDeleted.stream().mapToInt(GenericDataObject::getId).toArray()));
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public void onAfterDeleted(int[] dataObjectIdsDeleted)
+	{
+		if (this.deleteListener == null) return;
+
+		this.flushIfFull(this.addDeleted(dataObjectIdsDeleted));
+	}
+
+	/**
+	 * Adds saved data objects to the current window
+	 *
+	 * @return true if the window is full
+	 */
+	protected synchronized boolean addSaved(Collection<T> dataObjectsSaved)
+	{
+		for (T dataObjectSaved : dataObjectsSaved)
+		{
+			this.deletedIds.remove(dataObjectSaved.getId());
+			this.savedDataObjects.put(dataObjectSaved.getId(), dataObjectSaved);
+		}
+
+		return this.onWindowChanged();
+	}
+
+	/**
+	 * Adds ids of deleted data objects to the current window
+	 *
+	 * @return true if the window is full
+	 */
+	protected synchronized boolean addDeleted(int[] dataObjectIdsDeleted)
+	{
+		for (int dataObjectIdDeleted : dataObjectIdsDeleted)
+		{
+			this.savedDataObjects.remove(dataObjectIdDeleted);
+			this.deletedIds.add(dataObjectIdDeleted);
+		}
+
+		return this.onWindowChanged();
+	}
+
+	private boolean onWindowChanged()
+	{
+		int size = this.savedDataObjects.size() + this.deletedIds.size();
+
+		if ((size > 0) && (this.scheduledFlush == null) && !this.closed)
+		{
+			this.scheduledFlush = this.timer.schedule(this::flushScheduled, this.maxDelayNanos, TimeUnit.NANOSECONDS);
+		}
+
+		return size >= this.maxBatchSize;
+	}
+
+	protected void flushIfFull(boolean full)
+	{
+		if (full) this.flush();
+	}
+
+	protected void flushScheduled()
+	{
+		try
+		{
+			this.flush();
+		}
+		catch (RuntimeException e)
+		{
+			DALException.report(e);
+		}
+	}
+
+	/**
+	 * Closes the current window and delivers its events to the wrapped listeners in the calling thread.
+	 * Windows are delivered one after another in the order they were closed.
+	 */
+	public void flush()
+	{
+		synchronized (this.deliveryLock)
+		{
+			LinkedHashMap<Integer, T> savedDataObjectsToDeliver;
+			LinkedHashSet<Integer> deletedIdsToDeliver;
+
+			synchronized (this)
+			{
+				savedDataObjectsToDeliver = this.savedDataObjects;
+				deletedIdsToDeliver = this.deletedIds;
+
+				this.savedDataObjects = new LinkedHashMap<>();
+				this.deletedIds = new LinkedHashSet<>();
+
+				if (this.scheduledFlush != null) this.scheduledFlush.cancel(false);
+
+				this.scheduledFlush = null;
+			}
+
+			if (!savedDataObjectsToDeliver.isEmpty()) this.saveListener.onAfterSaved(new ArrayList<>(savedDataObjectsToDeliver.values()));
+			if (!deletedIdsToDeliver.isEmpty()) this.deleteListener.onAfterDeleted(deletedIdsToDeliver.stream().mapToInt(Integer::intValue).toArray());
+		}
+	}
+
+	/**
+	 * Implements {@link AutoCloseable#close()}.
+	 * Delivers the current window and stops the timer. Events received afterwards are delivered when a window is full or by calling {@link #flush()}.
+	 */
+	@Override
+	public void close()
+	{
+		synchronized (this)
+		{
+			this.closed = true;
+		}
+
+		this.flush();
+		this.timer.shutdownNow();
+	}
+}
@@ -0,0 +1,224 @@
+package com.schoste.ddd.infrastructure.dal.v2.services.listeners;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.function.Predicate;
+
+import com.schoste.ddd.infrastructure.dal.v2.models.GenericDataObject;
+
+/**
+ * Declares which events a listener is interested in when it is registered at a DAO.
+ * The DAO does not notify a listener about events it is not interested in, and it passes only the relevant subset
+ * of the data objects or ids of batch operations to the listener.
+ * An interest is the conjunction of its phases, id range, id set and predicate. Instances are immutable;
+ * the with-methods return a new, narrowed interest.
+ *
+ * Note that before-events of operations by ids (for instance {@link GetListener#onBeforeGet(int[])}) can only be
+ * filtered by id, since the data objects are not loaded yet. Operations on all data objects (which pass null as ids)
+ * are only signaled to listeners without id restrictions.
+ *
+ * @param <T> the type of the data objects
+ */
+public class ListenerInterest<T extends GenericDataObject>
+{
+	/**
+	 * The phases of an operation a listener may be notified about
+	 */
+	public enum Phase
+	{
+		/**
+		 * The before-methods of a listener, which are invoked before the operation is performed
+		 */
+		BEFORE,
+
+		/**
+		 * The after-methods of a listener, which are invoked after the operation was performed
+		 */
+		AFTER
+	}
+
+	protected final EnumSet<Phase> phases;
+	protected final int minId;
+	protected final int maxId;
+	protected final int[] sortedIds;
+	protected final Predicate<? super T> predicate;
+
+	protected ListenerInterest(EnumSet<Phase> phases, int minId, int maxId, int[] sortedIds, Predicate<? super T> predicate)
+	{
+		this.phases = phases;
+		this.minId = minId;
+		this.maxId = maxId;
+		this.sortedIds = sortedIds;
+		this.predicate = predicate;
+	}
+
+	/**
+	 * Creates an interest in all events
+	 *
+	 * @param <T> the type of the data objects
+	 * @return a new interest
+	 */
+	public static <T extends GenericDataObject> ListenerInterest<T> all()
+	{
+		return new ListenerInterest<>(EnumSet.allOf(Phase.class), Integer.MIN_VALUE, Integer.MAX_VALUE, null, null);
+	}
+
+	/**
+	 * Restricts the interest to the given phases
+	 *
+	 * @param phases the phases to be notified about
+	 * @return a new interest
+	 * @throws IllegalArgumentException thrown if phases is null or empty
+	 */
+	public ListenerInterest<T> withPhases(Phase... phases) throws IllegalArgumentException
+	{
+		if ((phases == null) || (phases.length < 1)) throw new IllegalArgumentException("phases");
+
+		EnumSet<Phase> narrowedPhases = EnumSet.noneOf(Phase.class);
+
+		for (Phase phase : phases) if (this.phases.contains(phase)) narrowedPhases.add(phase);
+
+		return new ListenerInterest<>(narrowedPhases, this.minId, this.maxId, this.sortedIds, this.predicate);
+	}
+
+	/**
+	 * Restricts the interest to data objects with an id within a range
+	 *
+	 * @param minId the smallest id of interest
+	 * @param maxId the greatest id of interest
+	 * @return a new interest
+	 * @throws IllegalArgumentException thrown if maxId is smaller than minId
+	 */
+	public ListenerInterest<T> withIdRange(int minId, int maxId) throws IllegalArgumentException
+	{
+		if (maxId < minId) throw new IllegalArgumentException("maxId");
+
+		return new ListenerInterest<>(this.phases, Math.max(this.minId, minId), Math.min(this.maxId, maxId), this.sortedIds, this.predicate);
+	}
+
+	/**
+	 * Restricts the interest to data objects with one of the given ids
+	 *
+	 * @param ids the ids of interest
+	 * @return a new interest
+	 * @throws IllegalArgumentException thrown if ids is null
+	 */
+	public ListenerInterest<T> withIds(int... ids) throws IllegalArgumentException
+	{
+		if (ids == null) throw new IllegalArgumentException("ids");
+
+		int[] narrowedIds = Arrays.stream(ids).filter(id -> (this.sortedIds == null) || (Arrays.binarySearch(this.sortedIds, id) >= 0)).sorted().distinct().toArray();
+
+		return new ListenerInterest<>(this.phases, this.minId, this.maxId, narrowedIds, this.predicate);
+	}
+
+	/**
+	 * Restricts the interest to data objects passing a predicate.
+	 * The predicate is only evaluated if the data objects are known.
+	 *
+	 * @param predicate the predicate a data object of interest passes
+	 * @return a new interest
+	 * @throws IllegalArgumentException thrown if predicate is null
+	 */
+	public ListenerInterest<T> withPredicate(Predicate<? super T> predicate) throws IllegalArgumentException
+	{
+		if (predicate == null) throw new IllegalArgumentException("predicate");
+
+		Predicate<? super T> currentPredicate = this.predicate;
+		Predicate<? super T> narrowedPredicate = (currentPredicate == null) ? predicate : dataObject -> currentPredicate.test(dataObject) && predicate.test(dataObject);
+
+		return new ListenerInterest<>(this.phases, this.minId, this.maxId, this.sortedIds, narrowedPredicate);
+	}
+
+	/**
+	 * Checks if the interest includes a phase
+	 *
+	 * @param phase the phase to check
+	 * @return true if the listener should be notified in the phase
+	 */
+	public boolean includes(Phase phase)
+	{
+		return this.phases.contains(phase);
+	}
+
+	/**
+	 * Checks if the interest is restricted by ids
+	 *
+	 * @return true if the interest has an id range or an id set
+	 */
+	public boolean hasIdRestriction()
+	{
+		return (this.sortedIds != null) || (this.minId != Integer.MIN_VALUE) || (this.maxId != Integer.MAX_VALUE);
+	}
+
+	/**
+	 * Checks if an id is of interest
+	 *
+	 * @param id the id to check
+	 * @return true if the id is within the id range and the id set
+	 */
+	public boolean matches(int id)
+	{
+		if ((id < this.minId) || (id > this.maxId)) return false;
+
+		return (this.sortedIds == null) || (Arrays.binarySearch(this.sortedIds, id) >= 0);
+	}
+
+	/**
+	 * Checks if a data object is of interest
+	 *
+	 * @param dataObject the data object to check
+	 * @return true if the id of the data object is of interest and the data object passes the predicate
+	 */
+	public boolean matches(T dataObject)
+	{
+		if (dataObject == null) return !this.hasIdRestriction() && (this.predicate == null);
+
+		return this.matches(dataObject.getId()) && ((this.predicate == null) || this.predicate.test(dataObject));
+	}
+
+	/**
+	 * Selects the ids of interest
+	 *
+	 * @param ids the ids of an operation or null if the operation affects all data objects
+	 * @return ids itself if all ids are of interest, otherwise a new array of the ids of interest
+	 */
+	public int[] select(int[] ids)
+	{
+		if (ids == null) return this.hasIdRestriction() ? new int[0] : null;
+		if (!this.hasIdRestriction()) return ids;
+
+		int numOfMatches = 0;
+
+		for (int id : ids) if (this.matches(id)) numOfMatches++;
+
+		if (numOfMatches == ids.length) return ids;
+
+		int[] selectedIds = new int[numOfMatches];
+		int i = 0;
+
+		for (int id : ids) if (this.matches(id)) selectedIds[i++] = id;
+
+		return selectedIds;
+	}
+
+	/**
+	 * Selects the data objects of interest
+	 *
+	 * @param dataObjects the data objects of an operation
+	 * @return dataObjects itself if all data objects are of interest, otherwise a new list of the data objects of interest
+	 */
+	public Collection<T> select(Collection<T> dataObjects)
+	{
+		if (!this.hasIdRestriction() && (this.predicate == null)) return dataObjects;
+
+		List<T> selectedDataObjects = new ArrayList<>();
+
+		for (T dataObject : dataObjects) if (this.matches(dataObject)) selectedDataObjects.add(dataObject);
+
+		return (selectedDataObjects.size() == dataObjects.size()) ? dataObjects : selectedDataObjects;
+	}
+}
@@ -0,0 +1,265 @@
+package com.schoste.ddd.infrastructure.dal.v2.services.listeners;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+import com.schoste.ddd.infrastructure.dal.v2.exceptions.DALException;
+
+/**
+ * Executes listener notifications asynchronously, one after another and in the order they were submitted.
+ * The notifications are put into a bounded queue which is drained by a single task of the underlying executor
+ * (by default a new virtual thread whenever the queue becomes non-empty). What happens if the queue is full
+ * is defined by the {@link BackpressurePolicy}.
+ * Exceptions thrown by a notification do not stop the execution of the following notifications; they are reported
+ * via {@link #reportFailure(Throwable)}, which wraps them in a {@link DALException} so they reach {@link DALException#handler}.
+ */
+public class OrderedListenerExecutor implements Executor, AutoCloseable
+{
+	/**
+	 * Defines what happens when a notification is submitted while the queue is full
+	 */
+	public enum BackpressurePolicy
+	{
+		/**
+		 * The submitting thread waits until the queue has space
+		 */
+		BLOCK,
+
+		/**
+		 * The notification is dropped and counted by {@link OrderedListenerExecutor#getDiscardedCount()}
+		 */
+		DISCARD,
+
+		/**
+		 * A {@link RejectedExecutionException} is thrown to the submitting thread
+		 */
+		ABORT
+	}
+
+	/**
+	 * The default number of notifications which may wait for their execution
+	 */
+	public static final int DEFAULT_CAPACITY = 1024;
+
+	/**
+	 * Starts every drain task in a new virtual thread
+	 */
+	protected static final Executor VIRTUAL_THREAD_EXECUTOR = task -> Thread.ofVirtual().name("dao-listeners").start(task);
+
+	protected final Executor executor;
+	protected final BlockingQueue<Runnable> queue;
+	protected final BackpressurePolicy backpressurePolicy;
+	protected final AtomicBoolean scheduled = new AtomicBoolean(false);
+	protected final AtomicLong discardedCount = new AtomicLong();
+	protected volatile Thread worker = null;
+	protected volatile boolean closed = false;
+
+	/**
+	 * Creates a new instance which executes up to {@link #DEFAULT_CAPACITY} queued notifications on virtual threads
+	 * and blocks the submitting thread if the queue is full
+	 */
+	public OrderedListenerExecutor()
+	{
+		this(DEFAULT_CAPACITY, BackpressurePolicy.BLOCK);
+	}
+
+	/**
+	 * Creates a new instance which executes the notifications on virtual threads
+	 *
+	 * @param capacity the maximum number of notifications waiting for their execution
+	 * @param backpressurePolicy defines what happens when the queue is full
+	 * @throws IllegalArgumentException thrown if capacity is smaller than 1 or backpressurePolicy is null
+	 */
+	public OrderedListenerExecutor(int capacity, BackpressurePolicy backpressurePolicy) throws IllegalArgumentException
+	{
+		this(VIRTUAL_THREAD_EXECUTOR, capacity, backpressurePolicy);
+	}
+
+	/**
+	 * Creates a new instance
+	 *
+	 * @param executor the executor which runs the task draining the queue. At most one such task is submitted at a time.
+	 * @param capacity the maximum number of notifications waiting for their execution
+	 * @param backpressurePolicy defines what happens when the queue is full
+	 * @throws IllegalArgumentException thrown if executor or backpressurePolicy is null or capacity is smaller than 1
+	 */
+	public OrderedListenerExecutor(Executor executor, int capacity, BackpressurePolicy backpressurePolicy) throws IllegalArgumentException
+	{
+		if (executor == null) throw new IllegalArgumentException("executor");
+		if (capacity < 1) throw new IllegalArgumentException("capacity");
+		if (backpressurePolicy == null) throw new IllegalArgumentException("backpressurePolicy");
+
+		this.executor = executor;
+		this.queue = new ArrayBlockingQueue<>(capacity);
+		this.backpressurePolicy = backpressurePolicy;
+	}
+
+	/**
+	 * Queues a notification for its asynchronous execution.
+	 * If the queue is full and this method is called by a notification of this executor, a {@link RejectedExecutionException}
+	 * is thrown regardless of the {@link BackpressurePolicy}, since waiting for the own thread would never end.
+	 *
+	 * @param notification the notification to execute
+	 * @throws IllegalArgumentException thrown if notification is null
+	 * @throws RejectedExecutionException thrown if this executor was closed or the queue is full and the policy is {@link BackpressurePolicy#ABORT}
+	 */
+	@Override
+	public void execute(Runnable notification) throws IllegalArgumentException, RejectedExecutionException
+	{
+		if (notification == null) throw new IllegalArgumentException("notification");
+		if (this.closed) throw new RejectedExecutionException("closed");
+
+		if (!this.queue.offer(notification))
+		{
+			if (this.backpressurePolicy == BackpressurePolicy.DISCARD)
+			{
+				this.discardedCount.incrementAndGet();
+
+				return;
+			}
+
+			if ((this.backpressurePolicy == BackpressurePolicy.ABORT) || (Thread.currentThread() == this.worker))
+			{
+				throw new RejectedExecutionException("queue full");
+			}
+
+			try
+			{
+				this.queue.put(notification);
+			}
+			catch (InterruptedException e)
+			{
+				Thread.currentThread().interrupt();
+
+				throw new RejectedExecutionException(e);
+			}
+		}
+
+		this.schedule();
+	}
+
+	/**
+	 * Waits until all notifications queued before this call were executed.
+	 * Returns immediately if called by a notification of this executor.
+	 *
+	 * @throws InterruptedException thrown if the calling thread was interrupted while waiting
+	 */
+	public void flush() throws InterruptedException
+	{
+		if (Thread.currentThread() == this.worker) return;
+
+		CountDownLatch latch = new CountDownLatch(1);
+
+		this.queue.put(latch::countDown);
+		this.schedule();
+
+		latch.await();
+	}
+
+	/**
+	 * Implements {@link AutoCloseable#close()}.
+	 * Rejects all further notifications and waits until the queued ones were executed.
+	 */
+	@Override
+	public void close()
+	{
+		this.closed = true;
+
+		try
+		{
+			this.flush();
+		}
+		catch (InterruptedException e)
+		{
+			Thread.currentThread().interrupt();
+		}
+	}
+
+	/**
+	 * Gets the number of notifications which were dropped because the queue was full
+	 *
+	 * @return the number of dropped notifications
+	 */
+	public long getDiscardedCount()
+	{
+		return this.discardedCount.get();
+	}
+
+	/**
+	 * Gets the number of notifications waiting for their execution
+	 *
+	 * @return the number of queued notifications
+	 */
+	public int getPendingCount()
+	{
+		return this.queue.size();
+	}
+
+	/**
+	 * Reports an exception thrown by a notification.
+	 * The exception is passed to the {@link DALException#handler} via {@link DALException#report(Throwable)}.
+	 *
+	 * @param failure the exception thrown by the notification
+	 */
+	public void reportFailure(Throwable failure)
+	{
+		DALException.report(failure);
+	}
+
+	/**
+	 * Submits the drain task to the underlying executor unless it is already submitted
+	 */
+	protected void schedule()
+	{
+		if (!this.scheduled.compareAndSet(false, true)) return;
+
+		try
+		{
+			this.executor.execute(this::drain);
+		}
+		catch (RuntimeException e)
+		{
+			this.scheduled.set(false);
+
+			throw e;
+		}
+	}
+
+	/**
+	 * Executes the queued notifications until the queue is empty
+	 */
+	protected void drain()
+	{
+		this.worker = Thread.currentThread();
+
+		try
+		{
+			Runnable notification;
+
+			while ((notification = this.queue.poll()) != null)
+			{
+				try
+				{
+					notification.run();
+				}
+				catch (Throwable t)
+				{
+					this.reportFailure(t);
+				}
+			}
+		}
+		finally
+		{
+			this.worker = null;
+			this.scheduled.set(false);
+		}
+
+		// a notification may have been queued after the last poll, but before the drain task was marked as finished
+		if (!this.queue.isEmpty()) this.schedule();
+	}
+}
@@ -0,0 +1,99 @@
+package com.schoste.ddd.infrastructure.dal.v2.annotations.processing;
+
+import java.net.URI;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import javax.tools.Diagnostic;
+import javax.tools.DiagnosticCollector;
+import javax.tools.JavaCompiler;
+import javax.tools.JavaFileObject;
+import javax.tools.SimpleJavaFileObject;
+import javax.tools.ToolProvider;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.schoste.ddd.infrastructure.dal.v2.converters.MockedModel;
+import com.schoste.ddd.infrastructure.dal.v2.converters.MockedModelFromMockedDOConverter;
+import com.schoste.ddd.infrastructure.dal.v2.converters.ModelConverterTest;
+import com.schoste.ddd.infrastructure.dal.v2.models.MockedDO;
+
+/**
+ * Test class of the {@link AutoSetProcessor} class.
+ * The converter of the {@link MockedModel} class is generated when the test classes are compiled.
+ */
+public class AutoSetProcessorTest
+{
+	/**
+	 * Source code of a model whose annotations refer to a class and a getter that do not exist
+	 */
+	protected static final String UNRESOLVABLE_MODEL_SOURCE = String.join("\n",
+		"package test;",
+		"import com.schoste.ddd.infrastructure.dal.v2.annotations.*;",
+		"@AutoConvert(com.schoste.ddd.infrastructure.dal.v2.models.MockedDO.class)",
+		"public class UnresolvableModel",
+		"{",
+		"  @AutoSet(methodName = \"getNothing\") public void setValue(String value) { }",
+		"  @AutoSet(className = \"test.DoesNotExist\") public void setOther(String value) { }",
+		"  @AutoSet(methodName = \"getId\") public void setText(String value) { }",
+		"}");
+
+	/**
+	 * Asserts that the generated converter sets every annotated property
+	 *
+	 * @throws Exception re-throws every exception
+	 */
+	@Test
+	public void testGeneratedConverter() throws Exception
+	{
+		List<MockedDO> dataObjects = Arrays.asList(ModelConverterTest.createDataObject(1), null, ModelConverterTest.createDataObject(2));
+		List<MockedModel> models = MockedModelFromMockedDOConverter.convertAll(dataObjects);
+
+		ModelConverterTest.assertConverted(dataObjects.get(0), models.get(0));
+		Assert.assertNull(models.get(1));
+		ModelConverterTest.assertConverted(dataObjects.get(2), models.get(2));
+		ModelConverterTest.assertConverted(dataObjects.get(0), MockedModelFromMockedDOConverter.convert(dataObjects.get(0), new MockedModel()));
+	}
+
+	/**
+	 * Asserts that annotations referring to classes or getters that do not exist or do not fit the setter are reported as compile errors
+	 *
+	 * @throws Exception re-throws every exception
+	 */
+	@Test
+	public void testUnresolvableReferencesAreCompileErrors() throws Exception
+	{
+		JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
+		DiagnosticCollector<JavaFileObject> diagnostics = new DiagnosticCollector<>();
+		Path outputDirectory = Files.createTempDirectory(this.getClass().getSimpleName());
+		JavaFileObject source = new SimpleJavaFileObject(URI.create("string:///test/UnresolvableModel.java"), JavaFileObject.Kind.SOURCE)
+		{
+			@Override
+			public CharSequence getCharContent(boolean ignoreEncodingErrors)
+			{
+				return UNRESOLVABLE_MODEL_SOURCE;
+			}
+		};
+		List<String> options = List.of("-classpath", System.getProperty("java.class.path"), "-d", outputDirectory.toString(), "-s", outputDirectory.toString());
+		JavaCompiler.CompilationTask task = compiler.getTask(null, null, diagnostics, options, null, List.of(source));
+
+		task.setProcessors(List.of(new AutoSetProcessor()));
+
+		Assert.assertFalse(task.call());
+
+		List<String> errors = diagnostics.getDiagnostics().stream()
+			.filter(diagnostic -> diagnostic.getKind() == Diagnostic.Kind.ERROR)
+			.map(diagnostic -> diagnostic.getMessage(null))
+			.collect(Collectors.toList());
+
+		Assert.assertEquals(errors.toString(), 3, errors.size());
+		Assert.assertTrue(errors.stream().anyMatch(error -> error.contains("setValue") && error.contains("no getter")));
+		Assert.assertTrue(errors.stream().anyMatch(error -> error.contains("test.DoesNotExist")));
+		Assert.assertTrue(errors.stream().anyMatch(error -> error.contains("setText") && error.contains("cannot be passed")));
+		Assert.assertFalse(Files.exists(outputDirectory.resolve("test").resolve("UnresolvableModelFromMockedDOConverter.java")));
+	}
+}
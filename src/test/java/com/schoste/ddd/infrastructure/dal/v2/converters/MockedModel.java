@@ -0,0 +1,115 @@
+package com.schoste.ddd.infrastructure.dal.v2.converters;
+
+import com.schoste.ddd.infrastructure.dal.v2.annotations.AutoConvert;
+import com.schoste.ddd.infrastructure.dal.v2.annotations.AutoSet;
+import com.schoste.ddd.infrastructure.dal.v2.models.MockedDO;
+
+/**
+ * Example domain model used in unit testing of the {@link ModelConverter} class.
+ * Its setters are annotated to be converted from a {@link MockedDO}, either at runtime
+ * or by the converter generated at compile time.
+ */
+@AutoConvert(MockedDO.class)
+public class MockedModel
+{
+	private int id;
+	private String name;
+	private boolean deleted;
+	private String created;
+	private long modified;
+
+	/**
+	 * Gets the id
+	 * @return the id
+	 */
+	public int getId()
+	{
+		return id;
+	}
+
+	/**
+	 * Sets the id. The getter is derived from the name of the setter.
+	 * @param id the id to set
+	 */
+	@AutoSet
+	public void setId(int id)
+	{
+		this.id = id;
+	}
+
+	/**
+	 * Gets the name
+	 * @return the name
+	 */
+	public String getName()
+	{
+		return name;
+	}
+
+	/**
+	 * Sets the name. The getter is an instance method of the source model with another name.
+	 * @param name the name to set
+	 */
+	@AutoSet(methodName = "getExampleStringProperty")
+	public void setName(String name)
+	{
+		this.name = name;
+	}
+
+	/**
+	 * Gets whether the model is deleted
+	 * @return true if the model is deleted
+	 */
+	public boolean isDeleted()
+	{
+		return deleted;
+	}
+
+	/**
+	 * Sets whether the model is deleted
+	 * @param deleted true if the model is deleted
+	 */
+	@AutoSet(methodName = "getIsDeleted")
+	public void setDeleted(boolean deleted)
+	{
+		this.deleted = deleted;
+	}
+
+	/**
+	 * Gets the formatted creation time stamp
+	 * @return a text
+	 */
+	public String getCreated()
+	{
+		return created;
+	}
+
+	/**
+	 * Sets the formatted creation time stamp. The getter is a static method of another class.
+	 * @param created the text to set
+	 */
+	@AutoSet(clazz = MockedModelConversions.class, methodName = "formatCreatedTimeStamp")
+	public void setCreated(String created)
+	{
+		this.created = created;
+	}
+
+	/**
+	 * Gets the modification time stamp
+	 * @return a time stamp
+	 */
+	public long getModified()
+	{
+		return modified;
+	}
+
+	/**
+	 * Sets the modification time stamp. The getter is a static method of a class referred by its name.
+	 * @param modified the time stamp to set
+	 */
+	@AutoSet(className = "com.schoste.ddd.infrastructure.dal.v2.converters.MockedModelConversions", methodName = "modifiedTimeStampOf")
+	public void setModified(long modified)
+	{
+		this.modified = modified;
+	}
+}
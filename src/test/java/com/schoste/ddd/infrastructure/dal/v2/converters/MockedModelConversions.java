@@ -0,0 +1,31 @@
+package com.schoste.ddd.infrastructure.dal.v2.converters;
+
+import com.schoste.ddd.infrastructure.dal.v2.models.MockedDO;
+
+/**
+ * Conversion methods referred by the {@link com.schoste.ddd.infrastructure.dal.v2.annotations.AutoSet} annotations of the {@link MockedModel} class
+ */
+public final class MockedModelConversions
+{
+	private MockedModelConversions() { }
+
+	/**
+	 * Formats the creation time stamp of a data object
+	 * @param dataObject the data object
+	 * @return a text
+	 */
+	public static String formatCreatedTimeStamp(MockedDO dataObject)
+	{
+		return "created@" + dataObject.getCreatedTimeStamp();
+	}
+
+	/**
+	 * Gets the modification time stamp of a data object
+	 * @param dataObject the data object
+	 * @return a time stamp
+	 */
+	public static long modifiedTimeStampOf(MockedDO dataObject)
+	{
+		return dataObject.getModifiedTimeStamp();
+	}
+}
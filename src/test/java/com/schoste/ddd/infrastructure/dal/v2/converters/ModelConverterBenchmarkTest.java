@@ -0,0 +1,118 @@
+package com.schoste.ddd.infrastructure.dal.v2.converters;
+
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.schoste.ddd.infrastructure.dal.v2.annotations.AutoSet;
+import com.schoste.ddd.infrastructure.dal.v2.models.MockedDO;
+
+/**
+ * Compares the time needed to convert data objects with the {@link ModelConverter} class, with hand-written code,
+ * with the converter generated by the {@link com.schoste.ddd.infrastructure.dal.v2.annotations.processing.AutoSetProcessor} and with a naive converter which looks up the annotated methods via reflection for every model.
+ * Only the approaches caching the reflective lookups are asserted to beat the naive converter, since the timings depend on the machine.
+ * Excluded from the unit tests, run it with the benchmarks profile (mvn -Pbenchmarks test).
+ */
+public class ModelConverterBenchmarkTest
+{
+	protected static final int NUM_MODELS = 100_000;
+	protected static final List<MockedDO> DATA_OBJECTS = IntStream.range(0, NUM_MODELS).mapToObj(ModelConverterTest::createDataObject).collect(Collectors.toList());
+
+	/**
+	 * Converts a data object via reflection without caching anything
+	 */
+	protected static MockedModel convertNaively(MockedDO dataObject) throws Exception
+	{
+		MockedModel model = MockedModel.class.getDeclaredConstructor().newInstance();
+
+		for (Method setter : MockedModel.class.getMethods())
+		{
+			AutoSet autoSet = setter.getAnnotation(AutoSet.class);
+
+			if (autoSet == null) continue;
+
+			String getterName = autoSet.methodName().isEmpty() ? "get" + setter.getName().substring(3) : autoSet.methodName();
+			Class<?> getterClass = (autoSet.clazz() != Object.class) ? autoSet.clazz() : autoSet.className().isEmpty() ? null : Class.forName(autoSet.className());
+			Object value = (getterClass == null) ? MockedDO.class.getMethod(getterName).invoke(dataObject) : getterClass.getMethod(getterName, MockedDO.class).invoke(null, dataObject);
+
+			setter.invoke(model, value);
+		}
+
+		return model;
+	}
+
+	protected static MockedModel convertByHand(MockedDO dataObject)
+	{
+		MockedModel model = new MockedModel();
+
+		model.setId(dataObject.getId());
+		model.setName(dataObject.getExampleStringProperty());
+		model.setDeleted(dataObject.getIsDeleted());
+		model.setCreated(MockedModelConversions.formatCreatedTimeStamp(dataObject));
+		model.setModified(MockedModelConversions.modifiedTimeStampOf(dataObject));
+
+		return model;
+	}
+
+	/**
+	 * Converts all data objects with each approach and asserts that the {@link ModelConverter} class and the generated converter
+	 * are faster than the naive converter
+	 *
+	 * @throws Exception re-throws every exception
+	 */
+	@Test
+	public void testConversionSpeed() throws Exception
+	{
+		ModelConverter converter = new ModelConverter();
+		long nanosByHand = 0;
+		long nanosConverter = 0;
+		long nanosGenerated = 0;
+		long nanosNaive = 0;
+
+		// the first rounds warm up the JIT compiler, only the last one is measured
+		for (int round = 0; round < 3; round++)
+		{
+			long start = System.nanoTime();
+			List<MockedModel> modelsByHand = new ArrayList<>(NUM_MODELS);
+
+			for (MockedDO dataObject : DATA_OBJECTS) modelsByHand.add(convertByHand(dataObject));
+
+			nanosByHand = System.nanoTime() - start;
+			start = System.nanoTime();
+
+			List<MockedModel> modelsConverter = converter.convertAll(DATA_OBJECTS, MockedModel.class);
+
+			nanosConverter = System.nanoTime() - start;
+			start = System.nanoTime();
+
+			List<MockedModel> modelsGenerated = MockedModelFromMockedDOConverter.convertAll(DATA_OBJECTS);
+
+			nanosGenerated = System.nanoTime() - start;
+			start = System.nanoTime();
+
+			List<MockedModel> modelsNaive = new ArrayList<>(NUM_MODELS);
+
+			for (MockedDO dataObject : DATA_OBJECTS) modelsNaive.add(convertNaively(dataObject));
+
+			nanosNaive = System.nanoTime() - start;
+
+			Assert.assertEquals(NUM_MODELS, modelsByHand.size());
+			Assert.assertEquals(NUM_MODELS, modelsConverter.size());
+			Assert.assertEquals(NUM_MODELS, modelsGenerated.size());
+			Assert.assertEquals(NUM_MODELS, modelsNaive.size());
+			ModelConverterTest.assertConverted(DATA_OBJECTS.get(NUM_MODELS - 1), modelsConverter.get(NUM_MODELS - 1));
+			ModelConverterTest.assertConverted(DATA_OBJECTS.get(NUM_MODELS - 1), modelsNaive.get(NUM_MODELS - 1));
+		}
+
+		String timings = String.format("%d ms by hand, %d ms with ModelConverter, %d ms with the generated converter, %d ms with naive reflection",
+			nanosByHand / 1_000_000, nanosConverter / 1_000_000, nanosGenerated / 1_000_000, nanosNaive / 1_000_000);
+
+		Assert.assertTrue(timings, nanosConverter < nanosNaive);
+		Assert.assertTrue(timings, nanosGenerated < nanosNaive);
+	}
+}
@@ -0,0 +1,124 @@
+package com.schoste.ddd.infrastructure.dal.v2.converters;
+
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.schoste.ddd.infrastructure.dal.v2.annotations.AutoSet;
+import com.schoste.ddd.infrastructure.dal.v2.exceptions.DALException;
+import com.schoste.ddd.infrastructure.dal.v2.models.MockedDO;
+
+/**
+ * Test class of the {@link ModelConverter} class using the {@link MockedModel} and {@link MockedDO} models
+ */
+public class ModelConverterTest
+{
+	/**
+	 * Model with a setter that refers to a getter which does not exist
+	 */
+	public static class UnresolvableModel
+	{
+		/**
+		 * Sets a value
+		 * @param value the value to set
+		 */
+		@AutoSet(methodName = "getNothing")
+		public void setValue(String value) { }
+	}
+
+	public static MockedDO createDataObject(int id)
+	{
+		MockedDO dataObject = new MockedDO();
+
+		dataObject.setId(id);
+		dataObject.setCreatedTimeStamp(1000 + id);
+		dataObject.setModifiedTimeStamp(2000 + id);
+		dataObject.setIsDeleted(id % 2 == 0);
+		dataObject.setExampleStringProperty("ModelConverterTest" + id);
+
+		return dataObject;
+	}
+
+	public static void assertConverted(MockedDO dataObject, MockedModel model)
+	{
+		Assert.assertEquals(dataObject.getId(), model.getId());
+		Assert.assertEquals(dataObject.getExampleStringProperty(), model.getName());
+		Assert.assertEquals(dataObject.getIsDeleted(), model.isDeleted());
+		Assert.assertEquals("created@" + dataObject.getCreatedTimeStamp(), model.getCreated());
+		Assert.assertEquals(dataObject.getModifiedTimeStamp(), model.getModified());
+	}
+
+	/**
+	 * Asserts that every annotated setter is invoked with the value of the referred getter
+	 *
+	 * @throws Exception re-throws every exception
+	 */
+	@Test
+	public void testConvert() throws Exception
+	{
+		ModelConverter converter = new ModelConverter();
+		MockedDO dataObject = createDataObject(4);
+		MockedModel model = new MockedModel();
+
+		Assert.assertSame(model, converter.convert(dataObject, model));
+		assertConverted(dataObject, model);
+		assertConverted(dataObject, converter.convert(dataObject, MockedModel.class));
+		Assert.assertNull(converter.convert(null, MockedModel.class));
+	}
+
+	/**
+	 * Asserts that a collection is converted in order and null elements are kept
+	 *
+	 * @throws Exception re-throws every exception
+	 */
+	@Test
+	public void testConvertAll() throws Exception
+	{
+		ModelConverter converter = new ModelConverter();
+		List<MockedDO> dataObjects = Arrays.asList(createDataObject(1), null, createDataObject(2), createDataObject(3));
+		List<MockedModel> models = converter.convertAll(dataObjects, MockedModel.class);
+
+		Assert.assertEquals(dataObjects.size(), models.size());
+		Assert.assertNull(models.get(1));
+
+		for (int i = 0; i < dataObjects.size(); i++)
+		{
+			if (dataObjects.get(i) != null) assertConverted(dataObjects.get(i), models.get(i));
+		}
+	}
+
+	/**
+	 * Asserts that annotations which cannot be resolved and invalid arguments are reported
+	 *
+	 * @throws Exception re-throws every exception
+	 */
+	@Test
+	public void testInvalidConversions() throws Exception
+	{
+		ModelConverter converter = new ModelConverter();
+
+		try
+		{
+			converter.convert(createDataObject(1), UnresolvableModel.class);
+
+			Assert.fail();
+		}
+		catch (DALException e)
+		{
+			Assert.assertTrue(e.getCause() instanceof NoSuchMethodException);
+		}
+
+		try
+		{
+			converter.convert(createDataObject(1), (MockedModel) null);
+
+			Assert.fail();
+		}
+		catch (IllegalArgumentException e)
+		{
+			Assert.assertEquals("target", e.getMessage());
+		}
+	}
+}
@@ -0,0 +1,135 @@
+package com.schoste.ddd.infrastructure.dal.v2.exceptions;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Test class of the low-cost mode of the {@link DALException} class
+ */
+public class DALExceptionTest
+{
+	protected final List<DALException> handledExceptions = Collections.synchronizedList(new ArrayList<>());
+
+	/**
+	 * Registers a handler which records the handled exceptions and resets the counters
+	 */
+	@Before
+	public void setUpHandler()
+	{
+		DALException.resetCauseCounts();
+		DALException.handler = this.handledExceptions::add;
+	}
+
+	/**
+	 * Restores the default configuration
+	 */
+	@After
+	public void resetConfiguration()
+	{
+		DALException.handler = null;
+		DALException.stackTraceEnabled = true;
+		DALException.handlerExecutor = null;
+		DALException.handlerSamplingRate = 1;
+		DALException.handlerRateLimit = 0;
+		DALException.resetCauseCounts();
+	}
+
+	/**
+	 * Asserts that exceptions for expected failures and exceptions created while stack traces are disabled have no stack trace
+	 *
+	 * @throws Exception re-throws every exception
+	 */
+	@Test
+	public void testStacklessExceptions() throws Exception
+	{
+		IOException cause = new IOException("testStacklessExceptions");
+
+		Assert.assertTrue(new DALException(cause).getStackTrace().length > 0);
+		Assert.assertEquals(0, DALException.expected(cause).getStackTrace().length);
+		Assert.assertSame(cause, DALException.expected(cause).getCause());
+
+		DALException.stackTraceEnabled = false;
+
+		Assert.assertEquals(0, new DALException(cause).getStackTrace().length);
+		Assert.assertEquals(0, new DALException().getStackTrace().length);
+		Assert.assertTrue(cause.getStackTrace().length > 0);
+		Assert.assertEquals(5, this.handledExceptions.size());
+	}
+
+	/**
+	 * Asserts that the handler is called for every n-th exception only and not more often than the rate limit,
+	 * while all exceptions are counted by their cause
+	 *
+	 * @throws Exception re-throws every exception
+	 */
+	@Test
+	public void testSamplingAndRateLimit() throws Exception
+	{
+		DALException.handlerSamplingRate = 10;
+
+		for (int i = 0; i < 100; i++) new DALException(new IOException());
+
+		Assert.assertEquals(10, this.handledExceptions.size());
+		Assert.assertEquals(90, DALException.getSuppressedHandlerInvocations());
+
+		this.handledExceptions.clear();
+		DALException.handlerSamplingRate = 1;
+		DALException.handlerRateLimit = 5;
+
+		for (int i = 0; i < 100; i++) new DALException(new IllegalStateException());
+
+		Assert.assertTrue(this.handledExceptions.size() <= 10);
+		Assert.assertEquals(Long.valueOf(100), DALException.getCauseCounts().get(IOException.class.getName()));
+		Assert.assertEquals(Long.valueOf(100), DALException.getCauseCounts().get(IllegalStateException.class.getName()));
+	}
+
+	/**
+	 * Asserts that reported failures are passed to the handler and counted by their cause
+	 *
+	 * @throws Exception re-throws every exception
+	 */
+	@Test
+	public void testReport() throws Exception
+	{
+		IOException failure = new IOException("testReport");
+		DALException reported = DALException.report(failure);
+
+		Assert.assertSame(failure, reported.getCause());
+		Assert.assertEquals(List.of(reported), this.handledExceptions);
+		Assert.assertEquals(Long.valueOf(1), DALException.getCauseCounts().get(IOException.class.getName()));
+	}
+
+	/**
+	 * Asserts that the handler is called via the handler executor if one is set
+	 *
+	 * @throws Exception re-throws every exception
+	 */
+	@Test
+	public void testAsynchronousHandler() throws Exception
+	{
+		ExecutorService executor = Executors.newSingleThreadExecutor();
+		List<Thread> handlerThreads = Collections.synchronizedList(new ArrayList<>());
+
+		DALException.handler = exception -> handlerThreads.add(Thread.currentThread());
+		DALException.handlerExecutor = executor;
+
+		new DALException();
+
+		executor.shutdown();
+
+		Assert.assertTrue(executor.awaitTermination(10, TimeUnit.SECONDS));
+		Assert.assertEquals(1, handlerThreads.size());
+		Assert.assertNotSame(Thread.currentThread(), handlerThreads.get(0));
+		Assert.assertEquals(Long.valueOf(1), DALException.getCauseCounts().get(DALException.class.getName()));
+	}
+}
@@ -28,5 +28,16 @@ public class MockedDO  extends GenericDataObject
 	public void setExampleStringProperty(String exampleStringProperty) 
 	{
 		this.exampleStringProperty = exampleStringProperty;
+		this.propertyChanged("exampleStringProperty");
+	}
+
+	/**
+	 * {@inheritDoc}
+	 * All setters record their changes.
+	 */
+	@Override
+	public boolean supportsChangeSets()
+	{
+		return true;
 	}
 }
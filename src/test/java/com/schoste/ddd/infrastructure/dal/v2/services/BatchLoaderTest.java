@@ -0,0 +1,101 @@
+package com.schoste.ddd.infrastructure.dal.v2.services;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.schoste.ddd.infrastructure.dal.v2.exceptions.DALException;
+import com.schoste.ddd.infrastructure.dal.v2.models.MockedDO;
+import com.schoste.ddd.infrastructure.dal.v2.services.mocked.InstrumentedMockedDAOImpl;
+
+/**
+ * Test class of the {@link BatchLoader} class
+ */
+public class BatchLoaderTest
+{
+	/**
+	 * Asserts that concurrent gets are served by batches of at most maxBatchSize ids and that each caller gets its own data object
+	 *
+	 * @throws Exception re-throws every exception
+	 */
+	@Test
+	public void testBatching() throws Exception
+	{
+		InstrumentedMockedDAOImpl dao = InstrumentedMockedDAOImpl.create(50);
+		List<Thread> threads = new ArrayList<>();
+		AtomicInteger numOfCorrectResults = new AtomicInteger();
+
+		dao.setBatchLoader(new BatchLoader<>(20, 100, TimeUnit.MILLISECONDS));
+
+		for (int i = 1; i <= 50; i++)
+		{
+			int id = i;
+
+			threads.add(Thread.ofVirtual().start(() ->
+			{
+				try
+				{
+					if (dao.get(id).getId() == id) numOfCorrectResults.incrementAndGet();
+				}
+				catch (DALException e)
+				{
+					e.printStackTrace(System.err);
+				}
+			}));
+		}
+
+		for (Thread thread : threads) thread.join();
+
+		Assert.assertEquals(50, numOfCorrectResults.get());
+		Assert.assertEquals(0, dao.getNumOfSingleLoads());
+		Assert.assertTrue(dao.getLoadedBatches().size() >= 3);
+		Assert.assertTrue(dao.getLoadedBatches().size() < 50);
+		Assert.assertTrue(dao.getLoadedBatches().stream().allMatch(batch -> batch.length <= 20));
+		Assert.assertEquals(50, dao.getBatchLoader().getRequestCount());
+		Assert.assertEquals(dao.getLoadedBatches().size(), dao.getBatchLoader().getBatchCount());
+	}
+
+	/**
+	 * Asserts that a get without concurrent gets is served after the maximum wait and that missing ids result in null
+	 *
+	 * @throws Exception re-throws every exception
+	 */
+	@Test
+	public void testSingleGet() throws Exception
+	{
+		InstrumentedMockedDAOImpl dao = InstrumentedMockedDAOImpl.create(1);
+
+		dao.setBatchLoader(new BatchLoader<>(20, 1, TimeUnit.MILLISECONDS));
+
+		Assert.assertEquals(1, dao.get(1).getId());
+		Assert.assertNull(dao.get(2));
+		Assert.assertEquals(2, dao.getLoadedBatches().size());
+		Assert.assertArrayEquals(new int[] { 2 }, dao.getLoadedBatches().get(1));
+	}
+
+	/**
+	 * Asserts that an exception of the load is thrown to the caller
+	 *
+	 * @throws Exception re-throws every exception
+	 */
+	@Test
+	public void testFailure() throws Exception
+	{
+		BatchLoader<MockedDO> batchLoader = new BatchLoader<>(1, 0, TimeUnit.MILLISECONDS);
+
+		try
+		{
+			batchLoader.get(1, ids -> { throw new IllegalStateException(); });
+
+			Assert.fail();
+		}
+		catch (IllegalStateException e)
+		{
+			Assert.assertEquals(1, batchLoader.getBatchCount());
+		}
+	}
+}
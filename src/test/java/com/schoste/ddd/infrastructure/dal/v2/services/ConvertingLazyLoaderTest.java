@@ -0,0 +1,109 @@
+package com.schoste.ddd.infrastructure.dal.v2.services;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.schoste.ddd.infrastructure.dal.v2.models.MockedDO;
+import com.schoste.ddd.infrastructure.dal.v2.services.mocked.MockedLazyLoaderImpl;
+
+/**
+ * Test class of the {@link ConvertingLazyLoader} class using the {@link MockedLazyLoaderImpl} implementation
+ */
+public class ConvertingLazyLoaderTest
+{
+	protected static final int NUM_DATA_OBJECTS = 25;
+
+	protected static MockedDO createDataObject(int id)
+	{
+		MockedDO dataObject = new MockedDO();
+
+		dataObject.setId(id);
+
+		return dataObject;
+	}
+
+	protected static List<Integer> createIds()
+	{
+		return IntStream.rangeClosed(1, NUM_DATA_OBJECTS).boxed().collect(Collectors.toList());
+	}
+
+	/**
+	 * Asserts that a lazy loader created with a batch conversion function converts the source records
+	 * in chunks of the configured size and still provides every data object in order
+	 *
+	 * @throws Exception re-throws every exception
+	 */
+	@Test
+	public void testBatchConversion() throws Exception
+	{
+		int chunkSize = 10;
+		Collection<Integer> chunkSizes = new ArrayList<>();
+		MockedLazyLoaderImpl ll = new MockedLazyLoaderImpl(ids ->
+		{
+			chunkSizes.add(ids.size());
+
+			return ids.stream().map(ConvertingLazyLoaderTest::createDataObject).collect(Collectors.toList());
+		}, chunkSize, createIds());
+
+		try (Stream<MockedDO> doStream = StreamSupport.stream(ll, false).onClose(ll))
+		{
+			Assert.assertEquals(createIds(), doStream.map(MockedDO::getId).collect(Collectors.toList()));
+		}
+
+		Assert.assertEquals(List.of(10, 10, 5), chunkSizes);
+	}
+
+	/**
+	 * Asserts that a lazy loader created with a batch conversion function may drop source records
+	 * by returning less data objects than source records
+	 *
+	 * @throws Exception re-throws every exception
+	 */
+	@Test
+	public void testBatchConversionWithDroppedRecords() throws Exception
+	{
+		MockedLazyLoaderImpl ll = new MockedLazyLoaderImpl(ids -> ids.stream()
+			.filter(id -> id > 20)
+			.map(ConvertingLazyLoaderTest::createDataObject)
+			.collect(Collectors.toList()), 4, createIds());
+
+		try (Stream<MockedDO> doStream = StreamSupport.stream(ll, false).onClose(ll))
+		{
+			Assert.assertEquals(List.of(21, 22, 23, 24, 25), doStream.map(MockedDO::getId).collect(Collectors.toList()));
+		}
+	}
+
+	/**
+	 * Asserts that a projection provides the projected values of all source records passing the filter
+	 * without converting any source record into a data object
+	 *
+	 * @throws Exception re-throws every exception
+	 */
+	@Test
+	public void testProjectSkipsConversion() throws Exception
+	{
+		AtomicInteger numOfConversions = new AtomicInteger();
+		MockedLazyLoaderImpl ll = new MockedLazyLoaderImpl(id ->
+		{
+			numOfConversions.incrementAndGet();
+
+			return createDataObject(id);
+		}, createIds());
+
+		try (Stream<Integer> projectionStream = ll.project(id -> id * 2, id -> id > 20))
+		{
+			Assert.assertEquals(List.of(42, 44, 46, 48, 50), projectionStream.collect(Collectors.toList()));
+		}
+
+		Assert.assertEquals(0, numOfConversions.get());
+	}
+}
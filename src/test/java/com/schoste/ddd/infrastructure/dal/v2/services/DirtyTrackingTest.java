@@ -0,0 +1,223 @@
+package com.schoste.ddd.infrastructure.dal.v2.services;
+
+import java.util.List;
+import java.util.Set;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.schoste.ddd.infrastructure.dal.v2.models.MockedDO;
+import com.schoste.ddd.infrastructure.dal.v2.services.caching.TieredDataObjectCache;
+import com.schoste.ddd.infrastructure.dal.v2.services.mocked.InstrumentedMockedDAOImpl;
+
+/**
+ * Test class of the dirty tracking of {@link GenericDAO} and {@link com.schoste.ddd.infrastructure.dal.v2.models.GenericDataObject}
+ */
+public class DirtyTrackingTest
+{
+	/**
+	 * Data object with a property whose setter does not record its changes
+	 */
+	protected static class NotedDO extends MockedDO
+	{
+		private static final long serialVersionUID = 1L;
+
+		private String note;
+
+		public void setNote(String note)
+		{
+			this.note = note;
+		}
+
+		public String getNote()
+		{
+			return this.note;
+		}
+
+		@Override
+		public boolean supportsChangeSets()
+		{
+			return false;
+		}
+	}
+
+	/**
+	 * Asserts that a data object is dirty until it is marked clean and again after one of its fields changed.
+	 * A data object supporting change sets stays dirty once a property changed, while the digest of other data objects
+	 * is clean again once the content is restored.
+	 *
+	 * @throws Exception re-throws every exception
+	 */
+	@Test
+	public void testDataObject() throws Exception
+	{
+		MockedDO dataObject = new MockedDO();
+
+		dataObject.setExampleStringProperty("clean");
+
+		Assert.assertTrue(dataObject.isDirty());
+
+		dataObject.markClean();
+
+		Assert.assertFalse(dataObject.isDirty());
+
+		dataObject.setExampleStringProperty("dirty");
+
+		Assert.assertTrue(dataObject.isDirty());
+
+		dataObject.setExampleStringProperty("clean");
+
+		Assert.assertTrue(dataObject.isDirty());
+
+		dataObject.markDirty();
+
+		Assert.assertTrue(dataObject.isDirty());
+
+		NotedDO notedDataObject = new NotedDO();
+
+		notedDataObject.markClean();
+
+		Assert.assertFalse(notedDataObject.isDirty());
+
+		notedDataObject.setNote("dirty");
+
+		Assert.assertTrue(notedDataObject.isDirty());
+
+		notedDataObject.setNote(null);
+
+		Assert.assertFalse(notedDataObject.isDirty());
+	}
+
+	/**
+	 * Asserts that saves of unchanged data objects served by the cache are skipped, including data objects
+	 * which were deserialized from L2
+	 *
+	 * @throws Exception re-throws every exception
+	 */
+	@Test
+	public void testCachedDataObjects() throws Exception
+	{
+		InstrumentedMockedDAOImpl dao = new InstrumentedMockedDAOImpl();
+
+		dao.setDirtyTracking(true);
+		dao.setCache(new TieredDataObjectCache<>(1, 64 * 1024, 4));
+		dao.save(new MockedDO());
+		dao.save(new MockedDO());
+		dao.get(1);
+		dao.get(2);
+
+		MockedDO fromL2 = dao.get(1);
+
+		Assert.assertEquals(1, dao.getCache().getL2Hits());
+
+		dao.save(fromL2);
+
+		Assert.assertEquals(2, dao.getNumOfSingleSaves());
+		Assert.assertEquals(1, dao.getSkippedSaveCount());
+	}
+
+	/**
+	 * Asserts that saves of unchanged data objects are skipped and counted, alone and within collections
+	 *
+	 * @throws Exception re-throws every exception
+	 */
+	@Test
+	public void testSkippedSaves() throws Exception
+	{
+		InstrumentedMockedDAOImpl dao = new InstrumentedMockedDAOImpl();
+
+		dao.setDirtyTracking(true);
+		dao.save(new MockedDO());
+		dao.save(new MockedDO());
+
+		Assert.assertEquals(2, dao.getNumOfSingleSaves());
+
+		MockedDO first = dao.get(1);
+		MockedDO second = dao.get(2);
+
+		dao.save(first);
+
+		Assert.assertEquals(2, dao.getNumOfSingleSaves());
+		Assert.assertEquals(1, dao.getSkippedSaveCount());
+
+		second.setExampleStringProperty("changed");
+		dao.save(List.of(first, second));
+
+		Assert.assertEquals(1, dao.getSavedBatches().size());
+		Assert.assertEquals(List.of(second), dao.getSavedBatches().get(0));
+		Assert.assertEquals(2, dao.getSkippedSaveCount());
+
+		dao.save(List.of(first, second));
+
+		Assert.assertEquals(1, dao.getSavedBatches().size());
+		Assert.assertEquals(4, dao.getSkippedSaveCount());
+
+		dao.setDirtyTracking(false);
+		dao.save(first);
+
+		Assert.assertEquals(3, dao.getNumOfSingleSaves());
+	}
+
+	/**
+	 * Asserts that a persisted data object with recorded changes is saved via doSaveDelta with its changed properties
+	 * and that new data objects and data objects without recorded changes are saved entirely
+	 *
+	 * @throws Exception re-throws every exception
+	 */
+	@Test
+	public void testDeltaSave() throws Exception
+	{
+		InstrumentedMockedDAOImpl dao = new InstrumentedMockedDAOImpl();
+
+		dao.setDirtyTracking(true);
+		dao.save(new MockedDO());
+
+		MockedDO dataObject = dao.get(1);
+
+		dataObject.setExampleStringProperty("changed");
+		dao.save(dataObject);
+
+		Assert.assertEquals(1, dao.getNumOfSingleSaves());
+		Assert.assertEquals(List.of(Set.of("exampleStringProperty")), dao.getSavedDeltas());
+		Assert.assertEquals(Set.of(), dataObject.getChangedProperties());
+
+		dataObject.markDirty();
+		dao.save(dataObject);
+
+		Assert.assertEquals(2, dao.getNumOfSingleSaves());
+		Assert.assertEquals(1, dao.getSavedDeltas().size());
+
+		dataObject.setModifiedTimeStamp(42);
+		dataObject.setExampleStringProperty("changed again");
+		dao.save(dataObject);
+
+		Assert.assertEquals(Set.of("modifiedTimeStamp", "exampleStringProperty"), dao.getSavedDeltas().get(1));
+	}
+
+	/**
+	 * Asserts that a data object which does not support change sets is saved entirely
+	 * when a recorded and an unrecorded property changed, so the unrecorded change is not lost
+	 *
+	 * @throws Exception re-throws every exception
+	 */
+	@Test
+	public void testUnrecordedChange() throws Exception
+	{
+		InstrumentedMockedDAOImpl dao = new InstrumentedMockedDAOImpl();
+		NotedDO dataObject = new NotedDO();
+
+		dao.setDirtyTracking(true);
+		dao.save(dataObject);
+
+		dataObject.setExampleStringProperty("changed");
+		dataObject.setNote("changed");
+
+		Assert.assertEquals(Set.of("exampleStringProperty"), dataObject.getChangedProperties());
+
+		dao.save(dataObject);
+
+		Assert.assertEquals(2, dao.getNumOfSingleSaves());
+		Assert.assertTrue(dao.getSavedDeltas().isEmpty());
+		Assert.assertEquals("changed", ((NotedDO) dao.get(dataObject.getId())).getNote());
+	}
+}
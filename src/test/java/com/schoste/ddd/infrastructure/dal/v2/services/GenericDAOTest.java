@@ -3,6 +3,9 @@ package com.schoste.ddd.infrastructure.dal.v2.services;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.Flow;
+import java.util.function.IntPredicate;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
@@ -287,6 +290,92 @@ public abstract class GenericDAOTest <DO extends GenericDataObject, DAO extends
 //		Assert.assertTrue(this.assertDefaultReloadListenersAfterReload(numOfDataObjects));
 	}
 	
+	/**
+	 * Asserts that the reloadChanged() method of a DAO implementation reads
+	 * only the data objects which were changed since the last reload
+	 * 
+	 * @throws Exception re-throws every exception
+	 */
+	@Test
+	public void testReloadChanged() throws Exception
+	{
+		int numOfDataObjects = 10;
+
+		this.getDataAccessObject().reloadAll();
+
+		Assert.assertEquals(0, this.getDataAccessObject().reloadChanged().size());
+
+		DO dataObject1 = this.getExistingDataObject(2);
+		DO dataObject2 = this.getExistingDataObject(numOfDataObjects-1);
+
+		Thread.sleep(100);
+
+		this.modifyDataObject(dataObject1, "testReloadChanged");
+		this.modifyDataObject(dataObject2, "testReloadChanged");
+
+		this.getDataAccessObject().save(dataObject1);
+		this.getDataAccessObject().save(dataObject2);
+
+		Collection<DO> dataObjects = this.getDataAccessObject().reloadChanged();
+
+		Assert.assertEquals(2, dataObjects.size());
+		Assert.assertEquals(0, this.getDataAccessObject().reloadChanged().size());
+	}
+	
+	/**
+	 * Asserts that the count() and countWhere() methods of a DAO implementation
+	 * count all data objects and the data objects passing a filter
+	 * 
+	 * @throws Exception re-throws every exception
+	 */
+	@Test
+	public void testCount() throws Exception
+	{
+		int numOfDataObjects = 10;
+		int id = this.getExistingDataObject(2).getId();
+
+		Assert.assertTrue(this.getDataAccessObject().count() >= numOfDataObjects);
+		Assert.assertEquals(1, this.getDataAccessObject().countWhere(dataObject -> dataObject.getId() == id));
+	}
+	
+	/**
+	 * Asserts that the getPage() method of a DAO implementation returns
+	 * all data objects in the order of their ids, page by page
+	 * 
+	 * @throws Exception re-throws every exception
+	 */
+	@Test
+	public void testGetPage() throws Exception
+	{
+		int numOfDataObjects = 10;
+		int pageSize = 3;
+		int afterId = 0;
+		int numOfPagedDataObjects = 0;
+		Page<DO> page;
+
+		do
+		{
+			page = this.getDataAccessObject().getPage(afterId, pageSize);
+
+			Assert.assertTrue(page.getDataObjects().size() <= pageSize);
+
+			for (DO dataObject : page.getDataObjects())
+			{
+				Assert.assertTrue(dataObject.getId() > afterId);
+
+				afterId = dataObject.getId();
+			}
+
+			Assert.assertEquals(afterId, page.getNextAfterId());
+
+			numOfPagedDataObjects += page.getDataObjects().size();
+		}
+		while (page.hasNext());
+
+		Assert.assertTrue(numOfPagedDataObjects >= numOfDataObjects);
+		Assert.assertEquals(this.getDataAccessObject().count(), numOfPagedDataObjects);
+	}
+	
 	/**
 	 * Asserts that the delete() method of a DAO implementation actually
 	 * deletes the file of a data object in the file system
@@ -308,6 +397,66 @@ public abstract class GenericDAOTest <DO extends GenericDataObject, DAO extends
 		Assert.assertNull(this.getDataAccessObject().get(dataObjectId));
 	}
 	
+	/**
+	 * Asserts that the getRange() method of a DAO implementation lazily loads
+	 * exactly the data objects within a range of ids
+	 * 
+	 * @throws Exception re-throws every exception
+	 */
+	@Test
+	public void testGetRange() throws Exception
+	{
+		int fromId = this.getExistingDataObject(2).getId();
+		int toId = this.getExistingDataObject(5).getId();
+		List<Integer> expectedIds = this.getIds(id -> (id >= fromId) && (id <= toId));
+
+		try (Stream<DO> dataObjects = this.getDataAccessObject().getRange(fromId, toId))
+		{
+			List<Integer> ids = dataObjects.map(GenericDataObject::getId).sorted().collect(Collectors.toList());
+
+			Assert.assertEquals(expectedIds, ids);
+		}
+	}
+	
+	/**
+	 * Asserts that the deleteRange() method of a DAO implementation deletes
+	 * exactly the data objects within a range of ids
+	 * 
+	 * @throws Exception re-throws every exception
+	 */
+	@Test
+	public void testDeleteRange() throws Exception
+	{
+		int fromId = this.getExistingDataObject(2).getId();
+		int toId = this.getExistingDataObject(5).getId();
+		List<Integer> expectedIds = this.getIds(id -> (id >= fromId) && (id <= toId));
+		List<Integer> remainingIds = this.getIds(id -> (id < fromId) || (id > toId));
+		long numOfDataObjects = this.getDataAccessObject().count();
+
+		this.getDataAccessObject().deleteRange(fromId, toId);
+
+		for (int id : expectedIds) Assert.assertNull(this.getDataAccessObject().get(id));
+		for (int id : remainingIds) Assert.assertNotNull(this.getDataAccessObject().get(id));
+
+		Assert.assertEquals(numOfDataObjects - expectedIds.size(), this.getDataAccessObject().count());
+	}
+
+	/**
+	 * Gets the sorted ids of the data objects provided by {@link GenericDataAccessObject#getAll(java.util.function.Predicate)}
+	 * which pass a filter, so tests do not depend on contiguous ids
+	 * 
+	 * @param idFilter the filter of the ids
+	 * @return the sorted ids
+	 * @throws Exception re-throws every exception
+	 */
+	protected List<Integer> getIds(IntPredicate idFilter) throws Exception
+	{
+		try (Stream<DO> doStream = this.getDataAccessObject().getAll(dataObj -> idFilter.test(dataObj.getId())))
+		{
+			return doStream.map(GenericDataObject::getId).sorted().collect(Collectors.toList());
+		}
+	}
+	
 	/**
 	 * Asserts that the {@link GenericDAO#clear()} method works properly.
 	 * This test must be implemented by its extending class since {@link GenericDAO#clear()}
@@ -557,4 +706,183 @@ public abstract class GenericDAOTest <DO extends GenericDataObject, DAO extends
 		}
 	}
 
+	/**
+	 * Asserts that the {@link GenericDataAccessObject#getAllPublisher(java.util.function.Predicate)} method of a DAO implementation
+	 * only emits as many data objects as requested by the subscriber and stops emitting after the subscription was cancelled
+	 * 
+	 * @throws Exception re-throws every exception
+	 */
+	@Test
+	public void testGetAllPublisherHonoursDemand() throws Exception
+	{
+		int numOfRequestedDOs = 3;
+		Collection<DO> received = new ArrayList<>();
+		Flow.Subscription[] subscription = new Flow.Subscription[1];
+
+		this.getDataAccessObject().getAllPublisher(null).subscribe(new Flow.Subscriber<DO>()
+		{
+			@Override
+			public void onSubscribe(Flow.Subscription s) { subscription[0] = s; }
+
+			@Override
+			public void onNext(DO dataObject) { received.add(dataObject); }
+
+			@Override
+			public void onError(Throwable throwable) { Assert.fail(throwable.toString()); }
+
+			@Override
+			public void onComplete() { }
+		});
+
+		Assert.assertEquals(0, received.size());
+
+		subscription[0].request(numOfRequestedDOs);
+
+		Assert.assertEquals(numOfRequestedDOs, received.size());
+
+		subscription[0].cancel();
+		subscription[0].request(numOfRequestedDOs);
+
+		Assert.assertEquals(numOfRequestedDOs, received.size());
+	}
+
+	/**
+	 * Asserts that the publisher returned by {@link GenericDataAccessObject#getAllPublisher(java.util.function.Predicate)}
+	 * treats a subscriber which throws from onNext as cancelled instead of signalling the exception back to it
+	 * 
+	 * @throws Exception re-throws every exception
+	 */
+	@Test
+	public void testGetAllPublisherWithThrowingSubscriber() throws Exception
+	{
+		Collection<DO> received = new ArrayList<>();
+		Collection<Throwable> errors = new ArrayList<>();
+		Flow.Subscription[] subscription = new Flow.Subscription[1];
+
+		this.getDataAccessObject().getAllPublisher(null).subscribe(new Flow.Subscriber<DO>()
+		{
+			@Override
+			public void onSubscribe(Flow.Subscription s) { subscription[0] = s; }
+
+			@Override
+			public void onNext(DO dataObject)
+			{
+				received.add(dataObject);
+
+				throw new IllegalStateException("subscriber failure");
+			}
+
+			@Override
+			public void onError(Throwable throwable) { errors.add(throwable); }
+
+			@Override
+			public void onComplete() { Assert.fail(); }
+		});
+
+		subscription[0].request(3);
+		subscription[0].request(3);
+
+		Assert.assertEquals(1, received.size());
+		Assert.assertTrue(errors.isEmpty());
+	}
+
+	/**
+	 * Asserts that the {@link GenericDataAccessObject#getAllPublisher(java.util.function.Predicate, int)} method of a DAO implementation
+	 * emits all data objects that pass the filter predicate in batches and completes afterwards
+	 * 
+	 * @throws Exception re-throws every exception
+	 */
+	@Test
+	public void testGetAllPublisherInBatches() throws Exception
+	{
+		int batchSize = 4;
+		int expectedMinId = 5;
+		long expectedNumOfDOs;
+		Collection<List<DO>> received = new ArrayList<>();
+		boolean[] completed = new boolean[1];
+
+		try (Stream<DO> doStream = this.getDataAccessObject().getAll(dataObj -> dataObj.getId() > expectedMinId))
+		{
+			expectedNumOfDOs = doStream.count();
+		}
+
+		this.getDataAccessObject().getAllPublisher(dataObj -> dataObj.getId() > expectedMinId, batchSize).subscribe(new Flow.Subscriber<List<DO>>()
+		{
+			@Override
+			public void onSubscribe(Flow.Subscription s) { s.request(Long.MAX_VALUE); }
+
+			@Override
+			public void onNext(List<DO> dataObjects) { received.add(dataObjects); }
+
+			@Override
+			public void onError(Throwable throwable) { Assert.fail(throwable.toString()); }
+
+			@Override
+			public void onComplete() { completed[0] = true; }
+		});
+
+		Assert.assertTrue(completed[0]);
+		Assert.assertEquals(expectedNumOfDOs, received.stream().mapToInt(List::size).sum());
+
+		for (List<DO> batch : received)
+		{
+			Assert.assertTrue(batch.size() <= batchSize);
+
+			for (DO dataObject : batch) Assert.assertTrue(dataObject.getId() > expectedMinId);
+		}
+	}
+
+	/**
+	 * Asserts that the {@link GenericDataAccessObject#getAllReusing(java.util.function.Predicate)} method of a DAO implementation
+	 * provides the same data objects as {@link GenericDataAccessObject#getAll(java.util.function.Predicate)} as long as
+	 * the consumer copies what it needs before requesting the next data object
+	 * 
+	 * @throws Exception re-throws every exception
+	 */
+	@Test
+	public void testGetAllReusing() throws Exception
+	{
+		int expectedMinId = 5;
+		List<Integer> expectedIds;
+		List<Integer> actualIds;
+
+		try (Stream<DO> doStream = this.getDataAccessObject().getAll(dataObj -> dataObj.getId() > expectedMinId))
+		{
+			expectedIds = doStream.map(GenericDataObject::getId).sorted().collect(Collectors.toList());
+		}
+
+		try (Stream<DO> doStream = this.getDataAccessObject().getAllReusing(dataObj -> dataObj.getId() > expectedMinId))
+		{
+			actualIds = doStream.map(GenericDataObject::getId).sorted().collect(Collectors.toList());
+		}
+
+		Assert.assertEquals(expectedIds, actualIds);
+	}
+
+	/**
+	 * Asserts that the {@link GenericDataAccessObject#projectIds(java.util.function.Function, java.util.function.Predicate)} method
+	 * of a DAO implementation provides a value for the id of every data object that passes the filter predicate
+	 * 
+	 * @throws Exception re-throws every exception
+	 */
+	@Test
+	public void testProjectIds() throws Exception
+	{
+		int expectedMinId = 5;
+		List<String> expectedValues;
+		List<String> actualValues;
+
+		try (Stream<DO> doStream = this.getDataAccessObject().getAll(dataObj -> dataObj.getId() > expectedMinId))
+		{
+			expectedValues = doStream.map(dataObj -> String.valueOf(dataObj.getId())).sorted().collect(Collectors.toList());
+		}
+
+		try (Stream<String> projectionStream = this.getDataAccessObject().projectIds(String::valueOf, id -> id > expectedMinId))
+		{
+			actualValues = projectionStream.sorted().collect(Collectors.toList());
+		}
+
+		Assert.assertEquals(expectedValues, actualValues);
+	}
+
 }
\ No newline at end of file
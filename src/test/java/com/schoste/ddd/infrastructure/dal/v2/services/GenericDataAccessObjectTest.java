@@ -0,0 +1,171 @@
+package com.schoste.ddd.infrastructure.dal.v2.services;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Flow;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.schoste.ddd.infrastructure.dal.v2.models.GenericDataObject;
+import com.schoste.ddd.infrastructure.dal.v2.models.MockedDO;
+import com.schoste.ddd.infrastructure.dal.v2.services.mocked.InMemoryMockedDAOImpl;
+
+/**
+ * Test class of the default methods of the {@link GenericDataAccessObject} interface
+ */
+public class GenericDataAccessObjectTest
+{
+	/**
+	 * Creates a DAO which only implements the methods of the interface without a default implementation,
+	 * like implementations written before the default methods were added
+	 *
+	 * @param numOfDataObjects the number of data objects to create
+	 * @return a DAO using the default methods
+	 * @throws Exception re-throws every exception
+	 */
+	@SuppressWarnings("unchecked")
+	protected static GenericDataAccessObject<MockedDO> createDAO(int numOfDataObjects) throws Exception
+	{
+		InMemoryMockedDAOImpl dao = new InMemoryMockedDAOImpl();
+
+		for (int i = 0; i < numOfDataObjects; i++) dao.save(new MockedDO());
+
+		InvocationHandler handler = (proxy, method, args) ->
+		{
+			if (method.isDefault()) return InvocationHandler.invokeDefault(proxy, method, args);
+
+			try
+			{
+				return method.invoke(dao, args);
+			}
+			catch (InvocationTargetException e)
+			{
+				throw e.getCause();
+			}
+		};
+
+		return (GenericDataAccessObject<MockedDO>) Proxy.newProxyInstance(GenericDataAccessObject.class.getClassLoader(), new Class<?>[] { GenericDataAccessObject.class }, handler);
+	}
+
+	/**
+	 * Asserts that the default methods checking the existence of data objects delegate to get
+	 *
+	 * @throws Exception re-throws every exception
+	 */
+	@Test
+	public void testExists() throws Exception
+	{
+		GenericDataAccessObject<MockedDO> dao = createDAO(3);
+
+		Assert.assertTrue(dao.exists(1));
+		Assert.assertFalse(dao.exists(4));
+		Assert.assertTrue(dao.existsAll(new int[] { 1, 3, 1 }));
+		Assert.assertFalse(dao.existsAll(new int[] { 1, 4 }));
+	}
+
+	/**
+	 * Asserts that the default paging methods provide all data objects in the order of their ids
+	 *
+	 * @throws Exception re-throws every exception
+	 */
+	@Test
+	public void testGetPage() throws Exception
+	{
+		GenericDataAccessObject<MockedDO> dao = createDAO(7);
+		List<Integer> ids = new ArrayList<>();
+		Page<MockedDO> page = dao.getPage(0, 3);
+
+		ids.addAll(page.getDataObjects().stream().map(GenericDataObject::getId).collect(Collectors.toList()));
+
+		while (page.hasNext())
+		{
+			page = dao.getPage(page.getNextAfterId(), 3);
+
+			ids.addAll(page.getDataObjects().stream().map(GenericDataObject::getId).collect(Collectors.toList()));
+		}
+
+		Assert.assertEquals(List.of(1, 2, 3, 4, 5, 6, 7), ids);
+	}
+
+	/**
+	 * Asserts that the default range methods only affect the data objects within the range
+	 *
+	 * @throws Exception re-throws every exception
+	 */
+	@Test
+	public void testRange() throws Exception
+	{
+		GenericDataAccessObject<MockedDO> dao = createDAO(6);
+
+		try (Stream<MockedDO> dataObjects = dao.getRange(2, 4))
+		{
+			Assert.assertEquals(List.of(2, 3, 4), dataObjects.map(GenericDataObject::getId).collect(Collectors.toList()));
+		}
+
+		dao.deleteRange(2, 4);
+
+		Assert.assertEquals(3, dao.count());
+		Assert.assertEquals(2, dao.countWhere(dataObject -> dataObject.getId() > 1));
+		Assert.assertEquals(List.of(1, 5, 6), dao.projectIds(id -> id, null).sorted().collect(Collectors.toList()));
+	}
+
+	/**
+	 * Asserts that the default publisher emits all data objects passing the filter
+	 *
+	 * @throws Exception re-throws every exception
+	 */
+	@Test
+	public void testGetAllPublisher() throws Exception
+	{
+		GenericDataAccessObject<MockedDO> dao = createDAO(5);
+		List<List<MockedDO>> batches = new ArrayList<>();
+		boolean[] completed = new boolean[1];
+
+		dao.getAllPublisher(dataObject -> dataObject.getId() != 3, 2).subscribe(new Flow.Subscriber<List<MockedDO>>()
+		{
+			@Override
+			public void onSubscribe(Flow.Subscription subscription)
+			{
+				subscription.request(Long.MAX_VALUE);
+			}
+
+			@Override
+			public void onNext(List<MockedDO> item)
+			{
+				batches.add(item);
+			}
+
+			@Override
+			public void onError(Throwable throwable)
+			{
+				Assert.fail(throwable.toString());
+			}
+
+			@Override
+			public void onComplete()
+			{
+				completed[0] = true;
+			}
+		});
+
+		Assert.assertTrue(completed[0]);
+		Assert.assertEquals(List.of(2, 2), batches.stream().map(List::size).collect(Collectors.toList()));
+	}
+
+	/**
+	 * Asserts that the default method creating units of work rejects the call
+	 *
+	 * @throws Exception re-throws every exception
+	 */
+	@Test(expected = UnsupportedOperationException.class)
+	public void testCreateUnitOfWork() throws Exception
+	{
+		createDAO(0).createUnitOfWork();
+	}
+}
@@ -0,0 +1,96 @@
+package com.schoste.ddd.infrastructure.dal.v2.services;
+
+import java.lang.management.ManagementFactory;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.schoste.ddd.infrastructure.dal.v2.models.MockedDO;
+import com.schoste.ddd.infrastructure.dal.v2.services.mocked.MockedLazyLoaderImpl;
+
+/**
+ * Compares the heap allocation of scanning data objects with a lazy loader that creates a new data object per record
+ * and with a lazy loader that reuses its data objects.
+ * The allocated bytes are measured per thread via {@link com.sun.management.ThreadMXBean#getCurrentThreadAllocatedBytes()}.
+ * Excluded from the unit tests, run it with the benchmarks profile (mvn -Pbenchmarks test).
+ */
+public class LazyLoaderReuseBenchmarkTest
+{
+	protected static final int NUM_RECORDS = 200_000;
+	protected static final List<Integer> SOURCE_RECORDS = IntStream.range(0, NUM_RECORDS).boxed().collect(Collectors.toList());
+	protected static final String EXAMPLE_STRING = "LazyLoaderReuseBenchmarkTest";
+
+	/**
+	 * Receives every scanned data object, so the JIT compiler cannot eliminate its allocation
+	 */
+	protected static volatile MockedDO blackhole;
+
+	protected static MockedDO convert(int id)
+	{
+		MockedDO dataObject = new MockedDO();
+
+		fill(id, dataObject);
+
+		return dataObject;
+	}
+
+	protected static void fill(int id, MockedDO dataObject)
+	{
+		dataObject.setId(id);
+		dataObject.setCreatedTimeStamp(id);
+		dataObject.setModifiedTimeStamp(id);
+		dataObject.setIsDeleted(false);
+		dataObject.setExampleStringProperty(EXAMPLE_STRING);
+	}
+
+	/**
+	 * Scans all records of the lazy loader and returns the number of bytes allocated by the current thread while doing so
+	 *
+	 * @param ll the lazy loader to scan
+	 * @return the number of allocated bytes
+	 */
+	protected static long scan(ConvertingLazyLoader<Integer, MockedDO> ll)
+	{
+		com.sun.management.ThreadMXBean threadMXBean = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+		long allocatedBytesBefore = threadMXBean.getCurrentThreadAllocatedBytes();
+		long sum = 0;
+
+		try (Stream<MockedDO> doStream = StreamSupport.stream(ll, false).onClose(ll))
+		{
+			sum = doStream.peek(dataObject -> blackhole = dataObject).mapToLong(MockedDO::getModifiedTimeStamp).sum();
+		}
+
+		long allocatedBytes = threadMXBean.getCurrentThreadAllocatedBytes() - allocatedBytesBefore;
+
+		Assert.assertEquals((long) NUM_RECORDS * (NUM_RECORDS - 1) / 2, sum);
+
+		return allocatedBytes;
+	}
+
+	/**
+	 * Asserts that reusing data objects allocates considerably less memory than creating one data object per record
+	 *
+	 * @throws Exception re-throws every exception
+	 */
+	@Test
+	public void testReuseReducesAllocation() throws Exception
+	{
+		long allocatedBytesNew = 0;
+		long allocatedBytesReused = 0;
+
+		// the first round warms up the JIT compiler, only the second one is measured
+		for (int round = 0; round < 2; round++)
+		{
+			allocatedBytesNew = scan(new MockedLazyLoaderImpl(LazyLoaderReuseBenchmarkTest::convert, SOURCE_RECORDS));
+			allocatedBytesReused = scan(new MockedLazyLoaderImpl(LazyLoaderReuseBenchmarkTest::fill, MockedDO::new, 1, SOURCE_RECORDS));
+		}
+
+		Assert.assertTrue(String.format("%d bytes allocated with new data objects, %d bytes allocated with reused data objects", allocatedBytesNew, allocatedBytesReused),
+			allocatedBytesReused * 2 < allocatedBytesNew);
+	}
+}
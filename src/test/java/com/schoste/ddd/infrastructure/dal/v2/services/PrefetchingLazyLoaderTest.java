@@ -0,0 +1,166 @@
+package com.schoste.ddd.infrastructure.dal.v2.services;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.schoste.ddd.infrastructure.dal.v2.models.MockedDO;
+import com.schoste.ddd.infrastructure.dal.v2.services.mocked.MockedLazyLoaderImpl;
+
+/**
+ * Test class of the {@link PrefetchingLazyLoader} implementation
+ */
+public class PrefetchingLazyLoaderTest
+{
+	protected static final int NUM_DATA_OBJECTS = 100;
+
+	protected static MockedDO createDataObject(int id)
+	{
+		MockedDO dataObject = new MockedDO();
+
+		dataObject.setId(id);
+
+		return dataObject;
+	}
+
+	protected static List<Integer> createIds()
+	{
+		return IntStream.rangeClosed(1, NUM_DATA_OBJECTS).boxed().collect(Collectors.toList());
+	}
+
+	/**
+	 * Asserts that all data objects of the wrapped lazy loader are provided in their original order
+	 * even if the buffer is smaller than the number of data objects
+	 *
+	 * @throws Exception re-throws every exception
+	 */
+	@Test
+	public void testProvidesAllDataObjectsInOrder() throws Exception
+	{
+		MockedLazyLoaderImpl ll = new MockedLazyLoaderImpl(PrefetchingLazyLoaderTest::createDataObject, createIds());
+		PrefetchingLazyLoader<Integer, MockedDO> pll = new PrefetchingLazyLoader<>(ll, 4);
+
+		try (Stream<MockedDO> doStream = StreamSupport.stream(pll, false).onClose(pll))
+		{
+			List<Integer> ids = doStream.map(MockedDO::getId).collect(Collectors.toList());
+
+			Assert.assertEquals(createIds(), ids);
+		}
+	}
+
+	/**
+	 * Asserts that closing the stream before it was consumed completely stops the producer
+	 * and closes the wrapped lazy loader
+	 *
+	 * @throws Exception re-throws every exception
+	 */
+	@Test
+	public void testCloseStopsProducer() throws Exception
+	{
+		AtomicBoolean wrappedLoaderClosed = new AtomicBoolean(false);
+		MockedLazyLoaderImpl ll = new MockedLazyLoaderImpl(PrefetchingLazyLoaderTest::createDataObject, createIds())
+		{
+			@Override
+			public void close()
+			{
+				wrappedLoaderClosed.set(true);
+			}
+		};
+		PrefetchingLazyLoader<Integer, MockedDO> pll = new PrefetchingLazyLoader<>(ll, 2);
+
+		try (Stream<MockedDO> doStream = StreamSupport.stream(pll, false).onClose(pll))
+		{
+			Assert.assertEquals(1, doStream.findFirst().get().getId());
+		}
+
+		Assert.assertTrue(wrappedLoaderClosed.get());
+		Assert.assertFalse(pll.tryAdvance(dataObject -> Assert.fail()));
+	}
+
+	/**
+	 * Asserts that a consumer waiting for the next data object returns when another thread closes the loader
+	 *
+	 * @throws Exception re-throws every exception
+	 */
+	@Test
+	public void testCloseFromAnotherThread() throws Exception
+	{
+		CountDownLatch secondRequested = new CountDownLatch(1);
+		CountDownLatch neverReleased = new CountDownLatch(1);
+		MockedLazyLoaderImpl ll = new MockedLazyLoaderImpl(id ->
+		{
+			if (id == 1) return createDataObject(id);
+
+			secondRequested.countDown();
+
+			try
+			{
+				neverReleased.await();
+			}
+			catch (InterruptedException e)
+			{
+				throw new IllegalStateException(e);
+			}
+
+			return createDataObject(id);
+		}, createIds());
+		PrefetchingLazyLoader<Integer, MockedDO> pll = new PrefetchingLazyLoader<>(ll, 2);
+		AtomicReference<Boolean> advanced = new AtomicReference<>();
+
+		Assert.assertTrue(pll.tryAdvance(dataObject -> Assert.assertEquals(1, dataObject.getId())));
+
+		Thread consumer = new Thread(() -> advanced.set(pll.tryAdvance(dataObject -> Assert.fail())));
+
+		consumer.start();
+		secondRequested.await();
+
+		// the consumer waits for the buffer once it is no longer runnable
+		while ((consumer.getState() == Thread.State.NEW) || (consumer.getState() == Thread.State.RUNNABLE)) Thread.yield();
+
+		pll.close();
+		consumer.join(10_000);
+
+		Assert.assertFalse(consumer.isAlive());
+		Assert.assertEquals(Boolean.FALSE, advanced.get());
+	}
+
+	/**
+	 * Asserts that an exception thrown by the wrapped lazy loader is re-thrown in the consuming thread
+	 * after all data objects loaded before the exception were provided
+	 *
+	 * @throws Exception re-throws every exception
+	 */
+	@Test
+	public void testRethrowsProducerException() throws Exception
+	{
+		int failingId = 10;
+		MockedLazyLoaderImpl ll = new MockedLazyLoaderImpl(id ->
+		{
+			if (id == failingId) throw new IllegalStateException("testRethrowsProducerException");
+
+			return createDataObject(id);
+		}, createIds());
+		List<MockedDO> received = new ArrayList<>();
+
+		try (PrefetchingLazyLoader<Integer, MockedDO> pll = new PrefetchingLazyLoader<>(ll))
+		{
+			while (pll.tryAdvance(received::add)) ;
+
+			Assert.fail();
+		}
+		catch (IllegalStateException e)
+		{
+			Assert.assertEquals("testRethrowsProducerException", e.getMessage());
+			Assert.assertEquals(failingId - 1, received.size());
+		}
+	}
+}
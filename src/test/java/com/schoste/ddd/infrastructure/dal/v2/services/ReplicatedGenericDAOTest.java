@@ -0,0 +1,121 @@
+package com.schoste.ddd.infrastructure.dal.v2.services;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.schoste.ddd.infrastructure.dal.v2.models.MockedDO;
+import com.schoste.ddd.infrastructure.dal.v2.services.mocked.InMemoryMockedDAOImpl;
+
+/**
+ * Test class of the {@link ReplicatedGenericDAO} class
+ */
+public class ReplicatedGenericDAOTest
+{
+	protected static MockedDO createDataObject(String exampleStringProperty)
+	{
+		MockedDO dataObject = new MockedDO();
+
+		dataObject.setExampleStringProperty(exampleStringProperty);
+
+		return dataObject;
+	}
+
+	protected static MockedDO find(Collection<MockedDO> dataObjects, int id)
+	{
+		return dataObjects.stream().filter(dataObject -> dataObject.getId() == id).findFirst().orElse(null);
+	}
+
+	/**
+	 * Asserts that reads go to the replicas, unless a replica lags behind the writes of the calling thread
+	 *
+	 * @throws Exception re-throws every exception
+	 */
+	@Test
+	public void testReadYourWrites() throws Exception
+	{
+		InMemoryMockedDAOImpl primary = new InMemoryMockedDAOImpl();
+		List<InMemoryMockedDAOImpl> replicas = List.of(new InMemoryMockedDAOImpl(), new InMemoryMockedDAOImpl());
+		ReplicatedGenericDAO<MockedDO> dao = new ReplicatedGenericDAO<>(MockedDO.class, primary, replicas);
+		List<MockedDO> dataObjects = new ArrayList<>(List.of(createDataObject("first"), createDataObject("second"), createDataObject("third")));
+
+		dao.save(dataObjects);
+
+		Assert.assertEquals(3, primary.size());
+		Assert.assertSame(dataObjects.get(0), dao.get(1));
+		Assert.assertEquals(1, dao.getPrimaryFallbackCount());
+
+		AtomicReference<MockedDO> readByOtherThread = new AtomicReference<>(dataObjects.get(0));
+		Thread otherThread = new Thread(() ->
+		{
+			try
+			{
+				readByOtherThread.set(dao.get(1));
+			}
+			catch (Exception e)
+			{
+				e.printStackTrace(System.err);
+			}
+		});
+
+		otherThread.start();
+		otherThread.join();
+
+		Assert.assertNull(readByOtherThread.get());
+
+		for (InMemoryMockedDAOImpl replica : replicas) replica.replicateFrom(primary);
+
+		MockedDO replicated = dao.get(1);
+
+		Assert.assertNotSame(dataObjects.get(0), replicated);
+		Assert.assertEquals("first", replicated.getExampleStringProperty());
+		Assert.assertEquals(1, dao.getPrimaryFallbackCount());
+
+		// the next write must get a newer modification time stamp than the replicated version
+		while (System.currentTimeMillis() <= replicated.getModifiedTimeStamp()) Thread.onSpinWait();
+
+		dataObjects.get(0).setExampleStringProperty("changed");
+		dao.save(dataObjects.get(0));
+
+		Collection<MockedDO> read = dao.get(new int[] { 1, 2 });
+
+		Assert.assertEquals(2, read.size());
+		Assert.assertSame(dataObjects.get(0), find(read, 1));
+		Assert.assertNotSame(dataObjects.get(1), find(read, 2));
+		Assert.assertEquals(2, dao.getPrimaryFallbackCount());
+
+		dao.delete(new int[] { 2 });
+
+		Assert.assertNull(dao.get(2));
+		Assert.assertEquals(3, dao.getPrimaryFallbackCount());
+
+		dao.forgetWrites();
+
+		Assert.assertEquals("second", dao.get(2).getExampleStringProperty());
+		Assert.assertEquals("first", dao.get(1).getExampleStringProperty());
+	}
+
+	/**
+	 * Asserts that all reads go to the primary if there are no replicas
+	 *
+	 * @throws Exception re-throws every exception
+	 */
+	@Test
+	public void testWithoutReplicas() throws Exception
+	{
+		InMemoryMockedDAOImpl primary = new InMemoryMockedDAOImpl();
+		ReplicatedGenericDAO<MockedDO> dao = new ReplicatedGenericDAO<>(MockedDO.class, primary, List.of());
+		MockedDO dataObject = createDataObject("only");
+
+		dao.save(dataObject);
+		dao.forgetWrites();
+
+		Assert.assertSame(dataObject, dao.get(dataObject.getId()));
+		Assert.assertEquals(1, dao.getAll().size());
+		Assert.assertEquals(0, dao.getPrimaryFallbackCount());
+	}
+}
@@ -0,0 +1,171 @@
+package com.schoste.ddd.infrastructure.dal.v2.services;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.schoste.ddd.infrastructure.dal.v2.exceptions.DALException;
+import com.schoste.ddd.infrastructure.dal.v2.models.MockedDO;
+import com.schoste.ddd.infrastructure.dal.v2.services.mocked.InstrumentedMockedDAOImpl;
+
+/**
+ * Test class of the {@link RequestCoalescer} class
+ */
+public class RequestCoalescerTest
+{
+	protected static void awaitWaiters(RequestCoalescer<MockedDO> requestCoalescer, int numOfWaiters)
+	{
+		while (requestCoalescer.getWaiterCount() < numOfWaiters) Thread.yield();
+	}
+
+	/**
+	 * Asserts that concurrent gets of the same id share one load and its result
+	 *
+	 * @throws Exception re-throws every exception
+	 */
+	@Test
+	public void testSingleFlight() throws Exception
+	{
+		InstrumentedMockedDAOImpl dao = InstrumentedMockedDAOImpl.create(1);
+		List<Thread> threads = new ArrayList<>();
+		List<MockedDO> results = new ArrayList<>();
+
+		dao.setRequestCoalescer(new RequestCoalescer<>(10, TimeUnit.SECONDS));
+		dao.blockLoads();
+
+		for (int i = 0; i < 20; i++)
+		{
+			threads.add(Thread.ofVirtual().start(() ->
+			{
+				try
+				{
+					MockedDO dataObject = dao.get(1);
+
+					synchronized (results)
+					{
+						results.add(dataObject);
+					}
+				}
+				catch (DALException e)
+				{
+					e.printStackTrace(System.err);
+				}
+			}));
+		}
+
+		dao.awaitLoad();
+		awaitWaiters(dao.getRequestCoalescer(), 19);
+		dao.releaseLoads();
+
+		for (Thread thread : threads) thread.join();
+
+		Assert.assertEquals(1, dao.getNumOfLoads());
+		Assert.assertEquals(20, results.size());
+		Assert.assertTrue(results.stream().allMatch(dataObject -> dataObject == results.get(0)));
+		Assert.assertEquals(0, dao.getRequestCoalescer().getInFlightCount());
+	}
+
+	/**
+	 * Asserts that overlapping gets of several ids only load the ids which are not loaded by another thread
+	 *
+	 * @throws Exception re-throws every exception
+	 */
+	@Test
+	public void testOverlappingIds() throws Exception
+	{
+		InstrumentedMockedDAOImpl dao = InstrumentedMockedDAOImpl.create(4);
+		AtomicReference<Collection<MockedDO>> firstResult = new AtomicReference<>();
+
+		dao.setRequestCoalescer(new RequestCoalescer<>(10, TimeUnit.SECONDS));
+		dao.blockLoads();
+
+		Thread first = Thread.ofVirtual().start(() ->
+		{
+			try
+			{
+				firstResult.set(dao.get(new int[] { 1, 2, 3 }));
+			}
+			catch (DALException e)
+			{
+				e.printStackTrace(System.err);
+			}
+		});
+
+		dao.awaitLoad();
+
+		AtomicReference<Collection<MockedDO>> secondResult = new AtomicReference<>();
+		Thread second = Thread.ofVirtual().start(() ->
+		{
+			try
+			{
+				secondResult.set(dao.get(new int[] { 2, 3, 4 }));
+			}
+			catch (DALException e)
+			{
+				e.printStackTrace(System.err);
+			}
+		});
+
+		dao.awaitLoad();
+		dao.releaseLoads();
+		first.join();
+		second.join();
+
+		Assert.assertArrayEquals(new int[] { 1, 2, 3 }, dao.getLoadedBatches().get(0));
+		Assert.assertArrayEquals(new int[] { 4 }, dao.getLoadedBatches().get(1));
+		Assert.assertEquals(3, firstResult.get().size());
+		Assert.assertEquals(3, secondResult.get().size());
+	}
+
+	/**
+	 * Asserts that a thread waiting for the load of another thread gives up after the timeout
+	 *
+	 * @throws Exception re-throws every exception
+	 */
+	@Test
+	public void testTimeout() throws Exception
+	{
+		InstrumentedMockedDAOImpl dao = InstrumentedMockedDAOImpl.create(1);
+
+		dao.setRequestCoalescer(new RequestCoalescer<>(20, TimeUnit.MILLISECONDS));
+		dao.blockLoads();
+
+		Thread loader = Thread.ofVirtual().start(() ->
+		{
+			try
+			{
+				dao.get(1);
+			}
+			catch (DALException e)
+			{
+				e.printStackTrace(System.err);
+			}
+		});
+
+		dao.awaitLoad();
+
+		try
+		{
+			dao.get(1);
+
+			Assert.fail();
+		}
+		catch (DALException e)
+		{
+			Assert.assertTrue(e.getCause() instanceof TimeoutException);
+		}
+		finally
+		{
+			dao.releaseLoads();
+			loader.join();
+		}
+
+		Assert.assertEquals(1, dao.getNumOfLoads());
+	}
+}
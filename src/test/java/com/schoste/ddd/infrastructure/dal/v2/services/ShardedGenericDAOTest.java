@@ -0,0 +1,168 @@
+package com.schoste.ddd.infrastructure.dal.v2.services;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.schoste.ddd.infrastructure.dal.v2.exceptions.DALException;
+import com.schoste.ddd.infrastructure.dal.v2.models.MockedDO;
+import com.schoste.ddd.infrastructure.dal.v2.services.listeners.MockedSaveListener;
+import com.schoste.ddd.infrastructure.dal.v2.services.mocked.InMemoryMockedDAOImpl;
+
+/**
+ * Test class of the {@link ShardedGenericDAO} class
+ */
+public class ShardedGenericDAOTest
+{
+	protected static List<InMemoryMockedDAOImpl> createShards(int numOfShards)
+	{
+		List<InMemoryMockedDAOImpl> shards = new ArrayList<>(numOfShards);
+
+		for (int i = 0; i < numOfShards; i++) shards.add(new InMemoryMockedDAOImpl());
+
+		return shards;
+	}
+
+	protected static List<MockedDO> createDataObjects(int numOfDataObjects)
+	{
+		List<MockedDO> dataObjects = new ArrayList<>(numOfDataObjects);
+
+		for (int i = 0; i < numOfDataObjects; i++)
+		{
+			MockedDO dataObject = new MockedDO();
+
+			dataObject.setExampleStringProperty("dataObject" + i);
+			dataObjects.add(dataObject);
+		}
+
+		return dataObjects;
+	}
+
+	/**
+	 * Asserts that data objects are distributed across the shards by their id, that batch operations reach all shards
+	 * and that listeners of the sharded DAO are notified once per operation
+	 *
+	 * @throws Exception re-throws every exception
+	 */
+	@Test
+	public void testRouting() throws Exception
+	{
+		List<InMemoryMockedDAOImpl> shards = createShards(3);
+		AtomicInteger idGenerator = new AtomicInteger();
+		ShardedGenericDAO<MockedDO> dao = new ShardedGenericDAO<>(MockedDO.class, shards, idGenerator::incrementAndGet);
+		List<Collection<MockedDO>> savedBatches = new ArrayList<>();
+
+		dao.registerOnSaveListener(new MockedSaveListener<MockedDO>()
+		{
+			@Override
+			public void onAfterSaved(Collection<MockedDO> dataObjectsSaved)
+			{
+				savedBatches.add(dataObjectsSaved);
+			}
+		});
+
+		List<MockedDO> dataObjects = createDataObjects(10);
+
+		dao.save(dataObjects);
+
+		Assert.assertEquals(1, savedBatches.size());
+		Assert.assertEquals(10, savedBatches.get(0).size());
+		Assert.assertEquals(3, shards.get(0).size());
+		Assert.assertEquals(4, shards.get(1).size());
+		Assert.assertEquals(3, shards.get(2).size());
+
+		for (MockedDO dataObject : dataObjects) Assert.assertTrue(shards.get(dataObject.getId() % 3).contains(dataObject.getId()));
+
+		Assert.assertEquals(3, dao.get(new int[] { 1, 2, 3 }).size());
+		Assert.assertSame(dataObjects.get(4), dao.get(5));
+		Assert.assertEquals(10, dao.getAll().size());
+		Assert.assertEquals(10, dao.count());
+
+		Page<MockedDO> page = dao.getPage(2, 4);
+
+		Assert.assertEquals(List.of(3, 4, 5, 6), page.getDataObjects().stream().map(MockedDO::getId).toList());
+		Assert.assertEquals(6, page.getNextAfterId());
+		Assert.assertTrue(page.hasNext());
+		Assert.assertFalse(dao.getPage(6, 4).hasNext());
+
+		try (Stream<MockedDO> rangeStream = dao.getRange(4, 8))
+		{
+			Assert.assertEquals(5, rangeStream.count());
+		}
+
+		try (Stream<MockedDO> dataObjectStream = dao.getAll(dataObject -> dataObject.getId() > 5))
+		{
+			Assert.assertEquals(5, dataObjectStream.count());
+		}
+
+		try (Stream<Integer> idStream = dao.projectIds(id -> id, null))
+		{
+			Assert.assertEquals(10, idStream.count());
+		}
+
+		dao.delete(new int[] { 1, 2, 3, 4 });
+
+		Assert.assertEquals(2, shards.get(0).size());
+		Assert.assertEquals(2, shards.get(1).size());
+		Assert.assertEquals(2, shards.get(2).size());
+
+		dao.clear();
+
+		for (InMemoryMockedDAOImpl shard : shards) Assert.assertEquals(0, shard.size());
+	}
+
+	/**
+	 * Asserts that the default shard function uses the shards given at construction time, even if the given list changes later
+	 *
+	 * @throws Exception re-throws every exception
+	 */
+	@Test
+	public void testDefaultShardFunctionIgnoresLaterChanges() throws Exception
+	{
+		List<InMemoryMockedDAOImpl> shards = createShards(3);
+		AtomicInteger idGenerator = new AtomicInteger();
+		ShardedGenericDAO<MockedDO> dao = new ShardedGenericDAO<>(MockedDO.class, shards, idGenerator::incrementAndGet);
+
+		shards.add(new InMemoryMockedDAOImpl());
+		dao.save(createDataObjects(4));
+
+		Assert.assertEquals(3, dao.getShards().size());
+		Assert.assertEquals(0, shards.get(3).size());
+		Assert.assertEquals(2, shards.get(1).size());
+		Assert.assertEquals(4, dao.count());
+	}
+
+	/**
+	 * Asserts that a custom shard function is applied and that an invalid shard index is reported as {@link DALException}
+	 *
+	 * @throws Exception re-throws every exception
+	 */
+	@Test
+	public void testShardFunction() throws Exception
+	{
+		List<InMemoryMockedDAOImpl> shards = createShards(2);
+		AtomicInteger idGenerator = new AtomicInteger();
+		ShardedGenericDAO<MockedDO> dao = new ShardedGenericDAO<>(MockedDO.class, shards, id -> (id <= 5) ? 0 : (id <= 10) ? 1 : 2, idGenerator::incrementAndGet);
+
+		dao.save(createDataObjects(10));
+
+		Assert.assertEquals(5, shards.get(0).size());
+		Assert.assertEquals(5, shards.get(1).size());
+
+		try
+		{
+			dao.get(11);
+
+			Assert.fail();
+		}
+		catch (DALException e)
+		{
+			Assert.assertTrue(e.getCause() instanceof IllegalStateException);
+		}
+	}
+}
@@ -0,0 +1,116 @@
+package com.schoste.ddd.infrastructure.dal.v2.services;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.schoste.ddd.infrastructure.dal.v2.exceptions.DALException;
+import com.schoste.ddd.infrastructure.dal.v2.models.MockedDO;
+import com.schoste.ddd.infrastructure.dal.v2.services.mocked.InstrumentedMockedDAOImpl;
+
+/**
+ * Test class of the {@link UnitOfWork} and {@link GroupCommitter} classes
+ */
+public class UnitOfWorkTest
+{
+	/**
+	 * Asserts that the operations of a unit of work are deduplicated by id and written with one save and one delete
+	 *
+	 * @throws Exception re-throws every exception
+	 */
+	@Test
+	public void testCommit() throws Exception
+	{
+		InstrumentedMockedDAOImpl dao = InstrumentedMockedDAOImpl.create(5);
+		UnitOfWork<MockedDO> unitOfWork = dao.createUnitOfWork();
+		MockedDO newDataObject = new MockedDO();
+		MockedDO discardedDataObject = new MockedDO();
+
+		unitOfWork.save(dao.get(1));
+		unitOfWork.save(dao.get(1));
+		unitOfWork.save(newDataObject);
+		unitOfWork.save(newDataObject);
+		unitOfWork.save(discardedDataObject);
+		unitOfWork.delete(discardedDataObject);
+		unitOfWork.delete(2);
+		unitOfWork.delete(3);
+		unitOfWork.save(dao.get(3));
+		unitOfWork.delete(dao.get(4));
+
+		Assert.assertEquals(3, unitOfWork.getPendingSaveCount());
+		Assert.assertEquals(2, unitOfWork.getPendingDeleteCount());
+
+		unitOfWork.commit();
+
+		Assert.assertEquals(1, dao.getSavedBatches().size());
+		Assert.assertEquals(3, dao.getSavedBatches().get(0).size());
+		Assert.assertEquals(1, dao.getDeletedBatches().size());
+		Assert.assertArrayEquals(new int[] { 2, 4 }, dao.getDeletedBatches().get(0));
+		Assert.assertEquals(6, newDataObject.getId());
+		Assert.assertTrue(discardedDataObject.getId() < 1);
+		Assert.assertEquals(4, dao.size());
+		Assert.assertEquals(0, unitOfWork.getPendingSaveCount());
+		Assert.assertEquals(0, unitOfWork.getPendingDeleteCount());
+
+		unitOfWork.commit();
+
+		Assert.assertEquals(1, dao.getSavedBatches().size());
+	}
+
+	/**
+	 * Asserts that units of work committed concurrently are written with shared saves and deletes
+	 *
+	 * @throws Exception re-throws every exception
+	 */
+	@Test
+	public void testGroupCommit() throws Exception
+	{
+		InstrumentedMockedDAOImpl dao = InstrumentedMockedDAOImpl.create(20);
+		List<Thread> threads = new ArrayList<>();
+		CountDownLatch start = new CountDownLatch(1);
+		AtomicInteger numOfCommits = new AtomicInteger();
+
+		dao.setGroupCommitter(new GroupCommitter<>(10, 200, TimeUnit.MILLISECONDS));
+
+		for (int i = 1; i <= 10; i++)
+		{
+			int id = i;
+
+			threads.add(Thread.ofVirtual().start(() ->
+			{
+				try
+				{
+					UnitOfWork<MockedDO> unitOfWork = dao.createUnitOfWork();
+
+					unitOfWork.save(dao.get(id));
+					unitOfWork.delete(id + 10);
+					start.await();
+					unitOfWork.commit();
+
+					numOfCommits.incrementAndGet();
+				}
+				catch (DALException | InterruptedException e)
+				{
+					e.printStackTrace(System.err);
+				}
+			}));
+		}
+
+		start.countDown();
+
+		for (Thread thread : threads) thread.join();
+
+		Assert.assertEquals(10, numOfCommits.get());
+		Assert.assertEquals(10, dao.size());
+		Assert.assertEquals(dao.getSavedBatches().size(), dao.getGroupCommitter().getGroupCount());
+		Assert.assertTrue(dao.getSavedBatches().size() < 10);
+		Assert.assertEquals(10, dao.getSavedBatches().stream().mapToInt(Collection::size).sum());
+		Assert.assertEquals(10, dao.getDeletedBatches().stream().mapToInt(ids -> ids.length).sum());
+	}
+}
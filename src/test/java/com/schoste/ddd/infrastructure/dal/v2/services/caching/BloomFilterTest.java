@@ -0,0 +1,100 @@
+package com.schoste.ddd.infrastructure.dal.v2.services.caching;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.schoste.ddd.infrastructure.dal.v2.models.MockedDO;
+import com.schoste.ddd.infrastructure.dal.v2.services.LazyLoader;
+import com.schoste.ddd.infrastructure.dal.v2.services.mocked.InstrumentedMockedDAOImpl;
+
+/**
+ * Test class of the {@link BloomFilter} class
+ */
+public class BloomFilterTest
+{
+	/**
+	 * Asserts that added ids are always reported and that the rate of false positives is close to the configured probability
+	 *
+	 * @throws Exception re-throws every exception
+	 */
+	@Test
+	public void testFalsePositives() throws Exception
+	{
+		BloomFilter bloomFilter = new BloomFilter(10_000, 0.01);
+		int numOfFalsePositives = 0;
+
+		for (int id = 1; id <= 10_000; id++) bloomFilter.put(id);
+		for (int id = 1; id <= 10_000; id++) Assert.assertTrue(bloomFilter.mightContain(id));
+		for (int id = 10_001; id <= 110_000; id++) if (bloomFilter.mightContain(id)) numOfFalsePositives++;
+
+		Assert.assertTrue(numOfFalsePositives < 2_000);
+		Assert.assertEquals(7, bloomFilter.getHashCount());
+
+		bloomFilter.clear();
+
+		Assert.assertFalse(bloomFilter.mightContain(1));
+		Assert.assertEquals(0, bloomFilter.getPutCount());
+	}
+
+	/**
+	 * Asserts that a DAO answers definite negatives without loading and knows the ids of existing and saved data objects
+	 *
+	 * @throws Exception re-throws every exception
+	 */
+	@Test
+	public void testDAO() throws Exception
+	{
+		InstrumentedMockedDAOImpl dao = new InstrumentedMockedDAOImpl();
+
+		dao.save(new MockedDO());
+		dao.save(new MockedDO());
+		dao.setBloomFilter(new BloomFilter(100, 0.0001));
+
+		Assert.assertTrue(dao.exists(1));
+		Assert.assertTrue(dao.existsAll(new int[] { 1, 2 }));
+		Assert.assertEquals(1, dao.getNumOfSingleLoads());
+
+		Assert.assertFalse(dao.exists(3));
+		Assert.assertFalse(dao.existsAll(new int[] { 1, 3 }));
+		Assert.assertEquals(1, dao.getNumOfSingleLoads());
+
+		dao.save(new MockedDO());
+
+		Assert.assertTrue(dao.exists(3));
+		Assert.assertEquals(2, dao.getNumOfSingleLoads());
+
+		dao.clear();
+
+		Assert.assertFalse(dao.exists(1));
+		Assert.assertEquals(2, dao.getNumOfSingleLoads());
+	}
+
+	/**
+	 * Asserts that a data object saved while the Bloom filter is filled is not reported as missing
+	 *
+	 * @throws Exception re-throws every exception
+	 */
+	@Test
+	public void testSaveWhileFilling() throws Exception
+	{
+		InstrumentedMockedDAOImpl dao = new InstrumentedMockedDAOImpl()
+		{
+			@Override
+			protected LazyLoader<Integer, MockedDO> createReusingLazyLoader() throws Exception
+			{
+				LazyLoader<Integer, MockedDO> ll = super.createReusingLazyLoader();
+
+				// saved after the lazy loader took its snapshot of the ids
+				this.save(new MockedDO());
+
+				return ll;
+			}
+		};
+
+		dao.save(new MockedDO());
+		dao.setBloomFilter(new BloomFilter(100, 0.0001));
+
+		Assert.assertTrue(dao.exists(2));
+		Assert.assertEquals(1, dao.getNumOfSingleLoads());
+	}
+}
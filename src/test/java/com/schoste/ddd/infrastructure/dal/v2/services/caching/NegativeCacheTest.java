@@ -0,0 +1,90 @@
+package com.schoste.ddd.infrastructure.dal.v2.services.caching;
+
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.schoste.ddd.infrastructure.dal.v2.models.MockedDO;
+import com.schoste.ddd.infrastructure.dal.v2.services.mocked.InstrumentedMockedDAOImpl;
+
+/**
+ * Test class of the {@link NegativeCache} class
+ */
+public class NegativeCacheTest
+{
+	/**
+	 * Asserts that ids are forgotten after their time to live, when invalidated and when the capacity is exceeded
+	 *
+	 * @throws Exception re-throws every exception
+	 */
+	@Test
+	public void testBounds() throws Exception
+	{
+		NegativeCache negativeCache = new NegativeCache(2, 50, TimeUnit.MILLISECONDS);
+
+		Assert.assertTrue(negativeCache.recordMiss(1, negativeCache.getInvalidationStamp()));
+		Assert.assertTrue(negativeCache.recordMiss(2, negativeCache.getInvalidationStamp()));
+		Assert.assertTrue(negativeCache.recordMiss(3, negativeCache.getInvalidationStamp()));
+		Assert.assertEquals(2, negativeCache.size());
+		Assert.assertFalse(negativeCache.isMissing(1));
+		Assert.assertTrue(negativeCache.isMissing(2));
+		Assert.assertTrue(negativeCache.isMissing(3));
+
+		negativeCache.invalidate(2);
+
+		Assert.assertFalse(negativeCache.isMissing(2));
+		Assert.assertEquals(1, negativeCache.size());
+
+		Thread.sleep(60);
+
+		Assert.assertFalse(negativeCache.isMissing(3));
+		Assert.assertEquals(0, negativeCache.size());
+		Assert.assertEquals(2, negativeCache.getHits());
+	}
+
+	/**
+	 * Asserts that a miss is not recorded if an id was invalidated while the data source was asked
+	 *
+	 * @throws Exception re-throws every exception
+	 */
+	@Test
+	public void testStaleMiss() throws Exception
+	{
+		NegativeCache negativeCache = new NegativeCache(10, 1, TimeUnit.MINUTES);
+		long invalidationStamp = negativeCache.getInvalidationStamp();
+
+		negativeCache.invalidate(1);
+
+		Assert.assertFalse(negativeCache.recordMiss(1, invalidationStamp));
+		Assert.assertFalse(negativeCache.isMissing(1));
+	}
+
+	/**
+	 * Asserts that a DAO asks the data source for a missing id only once and finds the data object after it was saved
+	 *
+	 * @throws Exception re-throws every exception
+	 */
+	@Test
+	public void testDAO() throws Exception
+	{
+		InstrumentedMockedDAOImpl dao = new InstrumentedMockedDAOImpl();
+
+		dao.setNegativeCache(new NegativeCache(10, 1, TimeUnit.MINUTES));
+
+		Assert.assertNull(dao.get(1));
+		Assert.assertNull(dao.get(1));
+		Assert.assertEquals(1, dao.getNumOfSingleLoads());
+		Assert.assertTrue(dao.get(new int[] { 1 }).isEmpty());
+
+		dao.save(new MockedDO());
+
+		Assert.assertEquals(1, dao.get(1).getId());
+		Assert.assertEquals(2, dao.getNumOfSingleLoads());
+		Assert.assertNull(dao.get(2));
+
+		dao.clear();
+
+		Assert.assertEquals(0, dao.getNegativeCache().size());
+	}
+}
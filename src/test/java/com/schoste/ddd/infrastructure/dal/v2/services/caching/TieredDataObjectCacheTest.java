@@ -0,0 +1,146 @@
+package com.schoste.ddd.infrastructure.dal.v2.services.caching;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.schoste.ddd.infrastructure.dal.v2.models.MockedDO;
+
+/**
+ * Test class of the {@link TieredDataObjectCache} and {@link OffHeapSlabStore} classes
+ */
+public class TieredDataObjectCacheTest
+{
+	protected static MockedDO createDataObject(int id, String exampleStringProperty)
+	{
+		MockedDO dataObject = new MockedDO();
+
+		dataObject.setId(id);
+		dataObject.setExampleStringProperty(exampleStringProperty);
+
+		return dataObject;
+	}
+
+	/**
+	 * Asserts that data objects evicted from L1 are kept serialized in L2 and moved back to L1 when they are requested
+	 *
+	 * @throws Exception re-throws every exception
+	 */
+	@Test
+	public void testPromotionFromL2() throws Exception
+	{
+		TieredDataObjectCache<MockedDO> cache = new TieredDataObjectCache<>(2, 64 * 1024, 4);
+		MockedDO first = createDataObject(1, "first");
+
+		cache.put(first);
+		cache.put(createDataObject(2, "second"));
+		cache.put(createDataObject(3, "third"));
+
+		Assert.assertEquals(2, cache.getL1Size());
+		Assert.assertEquals(1, cache.getL2Size());
+
+		MockedDO promoted = cache.get(1);
+
+		Assert.assertNotSame(first, promoted);
+		Assert.assertEquals(1, promoted.getId());
+		Assert.assertEquals("first", promoted.getExampleStringProperty());
+		Assert.assertEquals(1, cache.getL2Hits());
+		Assert.assertEquals(2, cache.getL1Size());
+		Assert.assertEquals(1, cache.getL2Size());
+		Assert.assertNotSame(promoted, cache.get(1));
+		Assert.assertEquals(1, cache.getL1Hits());
+		Assert.assertNull(cache.get(4));
+		Assert.assertEquals(1, cache.getMisses());
+	}
+
+	/**
+	 * Asserts that the cache holds snapshots, so neither changes of a cached data object after it was put
+	 * nor changes of a data object returned by the cache are visible to later callers
+	 *
+	 * @throws Exception re-throws every exception
+	 */
+	@Test
+	public void testSnapshots() throws Exception
+	{
+		TieredDataObjectCache<MockedDO> cache = new TieredDataObjectCache<>(2, 64 * 1024, 4);
+		MockedDO dataObject = createDataObject(1, "cached");
+
+		cache.put(dataObject);
+		dataObject.setExampleStringProperty("changed after put");
+
+		MockedDO first = cache.get(1);
+
+		Assert.assertEquals("cached", first.getExampleStringProperty());
+
+		first.setExampleStringProperty("changed by caller");
+
+		Assert.assertEquals("cached", cache.get(1).getExampleStringProperty());
+		Assert.assertEquals(2, cache.getL1Hits());
+	}
+
+	/**
+	 * Asserts that invalidated data objects are removed from both levels and that data objects loaded
+	 * before an invalidation are not cached
+	 *
+	 * @throws Exception re-throws every exception
+	 */
+	@Test
+	public void testInvalidation() throws Exception
+	{
+		TieredDataObjectCache<MockedDO> cache = new TieredDataObjectCache<>(1, 64 * 1024, 2);
+
+		cache.put(createDataObject(1, "first"));
+		cache.put(createDataObject(2, "second"));
+		cache.invalidate(1);
+		cache.invalidate(2);
+
+		Assert.assertNull(cache.get(1));
+		Assert.assertNull(cache.get(2));
+
+		long invalidationStamp = cache.getInvalidationStamp();
+
+		cache.invalidate(3);
+
+		Assert.assertFalse(cache.put(createDataObject(3, "stale"), invalidationStamp));
+		Assert.assertNull(cache.get(3));
+		Assert.assertTrue(cache.put(createDataObject(3, "current"), cache.getInvalidationStamp()));
+		Assert.assertNotNull(cache.get(3));
+
+		cache.clear();
+
+		Assert.assertEquals(0, cache.getL1Size());
+		Assert.assertEquals(0, cache.getL2Size());
+	}
+
+	/**
+	 * Asserts that the slab store evicts its oldest slab as a whole once all slabs are full,
+	 * and never allocates more than the configured slabs
+	 *
+	 * @throws Exception re-throws every exception
+	 */
+	@Test
+	public void testSlabEviction() throws Exception
+	{
+		OffHeapSlabStore store = new OffHeapSlabStore(64, 3);
+		byte[] entry = new byte[28];
+
+		for (int id = 1; id <= 6; id++)
+		{
+			entry[0] = (byte) id;
+
+			Assert.assertTrue(store.put(id, entry));
+		}
+
+		Assert.assertEquals(6, store.size());
+		Assert.assertEquals(3 * 64, store.getAllocatedBytes());
+
+		store.put(7, entry);
+
+		Assert.assertEquals(2, store.getEvictedCount());
+		Assert.assertNull(store.get(1));
+		Assert.assertNull(store.get(2));
+		Assert.assertEquals(3, store.get(3)[0]);
+		Assert.assertEquals(5, store.size());
+		Assert.assertEquals(3 * 64, store.getAllocatedBytes());
+		Assert.assertFalse(store.put(8, new byte[64]));
+	}
+}
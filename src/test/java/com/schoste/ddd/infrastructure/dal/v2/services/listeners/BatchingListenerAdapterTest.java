@@ -0,0 +1,114 @@
+package com.schoste.ddd.infrastructure.dal.v2.services.listeners;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.schoste.ddd.infrastructure.dal.v2.models.MockedDO;
+
+/**
+ * Test class of the {@link BatchingListenerAdapter} class
+ */
+public class BatchingListenerAdapterTest
+{
+	/**
+	 * Records every batch delivered by the adapter
+	 */
+	protected static class BatchRecorder
+	{
+		protected final List<List<Integer>> savedBatches = new ArrayList<>();
+		protected final List<List<Integer>> deletedBatches = new ArrayList<>();
+		protected final CountDownLatch delivered = new CountDownLatch(1);
+
+		protected final MockedSaveListener<MockedDO> saveListener = new MockedSaveListener<MockedDO>()
+		{
+			@Override
+			public void onAfterSaved(Collection<MockedDO> dataObjectsSaved)
+			{
+				savedBatches.add(dataObjectsSaved.stream().map(MockedDO::getId).collect(Collectors.toList()));
+				delivered.countDown();
+			}
+		};
+
+		protected final MockedDeleteListener<MockedDO> deleteListener = new MockedDeleteListener<MockedDO>()
+		{
+			@Override
+			public void onAfterDeleted(int[] dataObjectIdsDeleted)
+			{
+				deletedBatches.add(Arrays.stream(dataObjectIdsDeleted).boxed().collect(Collectors.toList()));
+				delivered.countDown();
+			}
+		};
+	}
+
+	protected static MockedDO createDataObject(int id)
+	{
+		MockedDO dataObject = new MockedDO();
+
+		dataObject.setId(id);
+
+		return dataObject;
+	}
+
+	/**
+	 * Asserts that a window is delivered once it contains maxBatchSize distinct ids
+	 * and that repeated ids are merged
+	 *
+	 * @throws Exception re-throws every exception
+	 */
+	@Test
+	public void testDeliversFullWindows() throws Exception
+	{
+		BatchRecorder recorder = new BatchRecorder();
+
+		try (BatchingListenerAdapter<MockedDO> adapter = new BatchingListenerAdapter<>(recorder.saveListener, recorder.deleteListener, 3, 1, TimeUnit.HOURS))
+		{
+			adapter.onAfterSaved(createDataObject(1));
+			adapter.onAfterSaved(createDataObject(1));
+			adapter.onAfterSaved(createDataObject(2));
+
+			Assert.assertTrue(recorder.savedBatches.isEmpty());
+
+			adapter.onAfterDeleted(new int[] { 2, 3 });
+
+			Assert.assertEquals(List.of(List.of(1)), recorder.savedBatches);
+			Assert.assertEquals(List.of(List.of(2, 3)), recorder.deletedBatches);
+
+			adapter.onAfterSaved(List.of(createDataObject(4), createDataObject(5)));
+		}
+
+		Assert.assertEquals(List.of(List.of(1), List.of(4, 5)), recorder.savedBatches);
+		Assert.assertEquals(1, recorder.deletedBatches.size());
+	}
+
+	/**
+	 * Asserts that a window which does not get full is delivered after maxDelay
+	 *
+	 * @throws Exception re-throws every exception
+	 */
+	@Test
+	public void testDeliversWindowsAfterDelay() throws Exception
+	{
+		BatchRecorder recorder = new BatchRecorder();
+
+		try (BatchingListenerAdapter<MockedDO> adapter = new BatchingListenerAdapter<>(recorder.saveListener, recorder.deleteListener, 100, 20, TimeUnit.MILLISECONDS))
+		{
+			adapter.onAfterSaved(createDataObject(1));
+			adapter.onAfterDeleted(createDataObject(2));
+
+			Assert.assertTrue(recorder.delivered.await(10, TimeUnit.SECONDS));
+
+			adapter.flush();
+
+			Assert.assertEquals(List.of(List.of(1)), recorder.savedBatches);
+			Assert.assertEquals(List.of(List.of(2)), recorder.deletedBatches);
+		}
+	}
+}
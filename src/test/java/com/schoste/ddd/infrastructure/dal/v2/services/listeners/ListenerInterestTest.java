@@ -0,0 +1,74 @@
+package com.schoste.ddd.infrastructure.dal.v2.services.listeners;
+
+import java.util.List;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.schoste.ddd.infrastructure.dal.v2.models.MockedDO;
+import com.schoste.ddd.infrastructure.dal.v2.services.listeners.ListenerInterest.Phase;
+
+/**
+ * Test class of the {@link ListenerInterest} class
+ */
+public class ListenerInterestTest
+{
+	protected static MockedDO createDataObject(int id, String exampleStringProperty)
+	{
+		MockedDO dataObject = new MockedDO();
+
+		dataObject.setId(id);
+		dataObject.setExampleStringProperty(exampleStringProperty);
+
+		return dataObject;
+	}
+
+	/**
+	 * Asserts that an interest without restrictions selects everything without copying
+	 *
+	 * @throws Exception re-throws every exception
+	 */
+	@Test
+	public void testAll() throws Exception
+	{
+		ListenerInterest<MockedDO> interest = ListenerInterest.all();
+		int[] ids = new int[] { 1, 2, 3 };
+		List<MockedDO> dataObjects = List.of(createDataObject(1, "a"));
+
+		Assert.assertTrue(interest.includes(Phase.BEFORE));
+		Assert.assertTrue(interest.includes(Phase.AFTER));
+		Assert.assertSame(ids, interest.select(ids));
+		Assert.assertNull(interest.select((int[]) null));
+		Assert.assertSame(dataObjects, interest.select(dataObjects));
+		Assert.assertTrue(interest.matches((MockedDO) null));
+	}
+
+	/**
+	 * Asserts that the restrictions of an interest are combined
+	 *
+	 * @throws Exception re-throws every exception
+	 */
+	@Test
+	public void testRestrictions() throws Exception
+	{
+		ListenerInterest<MockedDO> interest = ListenerInterest.<MockedDO>all()
+			.withPhases(Phase.AFTER)
+			.withIdRange(10, 20)
+			.withIds(5, 12, 15, 18)
+			.withPredicate(dataObject -> !"skip".equals(dataObject.getExampleStringProperty()));
+
+		Assert.assertFalse(interest.includes(Phase.BEFORE));
+		Assert.assertTrue(interest.includes(Phase.AFTER));
+		Assert.assertFalse(interest.matches(5));
+		Assert.assertFalse(interest.matches(13));
+		Assert.assertTrue(interest.matches(15));
+		Assert.assertArrayEquals(new int[] { 12, 18 }, interest.select(new int[] { 1, 12, 13, 18, 25 }));
+		Assert.assertArrayEquals(new int[0], interest.select((int[]) null));
+
+		MockedDO included = createDataObject(12, "keep");
+		List<MockedDO> selected = List.copyOf(interest.select(List.of(createDataObject(11, "keep"), included, createDataObject(15, "skip"))));
+
+		Assert.assertEquals(1, selected.size());
+		Assert.assertSame(included, selected.get(0));
+	}
+}
@@ -0,0 +1,121 @@
+package com.schoste.ddd.infrastructure.dal.v2.services.listeners;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.schoste.ddd.infrastructure.dal.v2.services.listeners.OrderedListenerExecutor.BackpressurePolicy;
+
+/**
+ * Test class of the {@link OrderedListenerExecutor} class
+ */
+public class OrderedListenerExecutorTest
+{
+	/**
+	 * Asserts that notifications are executed in the order of their submission, in another thread,
+	 * and that a failing notification does not stop the following ones
+	 *
+	 * @throws Exception re-throws every exception
+	 */
+	@Test
+	public void testExecutesInOrder() throws Exception
+	{
+		List<Integer> executed = new ArrayList<>();
+		Thread callingThread = Thread.currentThread();
+
+		try (OrderedListenerExecutor executor = new OrderedListenerExecutor(4, BackpressurePolicy.BLOCK))
+		{
+			for (int i = 0; i < 100; i++)
+			{
+				int number = i;
+
+				executor.execute(() ->
+				{
+					Assert.assertNotSame(callingThread, Thread.currentThread());
+
+					if (number == 50) throw new IllegalStateException("testExecutesInOrder");
+
+					executed.add(number);
+				});
+			}
+
+			executor.flush();
+
+			Assert.assertEquals(IntStream.range(0, 100).filter(i -> i != 50).boxed().collect(Collectors.toList()), executed);
+			Assert.assertEquals(0, executor.getPendingCount());
+		}
+	}
+
+	/**
+	 * Asserts that notifications submitted to a full queue are dropped or rejected depending on the policy
+	 *
+	 * @throws Exception re-throws every exception
+	 */
+	@Test
+	public void testBackpressurePolicies() throws Exception
+	{
+		for (BackpressurePolicy backpressurePolicy : new BackpressurePolicy[] { BackpressurePolicy.DISCARD, BackpressurePolicy.ABORT })
+		{
+			CountDownLatch blocked = new CountDownLatch(1);
+			CountDownLatch started = new CountDownLatch(1);
+			List<Integer> executed = new ArrayList<>();
+
+			try (OrderedListenerExecutor executor = new OrderedListenerExecutor(1, backpressurePolicy))
+			{
+				executor.execute(() ->
+				{
+					started.countDown();
+
+					try
+					{
+						blocked.await();
+					}
+					catch (InterruptedException e)
+					{
+						Thread.currentThread().interrupt();
+					}
+				});
+
+				started.await();
+				executor.execute(() -> executed.add(1));
+
+				try
+				{
+					executor.execute(() -> executed.add(2));
+
+					Assert.assertEquals(BackpressurePolicy.DISCARD, backpressurePolicy);
+					Assert.assertEquals(1, executor.getDiscardedCount());
+				}
+				catch (RejectedExecutionException e)
+				{
+					Assert.assertEquals(BackpressurePolicy.ABORT, backpressurePolicy);
+				}
+
+				blocked.countDown();
+				executor.flush();
+
+				Assert.assertEquals(List.of(1), executed);
+			}
+		}
+	}
+
+	/**
+	 * Asserts that a closed executor rejects notifications
+	 *
+	 * @throws Exception re-throws every exception
+	 */
+	@Test(expected = RejectedExecutionException.class)
+	public void testClosedExecutorRejects() throws Exception
+	{
+		OrderedListenerExecutor executor = new OrderedListenerExecutor();
+
+		executor.close();
+		executor.execute(() -> { });
+	}
+}
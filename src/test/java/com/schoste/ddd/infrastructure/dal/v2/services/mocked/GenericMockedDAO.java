@@ -3,12 +3,18 @@ package com.schoste.ddd.infrastructure.dal.v2.services.mocked;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Comparator;
-import java.util.HashMap;
-import java.util.Map;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NavigableMap;
+import java.util.Objects;
+import java.util.TreeMap;
 
 import com.schoste.ddd.infrastructure.dal.v2.services.GenericDAO;
 import com.schoste.ddd.infrastructure.dal.v2.models.GenericDataObject;
 import com.schoste.ddd.infrastructure.dal.v2.services.GenericDataAccessObject;
+import com.schoste.ddd.infrastructure.dal.v2.services.IdListLazyLoader;
+import com.schoste.ddd.infrastructure.dal.v2.services.LazyLoader;
+import com.schoste.ddd.infrastructure.dal.v2.services.Page;
 
 /**
  * Mocking implementation of the GenericDataAccessObject interface.
@@ -24,7 +30,7 @@ import com.schoste.ddd.infrastructure.dal.v2.services.GenericDataAccessObject;
  */
 public abstract class GenericMockedDAO<T extends GenericDataObject> extends GenericDAO<T> implements GenericDataAccessObject<T> 
 {
-	protected Map<Integer, T> dataObjects = new HashMap<Integer, T>();
+	protected NavigableMap<Integer, T> dataObjects = new TreeMap<Integer, T>();
 	
 	protected int lastDataObjectId = 0;
 	
@@ -150,6 +156,54 @@ public abstract class GenericMockedDAO<T extends GenericDataObject> extends Gene
 		for (int dataObjectId : dataObjectIds) this.dataObjects.remove(dataObjectId);
 	}
 
+	/**
+	 * {@inheritDoc}
+	 * Seeks afterId in the sorted map of data objects, so only the data objects of the page are visited.
+	 */
+	@Override
+	protected synchronized Page<T> doGetPage(int afterId, int limit) throws Exception
+	{
+		List<T> page = new ArrayList<>(limit);
+		Iterator<T> tail = this.dataObjects.tailMap(afterId, false).values().iterator();
+
+		while ((page.size() < limit) && tail.hasNext()) page.add(tail.next());
+
+		int nextAfterId = page.isEmpty() ? afterId : page.get(page.size() - 1).getId();
+
+		return new Page<>(page, nextAfterId, tail.hasNext());
+	}
+
+	/**
+	 * Gets a page via the default implementation of {@link GenericDAO#doGetPage(int, int)}, which scans all ids,
+	 * for tests of that implementation
+	 * 
+	 * @param afterId the id after which the page starts
+	 * @param limit the maximum number of data objects of the page
+	 * @return the page
+	 * @throws Exception re-throws every exception
+	 */
+	protected Page<T> scanPage(int afterId, int limit) throws Exception
+	{
+		return super.doGetPage(afterId, limit);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 * Seeks the range in the sorted map of data objects.
+	 */
+	@Override
+	protected synchronized LazyLoader<Integer, T> doGetRange(int fromId, int toId) throws Exception
+	{
+		int[] ids = this.dataObjects.subMap(fromId, true, toId, true).keySet().stream().mapToInt(Integer::intValue).toArray();
+
+		return new IdListLazyLoader<>(ids, this::getChunk, RANGE_CHUNK_SIZE);
+	}
+
+	protected synchronized List<T> getChunk(List<Integer> ids)
+	{
+		return ids.stream().map(this.dataObjects::get).filter(Objects::nonNull).toList();
+	}
+
 	/**
 	 * {@inheritDoc}
 	 */
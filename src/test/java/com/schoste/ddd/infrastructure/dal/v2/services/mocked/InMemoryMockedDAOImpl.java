@@ -0,0 +1,88 @@
+package com.schoste.ddd.infrastructure.dal.v2.services.mocked;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.util.ArrayList;
+import java.util.Map;
+
+import com.schoste.ddd.infrastructure.dal.v2.models.MockedDO;
+import com.schoste.ddd.infrastructure.dal.v2.services.LazyLoader;
+
+/**
+ * Example data access object implementation which works without an application context,
+ * so tests can create as many independent instances as they need (for instance as backing DAOs of another DAO)
+ */
+public class InMemoryMockedDAOImpl extends GenericMockedDAO<MockedDO>
+{
+	/**
+	 * Creates a new data object
+	 *
+	 * @return an instance to a new data object
+	 */
+	@Override
+	public MockedDO createDataObject()
+	{
+		return new MockedDO();
+	}
+
+	/**
+	 * Gets the number of stored data objects
+	 *
+	 * @return the number of data objects
+	 */
+	public synchronized int size()
+	{
+		return this.dataObjects.size();
+	}
+
+	/**
+	 * Checks if a data object is stored
+	 *
+	 * @param id the id of the data object
+	 * @return true if a data object with the id is stored
+	 */
+	public synchronized boolean contains(int id)
+	{
+		return this.dataObjects.containsKey(id);
+	}
+
+	/**
+	 * Replaces the stored data objects by copies of the data objects of another DAO, like a replica catching up with its primary.
+	 * The copies keep the time stamps of the originals.
+	 *
+	 * @param primary the DAO to copy the data objects from
+	 * @throws Exception re-throws every exception
+	 */
+	public void replicateFrom(InMemoryMockedDAOImpl primary) throws Exception
+	{
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+
+		synchronized (primary)
+		{
+			try (ObjectOutputStream out = new ObjectOutputStream(bytes))
+			{
+				out.writeObject(primary.dataObjects);
+			}
+		}
+
+		try (ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(bytes.toByteArray())))
+		{
+			@SuppressWarnings("unchecked")
+			Map<Integer, MockedDO> copies = (Map<Integer, MockedDO>) in.readObject();
+
+			synchronized (this)
+			{
+				this.dataObjects.clear();
+				this.dataObjects.putAll(copies);
+			}
+		}
+	}
+
+	@Override
+	protected synchronized LazyLoader<Integer, MockedDO> createLazyLoader() throws Exception
+	{
+		return new MockedLazyLoaderImpl(id -> this.dataObjects.get(id), new ArrayList<>(this.dataObjects.keySet()));
+	}
+}
@@ -0,0 +1,238 @@
+package com.schoste.ddd.infrastructure.dal.v2.services.mocked;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import com.schoste.ddd.infrastructure.dal.v2.models.MockedDO;
+
+/**
+ * In-memory data access object which records the calls to its data source methods, so tests can assert
+ * how often and with which arguments the DAO accessed its data source.
+ * Loads can be blocked until they are released, for tests which need loads to be in progress.
+ */
+public class InstrumentedMockedDAOImpl extends InMemoryMockedDAOImpl
+{
+	protected final AtomicInteger numOfSingleLoads = new AtomicInteger();
+	protected final List<int[]> loadedBatches = new ArrayList<>();
+	protected final AtomicInteger numOfSingleSaves = new AtomicInteger();
+	protected final List<Collection<MockedDO>> savedBatches = new ArrayList<>();
+	protected final List<Set<String>> savedDeltas = new ArrayList<>();
+	protected final List<int[]> deletedBatches = new ArrayList<>();
+	protected final Semaphore startedLoads = new Semaphore(0);
+	protected volatile CountDownLatch loadBarrier;
+
+	/**
+	 * Creates a DAO with data objects whose ids are 1 to numOfDataObjects. The saves of the data objects are not recorded.
+	 *
+	 * @param numOfDataObjects the number of data objects to save
+	 * @return a new instance of the class
+	 * @throws Exception re-throws every exception
+	 */
+	public static InstrumentedMockedDAOImpl create(int numOfDataObjects) throws Exception
+	{
+		InstrumentedMockedDAOImpl dao = new InstrumentedMockedDAOImpl();
+
+		for (int i = 0; i < numOfDataObjects; i++) dao.save(new MockedDO());
+
+		dao.resetRecords();
+
+		return dao;
+	}
+
+	/**
+	 * Forgets all recorded calls
+	 */
+	public synchronized void resetRecords()
+	{
+		this.numOfSingleLoads.set(0);
+		this.numOfSingleSaves.set(0);
+		this.savedBatches.clear();
+		this.savedDeltas.clear();
+		this.deletedBatches.clear();
+
+		synchronized (this.loadedBatches)
+		{
+			this.loadedBatches.clear();
+		}
+	}
+
+	/**
+	 * Blocks all following loads until {@link #releaseLoads()} is called
+	 */
+	public void blockLoads()
+	{
+		this.loadBarrier = new CountDownLatch(1);
+	}
+
+	/**
+	 * Releases the loads blocked since {@link #blockLoads()} was called, and lets the following loads pass
+	 */
+	public void releaseLoads()
+	{
+		CountDownLatch currentLoadBarrier = this.loadBarrier;
+
+		this.loadBarrier = null;
+
+		if (currentLoadBarrier != null) currentLoadBarrier.countDown();
+	}
+
+	/**
+	 * Waits until a load was started which was not waited for yet
+	 *
+	 * @throws InterruptedException thrown if the thread was interrupted while waiting
+	 */
+	public void awaitLoad() throws InterruptedException
+	{
+		this.startedLoads.acquire();
+	}
+
+	/**
+	 * Gets the number of loads of single data objects
+	 *
+	 * @return the number of calls to {@link #doGet(int)}
+	 */
+	public int getNumOfSingleLoads()
+	{
+		return this.numOfSingleLoads.get();
+	}
+
+	/**
+	 * Gets the number of all loads
+	 *
+	 * @return the number of calls to {@link #doGet(int)} and {@link #doGet(int[])}
+	 */
+	public int getNumOfLoads()
+	{
+		synchronized (this.loadedBatches)
+		{
+			return this.numOfSingleLoads.get() + this.loadedBatches.size();
+		}
+	}
+
+	/**
+	 * Gets the ids of the batch loads
+	 *
+	 * @return a copy of the list of the ids passed to {@link #doGet(int[])}, in the order of the calls
+	 */
+	public List<int[]> getLoadedBatches()
+	{
+		synchronized (this.loadedBatches)
+		{
+			return new ArrayList<>(this.loadedBatches);
+		}
+	}
+
+	/**
+	 * Gets the number of saves of single data objects
+	 *
+	 * @return the number of calls to {@link #doSave(MockedDO)}
+	 */
+	public int getNumOfSingleSaves()
+	{
+		return this.numOfSingleSaves.get();
+	}
+
+	/**
+	 * Gets the data objects of the batch saves
+	 *
+	 * @return a copy of the list of the data objects passed to {@link #doSave(Collection)}, in the order of the calls
+	 */
+	public synchronized List<Collection<MockedDO>> getSavedBatches()
+	{
+		return new ArrayList<>(this.savedBatches);
+	}
+
+	/**
+	 * Gets the changed properties of the delta saves
+	 *
+	 * @return a copy of the list of the changed properties passed to {@link #doSaveDelta(MockedDO, Set)}, in the order of the calls
+	 */
+	public synchronized List<Set<String>> getSavedDeltas()
+	{
+		return new ArrayList<>(this.savedDeltas);
+	}
+
+	/**
+	 * Gets the ids of the batch deletes
+	 *
+	 * @return a copy of the list of the ids passed to {@link #doDelete(int[])}, in the order of the calls
+	 */
+	public synchronized List<int[]> getDeletedBatches()
+	{
+		return new ArrayList<>(this.deletedBatches);
+	}
+
+	/**
+	 * Signals a started load and waits while loads are blocked
+	 *
+	 * @throws InterruptedException thrown if the thread was interrupted while waiting
+	 */
+	protected void startLoad() throws InterruptedException
+	{
+		this.startedLoads.release();
+
+		CountDownLatch currentLoadBarrier = this.loadBarrier;
+
+		if (currentLoadBarrier != null) currentLoadBarrier.await();
+	}
+
+	@Override
+	protected MockedDO doGet(int id) throws Exception
+	{
+		this.numOfSingleLoads.incrementAndGet();
+		this.startLoad();
+
+		return super.doGet(id);
+	}
+
+	@Override
+	protected Collection<MockedDO> doGet(int[] ids) throws Exception
+	{
+		synchronized (this.loadedBatches)
+		{
+			this.loadedBatches.add(ids);
+		}
+
+		this.startLoad();
+
+		return super.doGet(ids);
+	}
+
+	@Override
+	protected synchronized void doSave(MockedDO dataObject) throws Exception
+	{
+		this.numOfSingleSaves.incrementAndGet();
+
+		super.doSave(dataObject);
+	}
+
+	@Override
+	protected synchronized void doSave(Collection<MockedDO> dataObjects) throws Exception
+	{
+		this.savedBatches.add(new ArrayList<>(dataObjects));
+
+		// saves the data objects without recording them as single saves
+		for (MockedDO dataObject : dataObjects) super.doSave(dataObject);
+	}
+
+	@Override
+	protected synchronized void doSaveDelta(MockedDO dataObject, Set<String> changedProperties) throws Exception
+	{
+		this.savedDeltas.add(changedProperties);
+
+		super.doSave(dataObject);
+	}
+
+	@Override
+	protected synchronized void doDelete(int[] dataObjectIds) throws Exception
+	{
+		this.deletedBatches.add(dataObjectIds);
+
+		super.doDelete(dataObjectIds);
+	}
+}
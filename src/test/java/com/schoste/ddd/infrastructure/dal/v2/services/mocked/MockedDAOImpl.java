@@ -1,6 +1,8 @@
 package com.schoste.ddd.infrastructure.dal.v2.services.mocked;
 
+import java.util.function.BiConsumer;
 import java.util.function.Function;
+import java.util.function.Supplier;
 
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.context.ApplicationContext;
@@ -51,4 +53,31 @@ public class MockedDAOImpl extends GenericMockedDAO<MockedDO>
 
 		return ll;
 	}
+
+	/**
+	 * Copies the values of a stored data object into a reused data object
+	 * 
+	 * @param id the id of the stored data object
+	 * @param dataObject the reused data object to fill
+	 */
+	protected void fill(int id, MockedDO dataObject)
+	{
+		MockedDO storedDataObject = this.safeGet(id);
+
+		dataObject.setId(storedDataObject.getId());
+		dataObject.setCreatedTimeStamp(storedDataObject.getCreatedTimeStamp());
+		dataObject.setModifiedTimeStamp(storedDataObject.getModifiedTimeStamp());
+		dataObject.setIsDeleted(storedDataObject.getIsDeleted());
+		dataObject.setExampleStringProperty(storedDataObject.getExampleStringProperty());
+	}
+
+	@Override
+	protected LazyLoader<Integer, MockedDO> createReusingLazyLoader() throws Exception 
+	{
+		BiConsumer<Integer, MockedDO> ff = (id, dataObject) -> this.fill(id, dataObject);
+		Supplier<MockedDO> df = () -> this.createDataObject();
+		LazyLoader<Integer, MockedDO> ll = this.applicationContext.getBean(LazyLoader.class, ff, df, 1, this.dataObjects.keySet());
+
+		return ll;
+	}
 }
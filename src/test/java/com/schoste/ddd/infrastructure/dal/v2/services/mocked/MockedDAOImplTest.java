@@ -1,10 +1,17 @@
 package com.schoste.ddd.infrastructure.dal.v2.services.mocked;
 
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Spliterator;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
 
 import org.junit.After;
 import org.junit.Assert;
 import org.junit.Before;
+import org.junit.Test;
 import org.junit.runner.RunWith;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.test.context.ContextConfiguration;
@@ -13,12 +20,18 @@ import org.springframework.test.context.junit4.SpringJUnit4ClassRunner;
 import com.schoste.ddd.infrastructure.dal.v2.models.MockedDO;
 import com.schoste.ddd.infrastructure.dal.v2.services.GenericDAOTest;
 import com.schoste.ddd.infrastructure.dal.v2.services.GenericDataAccessObject;
+import com.schoste.ddd.infrastructure.dal.v2.services.LazyLoader;
+import com.schoste.ddd.infrastructure.dal.v2.services.Page;
+import com.schoste.ddd.infrastructure.dal.v2.services.caching.BloomFilter;
+import com.schoste.ddd.infrastructure.dal.v2.services.caching.TieredDataObjectCache;
 import com.schoste.ddd.infrastructure.dal.v2.services.listeners.DeleteListener;
 import com.schoste.ddd.infrastructure.dal.v2.services.listeners.GetListener;
+import com.schoste.ddd.infrastructure.dal.v2.services.listeners.ListenerInterest;
 import com.schoste.ddd.infrastructure.dal.v2.services.listeners.MockedDeleteListener;
 import com.schoste.ddd.infrastructure.dal.v2.services.listeners.MockedGetListener;
 import com.schoste.ddd.infrastructure.dal.v2.services.listeners.MockedReloadListener;
 import com.schoste.ddd.infrastructure.dal.v2.services.listeners.MockedSaveListener;
+import com.schoste.ddd.infrastructure.dal.v2.services.listeners.OrderedListenerExecutor;
 import com.schoste.ddd.infrastructure.dal.v2.services.listeners.ReloadListener;
 import com.schoste.ddd.infrastructure.dal.v2.services.listeners.SaveListener;
 
@@ -254,6 +267,346 @@ public class MockedDAOImplTest extends GenericDAOTest<MockedDO, MockedDAOImpl>
 		return true;
 	}
 
+	/**
+	 * Asserts that {@link MockedDAOImpl#getAll(java.util.function.Predicate)} provides the same data objects
+	 * if they are loaded ahead of the consumer by a {@link com.schoste.ddd.infrastructure.dal.v2.services.PrefetchingLazyLoader}
+	 * 
+	 * @throws Exception re-throws every exception
+	 */
+	@Test
+	public void testGetAllStreamedWithPrefetching() throws Exception
+	{
+		long expectedNumOfDOs;
+
+		try (Stream<MockedDO> doStream = this.getDataAccessObject().getAll(null))
+		{
+			expectedNumOfDOs = doStream.count();
+		}
+
+		try
+		{
+			this.getDataAccessObject().setPrefetchDepth(2);
+
+			try (Stream<MockedDO> doStream = this.getDataAccessObject().getAll(null))
+			{
+				Assert.assertEquals(expectedNumOfDOs, doStream.filter(dataObject -> dataObject.getId() > 0).count());
+			}
+		}
+		finally
+		{
+			this.getDataAccessObject().setPrefetchDepth(0);
+		}
+	}
+
+	/**
+	 * Asserts that after-listeners set to be notified asynchronously receive all data objects in the order they were saved
+	 * in another thread and that {@link MockedDAOImpl#flushListeners()} waits for their delivery
+	 * 
+	 * @throws Exception re-throws every exception
+	 */
+	@Test
+	public void testAsyncAfterListeners() throws Exception
+	{
+		List<Integer> savedIds = new ArrayList<>();
+		Thread callingThread = Thread.currentThread();
+		SaveListener<MockedDO> saveListener = new MockedSaveListener<MockedDO>()
+		{
+			@Override
+			public void onAfterSaved(MockedDO dataObjectSaved)
+			{
+				Assert.assertNotSame(callingThread, Thread.currentThread());
+
+				savedIds.add(dataObjectSaved.getId());
+			}
+		};
+
+		this.getDataAccessObject().registerOnSaveListener(saveListener);
+
+		try (OrderedListenerExecutor executor = new OrderedListenerExecutor(2, OrderedListenerExecutor.BackpressurePolicy.BLOCK))
+		{
+			this.getDataAccessObject().setAfterListenerExecutor(executor);
+
+			List<Integer> expectedIds = new ArrayList<>();
+
+			for (int i = 0; i < 20; i++)
+			{
+				MockedDO dataObject = this.createDataObject(0, "testAsyncAfterListeners");
+
+				this.getDataAccessObject().save(dataObject);
+
+				expectedIds.add(dataObject.getId());
+			}
+
+			this.getDataAccessObject().flushListeners();
+
+			Assert.assertEquals(expectedIds, savedIds);
+		}
+		finally
+		{
+			this.getDataAccessObject().setAfterListenerExecutor(null);
+		}
+	}
+
+	/**
+	 * Asserts that listeners registered with an interest are only notified about the data objects of interest
+	 * and that changes of a before-listener to its subset are applied to the saved data objects
+	 * 
+	 * @throws Exception re-throws every exception
+	 */
+	@Test
+	public void testInterestFilteredListeners() throws Exception
+	{
+		MockedSaveListener<MockedDO> afterListener = new MockedSaveListener<MockedDO>();
+		MockedSaveListener<MockedDO> beforeListener = new MockedSaveListener<MockedDO>()
+		{
+			@Override
+			public boolean onBeforeSaving(Collection<MockedDO> dataObjectsToSave)
+			{
+				super.onBeforeSaving(dataObjectsToSave);
+
+				dataObjectsToSave.removeIf(dataObject -> "dropped".equals(dataObject.getExampleStringProperty()));
+
+				return true;
+			}
+		};
+
+		this.getDataAccessObject().registerOnSaveListener(afterListener, ListenerInterest.<MockedDO>all()
+			.withPhases(ListenerInterest.Phase.AFTER)
+			.withPredicate(dataObject -> dataObject.getExampleStringProperty().startsWith("interesting")));
+		this.getDataAccessObject().registerOnSaveListener(beforeListener, ListenerInterest.<MockedDO>all()
+			.withPhases(ListenerInterest.Phase.BEFORE)
+			.withPredicate(dataObject -> !dataObject.getExampleStringProperty().startsWith("interesting")));
+
+		List<MockedDO> dataObjects = new ArrayList<>();
+
+		dataObjects.add(this.createDataObject(0, "interesting1"));
+		dataObjects.add(this.createDataObject(0, "boring"));
+		dataObjects.add(this.createDataObject(0, "dropped"));
+		dataObjects.add(this.createDataObject(0, "interesting2"));
+
+		this.getDataAccessObject().save(dataObjects);
+
+		Assert.assertEquals(3, dataObjects.size());
+		Assert.assertEquals(2, beforeListener.getDOsReceivedBeforeSaving().size());
+		Assert.assertEquals(0, beforeListener.getDOsReceivedAfterSaving().size());
+		Assert.assertEquals(0, afterListener.getDOsReceivedBeforeSaving().size());
+		Assert.assertEquals(2, afterListener.getDOsReceivedAfterSaving().size());
+		Assert.assertTrue(afterListener.getDOsReceivedAfterSaving().stream().allMatch(dataObject -> dataObject.getExampleStringProperty().startsWith("interesting")));
+		Assert.assertTrue(dataObjects.stream().allMatch(dataObject -> dataObject.getId() > 0));
+	}
+
+	/**
+	 * Asserts that asynchronous after-listeners are notified with the interest they had when the operation finished,
+	 * even if the listener is unregistered before the notification is executed
+	 * 
+	 * @throws Exception re-throws every exception
+	 */
+	@Test
+	public void testAsyncAfterListenersKeepInterest() throws Exception
+	{
+		InMemoryMockedDAOImpl dao = new InMemoryMockedDAOImpl();
+		List<Runnable> pendingTasks = new ArrayList<>();
+		MockedSaveListener<MockedDO> afterListener = new MockedSaveListener<MockedDO>();
+
+		dao.registerOnSaveListener(afterListener, ListenerInterest.<MockedDO>all()
+			.withPhases(ListenerInterest.Phase.AFTER)
+			.withPredicate(dataObject -> "interesting".equals(dataObject.getExampleStringProperty())));
+
+		// the queued notifications are executed by the test itself, so the executor does not need to be closed
+		dao.setAfterListenerExecutor(new OrderedListenerExecutor(pendingTasks::add, 16, OrderedListenerExecutor.BackpressurePolicy.ABORT));
+
+		MockedDO dataObject = dao.createDataObject();
+
+		dataObject.setExampleStringProperty("boring");
+		dao.save(dataObject);
+		dao.unregisterOnSaveListener(afterListener);
+
+		while (!pendingTasks.isEmpty()) pendingTasks.remove(0).run();
+
+		Assert.assertEquals(0, afterListener.getDOsReceivedAfterSaving().size());
+	}
+
+	/**
+	 * Asserts that data objects are served by a cache set via {@link MockedDAOImpl#setCache(TieredDataObjectCache)}
+	 * and that saved and deleted data objects are loaded from the data source again
+	 * 
+	 * @throws Exception re-throws every exception
+	 */
+	@Test
+	public void testCachedGet() throws Exception
+	{
+		TieredDataObjectCache<MockedDO> cache = new TieredDataObjectCache<>(2, 64 * 1024, 4);
+
+		try
+		{
+			this.getDataAccessObject().setCache(cache);
+
+			Collection<MockedDO> all = this.getDataAccessObject().getAll();
+			int[] ids = all.stream().mapToInt(MockedDO::getId).toArray();
+
+			Assert.assertEquals(all.size(), this.getDataAccessObject().get(ids).size());
+			Assert.assertEquals(all.size(), this.getDataAccessObject().get(ids).size());
+			Assert.assertEquals(2, cache.getL1Size());
+			Assert.assertEquals(all.size() - 2, cache.getL2Size());
+			Assert.assertEquals(all.size(), cache.getL1Hits() + cache.getL2Hits());
+
+			int[] reversedIds = new int[ids.length];
+
+			for (int i = 0; i < ids.length; i++) reversedIds[i] = ids[ids.length - 1 - i];
+
+			// a data object loaded from the data source between cached ones keeps its position
+			cache.invalidate(reversedIds[1]);
+
+			Assert.assertArrayEquals(reversedIds, this.getDataAccessObject().get(reversedIds).stream().mapToInt(MockedDO::getId).toArray());
+
+			MockedDO dataObject = this.getDataAccessObject().get(ids[0]);
+
+			dataObject.setExampleStringProperty("testCachedGet");
+
+			this.getDataAccessObject().save(dataObject);
+
+			Assert.assertEquals("testCachedGet", this.getDataAccessObject().get(ids[0]).getExampleStringProperty());
+
+			this.getDataAccessObject().delete(new int[] { ids[1] });
+
+			long misses = cache.getMisses();
+
+			this.getDataAccessObject().get(ids[1]);
+
+			Assert.assertEquals(misses + 1, cache.getMisses());
+
+			this.getDataAccessObject().clear();
+
+			Assert.assertEquals(0, cache.getL1Size() + cache.getL2Size());
+		}
+		finally
+		{
+			this.getDataAccessObject().setCache(null);
+		}
+	}
+
+	/**
+	 * Asserts that counting, paging and filling a Bloom filter work with lazy loaders which only implement
+	 * {@link java.util.Spliterator#tryAdvance(java.util.function.Consumer)} and thus do not support projections
+	 * 
+	 * @throws Exception re-throws every exception
+	 */
+	@Test
+	public void testIdsWithoutProjection() throws Exception
+	{
+		InMemoryMockedDAOImpl dao = new InMemoryMockedDAOImpl()
+		{
+			@Override
+			protected Page<MockedDO> doGetPage(int afterId, int limit) throws Exception
+			{
+				return this.scanPage(afterId, limit);
+			}
+
+			@Override
+			protected synchronized LazyLoader<Integer, MockedDO> createLazyLoader() throws Exception
+			{
+				Iterator<MockedDO> dataObjects = new ArrayList<>(this.dataObjects.values()).iterator();
+
+				return new LazyLoader<Integer, MockedDO>()
+				{
+					@Override
+					public boolean tryAdvance(Consumer<? super MockedDO> action)
+					{
+						if (!dataObjects.hasNext()) return false;
+
+						action.accept(dataObjects.next());
+
+						return true;
+					}
+
+					@Override
+					public Spliterator<MockedDO> trySplit()
+					{
+						return null;
+					}
+
+					@Override
+					public long estimateSize()
+					{
+						return Long.MAX_VALUE;
+					}
+
+					@Override
+					public int characteristics()
+					{
+						return 0;
+					}
+
+					@Override
+					public void run()
+					{
+						this.close();
+					}
+
+					@Override
+					public void close()
+					{
+						return;
+					}
+				};
+			}
+		};
+
+		for (int i = 0; i < 5; i++) dao.save(dao.createDataObject());
+
+		int[] ids = dao.getAll().stream().mapToInt(MockedDO::getId).sorted().toArray();
+
+		Assert.assertEquals(5, dao.count());
+
+		Page<MockedDO> page = dao.getPage(ids[0], 2);
+
+		Assert.assertEquals(2, page.getDataObjects().size());
+		Assert.assertEquals(ids[2], page.getNextAfterId());
+		Assert.assertTrue(page.hasNext());
+
+		BloomFilter bloomFilter = new BloomFilter(64, 0.01);
+
+		dao.setBloomFilter(bloomFilter);
+
+		Assert.assertEquals(5, bloomFilter.getPutCount());
+
+		for (int id : ids) Assert.assertTrue(dao.exists(id));
+	}
+
+	/**
+	 * Asserts that reloadChanged() provides a data object saved within the same millisecond as the latest reloaded one,
+	 * but does not provide a data object again which it already reloaded
+	 * 
+	 * @throws Exception re-throws every exception
+	 */
+	@Test
+	public void testReloadChangedWithinSameMillisecond() throws Exception
+	{
+		long modifiedTimeStamp = 1000L;
+		InMemoryMockedDAOImpl dao = new InMemoryMockedDAOImpl()
+		{
+			@Override
+			protected synchronized Collection<MockedDO> doReloadAll() throws Exception
+			{
+				return new ArrayList<>(this.dataObjects.values());
+			}
+		};
+		MockedDO dataObject1 = dao.createDataObject();
+		MockedDO dataObject2 = dao.createDataObject();
+
+		dao.save(dataObject1);
+		dataObject1.setModifiedTimeStamp(modifiedTimeStamp);
+
+		Assert.assertEquals(List.of(dataObject1.getId()), dao.reloadChanged().stream().map(MockedDO::getId).toList());
+		Assert.assertEquals(0, dao.reloadChanged().size());
+
+		dao.save(dataObject2);
+		dataObject2.setModifiedTimeStamp(modifiedTimeStamp);
+
+		Assert.assertEquals(List.of(dataObject2.getId()), dao.reloadChanged().stream().map(MockedDO::getId).toList());
+		Assert.assertEquals(0, dao.reloadChanged().size());
+	}
+
 	/**
 	 * {@inheritDoc}
 	 */
@@ -2,19 +2,22 @@ package com.schoste.ddd.infrastructure.dal.v2.services.mocked;
 
 import java.util.Collection;
 import java.util.Iterator;
+import java.util.List;
 import java.util.Spliterator;
+import java.util.function.BiConsumer;
 import java.util.function.Consumer;
 import java.util.function.Function;
+import java.util.function.Supplier;
 
 import org.springframework.beans.factory.InitializingBean;
 
 import com.schoste.ddd.infrastructure.dal.v2.models.MockedDO;
-import com.schoste.ddd.infrastructure.dal.v2.services.GenericLazyLoader;
+import com.schoste.ddd.infrastructure.dal.v2.services.ConvertingLazyLoader;
 
 /**
  * Mock implementation of {@link LazyLoader} for unit testing
  */
-public class MockedLazyLoaderImpl extends GenericLazyLoader<Integer, MockedDO> implements InitializingBean
+public class MockedLazyLoaderImpl extends ConvertingLazyLoader<Integer, MockedDO> implements InitializingBean
 {
     protected Collection<Integer> mockedDataSource;
     protected Iterator<Integer> mdsIterator;
@@ -29,16 +32,39 @@ public class MockedLazyLoaderImpl extends GenericLazyLoader<Integer, MockedDO> i
         this.mdsIterator = this.mockedDataSource.iterator();
     }
 
+    public MockedLazyLoaderImpl(Function<List<Integer>, List<MockedDO>> sourceRecordsToDataObjsConversionFn, int chunkSize, Collection<Integer> mockedDataSource)
+    {
+        super(sourceRecordsToDataObjsConversionFn, chunkSize);
+
+        if (mockedDataSource == null) throw new IllegalArgumentException();
+
+        this.mockedDataSource = mockedDataSource;
+        this.mdsIterator = this.mockedDataSource.iterator();
+    }
+
+    public MockedLazyLoaderImpl(BiConsumer<Integer, MockedDO> sourceRecordToDataObjFillFn, Supplier<MockedDO> dataObjFactory, int poolSize, Collection<Integer> mockedDataSource)
+    {
+        super(sourceRecordToDataObjFillFn, dataObjFactory, poolSize);
+
+        if (mockedDataSource == null) throw new IllegalArgumentException();
+
+        this.mockedDataSource = mockedDataSource;
+        this.mdsIterator = this.mockedDataSource.iterator();
+    }
+
     @Override
-    public boolean tryAdvance(Consumer<? super MockedDO> action) 
+    protected boolean tryAdvanceSourceRecord(Consumer<? super Integer> action) 
     {
         if (!this.mdsIterator.hasNext()) return false;
 
-        Integer nextDataObjId = this.mdsIterator.next();
-        MockedDO nextDataObj = this.sourceRecordToDataObjConversionFn.apply(nextDataObjId);
+        action.accept(this.mdsIterator.next());
 
-        action.accept(nextDataObj);
+        return true;
+    }
 
+    @Override
+    public boolean hasIdSourceRecords()
+    {
         return true;
     }
 